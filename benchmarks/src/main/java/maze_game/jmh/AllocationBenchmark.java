@@ -0,0 +1,82 @@
+package maze_game.jmh;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.statistics.AllocationStatistics;
+import maze_game.world.World;
+
+/**
+ * Benchmarks what counting the bytes every command allocates costs: the
+ * shortest win of the Maze of Astaroth with seed 7, looking around after every
+ * move, is played with the accounting of the stats alloc command off and on.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+    @Param({ "false", "true" })
+    public boolean accounting;
+
+    private OutputSink out;
+    private Parser parser;
+    private World world;
+    private List<String> commands;
+    private boolean wasEnabled;
+
+    @Setup
+    public void setup() {
+        out = new NullOutputSink();
+        parser = new Parser(InputStream.nullInputStream(), out);
+        world = Game.createRooms(new GameCreator(7));
+        commands = new ArrayList<>();
+        for (String command : new MazeSolver().solve(world).getCommands()) {
+            commands.add(command);
+            if (command.startsWith("go ")) {
+                commands.add("look");
+            }
+        }
+        wasEnabled = AllocationStatistics.global().isEnabled();
+        AllocationStatistics.global().setEnabled(accounting);
+    }
+
+    @TearDown
+    public void tearDown() {
+        AllocationStatistics.global().setEnabled(wasEnabled);
+    }
+
+    @Benchmark
+    public Game playthrough() {
+        Game game = new Game(parser, out, world);
+        for (String command : commands) {
+            game.executeTurn(parser.parseLine(command), parser.getArgument());
+        }
+        return game;
+    }
+}
@@ -0,0 +1,37 @@
+package maze_game.jmh;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Input that repeats the given lines forever, such that a parser reading from
+ * it never runs out of commands.
+ *
+ * @author Alexander Mertens
+ */
+class CannedInput extends InputStream {
+    private final byte[] script;
+    private int position;
+
+    /**
+     * @param lines The lines to be repeated, without line separators.
+     */
+    CannedInput(String... lines) {
+        script = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int read() {
+        int next = script[position] & 0xff;
+        position = (position + 1) % script.length;
+        return next;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        int count = Math.min(length, script.length - position);
+        System.arraycopy(script, position, buffer, offset, count);
+        position = (position + count) % script.length;
+        return count;
+    }
+}
@@ -0,0 +1,93 @@
+package maze_game.jmh;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.commands.Command;
+import maze_game.gameobjects.Player;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.state.GameState;
+import maze_game.world.World;
+
+/**
+ * Benchmarks forking a game state halfway through the shortest win of the
+ * Maze of Astaroth, with and without playing the next command of the win on
+ * the fork, compared with replaying the first half in a new game, which is
+ * what branching costs without forks.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForkBenchmark {
+    private OutputSink out;
+    private Parser parser;
+    private World world;
+    private List<String> prefix;
+    private GameState state;
+    private Command next;
+    private String argument;
+
+    @Setup
+    public void setup() {
+        out = new NullOutputSink();
+        parser = new Parser(InputStream.nullInputStream(), out);
+        world = Game.createRooms(new GameCreator(7));
+        List<String> commands = new MazeSolver().solve(world).getCommands();
+        prefix = commands.subList(0, commands.size() / 2);
+        state = newState();
+        play(state, prefix);
+        next = parser.parseLine(commands.get(prefix.size()));
+        argument = parser.getArgument();
+    }
+
+    @Benchmark
+    public GameState fork() {
+        return state.fork();
+    }
+
+    @Benchmark
+    public GameState forkAndPlay() {
+        GameState fork = state.fork();
+        next.execute(fork, argument);
+        return fork;
+    }
+
+    @Benchmark
+    public GameState replay() {
+        GameState replay = newState();
+        play(replay, prefix);
+        return replay;
+    }
+
+    private GameState newState() {
+        return new GameState(new Player("Alexander", ""), world.getEntrance(), out);
+    }
+
+    private void play(GameState target, List<String> commands) {
+        for (String command : commands) {
+            parser.parseLine(command).execute(target, parser.getArgument());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package maze_game.jmh;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.world.World;
+
+/**
+ * Benchmarks whole games in the Maze of Astaroth with seed 7: creating the
+ * world, creating a game, and playing the shortest win from the first command
+ * to the last, parsing every line like a session does.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    private static final long SEED = 7;
+
+    private OutputSink out;
+    private Parser parser;
+    private World world;
+    private List<String> playthrough;
+
+    @Setup
+    public void setup() {
+        out = new NullOutputSink();
+        parser = new Parser(InputStream.nullInputStream(), out);
+        world = Game.createRooms(new GameCreator(SEED));
+        playthrough = new MazeSolver().solve(world).getCommands();
+        if (!play()) {
+            throw new IllegalStateException("The playthrough should win the game");
+        }
+    }
+
+    @Benchmark
+    public World createRooms() {
+        return Game.createRooms(new GameCreator(SEED));
+    }
+
+    @Benchmark
+    public Game newGame() {
+        return new Game(parser, out, SEED);
+    }
+
+    /**
+     * Plays the shortest win in a new game in the shared world.
+     */
+    @Benchmark
+    public boolean playthrough() {
+        return play();
+    }
+
+    private boolean play() {
+        Game game = new Game(parser, out, world);
+        game.start();
+        for (String line : playthrough) {
+            game.executeTurn(parser.parseLine(line), parser.getArgument());
+        }
+        game.finish();
+        return game.isWon();
+    }
+}
@@ -0,0 +1,104 @@
+package maze_game.jmh;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.condition.VictoryCondition;
+import maze_game.flag.Flag;
+import maze_game.gameobjects.Player;
+import maze_game.gameobjects.Room;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.state.GameState;
+import maze_game.world.World;
+
+/**
+ * Benchmarks the operations a turn is made of, in the Maze of Astaroth with
+ * seed 7. The player has taken the key and found Luke, who is in the party, so
+ * every operation finds something to work with.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+    private static final List<String> PREFIX = List.of("go north", "take key", "open west", "go west", "go west",
+            "go north", "go north", "take luke");
+
+    private GameState gameState;
+    private VictoryCondition victoryCondition;
+    private Room room;
+
+    @Setup
+    public void setup() {
+        OutputSink out = new NullOutputSink();
+        World world = Game.createRooms(new GameCreator(7));
+        gameState = new GameState(new Player("Alexander", ""), world.getEntrance(), out);
+        victoryCondition = new VictoryCondition("", gameState, world.getRequiredObjectSet(), world.getExit());
+        Parser parser = new Parser(InputStream.nullInputStream(), out);
+        for (String command : PREFIX) {
+            parser.parseLine(command).execute(gameState, parser.getArgument());
+        }
+        if (gameState.findDescription("luke") == null) {
+            throw new IllegalStateException("Luke should be in the party");
+        }
+        room = world.getEntrance();
+    }
+
+    /**
+     * Goes south and back, such that the player ends where they started.
+     */
+    @Benchmark
+    public Flag goAndGoBack() {
+        gameState.go("south");
+        return gameState.goBack();
+    }
+
+    @Benchmark
+    public Flag interact() {
+        return gameState.interact("luke");
+    }
+
+    @Benchmark
+    public String findDescription() {
+        return gameState.findDescription("key");
+    }
+
+    /**
+     * Describes the room the player is in, with what it holds during play, as
+     * the look command does.
+     */
+    @Benchmark
+    public String stateDescription() {
+        return gameState.getStateDescription();
+    }
+
+    @Benchmark
+    public String roomFullDescription() {
+        return room.getFullDescription();
+    }
+
+    @Benchmark
+    public boolean victoryConditionIsSatisfied() {
+        return victoryCondition.isSatisfied();
+    }
+}
@@ -0,0 +1,82 @@
+package maze_game.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.commands.Command;
+import maze_game.commands.CommandFactory;
+import maze_game.input.CommandWord;
+import maze_game.input.CommandWords;
+import maze_game.input.Parser;
+import maze_game.input.Tokenizer;
+import maze_game.output.NullOutputSink;
+
+/**
+ * Benchmarks reading commands: the parser reading typical lines from an input
+ * stream, the tokenizer splitting such lines on its own, and the command
+ * factory handing out the command of every command word.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark {
+    private static final String[] LINES = { "go north", "  GO   North ", "take key", "look", "look party",
+            "interact a", "drop soaked book", "open west", "back", "dance wildly", "", "help me please" };
+
+    private Parser parser;
+    private Tokenizer tokenizer;
+    private char[][] lines;
+    // Index of the line tokenized next.
+    private int nextLine;
+    private CommandFactory commandFactory;
+    private CommandWord[] commandWords;
+    // Index of the command word asked for next.
+    private int next;
+
+    @Setup
+    public void setup() {
+        parser = new Parser(new CannedInput(LINES), new NullOutputSink());
+        tokenizer = new Tokenizer(new CommandWords());
+        lines = new char[LINES.length][];
+        for (int i = 0; i < LINES.length; i++) {
+            lines[i] = LINES[i].toCharArray();
+        }
+        commandFactory = new CommandFactory();
+        commandWords = CommandWord.values();
+    }
+
+    @Benchmark
+    public Command parserGetCommand() {
+        return parser.getCommand();
+    }
+
+    @Benchmark
+    public String tokenize() {
+        char[] line = lines[nextLine];
+        nextLine = nextLine + 1 == lines.length ? 0 : nextLine + 1;
+        tokenizer.tokenize(line, line.length);
+        return tokenizer.getArgument();
+    }
+
+    @Benchmark
+    public Command commandFactoryDispatch() {
+        CommandWord commandWord = commandWords[next];
+        next = next + 1 == commandWords.length ? 0 : next + 1;
+        return commandFactory.getCommand(commandWord);
+    }
+}
@@ -0,0 +1,135 @@
+package maze_game.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.Game;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.persistence.Journal;
+import maze_game.persistence.Recovery;
+
+/**
+ * Benchmarks the journal. Many sessions, each on a thread of its own, journal
+ * random commands of the Maze of Astaroth and wait for every command to be on
+ * disk, like the sessions of a host; the journal commits with its default
+ * interval, so every session waits for a few commits per second. Recovery
+ * rebuilds the sessions of a journal written beforehand, which executes every
+ * command again.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+    private static final String[] COMMANDS = { "look", "go north", "go south", "go east", "go west", "back",
+            "take key", "take crowbar", "take lever", "drop key", "open north", "open west", "open east",
+            "interact button", "interact lever", "hint", "look party", "travel entrance", "undo", "undo 3",
+            "redo" };
+    // Sessions and commands of each of them in the journal that is recovered.
+    private static final int RECOVERED_SESSIONS = 500;
+    private static final int RECOVERED_COMMANDS = 25;
+
+    private Path directory;
+    private Journal journal;
+    private AtomicLong sessions;
+    private Path written;
+
+    /**
+     * A session journaling random commands.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+        private long id;
+        private int turn;
+        private Random random;
+        private Parser parser;
+
+        @Setup
+        public void setup(JournalBenchmark benchmark) {
+            id = benchmark.sessions.getAndIncrement();
+            random = new Random(id);
+            parser = new Parser(InputStream.nullInputStream(), new NullOutputSink());
+            benchmark.journal.startSession(id, id).join();
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("maze-journal");
+        journal = new Journal(directory.resolve("commands.journal"));
+        sessions = new AtomicLong();
+        written = directory.resolve("written.journal");
+        Parser parser = new Parser(InputStream.nullInputStream(), new NullOutputSink());
+        // The records are written when the journal is closed, nothing waits for them before.
+        try (Journal recovered = new Journal(written)) {
+            for (int session = 0; session < RECOVERED_SESSIONS; session++) {
+                Random random = new Random(session);
+                recovered.startSession(session, session);
+                for (int turn = 0; turn < RECOVERED_COMMANDS; turn++) {
+                    appendRandomCommand(recovered, session, turn, random, parser);
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (var paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Journals a command and waits for it to be on disk.
+     */
+    @Benchmark
+    @Threads(64)
+    public void append(Session session) {
+        appendRandomCommand(journal, session.id, session.turn++, session.random, session.parser).join();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Long, Game> recover() throws IOException {
+        return Recovery.recover(written, null, JournalBenchmark::createGame);
+    }
+
+    private static CompletableFuture<Void> appendRandomCommand(Journal journal, long session, int turn,
+            Random random, Parser parser) {
+        parser.parseLine(COMMANDS[random.nextInt(COMMANDS.length)]);
+        return journal.append(session, turn, parser.getCommandWord(), parser.getArgument());
+    }
+
+    private static Game createGame(long session, long seed) {
+        OutputSink out = new NullOutputSink();
+        return new Game(new Parser(InputStream.nullInputStream(), out), out, seed);
+    }
+}
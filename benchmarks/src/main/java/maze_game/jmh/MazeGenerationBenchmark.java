@@ -0,0 +1,57 @@
+package maze_game.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.GameCreator;
+import maze_game.world.CompactWorld;
+import maze_game.world.MazeLayout;
+import maze_game.world.World;
+
+/**
+ * Benchmarks generating mazes of side by side rooms: the layout alone, the
+ * full world, which also creates the rooms, doors, keys, puzzles and
+ * characters, and the same maze kept in a CompactWorld.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MazeGenerationBenchmark {
+    private static final double BRAID_FACTOR = 0.1;
+
+    @Param({ "10", "100", "316", "1000" })
+    public int side;
+
+    @Benchmark
+    public MazeLayout layout() {
+        return MazeLayout.generate(side, side, BRAID_FACTOR, new Random(side));
+    }
+
+    @Benchmark
+    public World world() {
+        int rooms = side * side;
+        return new GameCreator(side).generateMaze(side, side, BRAID_FACTOR, rooms / 50, rooms / 100, 5);
+    }
+
+    @Benchmark
+    public CompactWorld compactWorld() {
+        int rooms = side * side;
+        return new GameCreator(side).generateCompactMaze(side, side, BRAID_FACTOR, rooms / 50, rooms / 100, 5);
+    }
+}
@@ -0,0 +1,149 @@
+package maze_game.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.Room;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.state.GameState;
+import maze_game.world.PagedWorld;
+import maze_game.world.World;
+
+/**
+ * Benchmarks playing a large maze read from a PagedWorld file of a million
+ * rooms in regions of 32 by 32 rooms, of which the last 64 used are kept:
+ * asking for a room of a region that's kept, by one thread and by four
+ * threads at once, and random walks through the maze, which read the regions
+ * they enter. A walk is played by a new game every 5000 moves, like the
+ * sessions of a host.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagedWorldBenchmark {
+    private static final int SIDE = 1000;
+    private static final int REGION_SIDE = 32;
+    private static final int RESIDENT_REGIONS = 64;
+    // The rooms of 8 by 8 regions, which stay in memory.
+    private static final int RESIDENT_SIDE = 8 * REGION_SIDE;
+    private static final int MOVES_PER_GAME = 5000;
+    private static final Direction[] DIRECTIONS = { Direction.NORTH, Direction.WEST, Direction.EAST,
+            Direction.SOUTH };
+
+    private Path file;
+    private PagedWorld paged;
+    private World world;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("maze", ".paged");
+        int rooms = SIDE * SIDE;
+        new GameCreator(SIDE).writePagedMaze(file, SIDE, SIDE, 0.1, rooms / 5000, rooms / 5000, 5, REGION_SIDE);
+        paged = new PagedWorld(file, new GameCreator(SIDE), RESIDENT_REGIONS);
+        world = paged.toWorld();
+        for (int y = 0; y < RESIDENT_SIDE; y += REGION_SIDE) {
+            for (int x = 0; x < RESIDENT_SIDE; x += REGION_SIDE) {
+                paged.getRoom(y * SIDE + x);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    /**
+     * A player walking through the maze at random, and the rooms it asks for.
+     */
+    @State(Scope.Thread)
+    public static class Walker {
+        private final SplittableRandom random = new SplittableRandom(3);
+        private final Parser parser = new Parser(InputStream.nullInputStream(), new NullOutputSink());
+        private final OutputSink out = new NullOutputSink();
+        private World world;
+        private Game game;
+        private Direction last = Direction.UNKNOWN;
+        private int moves;
+
+        @Setup
+        public void setup(PagedWorldBenchmark benchmark) {
+            world = benchmark.world;
+        }
+
+        private int residentRoom() {
+            return random.nextInt(RESIDENT_SIDE) * SIDE + random.nextInt(RESIDENT_SIDE);
+        }
+    }
+
+    @Benchmark
+    public Room residentRoom(Walker walker) {
+        return paged.getRoom(walker.residentRoom());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Room residentRoomInFourThreads(Walker walker) {
+        return paged.getRoom(walker.residentRoom());
+    }
+
+    /**
+     * Moves through a random unlocked exit of the current room, going back the
+     * way the player came only from a dead end.
+     */
+    @Benchmark
+    public Game move(Walker walker) {
+        if (walker.moves++ % MOVES_PER_GAME == 0) {
+            walker.game = new Game(walker.parser, walker.out, walker.world);
+            walker.last = Direction.UNKNOWN;
+        }
+        GameState state = walker.game.getGameState();
+        Room room = state.getCurrentRoom();
+        List<Direction> exits = new ArrayList<>(4);
+        Direction back = Direction.UNKNOWN;
+        for (Direction direction : DIRECTIONS) {
+            Door door = room.getExit(direction);
+            if (door == null || state.isLocked(door)) {
+                continue;
+            }
+            if (walker.last != Direction.UNKNOWN && direction == walker.last.reverse()) {
+                back = direction;
+            } else {
+                exits.add(direction);
+            }
+        }
+        walker.last = exits.isEmpty() ? back : exits.get(walker.random.nextInt(exits.size()));
+        walker.game.executeTurn(walker.parser.parseLine("go " + walker.last), walker.parser.getArgument());
+        return walker.game;
+    }
+}
@@ -0,0 +1,100 @@
+package maze_game.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jdk.jfr.Recording;
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.events.CommandEvent;
+import maze_game.events.MechanismEvent;
+import maze_game.events.RoomChangeEvent;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.world.World;
+
+/**
+ * Benchmarks what the flight recorder events of the game cost: the shortest
+ * win of the Maze of Astaroth with seed 7 is played without a recording and
+ * while a recording of the game events and garbage collection pauses runs.
+ * Every tenth game presses the last button of the puzzle first, which resets
+ * it.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordingBenchmark {
+    @Param({ "false", "true" })
+    public boolean recording;
+
+    private OutputSink out;
+    private Parser parser;
+    private World world;
+    private List<String> playthrough;
+    private Recording running;
+    private Path file;
+    private int games;
+
+    @Setup
+    public void setup() throws IOException {
+        out = new NullOutputSink();
+        parser = new Parser(InputStream.nullInputStream(), out);
+        world = Game.createRooms(new GameCreator(7));
+        playthrough = new MazeSolver().solve(world).getCommands();
+        if (recording) {
+            file = Files.createTempFile("maze", ".jfr");
+            running = new Recording();
+            running.enable(CommandEvent.NAME);
+            running.enable(MechanismEvent.NAME);
+            running.enable(RoomChangeEvent.NAME);
+            running.enable("jdk.GCPhasePause");
+            running.setDestination(file);
+            running.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (running != null) {
+            running.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public Game playthrough() {
+        Game game = new Game(parser, out, world);
+        boolean reset = games++ % 10 == 0;
+        for (String command : playthrough) {
+            if (reset && command.equals("interact c")) {
+                game.executeTurn(parser.parseLine("interact e"), parser.getArgument());
+            }
+            game.executeTurn(parser.parseLine(command), parser.getArgument());
+        }
+        return game;
+    }
+}
@@ -0,0 +1,150 @@
+package maze_game.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.server.SessionHost;
+import maze_game.solver.MazeSolver;
+import maze_game.world.World;
+
+/**
+ * Measures the heap a session of the Maze of Astaroth takes on top of the
+ * world it plays, after it played the first turns of the shortest win: for
+ * games sharing one world, for games creating their own world and for the
+ * sessions of a SessionHost, which wait for their next command after playing
+ * the turns. The heap per session is reported as the bytesPerSession counter,
+ * the time is that of starting the sessions and playing their turns.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class SessionFootprintBenchmark {
+    private static final int SESSIONS = 2_000;
+    // Games creating their own world, and hosted sessions with their threads, take more.
+    private static final int OWN_WORLD_SESSIONS = 200;
+    private static final int HOSTED_SESSIONS = 200;
+
+    @Param({ "0", "1", "10", "30" })
+    public int turns;
+
+    private OutputSink out;
+    private Parser parser;
+    private World world;
+    private List<String> commands;
+
+    /**
+     * The heap the sessions of an iteration hold on to, divided by their amount.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double bytesPerSession;
+    }
+
+    @Setup
+    public void setup() {
+        out = new NullOutputSink();
+        parser = new Parser(InputStream.nullInputStream(), out);
+        world = Game.createRooms(new GameCreator(7));
+        commands = new MazeSolver().solve(world).getCommands().subList(0, turns);
+    }
+
+    @Benchmark
+    public Game[] sharedWorld(Footprint footprint) {
+        return play(footprint, SESSIONS, true);
+    }
+
+    @Benchmark
+    public Game[] ownWorld(Footprint footprint) {
+        return play(footprint, OWN_WORLD_SESSIONS, false);
+    }
+
+    /**
+     * Starts the sessions on a host and measures the heap they hold on to while
+     * they wait for their next command.
+     */
+    @Benchmark
+    public void hosted(Footprint footprint) throws IOException, InterruptedException {
+        byte[] script = (String.join("\n", commands) + "\n").getBytes(StandardCharsets.UTF_8);
+        SessionHost host = new SessionHost();
+        List<PipedOutputStream> inputs = new ArrayList<>(HOSTED_SESSIONS);
+        List<PipedInputStream> pipes = new ArrayList<>(HOSTED_SESSIONS);
+        long before = usedHeap();
+        for (int i = 0; i < HOSTED_SESSIONS; i++) {
+            PipedOutputStream input = new PipedOutputStream();
+            PipedInputStream pipe = new PipedInputStream(input, script.length + 1);
+            if (turns > 0) {
+                input.write(script);
+            }
+            host.startSession(pipe, OutputStream.nullOutputStream());
+            inputs.add(input);
+            pipes.add(pipe);
+        }
+        for (PipedInputStream pipe : pipes) {
+            while (pipe.available() > 0) {
+                Thread.sleep(10);
+            }
+        }
+        // The last command of every session is executed once it has been read.
+        Thread.sleep(500);
+        footprint.bytesPerSession = (double) (usedHeap() - before) / HOSTED_SESSIONS;
+        for (PipedOutputStream input : inputs) {
+            input.close();
+        }
+        host.shutdown();
+    }
+
+    /**
+     * Plays the given amount of games and measures the heap they hold on to.
+     */
+    private Game[] play(Footprint footprint, int sessions, boolean shared) {
+        Game[] games = new Game[sessions];
+        long before = usedHeap();
+        for (int i = 0; i < sessions; i++) {
+            games[i] = new Game(parser, out, shared ? world : Game.createRooms(new GameCreator(7)));
+            for (String command : commands) {
+                games[i].executeTurn(parser.parseLine(command), parser.getArgument());
+            }
+        }
+        footprint.bytesPerSession = (double) (usedHeap() - before) / sessions;
+        return games;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,104 @@
+package maze_game.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.world.World;
+
+/**
+ * Benchmarks taking and restoring snapshots of a game of the Maze of Astaroth
+ * halfway through its shortest win, in memory and through a file. A snapshot
+ * can only be restored into a new game, so restoring includes starting a new
+ * game sharing the world; newGame measures that alone.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+    private OutputSink out;
+    private Parser parser;
+    private World world;
+    private Game game;
+    private ByteBuffer snapshot;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        out = new NullOutputSink();
+        parser = new Parser(InputStream.nullInputStream(), out);
+        world = Game.createRooms(new GameCreator(7));
+        List<String> commands = new MazeSolver().solve(world).getCommands();
+        game = new Game(parser, out, world);
+        for (String command : commands.subList(0, commands.size() / 2)) {
+            game.executeTurn(parser.parseLine(command), parser.getArgument());
+        }
+        snapshot = game.snapshot();
+        file = Files.createTempFile("maze", ".snapshot");
+        game.saveSnapshot(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public ByteBuffer snapshot() {
+        return game.snapshot();
+    }
+
+    @Benchmark
+    public Game newGame() {
+        return new Game(parser, out, world);
+    }
+
+    @Benchmark
+    public Game restore() throws IOException {
+        Game restored = new Game(parser, out, world);
+        restored.restore(snapshot.duplicate());
+        return restored;
+    }
+
+    /**
+     * Saves the snapshot to a file, which is forced to disk.
+     */
+    @Benchmark
+    public void saveSnapshot() throws IOException {
+        game.saveSnapshot(file);
+    }
+
+    @Benchmark
+    public Game loadSnapshot() throws IOException {
+        Game loaded = new Game(parser, out, world);
+        loaded.loadSnapshot(file);
+        return loaded;
+    }
+}
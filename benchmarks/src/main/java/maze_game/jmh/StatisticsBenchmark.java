@@ -0,0 +1,70 @@
+package maze_game.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.flag.Flag;
+import maze_game.input.CommandWord;
+import maze_game.statistics.CommandStatistics;
+import maze_game.statistics.LatencyHistogram;
+
+/**
+ * Benchmarks what recording the statistics of a command costs: the latency
+ * of the command and the flag it reported, by a single thread and by four
+ * threads recording into the same statistics at once.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+    private static final CommandWord[] COMMAND_WORDS = CommandWord.values();
+    private static final Flag[] FLAGS = { Flag.MOVED, Flag.LOCKED, Flag.NO_OBJECT, Flag.ITEM_TAKEN };
+
+    private final CommandStatistics statistics = new CommandStatistics();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * The recordings of a thread, which pick the next command word, latency and
+     * flag.
+     */
+    @State(Scope.Thread)
+    public static class Recordings {
+        private int next;
+    }
+
+    @Benchmark
+    public void recordHistogram(Recordings recordings) {
+        histogram.record(100 + (recordings.next++ & 1023));
+    }
+
+    @Benchmark
+    public void recordLatencyAndFlag(Recordings recordings) {
+        record(recordings.next++);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordLatencyAndFlagInFourThreads(Recordings recordings) {
+        record(recordings.next++);
+    }
+
+    private void record(int i) {
+        statistics.recordLatency(COMMAND_WORDS[i % COMMAND_WORDS.length], 100 + (i & 1023));
+        statistics.count(FLAGS[i & 3]);
+    }
+}
@@ -0,0 +1,142 @@
+package maze_game.jmh;
+
+import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.Game;
+import maze_game.commands.Command;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+
+/**
+ * Benchmarks undo and redo in a game of the Maze of Astaroth that played random
+ * commands until every turn it keeps can be undone, and measures the heap that
+ * history takes: sessions play the same commands with and without keeping
+ * their turns, the difference is reported as the bytesPerSession and
+ * bytesPerTurn counters.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UndoBenchmark {
+    private static final String[] COMMANDS = { "look", "go north", "go south", "go east", "go west", "back",
+            "take key", "take crowbar", "take lever", "take idol", "take yasmine", "take luke", "drop key",
+            "drop lever", "drop luke", "open north", "open west", "open east", "open south", "interact button",
+            "interact lever", "interact yasmine", "hint", "travel entrance" };
+    private static final long SEED = 7;
+    // As many turns as a game keeps to undo.
+    private static final int LEVELS = Integer.getInteger("maze_game.undo", 10_000);
+    // Sessions playing many thousand commands each, for each measurement.
+    private static final int SESSIONS = 10;
+
+    private OutputSink out;
+    private Parser parser;
+    private Game game;
+    // Amount of random commands played until the history was full.
+    private int commands;
+    private Command undo;
+    private Command redo;
+
+    /**
+     * The heap the history of a session takes, in total and per turn.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double bytesPerSession;
+        public double bytesPerTurn;
+    }
+
+    @Setup
+    public void setup() {
+        out = new NullOutputSink();
+        parser = new Parser(InputStream.nullInputStream(), out);
+        game = new Game(parser, out, SEED);
+        Random random = new Random(SEED);
+        while (game.getGameState().getUndoLevels() < LEVELS) {
+            play(game, COMMANDS[random.nextInt(COMMANDS.length)]);
+            commands++;
+        }
+        undo = parser.parseLine("undo");
+        redo = parser.parseLine("redo");
+    }
+
+    @Benchmark
+    public Game undoAndRedo() {
+        game.executeTurn(undo, null);
+        game.executeTurn(redo, null);
+        return game;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Game[] history(Footprint footprint) {
+        long before = usedHeap();
+        Game[] without = play(false);
+        long withoutHistory = usedHeap() - before;
+        Reference.reachabilityFence(without);
+        without = null;
+        before = usedHeap();
+        Game[] with = play(true);
+        long withHistory = usedHeap() - before;
+        footprint.bytesPerSession = (double) (withHistory - withoutHistory) / SESSIONS;
+        footprint.bytesPerTurn = footprint.bytesPerSession / LEVELS;
+        return with;
+    }
+
+    /**
+     * Plays the random commands of the setup in new sessions, as turns that can
+     * be undone or only executing them.
+     */
+    private Game[] play(boolean history) {
+        Game[] games = new Game[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            games[i] = new Game(parser, out, SEED);
+            Random random = new Random(SEED);
+            for (int j = 0; j < commands; j++) {
+                String command = COMMANDS[random.nextInt(COMMANDS.length)];
+                if (history) {
+                    play(games[i], command);
+                } else {
+                    parser.parseLine(command).execute(games[i].getGameState(), parser.getArgument());
+                }
+            }
+        }
+        return games;
+    }
+
+    private void play(Game target, String command) {
+        target.executeTurn(parser.parseLine(command), parser.getArgument());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
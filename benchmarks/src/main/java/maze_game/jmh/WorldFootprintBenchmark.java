@@ -0,0 +1,91 @@
+package maze_game.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.GameCreator;
+import maze_game.world.CompactWorld;
+import maze_game.world.World;
+
+/**
+ * Measures the heap taken per room by a maze built as a graph of Room and Door
+ * objects and by the same maze kept in a CompactWorld, before and after every
+ * room of it has been created, which is the worst case of a player visiting
+ * the whole maze. The heap per room is reported as the bytesPerRoom counter,
+ * the time is that of generating the maze.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class WorldFootprintBenchmark {
+    private static final double BRAID_FACTOR = 0.1;
+
+    @Param({ "100", "316", "1000" })
+    public int side;
+
+    /**
+     * The heap the maze of an iteration holds on to, divided by its rooms.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double bytesPerRoom;
+    }
+
+    @Benchmark
+    public World graph(Footprint footprint) {
+        int rooms = side * side;
+        long before = usedHeap();
+        World world = new GameCreator(side).generateMaze(side, side, BRAID_FACTOR, rooms / 50, rooms / 100, 5);
+        footprint.bytesPerRoom = (double) (usedHeap() - before) / rooms;
+        return world;
+    }
+
+    @Benchmark
+    public CompactWorld compact(Footprint footprint) {
+        return generateCompact(footprint, false);
+    }
+
+    @Benchmark
+    public CompactWorld compactAllCreated(Footprint footprint) {
+        return generateCompact(footprint, true);
+    }
+
+    private CompactWorld generateCompact(Footprint footprint, boolean createRooms) {
+        int rooms = side * side;
+        long before = usedHeap();
+        CompactWorld compact = new GameCreator(side).generateCompactMaze(side, side, BRAID_FACTOR, rooms / 50,
+                rooms / 100, 5);
+        if (createRooms) {
+            for (int room = 0; room < rooms; room++) {
+                compact.getRoom(room);
+            }
+        }
+        footprint.bytesPerRoom = (double) (usedHeap() - before) / rooms;
+        return compact;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
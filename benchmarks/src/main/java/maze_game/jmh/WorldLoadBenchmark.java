@@ -0,0 +1,168 @@
+package maze_game.jmh;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze_game.GameCreator;
+import maze_game.directions.Direction;
+import maze_game.world.MazeLayout;
+import maze_game.world.World;
+import maze_game.world.WorldLoader;
+
+/**
+ * Benchmarks loading world files. Grid mazes of side by side rooms with locked
+ * doors, puzzles, items and characters are written to world files, once with
+ * every room declared before it's used and once with the records shuffled, so
+ * most rooms and keys are used before they are declared. For comparison the
+ * same amount of rooms is generated in code by the GameCreator.
+ *
+ * @author Alexander Mertens
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorldLoadBenchmark {
+    private static final String[] ITEMS = { "stone", "plank", "bone", "candle", "rope", "coin" };
+
+    @Param({ "100", "316" })
+    public int side;
+
+    private Path ordered;
+    private Path shuffled;
+
+    @Setup
+    public void setup() throws IOException {
+        ordered = Files.createTempFile("maze", ".maze");
+        shuffled = Files.createTempFile("maze", ".maze");
+        writeMaze(ordered, shuffled, side);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(ordered);
+        Files.delete(shuffled);
+    }
+
+    @Benchmark
+    public World loadOrdered() throws IOException {
+        return WorldLoader.load(ordered, new GameCreator(7));
+    }
+
+    @Benchmark
+    public World loadShuffled() throws IOException {
+        return WorldLoader.load(shuffled, new GameCreator(7));
+    }
+
+    @Benchmark
+    public World generate() {
+        int rooms = side * side;
+        return new GameCreator(side).generateMaze(side, side, 0.1, rooms / 50, rooms / 100, 5);
+    }
+
+    /**
+     * Writes a grid maze of side by side rooms twice, once in order and once
+     * shuffled. A locked door or a puzzle replaces a few doorways of the search
+     * tree, the key of a locked door lies in a random room.
+     */
+    private static void writeMaze(Path ordered, Path shuffled, int side) throws IOException {
+        Random random = new Random(side);
+        MazeLayout layout = MazeLayout.generate(side, side, 0.1, random);
+        int cellCount = layout.getCellCount();
+        List<String> rooms = new ArrayList<>();
+        List<String> records = new ArrayList<>();
+        // Doorways from a cell to its parent that aren't plain.
+        boolean[] special = new boolean[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            rooms.add("room | " + name(cell, side) + " | " + (cell % 5 == 0
+                    ? "A damp stone chamber, the walls are covered in moss."
+                    : "A dusty room filled with broken furniture."));
+            for (int i = random.nextInt(3); i > 0; i--) {
+                String item = ITEMS[random.nextInt(ITEMS.length)];
+                records.add("item | " + name(cell, side) + " | " + item + " | a " + item);
+            }
+            if (cell == 0) {
+                continue;
+            }
+            int parent = layout.getParent(cell);
+            Direction direction = Direction.values()[layout.directionBetween(parent, cell)];
+            if (cell % 50 == 0) {
+                special[cell] = true;
+                String key = "key " + cell;
+                records.add("locked | " + name(parent, side) + " | " + direction + " | " + name(cell, side)
+                        + " | locked door | The door has been unlocked. | This door is locked. | " + key);
+                records.add("door | " + name(cell, side) + " | " + direction.reverse() + " | " + name(parent, side)
+                        + " | door | A simple wooden door.");
+                records.add("item | " + name(random.nextInt(cellCount), side) + " | " + key + " | a key");
+            } else if (cell % 50 == 25) {
+                special[cell] = true;
+                records.add("puzzle | " + name(parent, side) + " | " + direction + " | " + name(cell, side)
+                        + " | sealed door | The door stands open. | A sealed door without a handle."
+                        + " | You hear a *clunk*. | You hear a *click*. | The door swings open. | A button | echo");
+            }
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (Direction direction : new Direction[] { Direction.EAST, Direction.SOUTH }) {
+                if (!layout.isOpen(cell, direction.ordinal())) {
+                    continue;
+                }
+                int other = layout.neighbour(cell, direction.ordinal());
+                if (special[other] && layout.getParent(other) == cell
+                        || special[cell] && layout.getParent(cell) == other) {
+                    continue;
+                }
+                records.add("link | " + name(cell, side) + " | " + direction + " | " + name(other, side)
+                        + " | door | A simple wooden door.");
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            records.add("character | " + name(random.nextInt(cellCount), side) + " | friend " + i
+                    + " | A friend. | Thank you! | Let us go.");
+        }
+
+        List<String> all = new ArrayList<>(rooms);
+        all.addAll(records);
+        write(ordered, all);
+        // The entrance stays first, the rest is in any order.
+        Collections.shuffle(all.subList(1, all.size()), random);
+        write(shuffled, all);
+    }
+
+    private static String name(int cell, int side) {
+        return "room " + (cell % side) + "," + (cell / side);
+    }
+
+    private static void write(Path file, List<String> records) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("entrance | room 0,0");
+            writer.newLine();
+            for (String record : records) {
+                writer.write(record);
+                writer.newLine();
+            }
+        }
+    }
+}
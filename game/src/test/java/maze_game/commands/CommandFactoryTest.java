@@ -0,0 +1,48 @@
+package maze_game.commands;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.input.CommandWord;
+import maze_game.input.Parser;
+import maze_game.output.BufferedOutputSink;
+import maze_game.output.OutputSink;
+
+/**
+ * Tests that the stats command is only known to operators, and that players
+ * aren't told about it.
+ *
+ * @author Alexander Mertens
+ */
+class CommandFactoryTest {
+    @Test
+    void statsIsOnlyKnownToOperators() {
+        Command unknown = new CommandFactory(false).getCommand(CommandWord.UNKNOWN);
+        assertSame(unknown, new CommandFactory(false).getCommand(CommandWord.STATS));
+        assertNotSame(unknown, new CommandFactory(true).getCommand(CommandWord.STATS));
+    }
+
+    @Test
+    void helpOfPlayersLeavesOutStats() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputSink out = new BufferedOutputSink(new PrintStream(bytes, false, StandardCharsets.UTF_8));
+        Parser parser = new Parser(InputStream.nullInputStream(), out);
+        Game game = new Game(parser, out, Game.createRooms(new GameCreator(7)));
+        game.executeTurn(parser.parseLine("help"), parser.getArgument());
+        out.flush();
+        String help = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(help.contains(" undo"), help);
+        assertFalse(help.contains(" stats"), help);
+    }
+}
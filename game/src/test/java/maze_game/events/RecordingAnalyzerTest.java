@@ -0,0 +1,80 @@
+package maze_game.events;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.world.World;
+
+/**
+ * Tests that the analyzer summarizes the commands, rooms and mechanisms of a
+ * recording of games, including the puzzles that were reset, and that events
+ * are only enabled while a recording asks for them.
+ *
+ * @author Alexander Mertens
+ */
+class RecordingAnalyzerTest {
+    private static final OutputSink OUT = new NullOutputSink();
+
+    @Test
+    void eventsAreOnlyEnabledWhileRecorded() {
+        try (Recording recording = new Recording()) {
+            recording.enable(CommandEvent.NAME);
+            recording.disable(RoomChangeEvent.NAME);
+            recording.start();
+            assertTrue(CommandEvent.isRecorded());
+            assertFalse(RoomChangeEvent.isRecorded());
+            recording.stop();
+        }
+        assertFalse(CommandEvent.isRecorded());
+    }
+
+    @Test
+    void summarizesARecording(@TempDir Path directory) throws Exception {
+        Parser parser = new Parser(InputStream.nullInputStream(), OUT);
+        World world = Game.createRooms(new GameCreator(7));
+        List<String> commands = new MazeSolver().solve(world).getCommands();
+        Path file = directory.resolve("maze.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CommandEvent.NAME);
+            recording.enable(MechanismEvent.NAME);
+            recording.enable(RoomChangeEvent.NAME);
+            recording.start();
+            for (int i = 0; i < 10; i++) {
+                Game game = new Game(parser, OUT, world);
+                for (String command : commands) {
+                    if (i % 2 == 0 && command.equals("interact c")) {
+                        // The last button first, which resets the sequence.
+                        game.executeTurn(parser.parseLine("interact e"), parser.getArgument());
+                    }
+                    game.executeTurn(parser.parseLine(command), parser.getArgument());
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordingAnalyzer analyzer = new RecordingAnalyzer();
+        analyzer.read(file);
+        String summary = analyzer.summarize(5);
+        assertTrue(summary.contains("\ngo "), summary);
+        assertTrue(summary.contains("\noutcomes:\n"), summary);
+        assertTrue(summary.contains("\nrooms entered:\n"), summary);
+        String mechanisms = summary.substring(summary.indexOf("\nmechanism "), summary.indexOf("\nrooms entered:"));
+        // Some mechanism was reset, which is the last column.
+        assertTrue(mechanisms.lines().anyMatch(line -> line.matches(".* [1-9][0-9]*")), summary);
+    }
+}
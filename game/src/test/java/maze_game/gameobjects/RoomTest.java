@@ -0,0 +1,72 @@
+package maze_game.gameobjects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import maze_game.directions.Direction;
+
+/**
+ * Tests that the descriptions of rooms are rendered once for the same contents
+ * and exits.
+ *
+ * @author Alexander Mertens
+ */
+class RoomTest {
+
+    @Test
+    void emptyRoomsKeepTheirOwnDescription() {
+        Room hall = new Room("Hall", "A long hall.");
+        Room cellar = new Room("Cellar", "A damp cellar.");
+        assertSame(Contents.EMPTY, hall.getContents());
+        assertSame(Contents.EMPTY, cellar.getContents());
+
+        String hallDescription = hall.getFullDescription();
+        String cellarDescription = cellar.getFullDescription();
+        assertTrue(hallDescription.startsWith("You are in the Hall."));
+        assertTrue(cellarDescription.startsWith("You are in the Cellar."));
+        // Describing one empty room doesn't drop the description of the other.
+        assertSame(hallDescription, hall.getFullDescription());
+        assertSame(cellarDescription, cellar.getFullDescription());
+        assertSame(hallDescription, hall.getFullDescription(Contents.EMPTY));
+    }
+
+    @Test
+    void changedExitsAreDescribedAgain() {
+        Room hall = new Room("Hall", "A long hall.");
+        Room cellar = new Room("Cellar", "A damp cellar.");
+        String before = hall.getFullDescription();
+        hall.setExit(Direction.NORTH, new Door("Trapdoor", "A trapdoor.", cellar));
+        String after = hall.getFullDescription();
+        assertNotSame(before, after);
+        assertTrue(after.endsWith(hall.getExitsString()));
+        assertSame(after, hall.getFullDescription());
+    }
+
+    @Test
+    void contentsMadeDuringPlayKeepTheirDescription() {
+        Room hall = new Room("Hall", "A long hall.");
+        Contents played = hall.getContents().withItem(new Item("Lamp", "An oil lamp."));
+        String initial = hall.getFullDescription();
+        String withLamp = hall.getFullDescription(played);
+        assertTrue(withLamp.contains("Lamp: An oil lamp."));
+        assertSame(withLamp, hall.getFullDescription(played));
+        assertSame(initial, hall.getFullDescription());
+        assertEquals(initial, hall.getFullDescription(hall.getContents()));
+    }
+
+    @Test
+    void longDescriptionIsRenderedOnce() {
+        Room hall = new Room("Hall", "A long hall.");
+        String before = hall.getLongDescription();
+        assertTrue(before.startsWith("You are in the Hall."));
+        assertSame(before, hall.getLongDescription());
+        hall.addItem(new Item("Lamp", "An oil lamp."));
+        String after = hall.getLongDescription();
+        assertTrue(after.contains("Lamp: An oil lamp."));
+        assertSame(after, hall.getLongDescription());
+    }
+}
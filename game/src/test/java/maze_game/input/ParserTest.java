@@ -0,0 +1,91 @@
+package maze_game.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import maze_game.output.NullOutputSink;
+
+/**
+ * Tests that the parser reads lines of input in any encoding the input is cut
+ * in, and that reading and parsing a line allocates nothing once warmed up.
+ *
+ * @author Alexander Mertens
+ */
+class ParserTest {
+    private static final String[] LINES = { "go north", "  GO   North ", "take key", "look", "look party",
+            "interact a", "drop soaked book", "open west", "back", "dance wildly", "", "help me please" };
+
+    @Test
+    void readsLinesCutAnywhere() {
+        byte[] script = "take cl\u00e9\r\ninteract \u00d8rn\n\ngo west".getBytes(StandardCharsets.UTF_8);
+        // Hands out a byte at a time, which cuts the characters of two bytes.
+        InputStream input = new ByteArrayInputStream(script) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+        Parser parser = new Parser(input, new NullOutputSink());
+        parser.getCommand();
+        assertEquals(CommandWord.TAKE, parser.getCommandWord());
+        assertEquals("cl\u00e9", parser.getArgument());
+        parser.getCommand();
+        assertEquals(CommandWord.INTERACT, parser.getCommandWord());
+        assertEquals("\u00f8rn", parser.getArgument());
+        parser.getCommand();
+        assertEquals(CommandWord.UNKNOWN, parser.getCommandWord());
+        parser.getCommand();
+        assertEquals(CommandWord.GO, parser.getCommandWord());
+        assertEquals("west", parser.getArgument());
+        parser.getCommand();
+        assertEquals(CommandWord.QUIT, parser.getCommandWord());
+        assertNull(parser.getArgument());
+    }
+
+    @Test
+    void malformedInputIsReplaced() {
+        byte[] script = { 'g', 'o', ' ', 'n', (byte) 0xff, '\n', 'l', 'o', 'o', 'k', '\n', (byte) 0xc3 };
+        Parser parser = new Parser(new ByteArrayInputStream(script), new NullOutputSink());
+        parser.getCommand();
+        assertEquals("n\ufffd", parser.getArgument());
+        parser.getCommand();
+        assertEquals(CommandWord.LOOK, parser.getCommandWord());
+        parser.getCommand();
+        assertEquals(CommandWord.UNKNOWN, parser.getCommandWord());
+        parser.getCommand();
+        assertEquals(CommandWord.QUIT, parser.getCommandWord());
+    }
+
+    @Test
+    void getCommandAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "the JVM doesn't count allocations per thread");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        int warmup = 200_000;
+        int measured = 100_000;
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < warmup + measured; i++) {
+            script.append(LINES[i % LINES.length]).append('\n');
+        }
+        Parser parser = new Parser(new ByteArrayInputStream(script.toString().getBytes(StandardCharsets.UTF_8)),
+                new NullOutputSink());
+        for (int i = 0; i < warmup; i++) {
+            parser.getCommand();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < measured; i++) {
+            parser.getCommand();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertEquals(0, allocated, allocated + " bytes allocated by " + measured + " lines");
+    }
+}
@@ -0,0 +1,181 @@
+package maze_game.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the PersistentMap against a HashMap and checks the shape of the trie
+ * where it matters.
+ *
+ * @author Alexander Mertens
+ */
+class PersistentMapTest {
+
+    /**
+     * A key with a chosen hash code, so keys can be made to collide or to share
+     * any part of the path through the trie.
+     */
+    private static final class Key {
+        private final String name;
+        private final int hash;
+
+        private Key(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @Test
+    void emptyMapHoldsNothing() {
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+        assertNull(map.get("a"));
+        assertSame(map, map.minus("a"));
+    }
+
+    @Test
+    void plusKeepsTheOldVersion() {
+        PersistentMap<String, Integer> first = PersistentMap.<String, Integer> empty().plus("a", 1);
+        PersistentMap<String, Integer> second = first.plus("a", 2).plus("b", 3);
+        assertEquals(1, first.get("a"));
+        assertNull(first.get("b"));
+        assertEquals(1, first.size());
+        assertEquals(2, second.get("a"));
+        assertEquals(3, second.get("b"));
+        assertEquals(2, second.size());
+    }
+
+    @Test
+    void plusWithTheSameValueReturnsTheSameMap() {
+        Integer value = 1000;
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Key single = new Key("single", 1);
+        Key first = new Key("first", 7);
+        Key second = new Key("second", 7);
+        map = map.plus(single, value).plus(first, value).plus(second, value);
+        assertSame(map, map.plus(single, value));
+        assertSame(map, map.plus(first, value));
+        assertSame(map, map.plus(second, value));
+        PersistentMap<Key, Integer> lone = PersistentMap.<Key, Integer> empty().plus(single, value);
+        assertSame(lone, lone.plus(single, value));
+    }
+
+    @Test
+    void collidingKeysAreKeptApart() {
+        Key a = new Key("a", 42);
+        Key b = new Key("b", 42);
+        Key c = new Key("c", 42);
+        Key other = new Key("other", 42 + (1 << 20));
+        PersistentMap<Key, String> map = PersistentMap.<Key, String> empty().plus(a, "a").plus(b, "b").plus(c, "c")
+                .plus(other, "other");
+        assertEquals(4, map.size());
+        assertEquals("a", map.get(a));
+        assertEquals("b", map.get(b));
+        assertEquals("c", map.get(c));
+        assertEquals("other", map.get(other));
+        assertNull(map.get(new Key("d", 42)));
+
+        PersistentMap<Key, String> replaced = map.plus(b, "B");
+        assertEquals(4, replaced.size());
+        assertEquals("B", replaced.get(b));
+        assertEquals("b", map.get(b));
+
+        PersistentMap<Key, String> removed = map.minus(b);
+        assertEquals(3, removed.size());
+        assertNull(removed.get(b));
+        assertEquals("a", removed.get(a));
+        assertEquals("c", removed.get(c));
+        assertSame(removed, removed.minus(new Key("d", 42)));
+
+        removed = removed.minus(a).minus(c).minus(other);
+        assertTrue(removed.isEmpty());
+        assertSame(PersistentMap.empty(), removed);
+    }
+
+    @Test
+    void removalCollapsesThePath() throws ReflectiveOperationException {
+        // The keys share the first 10 bits of their hashes, so the second one
+        // pushes both below two levels that only hold one child.
+        Key deep = new Key("deep", 0x456);
+        Key deeper = new Key("deeper", 0x456 | (1 << 14));
+        PersistentMap<Key, String> single = PersistentMap.<Key, String> empty().plus(deep, "deep");
+        PersistentMap<Key, String> both = single.plus(deeper, "deeper");
+        assertEquals("BitmapNode", root(both).getClass().getSimpleName());
+
+        PersistentMap<Key, String> collapsed = both.minus(deeper);
+        assertEquals(1, collapsed.size());
+        assertEquals("deep", collapsed.get(deep));
+        assertEquals("Entry", root(collapsed).getClass().getSimpleName());
+
+        // The same holds when what is left is a list of colliding keys.
+        Key twin = new Key("twin", deep.hashCode());
+        collapsed = both.plus(twin, "twin").minus(deeper);
+        assertEquals(2, collapsed.size());
+        assertEquals("CollisionNode", root(collapsed).getClass().getSimpleName());
+        collapsed = collapsed.minus(twin);
+        assertEquals("Entry", root(collapsed).getClass().getSimpleName());
+        assertSame(PersistentMap.empty(), collapsed.minus(deep));
+    }
+
+    @Test
+    void sizeFollowsAHashMap() {
+        Random random = new Random(17);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 20_000; i++) {
+            // Few distinct hashes, so collisions and shared paths are common.
+            int id = random.nextInt(600);
+            Key key = new Key(Integer.toString(id), id % 150 * 0x01010101);
+            if (random.nextInt(3) == 0) {
+                PersistentMap<Key, Integer> before = map;
+                map = map.minus(key);
+                if (expected.remove(key) == null) {
+                    assertSame(before, map);
+                }
+            } else {
+                Integer value = random.nextInt(4);
+                expected.put(key, value);
+                map = map.plus(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        Map<Key, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), map.values().size());
+        for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    private static Object root(PersistentMap<?, ?> map) throws ReflectiveOperationException {
+        Field root = PersistentMap.class.getDeclaredField("root");
+        root.setAccessible(true);
+        return root.get(map);
+    }
+}
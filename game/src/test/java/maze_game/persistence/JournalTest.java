@@ -0,0 +1,170 @@
+package maze_game.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import maze_game.Game;
+import maze_game.input.CommandWord;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+
+/**
+ * Tests reading the journal a window at a time, refusing broken records and
+ * recovering from the segments that are left.
+ *
+ * @author Alexander Mertens
+ */
+class JournalTest {
+    private static final OutputSink OUT = new NullOutputSink();
+
+    @Test
+    void readsTheSameInSmallWindows(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("host.journal");
+        try (Journal journal = new Journal(file, 0, TimeUnit.MILLISECONDS)) {
+            journal.startSession(1, 11);
+            for (int turn = 0; turn < 200; turn++) {
+                String argument = turn % 3 == 0 ? null : "argument " + turn % 7 + "x".repeat(turn % 50);
+                journal.append(1, turn, CommandWord.GO, argument).join();
+            }
+            journal.endSession(1).join();
+        }
+        List<String> whole = records(file, 64 << 20);
+        assertEquals(202, whole.size());
+        for (int window : new int[] { 8, 13, 64, 1000 }) {
+            assertEquals(whole, records(file, window));
+        }
+    }
+
+    @Test
+    void refusesBrokenRecords(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("host.journal");
+        writeBatch(file, Journal.COMMAND, 1, 0, CommandWord.values().length, 0);
+        assertThrows(IOException.class, () -> records(file, 64 << 20));
+        writeBatch(file, Journal.COMMAND, 1, 0, CommandWord.GO.ordinal(), 1);
+        assertThrows(IOException.class, () -> records(file, 64 << 20));
+        writeBatch(file, Journal.COMMAND_TEXT, 1, 0, CommandWord.GO.ordinal(), 100);
+        assertThrows(IOException.class, () -> records(file, 64 << 20));
+        assertThrows(IOException.class, () -> new Journal(file).close());
+    }
+
+    @Test
+    void recoversFromTheSegmentsLeft(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("host.journal");
+        Path snapshots = Files.createDirectory(directory.resolve("snapshots"));
+        Parser parser = new Parser(InputStream.nullInputStream(), OUT);
+        Game played = createGame(2, 22);
+        try (Journal journal = new Journal(file, 0, TimeUnit.MILLISECONDS)) {
+            journal.startSession(1, 11);
+            journal.startSession(2, 22);
+            journal.startSession(3, 33);
+            play(journal, played, parser, "go north", "take key");
+            journal.endSession(1);
+            journal.startSegment().join();
+            assertEquals(1, journal.getSegment());
+            journal.endSession(3);
+            played.saveSnapshot(Recovery.snapshotFile(snapshots, 2));
+            play(journal, played, parser, "look", "go south");
+            journal.deleteSegmentsBefore(1);
+        }
+        assertEquals(List.of(directory.resolve("host.journal.1")), Journal.segments(file));
+
+        Map<Long, Game> recovered = Recovery.recover(file, snapshots, JournalTest::createGame);
+        assertEquals(List.of(2L), new ArrayList<>(recovered.keySet()));
+        assertEquals(played.snapshot(), recovered.get(2L).snapshot());
+
+        try (Journal journal = new Journal(file)) {
+            assertEquals(List.of(2L), journal.getSessions());
+            assertEquals(4, journal.getNextSessionId());
+            assertEquals(1, journal.getSegment());
+        }
+    }
+
+    @Test
+    void startsEmptySegments(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("host.journal");
+        try (Journal journal = new Journal(file)) {
+            journal.startSegment().join();
+            journal.startSegment().join();
+            journal.deleteSegmentsBefore(2);
+        }
+        assertFalse(Files.exists(file));
+        assertTrue(Files.exists(directory.resolve("host.journal.2")));
+        try (Journal journal = new Journal(file)) {
+            assertEquals(2, journal.getSegment());
+            assertTrue(journal.getSessions().isEmpty());
+        }
+    }
+
+    private static void play(Journal journal, Game game, Parser parser, String... lines) {
+        for (String line : lines) {
+            parser.parseLine(line);
+            journal.append(2, game.getTurnCount(), parser.getCommandWord(), parser.getArgument()).join();
+            game.executeTurn(parser.parseLine(line), parser.getArgument());
+        }
+    }
+
+    private static List<String> records(Path file, int window) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long end = new JournalReader(channel, window).read(new JournalReader.Visitor() {
+                @Override
+                public void sessionStarted(long session, long seed) {
+                    records.add("start " + session + " " + seed);
+                }
+
+                @Override
+                public void commandExecuted(long session, int turn, CommandWord word, String argument) {
+                    records.add(session + " " + turn + " " + word + " " + argument);
+                }
+
+                @Override
+                public void sessionEnded(long session) {
+                    records.add("end " + session);
+                }
+            });
+            assertEquals(channel.size(), end);
+        }
+        return records;
+    }
+
+    /**
+     * Writes a journal of a single batch holding a single command record made
+     * of the given numbers.
+     */
+    private static void writeBatch(Path file, byte type, int... numbers) throws IOException {
+        ByteBuffer batch = ByteBuffer.allocate(1 + numbers.length * VarInts.MAX_INT_SIZE);
+        batch.put(type);
+        for (int number : numbers) {
+            VarInts.writeInt(batch, number);
+        }
+        batch.flip();
+        CRC32C checksum = new CRC32C();
+        checksum.update(batch.duplicate());
+        ByteBuffer frame = ByteBuffer.allocate(Journal.FRAME_HEADER + batch.remaining());
+        frame.putInt(batch.remaining()).putInt((int) checksum.getValue()).put(batch).flip();
+        Files.write(file, frame.array());
+    }
+
+    private static Game createGame(long session, long seed) {
+        return new Game(new Parser(InputStream.nullInputStream(), OUT), OUT, seed);
+    }
+}
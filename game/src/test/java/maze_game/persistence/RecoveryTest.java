@@ -0,0 +1,185 @@
+package maze_game.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.commands.Command;
+import maze_game.flag.Flag;
+import maze_game.input.CommandWord;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.statistics.CommandStatistics;
+import maze_game.statistics.StatisticsSnapshot;
+
+/**
+ * Tests that recovery rebuilds the sessions of a host that stopped without
+ * ending them, from the journal and their latest snapshots, also after the
+ * last batch of the journal has been torn off, and a session that undid and
+ * redid turns after its latest snapshot. Replaying the commands of the journal
+ * leaves the statistics of all games as they are.
+ *
+ * @author Alexander Mertens
+ */
+class RecoveryTest {
+    private static final OutputSink OUT = new NullOutputSink();
+    private static final long SEED = 7;
+    private static final String[] COMMANDS = { "look", "go north", "go south", "go east", "go west", "back",
+            "take key", "take crowbar", "take lever", "drop key", "open north", "open west", "open east",
+            "interact button", "interact lever", "hint", "look party", "travel entrance", "undo", "undo 3",
+            "redo" };
+    private static final int SESSIONS = 20;
+
+    @Test
+    void rebuildsTheSessionsOfAStoppedHost(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("host.journal");
+        Path snapshots = Files.createDirectory(directory.resolve("snapshots"));
+        Map<Long, Game> played = playRandomly(file, snapshots);
+
+        Map<Long, Game> recovered = Recovery.recover(file, snapshots, RecoveryTest::createGame);
+        assertEquals(played.keySet(), recovered.keySet());
+        for (Map.Entry<Long, Game> entry : played.entrySet()) {
+            assertEquals(entry.getValue().snapshot(), recovered.get(entry.getKey()).snapshot());
+        }
+    }
+
+    @Test
+    void dropsATornBatch(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("host.journal");
+        Path snapshots = Files.createDirectory(directory.resolve("snapshots"));
+        Map<Long, Game> played = playRandomly(file, snapshots);
+        // Tear the last batch in half, as if the process died while writing it.
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        new Journal(file).close();
+        assertTrue(Files.size(file) < size - 3);
+
+        Map<Long, Game> recovered = Recovery.recover(file, snapshots, RecoveryTest::createGame);
+        assertEquals(played.keySet(), recovered.keySet());
+        int behind = 0;
+        for (Map.Entry<Long, Game> entry : played.entrySet()) {
+            behind += entry.getValue().getTurnCount() - recovered.get(entry.getKey()).getTurnCount();
+        }
+        // Every command waits for its commit, so the torn batch holds a single command at most.
+        assertTrue(behind <= 1, behind + " commands behind");
+    }
+
+    @Test
+    void replaysWithoutCountingAgain(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("host.journal");
+        playRandomly(file, Files.createDirectory(directory.resolve("snapshots")));
+        StatisticsSnapshot before = CommandStatistics.global().snapshot();
+
+        // Without the snapshots every command of the journal is executed again.
+        Map<Long, Game> recovered = Recovery.recover(file, null, RecoveryTest::createGame);
+        assertTrue(recovered.values().stream().mapToInt(Game::getTurnCount).sum() > 1000);
+        StatisticsSnapshot after = CommandStatistics.global().snapshot();
+        for (CommandWord word : CommandWord.values()) {
+            assertEquals(before.getLatency(word).getCount(), after.getLatency(word).getCount(), word.toString());
+        }
+        for (Flag flag : Flag.values()) {
+            assertEquals(before.getCount(flag), after.getCount(flag), flag.toString());
+        }
+    }
+
+    @Test
+    void undoesAcrossTheSnapshot(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("host.journal");
+        Path snapshots = Files.createDirectory(directory.resolve("snapshots"));
+        List<String> commands = new ArrayList<>(
+                new MazeSolver().solve(Game.createRooms(new GameCreator(SEED))).getCommands().subList(0, 30));
+        // The snapshot is taken after 20 turns, the turns undone and redone after
+        // it were played before it.
+        commands.addAll(20, List.of("undo 4", "redo", "undo", "undo 12", "redo 3"));
+
+        Parser parser = new Parser(InputStream.nullInputStream(), OUT);
+        Game played = createGame(1, SEED);
+        try (Journal journal = new Journal(file, 0, TimeUnit.MILLISECONDS)) {
+            journal.startSession(1, SEED);
+            for (String line : commands) {
+                Command command = parser.parseLine(line);
+                journal.append(1, played.getTurnCount(), parser.getCommandWord(), parser.getArgument()).join();
+                played.executeTurn(command, parser.getArgument());
+                if (played.getTurnCount() == 20) {
+                    played.saveSnapshot(Recovery.snapshotFile(snapshots, 1));
+                }
+            }
+        }
+
+        Map<Long, Game> recovered = Recovery.recover(file, snapshots, RecoveryTest::createGame);
+        Game game = recovered.get(1L);
+        assertEquals(played.getTurnCount(), game.getTurnCount());
+        assertEquals(played.getGameState().getFingerprint(), game.getGameState().getFingerprint());
+        assertEquals(played.snapshot(), game.snapshot());
+
+        // Both games can undo and redo as far as each other.
+        assertTrue(game.getGameState().getUndoLevels() > 0);
+        assertEquals(played.getGameState().getUndoLevels(), game.getGameState().getUndoLevels());
+        for (String line : List.of("undo 100", "redo 7", "undo", "redo 100")) {
+            Command command = parser.parseLine(line);
+            played.executeTurn(command, parser.getArgument());
+            game.executeTurn(command, parser.getArgument());
+            assertEquals(played.getGameState().getFingerprint(), game.getGameState().getFingerprint(), line);
+            assertEquals(played.getGameState().getStateDescription(), game.getGameState().getStateDescription());
+        }
+    }
+
+    /**
+     * Plays random commands in sessions journaled like those of a host, with a
+     * snapshot every 50 turns, and stops without ending them.
+     *
+     * @return Returns the games played by session.
+     */
+    private static Map<Long, Game> playRandomly(Path file, Path snapshots) throws IOException {
+        Map<Long, Game> played = new HashMap<>();
+        Parser parser = new Parser(InputStream.nullInputStream(), OUT);
+        Random random = new Random(1);
+        try (Journal journal = new Journal(file, 0, TimeUnit.MILLISECONDS)) {
+            for (long session = 0; session < SESSIONS; session++) {
+                played.put(session, createGame(session, 1000 + session));
+                journal.startSession(session, 1000 + session);
+            }
+            for (int turn = 0; turn < 200; turn++) {
+                for (long session = 0; session < SESSIONS; session++) {
+                    Game game = played.get(session);
+                    if (game.isWon() || game.isLost()) {
+                        continue;
+                    }
+                    Command command = parser.parseLine(COMMANDS[random.nextInt(COMMANDS.length)]);
+                    journal.append(session, game.getTurnCount(), parser.getCommandWord(), parser.getArgument())
+                            .join();
+                    game.executeTurn(command, parser.getArgument());
+                    if (game.getTurnCount() % 50 == 0) {
+                        game.saveSnapshot(Recovery.snapshotFile(snapshots, session));
+                    }
+                }
+            }
+        }
+        return played;
+    }
+
+    private static Game createGame(long session, long seed) {
+        return new Game(new Parser(InputStream.nullInputStream(), OUT), OUT, seed);
+    }
+}
@@ -0,0 +1,81 @@
+package maze_game.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import maze_game.Game;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.persistence.Journal;
+import maze_game.persistence.Recovery;
+
+/**
+ * Tests that a host started on the journal of a host that stopped rebuilds its
+ * sessions, resumes them and doesn't reuse their ids, and that it counts the
+ * sessions it resumes and only the commands they execute after resuming.
+ *
+ * @author Alexander Mertens
+ */
+class SessionHostTest {
+    private static final OutputSink OUT = new NullOutputSink();
+
+    @Test
+    void resumesTheSessionsOfTheJournal(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("host.journal");
+        Path snapshots = Files.createDirectory(directory.resolve("snapshots"));
+        Parser parser = new Parser(InputStream.nullInputStream(), OUT);
+        Game played = new Game(parser, OUT, 77);
+        // A host that stopped while session 41 was running, session 40 had ended.
+        try (Journal journal = new Journal(file, 0, TimeUnit.MILLISECONDS)) {
+            journal.startSession(40, 70);
+            journal.endSession(40);
+            journal.startSession(41, 77);
+            for (String line : List.of("go north", "take key", "look party")) {
+                parser.parseLine(line);
+                journal.append(41, played.getTurnCount(), parser.getCommandWord(), parser.getArgument()).join();
+                played.executeTurn(parser.parseLine(line), parser.getArgument());
+            }
+        }
+
+        Journal journal = new Journal(file, 0, TimeUnit.MILLISECONDS);
+        SessionHost host = new SessionHost(journal, snapshots);
+        assertEquals(Set.of(41L), host.recoverSessions());
+        assertThrows(IllegalArgumentException.class, () -> host.resumeSession(40, InputStream.nullInputStream(),
+                new ByteArrayOutputStream()));
+
+        ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        host.resumeSession(41, input("look party\nquit\n"), resumed).get();
+        assertTrue(resumed.toString(StandardCharsets.UTF_8).contains(played.getGameState().getStateDescription()));
+        host.startSession(input("quit\n"), new ByteArrayOutputStream()).get();
+        assertTrue(host.getReport().startsWith("sessions: 2 "), host.getReport());
+        assertTrue(host.getReport().contains("commands: 3 "), host.getReport());
+        host.shutdown();
+        journal.close();
+
+        // Both sessions have ended, the new one got an id the journal hadn't seen.
+        assertTrue(Recovery.recover(file, snapshots, (session, seed) -> played).isEmpty());
+        try (Journal reopened = new Journal(file)) {
+            assertEquals(43, reopened.getNextSessionId());
+        }
+    }
+
+    private static InputStream input(String lines) {
+        return new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package maze_game.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.world.World;
+
+/**
+ * Tests that the solver finds winning solutions of the known length and stays
+ * within its bounds on generated mazes.
+ *
+ * The solver promises to solve the generated mazes of up to 900 rooms with 18
+ * locks, 9 puzzles and 3 characters visiting at most MAX_STATES states, and
+ * within MAX_TIME on a single core.
+ *
+ * @author Alexander Mertens
+ */
+class MazeSolverTest {
+    private static final long MAX_STATES = 200_000;
+    private static final Duration MAX_TIME = Duration.ofSeconds(10);
+
+    @Test
+    void solvesTheMazeOfAstaroth() {
+        Solution solution = new MazeSolver().solve(Game.createRooms(new GameCreator(7)));
+        assertTrue(solution.isWinnable());
+        assertEquals(59, solution.getCommands().size());
+        assertTrue(MazeSolver.verify(Game.createRooms(new GameCreator(7)), solution.getCommands()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "10, 7, 63", "10, 8, 57", "10, 9, 51", "20, 7, 47", "20, 8, 167", "20, 9, 129", "30, 7, 179",
+            "30, 8, 141", "30, 9, 120" })
+    void solvesGeneratedMazesWithinBounds(int side, long seed, int length) {
+        Solution solution = assertTimeout(MAX_TIME, () -> new MazeSolver().solve(generate(seed, side)));
+        assertTrue(solution.isWinnable());
+        assertEquals(length, solution.getCommands().size());
+        assertTrue(solution.getStatesVisited() <= MAX_STATES, solution.toString());
+        assertTrue(MazeSolver.verify(generate(seed, side), solution.getCommands()));
+    }
+
+    private static World generate(long seed, int side) {
+        int rooms = side * side;
+        return new GameCreator(seed).generateMaze(side, side, 0.1, rooms / 50, rooms / 100, 3);
+    }
+}
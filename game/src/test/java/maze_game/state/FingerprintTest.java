@@ -0,0 +1,211 @@
+package maze_game.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Contents;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.GameObject;
+import maze_game.gameobjects.Player;
+import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.InteractiveObject;
+import maze_game.output.NullOutputSink;
+import maze_game.world.World;
+
+/**
+ * Tests the fingerprint kept by GameState. Random commands are played in the
+ * Maze of Astaroth and after every command the full situation is written out
+ * by walking the whole world: two situations that are the same must have the
+ * same fingerprint and two different situations mustn't share one. Random
+ * sets of keys are XORed the way fingerprints are made, and none of those
+ * fingerprints may collide either.
+ *
+ * @author Alexander Mertens
+ */
+class FingerprintTest {
+    private static final Direction[] DIRECTIONS = { Direction.NORTH, Direction.WEST, Direction.EAST,
+            Direction.SOUTH };
+
+    @Test
+    void fingerprintsFollowTheSituation() {
+        for (long seed = 0; seed < 3; seed++) {
+            Random random = new Random(seed);
+            World world = Game.createRooms(new GameCreator(seed));
+            Player player = new Player("Alexander", "");
+            GameState state = new GameState(player, world.getEntrance(), new NullOutputSink());
+            Situation situation = new Situation(world, player, state);
+
+            Map<String, Long> fingerprints = new HashMap<>();
+            Map<Long, String> situations = new HashMap<>();
+            for (int step = 0; step < 20_000; step++) {
+                playRandomCommand(state, situation, random);
+                String description = situation.describe();
+                long fingerprint = state.getFingerprint();
+                assertEquals(fingerprints.computeIfAbsent(description, d -> fingerprint), fingerprint, description);
+                assertEquals(situations.computeIfAbsent(fingerprint, f -> description), description);
+            }
+            // The commands got the game into many situations, not just a few.
+            assertTrue(fingerprints.size() > 1000, "only " + fingerprints.size() + " situations");
+        }
+    }
+
+    @Test
+    void randomSetsOfKeysDontCollide() {
+        Random random = new Random(42);
+        long[] keys = new long[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Zobrist.key(42, Zobrist.CREATED, i);
+        }
+        long[] fingerprints = new long[2_000_000];
+        for (int i = 0; i < fingerprints.length; i++) {
+            long fingerprint = 0;
+            for (int j = 0; j < 20; j++) {
+                fingerprint ^= keys[random.nextInt(keys.length)];
+            }
+            fingerprints[i] = fingerprint;
+        }
+        Arrays.sort(fingerprints);
+        for (int i = 1; i < fingerprints.length; i++) {
+            assertTrue(fingerprints[i] != fingerprints[i - 1], "collision at " + i);
+        }
+    }
+
+    private static void playRandomCommand(GameState state, Situation situation, Random random) {
+        Direction direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+        switch (random.nextInt(6)) {
+        case 0:
+            state.go(direction.toString());
+            break;
+        case 1:
+            state.goBack();
+            break;
+        case 2:
+            Contents room = state.getContents(situation.currentRoom());
+            state.playerTakes(pick(room.getItems(), room.getObjects(), random));
+            break;
+        case 3:
+            state.playerDrops(pick(state.getContents(situation.player).getItems(), situation.party(), random));
+            break;
+        case 4:
+            state.openDoor(direction.toString());
+            break;
+        default:
+            state.interact(pick(Collections.emptyList(), state.getContents(situation.currentRoom()).getObjects(),
+                    random));
+            break;
+        }
+    }
+
+    private static String pick(Iterable<? extends GameObject> first, Iterable<? extends GameObject> second,
+            Random random) {
+        List<GameObject> candidates = new ArrayList<>();
+        first.forEach(candidates::add);
+        second.forEach(candidates::add);
+        if (candidates.isEmpty()) {
+            return "nothing";
+        }
+        return candidates.get(random.nextInt(candidates.size())).getName().toLowerCase();
+    }
+
+    /**
+     * Writes out the full situation of a game by walking all rooms of its world.
+     */
+    private static class Situation {
+        private final World world;
+        private final Player player;
+        private final GameState state;
+        // Every object of the world gets a number, in the order it was found.
+        private final Map<GameObject, Integer> ids;
+        private final List<InteractiveObject> interactives;
+        private final List<Door> doors;
+
+        private Situation(World world, Player player, GameState state) {
+            this.world = world;
+            this.player = player;
+            this.state = state;
+            ids = new IdentityHashMap<>();
+            interactives = new ArrayList<>();
+            doors = new ArrayList<>();
+            for (Room room : world.getRooms()) {
+                id(room);
+                room.getItems().forEach(this::id);
+                for (InteractiveObject object : room.getObjects()) {
+                    id(object);
+                    interactives.add(object);
+                }
+                for (Direction direction : DIRECTIONS) {
+                    Door door = room.getExit(direction);
+                    if (door != null) {
+                        id(door);
+                        doors.add(door);
+                    }
+                }
+            }
+        }
+
+        private int id(GameObject object) {
+            return ids.computeIfAbsent(object, o -> ids.size());
+        }
+
+        private Room currentRoom() {
+            for (Room room : world.getRooms()) {
+                if (state.isAt(room)) {
+                    return room;
+                }
+            }
+            throw new IllegalStateException("The player isn't in any room");
+        }
+
+        private List<InteractiveObject> party() {
+            List<InteractiveObject> party = new ArrayList<>();
+            for (InteractiveObject object : interactives) {
+                if (state.containsObject(object)) {
+                    party.add(object);
+                }
+            }
+            return party;
+        }
+
+        private String describe() {
+            StringBuilder result = new StringBuilder();
+            result.append(id(currentRoom())).append('|').append(state.getHealth()).append('|');
+            appendSorted(result, state.getContents(player).getItems());
+            appendSorted(result, party());
+            for (Room room : world.getRooms()) {
+                Contents contents = state.getContents(room);
+                appendSorted(result, contents.getItems());
+                appendSorted(result, contents.getObjects());
+            }
+            for (InteractiveObject object : interactives) {
+                result.append(state.isActive(object) ? '1' : '0');
+            }
+            for (Door door : doors) {
+                result.append(state.isLocked(door) ? '1' : '0');
+            }
+            return result.toString();
+        }
+
+        private void appendSorted(StringBuilder result, Iterable<? extends GameObject> objects) {
+            List<Integer> list = new ArrayList<>();
+            for (GameObject object : objects) {
+                list.add(id(object));
+            }
+            Collections.sort(list);
+            result.append(list).append('|');
+        }
+    }
+}
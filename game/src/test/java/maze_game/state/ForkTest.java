@@ -0,0 +1,57 @@
+package maze_game.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.condition.VictoryCondition;
+import maze_game.gameobjects.Player;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.world.World;
+
+/**
+ * Tests that forks of a game state are independent of each other: the state
+ * is forked after every prefix of the shortest win of the Maze of Astaroth,
+ * the fork plays the remaining commands and must win while the state it was
+ * forked from stays the same.
+ *
+ * @author Alexander Mertens
+ */
+class ForkTest {
+    private static final OutputSink OUT = new NullOutputSink();
+
+    @Test
+    void forksAfterEveryPrefixWin() {
+        Parser parser = new Parser(InputStream.nullInputStream(), OUT);
+        World world = Game.createRooms(new GameCreator(7));
+        List<String> commands = new MazeSolver().solve(world).getCommands();
+        GameState state = new GameState(new Player("Alexander", ""), world.getEntrance(), OUT);
+        for (int prefix = 0; prefix < commands.size(); prefix++) {
+            ByteBuffer before = Snapshot.write(state, world, prefix);
+            GameState fork = state.fork();
+            VictoryCondition victory = new VictoryCondition("", fork, world.getRequiredObjectSet(), world.getExit());
+            // A fork of the fork plays a wrong command, which mustn't show in the fork.
+            play(fork.fork(), parser, List.of("back", "drop key", "interact button"));
+            play(fork, parser, commands.subList(prefix, commands.size()));
+            assertTrue(victory.isSatisfied(), "forked after " + prefix + " commands");
+            assertEquals(before, Snapshot.write(state, world, prefix));
+            play(state, parser, commands.subList(prefix, prefix + 1));
+        }
+    }
+
+    private static void play(GameState state, Parser parser, List<String> commands) {
+        for (String command : commands) {
+            parser.parseLine(command).execute(state, parser.getArgument());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package maze_game.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.world.PagedWorld;
+import maze_game.world.World;
+
+/**
+ * Tests that snapshots restore the game they were taken of, also after any
+ * prefix of the shortest win, that a damaged snapshot leaves the game it's
+ * restored into as it was and that snapshots of a paged world don't read
+ * regions the game hasn't been in.
+ *
+ * @author Alexander Mertens
+ */
+class SnapshotTest {
+    private static final OutputSink OUT = new NullOutputSink();
+    private static final Parser PARSER = new Parser(InputStream.nullInputStream(), OUT);
+    private static World world;
+    private static List<String> commands;
+    private static Game played;
+    private static byte[] snapshot;
+
+    @BeforeAll
+    static void playHalfOfTheShortestWin() {
+        world = Game.createRooms(new GameCreator(7));
+        commands = new MazeSolver().solve(world).getCommands();
+        played = new Game(PARSER, OUT, world);
+        for (String command : commands.subList(0, commands.size() / 2)) {
+            played.executeTurn(PARSER.parseLine(command), PARSER.getArgument());
+        }
+        ByteBuffer buffer = played.snapshot();
+        snapshot = new byte[buffer.remaining()];
+        buffer.get(snapshot);
+    }
+
+    @Test
+    void restoresTheGame() throws IOException {
+        Game restored = new Game(PARSER, OUT, world);
+        restored.restore(ByteBuffer.wrap(snapshot));
+        assertEquals(played.getGameState().getFingerprint(), restored.getGameState().getFingerprint());
+        assertEquals(played.getGameState().getStateDescription(), restored.getGameState().getStateDescription());
+        assertEquals(ByteBuffer.wrap(snapshot), restored.snapshot());
+    }
+
+    @Test
+    void restoredGamesPlayOnToWin() throws IOException {
+        for (int prefix = 0; prefix < commands.size(); prefix++) {
+            Game original = new Game(PARSER, OUT, world);
+            play(original, commands.subList(0, prefix));
+            ByteBuffer taken = original.snapshot();
+            Game restored = new Game(PARSER, OUT, world);
+            restored.restore(taken.duplicate());
+            assertEquals(taken, restored.snapshot(), "restored after " + prefix + " commands");
+            play(original, commands.subList(prefix, commands.size()));
+            play(restored, commands.subList(prefix, commands.size()));
+            assertTrue(original.isWon());
+            assertTrue(restored.isWon(), "restored after " + prefix + " commands");
+            assertEquals(commands.size(), restored.getTurnCount());
+        }
+    }
+
+    @Test
+    void trailingBytesChangeNothing() {
+        byte[] longer = new byte[snapshot.length + 1];
+        System.arraycopy(snapshot, 0, longer, 0, snapshot.length);
+        assertUnchangedByDamage(longer);
+    }
+
+    @Test
+    void truncatedSnapshotsChangeNothing() {
+        for (int length = 0; length < snapshot.length; length++) {
+            byte[] shorter = new byte[length];
+            System.arraycopy(snapshot, 0, shorter, 0, length);
+            assertUnchangedByDamage(shorter);
+        }
+    }
+
+    @Test
+    void damagedSnapshotsChangeNothing() {
+        int damaged = 0;
+        for (int position = 0; position < snapshot.length; position++) {
+            for (int value : new int[] { 0x7F, 0x80, 0xFF, snapshot[position] ^ 1 }) {
+                byte[] bytes = snapshot.clone();
+                bytes[position] = (byte) value;
+                Game game = new Game(PARSER, OUT, world);
+                try {
+                    game.restore(ByteBuffer.wrap(bytes));
+                } catch (IOException e) {
+                    assertNew(game);
+                    damaged++;
+                }
+            }
+        }
+        assertTrue(damaged > snapshot.length, "only " + damaged + " damaged snapshots were refused");
+    }
+
+    @Test
+    void pagedWorldsOnlyReadTheRegionsPlayed(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("maze.paged");
+        new GameCreator(5).writePagedMaze(file, 40, 40, 0.1, 16, 8, 3, 4);
+        List<String> commands = new MazeSolver().solve(new PagedWorld(file, new GameCreator(5), 100).toWorld())
+                .getCommands();
+        PagedWorld paged = new PagedWorld(file, new GameCreator(5), 100);
+        World pagedWorld = paged.toWorld();
+        Game game = new Game(PARSER, OUT, pagedWorld);
+        for (String command : commands.subList(0, commands.size() / 2)) {
+            game.executeTurn(PARSER.parseLine(command), PARSER.getArgument());
+        }
+        game.executeTurn(PARSER.parseLine("undo 3"), PARSER.getArgument());
+        long pageIns = paged.getPageInCount();
+        ByteBuffer pagedSnapshot = game.snapshot();
+        Game restored = new Game(PARSER, OUT, pagedWorld);
+        restored.restore(pagedSnapshot.duplicate());
+        assertEquals(pageIns, paged.getPageInCount());
+        assertTrue(pageIns < paged.getRegionCount(), pageIns + " regions read");
+        assertEquals(game.getGameState().getFingerprint(), restored.getGameState().getFingerprint());
+        assertEquals(pagedSnapshot, restored.snapshot());
+    }
+
+    private static void play(Game game, List<String> lines) {
+        for (String line : lines) {
+            game.executeTurn(PARSER.parseLine(line), PARSER.getArgument());
+        }
+    }
+
+    private static void assertUnchangedByDamage(byte[] bytes) {
+        Game game = new Game(PARSER, OUT, world);
+        assertThrows(IOException.class, () -> game.restore(ByteBuffer.wrap(bytes)));
+        assertNew(game);
+    }
+
+    private static void assertNew(Game game) {
+        GameState state = game.getGameState();
+        assertEquals(0, state.getFingerprint());
+        assertTrue(state.getDirectionHistory().isEmpty());
+        assertEquals(world.getEntrance(), state.getCurrentRoom());
+        assertEquals(new Game(PARSER, OUT, world).snapshot(), game.snapshot());
+    }
+}
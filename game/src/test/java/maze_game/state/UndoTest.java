@@ -0,0 +1,83 @@
+package maze_game.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import maze_game.Game;
+import maze_game.flag.Flag;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+
+/**
+ * Tests undo and redo. Random commands are played in the Maze of Astaroth
+ * until a few thousand turns can be undone, and the situation after every
+ * such turn is written down: the fingerprint of the state, the length of its
+ * description and whether the game is won or lost. Every situation that comes
+ * back by undoing and redoing turns must match.
+ *
+ * @author Alexander Mertens
+ */
+class UndoTest {
+    private static final String[] COMMANDS = { "look", "go north", "go south", "go east", "go west", "back",
+            "take key", "take crowbar", "take lever", "take idol", "take yasmine", "take luke", "drop key",
+            "drop lever", "drop luke", "open north", "open west", "open east", "open south", "interact button",
+            "interact lever", "interact yasmine", "hint", "travel entrance" };
+    private static final int LEVELS = 2_000;
+
+    private final OutputSink out = new NullOutputSink();
+    private final Parser parser = new Parser(InputStream.nullInputStream(), out);
+    private final Game game = new Game(parser, out, 7);
+    private final Random random = new Random(7);
+
+    @Test
+    void undoesAndRedoesEveryTurn() {
+        List<String> situations = new ArrayList<>();
+        situations.add(situation());
+        while (game.getGameState().getUndoLevels() < LEVELS) {
+            play(COMMANDS[random.nextInt(COMMANDS.length)]);
+            if (game.getGameState().getUndoLevels() == situations.size()) {
+                situations.add(situation());
+            }
+        }
+        for (int level = LEVELS - 1; level >= 0; level--) {
+            play("undo");
+            assertEquals(situations.get(level), situation(), "undone to " + level);
+        }
+        play("redo " + LEVELS);
+        assertEquals(situations.get(LEVELS), situation());
+        for (int level = LEVELS - 7; level >= 0; level -= 7) {
+            play("undo 7");
+            assertEquals(situations.get(level), situation(), "undone to " + level);
+        }
+    }
+
+    @Test
+    void newTurnsDropTheTurnsToRedo() {
+        while (game.getGameState().getUndoLevels() < 100) {
+            play(COMMANDS[random.nextInt(COMMANDS.length)]);
+        }
+        play("undo 3");
+        // Commands that don't change the game, like look, don't count as a turn.
+        while (game.getGameState().getUndoLevels() == 97) {
+            play(COMMANDS[random.nextInt(COMMANDS.length)]);
+        }
+        assertEquals(Flag.NOTHING_TO_REDO, game.getGameState().redo(null));
+    }
+
+    private void play(String command) {
+        game.executeTurn(parser.parseLine(command), parser.getArgument());
+    }
+
+    private String situation() {
+        GameState state = game.getGameState();
+        return state.getFingerprint() + "|" + state.getStateDescription().length() + "|" + game.isWon() + "|"
+                + game.isLost();
+    }
+}
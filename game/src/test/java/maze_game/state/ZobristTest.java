@@ -0,0 +1,130 @@
+package maze_game.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.GameObject;
+import maze_game.gameobjects.Room;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.world.CompactWorld;
+import maze_game.world.PagedWorld;
+import maze_game.world.World;
+
+/**
+ * Tests that the keys of objects only depend on the seed of their world and
+ * their place in it, so fingerprints can be compared between worlds and
+ * processes.
+ *
+ * @author Alexander Mertens
+ */
+class ZobristTest {
+
+    @Test
+    void keysOfANumberingDiffer() {
+        Set<Long> keys = new HashSet<>();
+        for (int numbering = Zobrist.CREATED; numbering <= Zobrist.PUZZLES; numbering++) {
+            for (long index = 0; index < 10_000; index++) {
+                keys.add(Zobrist.key(7, numbering, index));
+            }
+        }
+        assertEquals(60_000, keys.size());
+        assertNotEquals(Zobrist.key(7, Zobrist.ROOMS, 0), Zobrist.key(8, Zobrist.ROOMS, 0));
+    }
+
+    @Test
+    void gamesOfTheSameSeedHaveTheSameFingerprints() {
+        List<String> commands = new MazeSolver().solve(Game.createRooms(new GameCreator(7))).getCommands();
+        OutputSink out = new NullOutputSink();
+        Parser parser = new Parser(InputStream.nullInputStream(), out);
+        Game first = new Game(parser, out, Game.createRooms(new GameCreator(7)));
+        Game second = new Game(parser, out, Game.createRooms(new GameCreator(7)));
+        Set<Long> fingerprints = new HashSet<>();
+        for (String command : commands) {
+            first.executeTurn(parser.parseLine(command), parser.getArgument());
+            second.executeTurn(parser.parseLine(command), parser.getArgument());
+            assertEquals(first.getGameState().getFingerprint(), second.getGameState().getFingerprint(), command);
+            fingerprints.add(first.getGameState().getFingerprint());
+        }
+        assertTrue(first.isWon());
+        assertTrue(fingerprints.size() > commands.size() / 2);
+    }
+
+    @Test
+    void compactRoomsGetTheKeysOfTheirIds() {
+        CompactWorld first = new GameCreator(3).generateCompactMaze(20, 20, 0.1, 8, 4, 3);
+        CompactWorld second = new GameCreator(3).generateCompactMaze(20, 20, 0.1, 8, 4, 3);
+        // Rooms are created in a different order in both worlds.
+        for (int room = 0; room < 400; room++) {
+            first.getRoom(room);
+            second.getRoom(399 - room);
+        }
+        assertSameKeys(first.toWorld(0, 0), second.toWorld(0, 0));
+    }
+
+    @Test
+    void pagedRoomsGetTheKeysOfTheirPlaceInTheFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("maze.paged");
+        new GameCreator(3).writePagedMaze(file, 20, 20, 0.1, 8, 4, 3, 4);
+        PagedWorld first = new PagedWorld(file, new GameCreator(3), 1);
+        PagedWorld second = new PagedWorld(file, new GameCreator(3), 1);
+        for (int room = 0; room < 400; room++) {
+            first.getRoom(room);
+            second.getRoom(399 - room);
+        }
+        assertSameKeys(first.toWorld(), second.toWorld());
+        Files.delete(file);
+    }
+
+    private static void assertSameKeys(World first, World second) {
+        Set<Long> keys = new HashSet<>();
+        for (int room = 0; room < first.getRooms().size(); room++) {
+            Room expected = first.getRooms().get(room);
+            Room actual = second.getRooms().get(room);
+            assertEquals(expected.getZobristKey(), actual.getZobristKey());
+            assertNotEquals(0, actual.getZobristKey());
+            keys.add(actual.getZobristKey());
+            for (Direction direction : new Direction[] { Direction.NORTH, Direction.WEST, Direction.EAST,
+                    Direction.SOUTH }) {
+                Door door = actual.getExit(direction);
+                if (door != null) {
+                    assertEquals(expected.getExit(direction).getZobristKey(), door.getZobristKey());
+                    keys.add(door.getZobristKey());
+                }
+            }
+            assertEquals(keys(expected.getItems()), keys(actual.getItems()));
+            assertEquals(keys(expected.getObjects()), keys(actual.getObjects()));
+        }
+        assertTrue(keys.size() > first.getRooms().size());
+        assertEquals(keys(first.getRequiredObjects()), keys(second.getRequiredObjects()));
+    }
+
+    private static List<Long> keys(Collection<? extends GameObject> objects) {
+        List<Long> keys = new ArrayList<>();
+        for (GameObject object : objects) {
+            assertNotEquals(0, object.getZobristKey(), object.getName());
+            keys.add(object.getZobristKey());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,86 @@
+package maze_game.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.input.CommandWord;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.solver.MazeSolver;
+import maze_game.world.World;
+
+/**
+ * Tests that the bytes counted for the commands of games are part of what the
+ * thread playing them allocated, which includes parsing the lines and creating
+ * the games as well, and that only the rooms that allocated the most are kept.
+ *
+ * @author Alexander Mertens
+ */
+class AllocationStatisticsTest {
+    private static final OutputSink OUT = new NullOutputSink();
+
+    @Test
+    void countsPartOfWhatTheThreadAllocated() {
+        Parser parser = new Parser(InputStream.nullInputStream(), OUT);
+        World world = Game.createRooms(new GameCreator(7));
+        Iterable<String> commands = new MazeSolver().solve(world).getCommands();
+        AllocationStatistics allocations = AllocationStatistics.global();
+        boolean wasEnabled = allocations.isEnabled();
+        allocations.setEnabled(true);
+        try {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                    .getThreadMXBean();
+            long before = counted(allocations);
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 100; i++) {
+                Game game = new Game(parser, OUT, world);
+                for (String command : commands) {
+                    game.executeTurn(parser.parseLine(command), parser.getArgument());
+                }
+            }
+            allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+            long counted = counted(allocations) - before;
+            assertTrue(counted > 0);
+            assertTrue(counted <= allocated, counted + " bytes counted, " + allocated + " allocated");
+        } finally {
+            allocations.setEnabled(wasEnabled);
+        }
+    }
+
+    @Test
+    void keepsTheRoomsThatAllocatedTheMost() {
+        AllocationStatistics allocations = new AllocationStatistics(true, 4);
+        assumeTrue(allocations.isEnabled(), "the JVM doesn't count allocations per thread");
+        Object[] kept = new Object[1];
+        for (int i = 0; i < 100; i++) {
+            long start = allocations.start();
+            kept[0] = new byte[1024];
+            allocations.recordCommand(CommandWord.LOOK, "heavy room", start);
+        }
+        for (int i = 0; i < 100; i++) {
+            allocations.recordCommand(CommandWord.GO, "room " + i, allocations.start());
+        }
+        // Every time the 4 rooms are full, all but the 2 that allocated the most are dropped, 3 are left.
+        assertEquals(101 - 3, allocations.getDroppedRoomCount());
+        String report = allocations.report(10);
+        assertTrue(report.contains("heavy room"), report);
+        assertTrue(report.contains("(98 rooms that allocated the fewest bytes were dropped)"), report);
+    }
+
+    private static long counted(AllocationStatistics allocations) {
+        long bytes = 0;
+        for (CommandWord commandWord : CommandWord.values()) {
+            bytes += allocations.getCommandBytes(commandWord);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,70 @@
+package maze_game.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import maze_game.flag.Flag;
+import maze_game.input.CommandWord;
+import maze_game.server.SessionHost;
+
+/**
+ * Tests that statistics recorded by several threads at once lose nothing, and
+ * that they are dumped to a file while a host plays sessions.
+ *
+ * @author Alexander Mertens
+ */
+class CommandStatisticsTest {
+    private static final int THREADS = 4;
+    private static final int RECORDINGS = 100_000;
+    private static final String SCRIPT = "look\ngo north\ntake key\nlook party\nopen west\ngo west\nlook\nback\n"
+            + "go east\nopen north\ntake lever\ninteract luke\nlook north\nhint\nundo\nredo\nquit\n";
+
+    @Test
+    void threadsRecordingAtOnceLoseNothing() throws InterruptedException {
+        CommandStatistics statistics = new CommandStatistics();
+        Thread[] workers = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            workers[i] = new Thread(() -> {
+                for (int j = 0; j < RECORDINGS; j++) {
+                    statistics.recordLatency(CommandWord.GO, 100 + (j & 1023));
+                    statistics.count(Flag.MOVED);
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        StatisticsSnapshot snapshot = statistics.snapshot();
+        assertEquals(THREADS * RECORDINGS, snapshot.getCount(Flag.MOVED));
+        assertEquals(THREADS * RECORDINGS, snapshot.getLatency(CommandWord.GO).getCount());
+        assertEquals(1123, snapshot.getLatency(CommandWord.GO).getMax());
+    }
+
+    @Test
+    void dumpsWhileSessionsArePlayed(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("statistics.txt");
+        StatisticsDumper dumper = new StatisticsDumper(CommandStatistics.global(), AllocationStatistics.global(), file,
+                10);
+        SessionHost host = new SessionHost();
+        byte[] script = SCRIPT.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 200; i++) {
+            host.startSession(new ByteArrayInputStream(script), OutputStream.nullOutputStream());
+        }
+        host.shutdown();
+        dumper.close();
+        assertNull(dumper.getFailure());
+        assertTrue(CommandStatistics.global().snapshot().getLatency(CommandWord.GO).getCount() >= 400);
+        assertTrue(Files.readString(file).startsWith("command statistics at"));
+    }
+}
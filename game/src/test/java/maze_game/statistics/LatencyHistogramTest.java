@@ -0,0 +1,37 @@
+package maze_game.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the percentiles of a latency histogram are within 1/64 of the
+ * exact ones for latencies spread over several orders of magnitude.
+ *
+ * @author Alexander Mertens
+ */
+class LatencyHistogramTest {
+    @Test
+    void percentilesAreWithinTheirBucket() {
+        Random random = new Random(7);
+        long[] values = new long[1_000_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextGaussian() * 2 + 9);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        LatencySnapshot snapshot = histogram.snapshot();
+        for (double percentile : new double[] { 1, 10, 50, 90, 99, 99.9, 99.99, 100 }) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = snapshot.getValueAtPercentile(percentile);
+            assertTrue(Math.abs(estimate - exact) <= exact / 64.0,
+                    "p" + percentile + ": exact " + exact + ", histogram " + estimate);
+        }
+        assertEquals(values[values.length - 1], snapshot.getMax());
+    }
+}
@@ -0,0 +1,36 @@
+package maze_game.world;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import maze_game.GameCreator;
+
+/**
+ * Tests that a generated maze has a room for every cell of its grid, as a
+ * layout, as a graph of rooms and doors and as a CompactWorld whose rooms are
+ * all created.
+ *
+ * @author Alexander Mertens
+ */
+class MazeGenerationTest {
+    private static final int SIDE = 100;
+    private static final int ROOMS = SIDE * SIDE;
+
+    @Test
+    void generatesEveryRoom() {
+        assertEquals(ROOMS, MazeLayout.generate(SIDE, SIDE, 0.1, new Random(SIDE)).getCellCount());
+        GameCreator creator = new GameCreator(SIDE);
+        assertEquals(ROOMS, creator.generateMaze(SIDE, SIDE, 0.1, ROOMS / 50, ROOMS / 100, 5).getRooms().size());
+
+        CompactWorld compact = new GameCreator(SIDE).generateCompactMaze(SIDE, SIDE, 0.1, ROOMS / 50, ROOMS / 100,
+                5);
+        assertEquals(ROOMS, compact.getRoomCount());
+        for (int room = 0; room < ROOMS; room++) {
+            compact.getRoom(room);
+        }
+        assertEquals(ROOMS, compact.getCreatedRoomCount());
+    }
+}
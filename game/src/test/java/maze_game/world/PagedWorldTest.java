@@ -0,0 +1,140 @@
+package maze_game.world;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.Room;
+import maze_game.input.Parser;
+import maze_game.output.BufferedOutputSink;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.state.GameState;
+
+/**
+ * Tests that threads asking a PagedWorld for rooms at the same time get the
+ * same objects while only a few regions are kept, and that random walks print
+ * the same on a paged maze and on the same maze generated in memory.
+ *
+ * @author Alexander Mertens
+ */
+class PagedWorldTest {
+    private static final int THREADS = 4;
+    private static final String[] COMMANDS = { "go north", "go east", "go south", "go west", "look", "back",
+            "look north", "look east", "look south", "look west" };
+    private static final Direction[] DIRECTIONS = { Direction.NORTH, Direction.WEST, Direction.EAST,
+            Direction.SOUTH };
+
+    @Test
+    void threadsSeeTheSameRooms(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("maze.paged");
+        new GameCreator(3).writePagedMaze(file, 40, 40, 0.1, 16, 8, 3, 4);
+        PagedWorld paged = new PagedWorld(file, new GameCreator(3), 2);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Room[]>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int offset = thread * 397;
+            results.add(executor.submit(() -> {
+                // Holding on to every room keeps every region in memory.
+                Room[] rooms = new Room[paged.getRoomCount()];
+                for (int i = 0; i < rooms.length; i++) {
+                    int room = (i + offset) % rooms.length;
+                    rooms[room] = paged.getRoom(room);
+                }
+                return rooms;
+            }));
+        }
+        List<Room[]> rooms = new ArrayList<>();
+        for (Future<Room[]> result : results) {
+            rooms.add(result.get());
+        }
+        executor.shutdown();
+        for (int room = 0; room < paged.getRoomCount(); room++) {
+            for (Room[] seen : rooms) {
+                assertSame(rooms.get(0)[room], seen[room]);
+            }
+        }
+        assertEquals(paged.getRegionCount(), paged.getPageInCount());
+        assertEquals(0, paged.getReloadCount());
+        assertEquals(2, paged.getResidentRegionCount());
+        assertTrue(paged.getEvictionCount() >= paged.getRegionCount() - 2);
+        assertEquals(paged.getRegionCount(), paged.getLiveRegionCount());
+    }
+
+    @Test
+    void walksPrintTheSameAsInMemory(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("maze.paged");
+        int side = 60;
+        new GameCreator(3).writePagedMaze(file, side, side, 0.1, side * side / 50, side * side / 100, 5, 4);
+        // Only one region is kept, so most are dropped and read again.
+        PagedWorld paged = new PagedWorld(file, new GameCreator(3), 1);
+        World compact = new GameCreator(3).generateCompactMaze(side, side, 0.1, side * side / 50, side * side / 100, 5)
+                .toWorld(0, 0);
+        World pagedWorld = paged.toWorld();
+        Parser parser = new Parser(InputStream.nullInputStream(), new NullOutputSink());
+        Random random = new Random(3);
+        for (int walk = 0; walk < 20; walk++) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            OutputSink expectedOut = new BufferedOutputSink(new PrintStream(expected, false, StandardCharsets.UTF_8));
+            OutputSink actualOut = new BufferedOutputSink(new PrintStream(actual, false, StandardCharsets.UTF_8));
+            Game expectedGame = new Game(parser, expectedOut, compact);
+            Game actualGame = new Game(parser, actualOut, pagedWorld);
+            Direction last = Direction.UNKNOWN;
+            for (int i = 0; i < 1000; i++) {
+                String command = COMMANDS[random.nextInt(COMMANDS.length)];
+                if (random.nextInt(4) > 0) {
+                    last = nextMove(expectedGame.getGameState(), last, random);
+                    command = "go " + last;
+                }
+                expectedGame.executeTurn(parser.parseLine(command), parser.getArgument());
+                actualGame.executeTurn(parser.parseLine(command), parser.getArgument());
+            }
+            expectedOut.flush();
+            actualOut.flush();
+            assertEquals(expected.toString(StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8));
+        }
+        assertTrue(paged.getPageInCount() > 1);
+    }
+
+    /**
+     * Picks a random unlocked exit of the current room, going back the way the
+     * player came only from a dead end.
+     */
+    private static Direction nextMove(GameState state, Direction last, Random random) {
+        Room room = state.getCurrentRoom();
+        List<Direction> exits = new ArrayList<>(4);
+        Direction back = Direction.UNKNOWN;
+        for (Direction direction : DIRECTIONS) {
+            Door door = room.getExit(direction);
+            if (door == null || state.isLocked(door)) {
+                continue;
+            }
+            if (last != Direction.UNKNOWN && direction == last.reverse()) {
+                back = direction;
+            } else {
+                exits.add(direction);
+            }
+        }
+        return exits.isEmpty() ? back : exits.get(random.nextInt(exits.size()));
+    }
+}
@@ -0,0 +1,115 @@
+package maze_game.world;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.Item;
+import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.InteractiveObject;
+
+/**
+ * Tests that the records of a world file can be in any order: the Maze of
+ * Astaroth with its records shuffled, so most rooms and keys are used before
+ * they are declared, loads to the same world. Only the doorways keep their
+ * order.
+ *
+ * @author Alexander Mertens
+ */
+class WorldLoaderTest {
+    @Test
+    void shuffledRecordsGiveTheSameWorld() throws IOException {
+        List<String> records = new ArrayList<>();
+        try (InputStream in = Game.class.getResourceAsStream("astaroth.maze")) {
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                // Continuation lines stay with the record they continue.
+                if (line.startsWith("+") || line.startsWith(" ") || line.startsWith("\t")) {
+                    int last = records.size() - 1;
+                    records.set(last, records.get(last) + "\n" + line);
+                } else {
+                    records.add(line);
+                }
+            }
+        }
+        World ordered = load(records);
+        for (int seed = 0; seed < 10; seed++) {
+            List<String> shuffled = new ArrayList<>(records);
+            Collections.shuffle(shuffled, new Random(seed));
+            keepDoorwayOrder(records, shuffled);
+            World world = load(shuffled);
+            assertEquals(ordered.getRooms().size(), world.getRooms().size());
+            assertEquals(canonical(ordered), canonical(world));
+        }
+    }
+
+    /**
+     * Puts the doorways back in their order in the file, as a doorway replaces
+     * an earlier one between the same rooms and puzzles draw their words from
+     * the GameCreator in that order.
+     */
+    private static void keepDoorwayOrder(List<String> records, List<String> shuffled) {
+        Iterator<String> doorways = records.stream().filter(WorldLoaderTest::isDoorway).iterator();
+        for (int i = 0; i < shuffled.size(); i++) {
+            if (isDoorway(shuffled.get(i))) {
+                shuffled.set(i, doorways.next());
+            }
+        }
+    }
+
+    private static boolean isDoorway(String record) {
+        return record.startsWith("link") || record.startsWith("door") || record.startsWith("locked")
+                || record.startsWith("puzzle");
+    }
+
+    private static World load(List<String> records) throws IOException {
+        byte[] file = (String.join("\n", records) + "\n").getBytes(StandardCharsets.UTF_8);
+        return WorldLoader.load(new ByteArrayInputStream(file), "astaroth.maze", new GameCreator(7));
+    }
+
+    /**
+     * Hashes everything that can be seen in the world, regardless of the order
+     * of its rooms and of the exits and contents of every room.
+     */
+    private static long canonical(World world) {
+        long hash = world.getEntrance().getName().hashCode();
+        for (Room room : world.getRooms()) {
+            long roomHash = (room.getName() + room.getDescription()).hashCode();
+            for (Direction direction : Direction.values()) {
+                Door door = room.getExit(direction);
+                if (door != null) {
+                    roomHash += 31L * (direction + door.getName() + door.getDescription(true)
+                            + door.getDescription(false) + door.getDestination().getName() + door.getKeyName())
+                                    .hashCode();
+                }
+            }
+            for (Item item : room.getItems()) {
+                roomHash += 961L * (item.getName() + item.getDescription()).hashCode();
+            }
+            for (InteractiveObject object : room.getObjects()) {
+                roomHash += 29791L * object.getLongDescription().hashCode();
+            }
+            hash += roomHash * roomHash;
+        }
+        for (InteractiveObject object : world.getRequiredObjects()) {
+            hash += object.getName().hashCode();
+        }
+        return hash;
+    }
+}
@@ -1,28 +1,89 @@
 package maze_game;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
 import maze_game.directions.Direction;
 import maze_game.gameobjects.Door;
+import maze_game.gameobjects.GameObject;
+import maze_game.gameobjects.Item;
 import maze_game.gameobjects.LockedDoor;
 import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.Character;
 import maze_game.gameobjects.interactive.InteractiveObject;
 import maze_game.gameobjects.interactive.LinkedMechanism;
 import maze_game.gameobjects.interactive.LockMechanism;
+import maze_game.state.Zobrist;
+import maze_game.world.CompactWorld;
+import maze_game.world.MazeLayout;
+import maze_game.world.PagedWorldWriter;
+import maze_game.world.World;
 
 /**
  * Class providing methods to help create the rooms and puzzles occupying the
  * game.
+ * 
+ * The seed of a GameCreator is also the seed of the worlds it creates: every
+ * object it creates gets the key of its place in the order of creation (see
+ * Zobrist), so a world created again from the same seed has the same keys.
  */
 public class GameCreator {
     private static final String puzzleWords[] = new String[] { "arch", "back", "take", "bats", "bone", "bugs", "burn",
             "bite", "cane", "cast", "chop", "echo", "luck", "alive", "awful", "blind", "curse", "ivory" };
+    private static final String[] roomDescriptions = new String[] {
+            "A damp stone chamber, the walls are covered in moss.",
+            "A narrow room, the ceiling is so low you have to duck.",
+            "An empty room, the only sound is the dripping of water somewhere nearby.",
+            "A dusty room filled with broken furniture.",
+            "A dark room lit only by a single flickering torch." };
+    private static final String doorName = "door";
+    private static final String doorDescription = "A simple wooden door.";
+    private static final String friendDescription = "One of your friends.";
+    private static final String friendInitialDialogue = "You found me, let us get out of here!";
+    private static final String friendDefaultDialogue = "Let us get out of here as soon as possible.";
+    // Amount of random picks before falling back to a cell that is always valid.
+    private static final int MAX_TRIES = 64;
+    private final long seed;
     private Random generator;
+    // Amount of objects that have been given a key.
+    private long created;
 
     public GameCreator() {
-        generator = new Random();
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Creates a GameCreator whose random choices are determined by the given seed.
+     * 
+     * @param seed Seed of the random generator.
+     */
+    public GameCreator(long seed) {
+        this.seed = seed;
+        generator = new Random(seed);
+    }
+
+    /**
+     * @return Returns the seed of the random generator and of the worlds created.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gives the given object the place and key of the next object created for
+     * the world.
+     * Objects created by this GameCreator already have one.
+     * 
+     * @param object An object of the world being created.
+     * @return Returns the given object.
+     */
+    public <T extends GameObject> T number(T object) {
+        object.setPlace(seed, Zobrist.CREATED, created++);
+        return object;
     }
 
     /**
@@ -50,7 +111,7 @@ public class GameCreator {
      * @param doorDescription
      */
     public void linkRoomsOneWay(Room room1, Room room2, Direction direction, String doorName, String doorDescription) {
-        Door doorTo2 = new Door(doorName, doorDescription, room2);
+        Door doorTo2 = number(new Door(doorName, doorDescription, room2));
         room1.setExit(direction, doorTo2);
     }
 
@@ -76,26 +137,29 @@ public class GameCreator {
         LinkedMechanism previous = null;
         LinkedMechanism current;
         for (int i = 0; i < wordLength - 1; i++) {
-            current = new LinkedMechanism(String.valueOf(charArray[i]), mechanismName
+            current = number(new LinkedMechanism(String.valueOf(charArray[i]), mechanismName
                     + " with an accompanying plaque with the letter " + charArray[i] + " inscribed on it.",
-                    failureMessage, succesMessage, previous, true);
+                    failureMessage, succesMessage, previous, true));
             mechanismList.add(current);
             previous = current;
         }
 
         int finalCharIndex = wordLength - 1;
-        LockMechanism finalMechanism = new LockMechanism(String.valueOf(charArray[finalCharIndex]), mechanismName
-                + " with an accompanying plaque with the letter " + charArray[finalCharIndex] + " inscribed on it.",
-                failureMessage, finalMessage, previous, true);
+        LockMechanism finalMechanism = number(new LockMechanism(String.valueOf(charArray[finalCharIndex]),
+                mechanismName + " with an accompanying plaque with the letter " + charArray[finalCharIndex]
+                        + " inscribed on it.",
+                failureMessage, finalMessage, previous, true));
         mechanismList.add(finalMechanism);
         return mechanismList;
     }
 
     public List<InteractiveObject> createRandomSequencePuzzle(String failureMessage, String succesMessage,
             String finalMessage, String mechanismName) {
-        int randomIndex = generator.nextInt(puzzleWords.length);
-        return createSequencePuzzle(puzzleWords[randomIndex], failureMessage, succesMessage, finalMessage,
-                mechanismName);
+        return createSequencePuzzle(randomPuzzleWord(), failureMessage, succesMessage, finalMessage, mechanismName);
+    }
+
+    private String randomPuzzleWord() {
+        return puzzleWords[generator.nextInt(puzzleWords.length)];
     }
 
     /**
@@ -114,9 +178,28 @@ public class GameCreator {
             String mechanismName) {
         List<InteractiveObject> puzzle = createRandomSequencePuzzle(failureMessage, succesMessage, finalMessage,
                 mechanismName);
+        addPuzzle(room1, room2, direction, doorName, openDoorDescription, closedDoorDescription, puzzle);
+    }
+
+    /**
+     * Adds the given puzzle to the first given room, e.g. one created by
+     * createSequencePuzzle. Also adds a locked door from room1 to room2 in the
+     * given direction that can only be opened by solving the puzzle.
+     * 
+     * @param room1
+     * @param room2
+     * @param direction
+     * @param doorName
+     * @param openDoorDescription
+     * @param closedDoorDescription
+     * @param puzzle                The mechanisms of the puzzle, the last one
+     *                              being the LockMechanism.
+     */
+    public void addPuzzle(Room room1, Room room2, Direction direction, String doorName, String openDoorDescription,
+            String closedDoorDescription, List<InteractiveObject> puzzle) {
         LockMechanism key = (LockMechanism) puzzle.get(puzzle.size() - 1);
-        Door doorTo1 = new LockedDoor(doorName, openDoorDescription, closedDoorDescription, room1, key);
-        Door doorTo2 = new LockedDoor(doorName, openDoorDescription, closedDoorDescription, room2, key);
+        Door doorTo1 = number(new LockedDoor(doorName, openDoorDescription, closedDoorDescription, room1, key));
+        Door doorTo2 = number(new LockedDoor(doorName, openDoorDescription, closedDoorDescription, room2, key));
         key.setDoor(doorTo1);
         key.setDoor(doorTo2);
         room1.setExit(direction, doorTo2);
@@ -125,4 +208,294 @@ public class GameCreator {
             room1.addInteractive(object);
         }
     }
+
+    /**
+     * Generates a maze of width by height rooms in a grid. The entrance is the
+     * north west room, which is also the exit. Some doors are locked, the key of a
+     * locked door is always placed in a room that can be reached without passing
+     * that door or any door whose key can only be found after it. Some doorways are
+     * blocked by a sequence puzzle in the room in front of them. The characters
+     * that need to be rescued are placed in random rooms.
+     * 
+     * The layout is generated on primitive arrays (see MazeLayout), the rooms are
+     * only created once the layout is done.
+     * 
+     * @param width          Amount of rooms from west to east.
+     * @param height         Amount of rooms from north to south.
+     * @param braidFactor    Chance between 0 and 1 that a dead end is opened up,
+     *                       0 gives a perfect maze.
+     * @param lockCount      Amount of locked doors.
+     * @param puzzleCount    Amount of doors blocked by a puzzle.
+     * @param characterCount Amount of characters to be rescued.
+     * @return Returns the generated world.
+     */
+    public World generateMaze(int width, int height, double braidFactor, int lockCount, int puzzleCount,
+            int characterCount) {
+        MazeLayout layout = MazeLayout.generate(width, height, braidFactor, generator);
+        int cellCount = layout.getCellCount();
+        Room[] rooms = new Room[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            rooms[cell] = number(new Room("room " + (cell % width) + "," + (cell / width),
+                    roomDescriptions[generator.nextInt(roomDescriptions.length)]));
+        }
+        MazePlan plan = new MazePlan(layout, lockCount, puzzleCount);
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (Direction direction : new Direction[] { Direction.EAST, Direction.SOUTH }) {
+                if (!layout.isOpen(cell, direction.ordinal())) {
+                    continue;
+                }
+                int other = layout.neighbour(cell, direction.ordinal());
+                if (!plan.isSpecial(cell, other)) {
+                    linkRoom(rooms[cell], rooms[other], direction, doorName, doorDescription);
+                }
+            }
+        }
+
+        for (int lock = 0; lock < plan.lockCount; lock++) {
+            int cell = plan.lockedCells[lock];
+            int parent = layout.getParent(cell);
+            Item key = createKey(lock);
+            rooms[plan.keyCells[lock]].addItem(key);
+            Direction direction = Direction.values()[layout.directionBetween(parent, cell)];
+            rooms[parent].setExit(direction, number(new LockedDoor("locked door", "The door has been unlocked.",
+                    lockedDescription(lock), rooms[cell], key)));
+            linkRoomsOneWay(rooms[cell], rooms[parent], direction.reverse(), doorName, doorDescription);
+        }
+
+        for (int cell = 1; cell < cellCount; cell++) {
+            if (plan.special[cell] == MazePlan.PUZZLE) {
+                int parent = layout.getParent(cell);
+                Direction direction = Direction.values()[layout.directionBetween(parent, cell)];
+                addPuzzle(rooms[parent], rooms[cell], direction, "sealed door", "The door stands open.",
+                        "A sealed door without a handle.", "You hear a *clunk* as the mechanism resets.",
+                        "You hear a satisfying *click*.", "With a last *click* the door swings open.", "A button");
+            }
+        }
+
+        List<InteractiveObject> characters = new ArrayList<>();
+        for (int i = 0; i < characterCount && cellCount > 1; i++) {
+            Character character = createFriend(i);
+            rooms[1 + generator.nextInt(cellCount - 1)].addInteractive(character);
+            characters.add(character);
+        }
+        return new World(Arrays.asList(rooms), rooms[0], rooms[0], characters);
+    }
+
+    /**
+     * Generates the same kind of maze as generateMaze, but keeps it in a
+     * CompactWorld. Rooms are only created once the player reaches them, so the
+     * maze takes a few dozen bytes per room instead of several hundred.
+     * 
+     * @param width          Amount of rooms from west to east.
+     * @param height         Amount of rooms from north to south.
+     * @param braidFactor    Chance between 0 and 1 that a dead end is opened up,
+     *                       0 gives a perfect maze.
+     * @param lockCount      Amount of locked doors.
+     * @param puzzleCount    Amount of doors blocked by a puzzle.
+     * @param characterCount Amount of characters to be rescued.
+     * @return Returns the generated maze.
+     */
+    public CompactWorld generateCompactMaze(int width, int height, double braidFactor, int lockCount,
+            int puzzleCount, int characterCount) {
+        MazeLayout layout = MazeLayout.generate(width, height, braidFactor, generator);
+        int cellCount = layout.getCellCount();
+        CompactWorld world = new CompactWorld(layout, roomDescriptions, seed);
+        for (int cell = 0; cell < cellCount; cell++) {
+            world.setDescription(cell, generator.nextInt(roomDescriptions.length));
+        }
+        MazePlan plan = new MazePlan(layout, lockCount, puzzleCount);
+
+        for (int lock = 0; lock < plan.lockCount; lock++) {
+            int cell = plan.lockedCells[lock];
+            int parent = layout.getParent(cell);
+            Item key = createKey(lock);
+            world.addItem(plan.keyCells[lock], key);
+            Direction direction = Direction.values()[layout.directionBetween(parent, cell)];
+            world.lockExit(parent, direction, "locked door", "The door has been unlocked.", lockedDescription(lock),
+                    key);
+        }
+
+        for (int cell = 1; cell < cellCount; cell++) {
+            if (plan.special[cell] == MazePlan.PUZZLE) {
+                int parent = layout.getParent(cell);
+                Direction direction = Direction.values()[layout.directionBetween(parent, cell)];
+                List<InteractiveObject> puzzle = createRandomSequencePuzzle(
+                        "You hear a *clunk* as the mechanism resets.", "You hear a satisfying *click*.",
+                        "With a last *click* the door swings open.", "A button");
+                LockMechanism key = (LockMechanism) puzzle.get(puzzle.size() - 1);
+                key.setDoor(world.lockExit(parent, direction, "sealed door", "The door stands open.",
+                        "A sealed door without a handle.", key));
+                key.setDoor(world.lockExit(cell, direction.reverse(), "sealed door", "The door stands open.",
+                        "A sealed door without a handle.", key));
+                for (InteractiveObject object : puzzle) {
+                    world.addInteractive(parent, object);
+                }
+            }
+        }
+
+        List<InteractiveObject> characters = new ArrayList<>();
+        for (int i = 0; i < characterCount && cellCount > 1; i++) {
+            Character character = createFriend(i);
+            world.addInteractive(1 + generator.nextInt(cellCount - 1), character);
+            characters.add(character);
+        }
+        world.setRequiredObjects(characters);
+        return world;
+    }
+
+    /**
+     * Generates the same kind of maze as generateCompactMaze and writes it to a
+     * file that can be opened as a PagedWorld. With the same seed the maze is the
+     * same as the one generateCompactMaze generates. Only the layout and the ids
+     * of its rooms are kept in memory while the maze is generated.
+     * 
+     * @param file           The file to write, it's replaced if it exists.
+     * @param width          Amount of rooms from west to east.
+     * @param height         Amount of rooms from north to south.
+     * @param braidFactor    Chance between 0 and 1 that a dead end is opened up,
+     *                       0 gives a perfect maze.
+     * @param lockCount      Amount of locked doors.
+     * @param puzzleCount    Amount of doors blocked by a puzzle.
+     * @param characterCount Amount of characters to be rescued.
+     * @param regionSide     Width and height of the regions of the file in rooms.
+     * @throws IOException If the file can't be written.
+     */
+    public void writePagedMaze(Path file, int width, int height, double braidFactor, int lockCount,
+            int puzzleCount, int characterCount, int regionSide) throws IOException {
+        MazeLayout layout = MazeLayout.generate(width, height, braidFactor, generator);
+        int cellCount = layout.getCellCount();
+        PagedWorldWriter writer = new PagedWorldWriter(layout, roomDescriptions, regionSide);
+        for (int cell = 0; cell < cellCount; cell++) {
+            writer.setDescription(cell, generator.nextInt(roomDescriptions.length));
+        }
+        MazePlan plan = new MazePlan(layout, lockCount, puzzleCount);
+
+        for (int lock = 0; lock < plan.lockCount; lock++) {
+            int cell = plan.lockedCells[lock];
+            int parent = layout.getParent(cell);
+            Item key = createKey(lock);
+            int keyIndex = writer.addKey(plan.keyCells[lock], key.getName(), key.getDescription());
+            Direction direction = Direction.values()[layout.directionBetween(parent, cell)];
+            writer.lockExit(parent, direction, "locked door", "The door has been unlocked.", lockedDescription(lock),
+                    keyIndex);
+        }
+
+        for (int cell = 1; cell < cellCount; cell++) {
+            if (plan.special[cell] == MazePlan.PUZZLE) {
+                int parent = layout.getParent(cell);
+                Direction direction = Direction.values()[layout.directionBetween(parent, cell)];
+                writer.addPuzzle(parent, direction, randomPuzzleWord(), "You hear a *clunk* as the mechanism resets.",
+                        "You hear a satisfying *click*.", "With a last *click* the door swings open.", "A button",
+                        "sealed door", "The door stands open.", "A sealed door without a handle.");
+            }
+        }
+
+        for (int i = 0; i < characterCount && cellCount > 1; i++) {
+            writer.addCharacter(1 + generator.nextInt(cellCount - 1), friendName(i), friendDescription,
+                    friendInitialDialogue, friendDefaultDialogue);
+        }
+        writer.write(file, 0, 0);
+    }
+
+    private Item createKey(int lock) {
+        String number = String.valueOf(lock + 1);
+        return number(new Item("key " + number, "a key with the number " + number + " engraved on it"));
+    }
+
+    private String lockedDescription(int lock) {
+        return "This door is locked, its lock has the number " + (lock + 1) + " on it.";
+    }
+
+    private Character createFriend(int index) {
+        return number(
+                new Character(friendName(index), friendDescription, friendInitialDialogue, friendDefaultDialogue));
+    }
+
+    private String friendName(int index) {
+        return "Friend " + (index + 1);
+    }
+
+    private int pickCell(int cellCount) {
+        return generator.nextInt(cellCount);
+    }
+
+    /**
+     * Decides which doors of a maze are locked or blocked by a puzzle and where
+     * the keys go. Only doors between a cell and its parent in the search tree of
+     * the layout are chosen.
+     */
+    private class MazePlan {
+        private static final int PUZZLE = Integer.MAX_VALUE;
+        private final MazeLayout layout;
+        // For every cell, the door from its parent is marked by the index of its
+        // lock in search order, PUZZLE for a puzzle or -1 for an ordinary door.
+        private final int[] special;
+        private final int[] lockedCells;
+        private final int[] keyCells;
+        private int lockCount;
+
+        private MazePlan(MazeLayout layout, int maxLocks, int maxPuzzles) {
+            this.layout = layout;
+            int cellCount = layout.getCellCount();
+            special = new int[cellCount];
+            Arrays.fill(special, -1);
+            boolean[] hasPuzzle = new boolean[cellCount];
+            for (int i = 0; i < maxPuzzles; i++) {
+                int cell = pickCell(cellCount);
+                int parent = cell > 0 ? layout.getParent(cell) : -1;
+                if (parent >= 0 && special[cell] == -1 && !hasPuzzle[parent]) {
+                    special[cell] = PUZZLE;
+                    hasPuzzle[parent] = true;
+                }
+            }
+            for (int i = 0; i < maxLocks; i++) {
+                int cell = pickCell(cellCount);
+                if (cell > 0 && special[cell] == -1) {
+                    special[cell] = 0;
+                }
+            }
+
+            // Number the locks in search order. maxLock holds the highest lock on the
+            // path from the entrance to every cell, the key of lock j can be placed in
+            // any cell with a maxLock below j.
+            lockedCells = new int[maxLocks];
+            int[] maxLock = new int[cellCount];
+            maxLock[0] = -1;
+            for (int index = 1; index < cellCount; index++) {
+                int cell = layout.getCellInOrder(index);
+                maxLock[cell] = maxLock[layout.getParent(cell)];
+                if (special[cell] == 0) {
+                    special[cell] = lockCount;
+                    maxLock[cell] = lockCount;
+                    lockedCells[lockCount++] = cell;
+                }
+            }
+
+            keyCells = new int[lockCount];
+            for (int lock = 0; lock < lockCount; lock++) {
+                keyCells[lock] = layout.getParent(lockedCells[lock]);
+                for (int tries = 0; tries < MAX_TRIES; tries++) {
+                    int candidate = pickCell(cellCount);
+                    if (maxLock[candidate] < lock) {
+                        keyCells[lock] = candidate;
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return Returns true if the door between the given neighbouring cells is
+         *         locked or blocked by a puzzle.
+         */
+        private boolean isSpecial(int cell, int other) {
+            if (layout.getParent(other) == cell) {
+                return special[other] != -1;
+            } else if (layout.getParent(cell) == other) {
+                return special[cell] != -1;
+            }
+            return false;
+        }
+    }
 }
@@ -10,17 +10,14 @@ import maze_game.state.GameState;
  * @author Alexander Mertens
  */
 public class BackCommand extends Command {
-    public BackCommand(String argument) {
-        super(argument);
-    }
 
     @Override
-    public boolean execute(GameState gameState) {
-        Flag flag = gameState.goBack();
+    public boolean execute(GameState gameState, String argument) {
+        Flag flag = report(gameState, gameState.goBack());
         if (!flag.isSuccess()) {
-            flag.printMessage();
+            flag.printMessage(gameState.getOutput());
         } else {
-            System.out.println(gameState.getStateDescription());
+            gameState.getOutput().println(gameState.getStateDescription());
         }
         return false;
     }
@@ -1,5 +1,6 @@
 package maze_game.commands;
 
+import maze_game.flag.Flag;
 import maze_game.state.GameState;
 
 /**
@@ -7,43 +8,34 @@ import maze_game.state.GameState;
  * game.
  * 
  * Subclasses must implement the abstract execute command, such that the command
- * can be executed.
+ * can be executed. The argument of the command is only passed at execution, so
+ * commands are stateless and can be shared.
  * 
  * @author Alexander Mertens
  */
 public abstract class Command {
-    private final String argument;
-
     /**
-     * Create a command object.
+     * Executes the command. Commands hold no state of their own, a single
+     * instance of each command is shared by all games.
      * 
-     * @param argument The second word of the command. Can be null if the command
-     *                 doesn't require an argument.
-     */
-    public Command(String argument) {
-        this.argument = argument;
-    }
-
-    /**
-     * @return Returns the argument of the command. Returns null if the command has
-     *         no argument.
-     */
-    public String getArgument() {
-        return argument;
-    }
-
-    /**
-     * @return true if the command has a second word.
+     * @param gameState State of the game the command is executed on.
+     * @param argument  The second word of the command. Can be null if the command
+     *                  doesn't require an argument.
+     * @return Returns true if the game should terminate.
      */
-    public boolean hasArgument() {
-        return (argument != null);
-    }
+    public abstract boolean execute(GameState gameState, String argument);
 
     /**
-     * Executes the command.
+     * Reports the outcome of a command: it's kept as the outcome of the command
+     * by the game state, from where TimedCommand counts it in the statistics of
+     * all games.
      * 
-     * @param player Player of the game.
-     * @return Returns true if the game should terminate.
+     * @param gameState State of the game the command is executed on.
+     * @param flag      The flag the game state returned for the command.
+     * @return Returns the given flag.
      */
-    public abstract boolean execute(GameState gameState);
+    protected static Flag report(GameState gameState, Flag flag) {
+        gameState.setOutcome(flag);
+        return flag;
+    }
 }
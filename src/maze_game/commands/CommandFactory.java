@@ -1,41 +1,132 @@
 package maze_game.commands;
 
+import java.util.ServiceLoader;
+
 import maze_game.input.CommandWord;
 
 /**
- * This class creates Command objects from given commandWords and argument.
+ * This class hands out the Command objects for given commandWords. Commands are
+ * stateless, so there's a single shared instance of every command, held in a
+ * table indexed by the ordinal of its CommandWord.
+ * 
+ * The built in commands are registered here, other commands are registered by
+ * a CommandProvider found by a ServiceLoader. Every command is handed out
+ * wrapped in a TimedCommand, which records how long it takes in the statistics
+ * of all games, unless the factory is asked for untimed commands: games that
+ * are replayed, like those rebuilt by Recovery, leave the statistics and
+ * recordings as they are.
+ * 
+ * The stats command shows the statistics of every game in the process, so it's
+ * only registered for operators: when the system property maze_game.operator
+ * is true, or for the player on the local console. Everyone else gets an
+ * unknown command for it.
  * 
  * @author Alexander Mertens
  */
 public class CommandFactory {
-    public Command getCommand(CommandWord commandWord, String argument) {
+    private static final Command[] UNTIMED_PLAYER_COMMANDS = createCommands(false);
+    private static final Command[] UNTIMED_OPERATOR_COMMANDS = createCommands(true);
+    private static final Command[] PLAYER_COMMANDS = timed(UNTIMED_PLAYER_COMMANDS);
+    private static final Command[] OPERATOR_COMMANDS = timed(UNTIMED_OPERATOR_COMMANDS);
+
+    private final Command[] commands;
+
+    /**
+     * Creates a factory handing out the commands of operators only if the system
+     * property maze_game.operator is true.
+     */
+    public CommandFactory() {
+        this(false);
+    }
+
+    /**
+     * @param localConsole True if the commands are typed on the console of this
+     *                     process, which is used by an operator.
+     */
+    public CommandFactory(boolean localConsole) {
+        this(localConsole, true);
+    }
+
+    /**
+     * @param localConsole True if the commands are typed on the console of this
+     *                     process, which is used by an operator.
+     * @param timed        False if the commands mustn't be timed, for games
+     *                     that replay commands which have been timed before.
+     */
+    public CommandFactory(boolean localConsole, boolean timed) {
+        boolean operator = localConsole || Boolean.getBoolean("maze_game.operator");
+        if (timed) {
+            commands = operator ? OPERATOR_COMMANDS : PLAYER_COMMANDS;
+        } else {
+            commands = operator ? UNTIMED_OPERATOR_COMMANDS : UNTIMED_PLAYER_COMMANDS;
+        }
+    }
+
+    /**
+     * Returns the command for the given command word. Returns a command reporting
+     * an unknown command if the command word is null or has no command.
+     * 
+     * @param commandWord The command word of the command.
+     * @return The command for the command word.
+     */
+    public Command getCommand(CommandWord commandWord) {
         if (commandWord == null) {
-            return new UnknownCommand(argument);
+            return commands[CommandWord.UNKNOWN.ordinal()];
+        }
+        return commands[commandWord.ordinal()];
+    }
+
+    private static Command[] createCommands(boolean operator) {
+        Command[] commands = new Command[CommandWord.values().length];
+        register(commands, CommandWord.DROP, new DropCommand());
+        register(commands, CommandWord.BACK, new BackCommand());
+        register(commands, CommandWord.GO, new GoCommand());
+        register(commands, CommandWord.HELP, new HelpCommand(operator));
+        register(commands, CommandWord.LOOK, new LookCommand());
+        register(commands, CommandWord.TAKE, new TakeCommand());
+        register(commands, CommandWord.QUIT, new QuitCommand());
+        register(commands, CommandWord.OPEN, new OpenCommand());
+        register(commands, CommandWord.INTERACT, new InteractCommand());
+        register(commands, CommandWord.HINT, new HintCommand());
+        register(commands, CommandWord.TRAVEL, new TravelCommand());
+        register(commands, CommandWord.UNDO, new UndoCommand());
+        register(commands, CommandWord.REDO, new RedoCommand());
+        if (operator) {
+            register(commands, CommandWord.STATS, new StatsCommand());
+        }
+
+        for (CommandProvider provider : ServiceLoader.load(CommandProvider.class)) {
+            register(commands, provider.getCommandWord(), provider.getCommand());
         }
 
-        switch (commandWord) {
-            case DROP:
-                return new DropCommand(argument);
-            case BACK:
-                return new BackCommand(argument);
-            case GO:
-                return new GoCommand(argument);
-            case HELP:
-                return new HelpCommand(argument);
-            case LOOK:
-                return new LookCommand(argument);
-            case TAKE:
-                return new TakeCommand(argument);
-            case QUIT:
-                return new QuitCommand(argument);
-            case OPEN:
-                return new OpenCommand(argument);
-            case INTERACT:
-                return new InteractCommand(argument);
-            case HINT:
-                return new HintCommand(argument);
-            default:
-                return new UnknownCommand(argument);
+        Command unknown = new UnknownCommand();
+        for (int i = 0; i < commands.length; i++) {
+            if (commands[i] == null) {
+                commands[i] = unknown;
+            }
         }
+        return commands;
+    }
+
+    /**
+     * Wraps every command in a TimedCommand. Command words without a command
+     * are timed as unknown commands.
+     */
+    private static Command[] timed(Command[] untimed) {
+        Command[] commands = new Command[untimed.length];
+        Command unknown = untimed[CommandWord.UNKNOWN.ordinal()];
+        Command timedUnknown = new TimedCommand(CommandWord.UNKNOWN, unknown);
+        for (int i = 0; i < commands.length; i++) {
+            if (untimed[i] == unknown) {
+                commands[i] = timedUnknown;
+            } else {
+                commands[i] = new TimedCommand(CommandWord.values()[i], untimed[i]);
+            }
+        }
+        return commands;
+    }
+
+    private static void register(Command[] commands, CommandWord commandWord, Command command) {
+        commands[commandWord.ordinal()] = command;
     }
 }
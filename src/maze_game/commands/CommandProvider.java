@@ -0,0 +1,25 @@
+package maze_game.commands;
+
+import maze_game.input.CommandWord;
+
+/**
+ * Registers a command with the CommandFactory. Implementations are discovered
+ * with a ServiceLoader, so a command can be added to the game by listing its
+ * provider in META-INF/services/maze_game.commands.CommandProvider instead of
+ * editing the CommandFactory. A provider for a command word that already has a
+ * command replaces that command.
+ * 
+ * @author Alexander Mertens
+ */
+public interface CommandProvider {
+    /**
+     * @return Returns the command word that selects the command.
+     */
+    CommandWord getCommandWord();
+
+    /**
+     * @return Returns the command. It is shared by all games, so it must not hold
+     *         any state.
+     */
+    Command getCommand();
+}
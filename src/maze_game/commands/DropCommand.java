@@ -10,14 +10,11 @@ import maze_game.state.GameState;
  * @author Alexander Mertens
  */
 public class DropCommand extends Command {
-    public DropCommand(String argument) {
-        super(argument);
-    }
 
     @Override
-    public boolean execute(GameState gameState) {
-        Flag flag = gameState.playerDrops(getArgument());
-        flag.printMessage();
+    public boolean execute(GameState gameState, String argument) {
+        Flag flag = report(gameState, gameState.playerDrops(argument));
+        flag.printMessage(gameState.getOutput());
         return false;
     }
 }
\ No newline at end of file
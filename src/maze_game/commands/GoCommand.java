@@ -11,17 +11,13 @@ import maze_game.state.GameState;
  */
 public class GoCommand extends Command {
 
-    public GoCommand(String argument) {
-        super(argument);
-    }
-
     @Override
-    public boolean execute(GameState gameState) {
-        Flag flag = gameState.go(getArgument());
+    public boolean execute(GameState gameState, String argument) {
+        Flag flag = report(gameState, gameState.go(argument));
         if (flag.isSuccess()) {
-            System.out.println(gameState.getStateDescription());
+            gameState.getOutput().println(gameState.getStateDescription());
         } else {
-            flag.printMessage();
+            flag.printMessage(gameState.getOutput());
         }
         return false;
     }
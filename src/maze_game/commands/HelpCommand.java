@@ -9,22 +9,25 @@ import maze_game.state.GameState;
  * @author Alexander Mertens
  */
 public class HelpCommand extends Command {
-    String commandWords;
+    private final String commandWords;
 
-    public HelpCommand(String argument) {
-        super(argument);
-        commandWords = "";
+    /**
+     * @param operator True if the commands of operators are listed as well.
+     */
+    public HelpCommand(boolean operator) {
+        String words = "";
         for (CommandWord commandWord : CommandWord.values()) {
-            if (commandWord != CommandWord.UNKNOWN) {
-                commandWords += " " + commandWord.toString();
+            if (commandWord != CommandWord.UNKNOWN && (operator || commandWord != CommandWord.STATS)) {
+                words += " " + commandWord.toString();
             }
         }
+        commandWords = words;
     }
 
     @Override
-    public boolean execute(GameState gameState) {
-        System.out.println("Your command words are: ");
-        System.out.println(commandWords);
+    public boolean execute(GameState gameState, String argument) {
+        gameState.getOutput().println("Your command words are: ");
+        gameState.getOutput().println(commandWords);
         return false;
     }
 }
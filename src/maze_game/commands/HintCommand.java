@@ -7,12 +7,8 @@ import maze_game.state.GameState;
  */
 public class HintCommand extends Command {
 
-    public HintCommand(String argument) {
-        super(argument);
-    }
-
     @Override
-    public boolean execute(GameState gameState) {
+    public boolean execute(GameState gameState, String argument) {
         gameState.printHint();
         return false;
     }
@@ -12,14 +12,10 @@ import maze_game.state.GameState;
  */
 public class InteractCommand extends Command {
 
-    public InteractCommand(String argument) {
-        super(argument);
-    }
-
-    public boolean execute(GameState gameState) {
-        Flag flag = gameState.interact(getArgument());
+    public boolean execute(GameState gameState, String argument) {
+        Flag flag = report(gameState, gameState.interact(argument));
         if (!flag.isSuccess()) {
-            flag.printMessage();
+            flag.printMessage(gameState.getOutput());
         }
         return false;
     }
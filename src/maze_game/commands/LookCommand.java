@@ -11,21 +11,17 @@ import maze_game.state.GameState;
  */
 public class LookCommand extends Command {
 
-    public LookCommand(String argument) {
-        super(argument);
-    }
-
     @Override
-    public boolean execute(GameState gameState) {
-        if (hasArgument()) {
-            String description = gameState.findDescription(getArgument());
+    public boolean execute(GameState gameState, String argument) {
+        if (argument != null) {
+            String description = gameState.findDescription(argument);
             if (description != null) {
-                System.out.println(description);
+                gameState.getOutput().println(description);
             } else {
-                System.out.println("There's no such object.");
+                gameState.getOutput().println("There's no such object.");
             }
         } else {
-            System.out.println(gameState.getStateDescription());
+            gameState.getOutput().println(gameState.getStateDescription());
         }
         return false;
     }
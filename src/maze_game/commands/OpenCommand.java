@@ -11,13 +11,9 @@ import maze_game.state.GameState;
  */
 public class OpenCommand extends Command {
 
-    public OpenCommand(String argument) {
-        super(argument);
-    }
-
-    public boolean execute(GameState gameState) {
-        Flag flag = gameState.openDoor(getArgument());
-        flag.printMessage();
+    public boolean execute(GameState gameState, String argument) {
+        Flag flag = report(gameState, gameState.openDoor(argument));
+        flag.printMessage(gameState.getOutput());
         return false;
     }
 
@@ -8,12 +8,9 @@ import maze_game.state.GameState;
  * @author Alexander Mertens
  */
 public class QuitCommand extends Command {
-    public QuitCommand(String argument) {
-        super(argument);
-    }
 
     @Override
-    public boolean execute(GameState gameState) {
+    public boolean execute(GameState gameState, String argument) {
         return true;
     }
 }
@@ -0,0 +1,24 @@
+package maze_game.commands;
+
+import maze_game.flag.Flag;
+import maze_game.state.GameState;
+
+/**
+ * Command that when executed instructs the gameState to redo turns that were
+ * undone, one turn or as many as the argument says. Prints out a Flag message
+ * and the room the player is in afterwards.
+ * 
+ * @author Alexander Mertens
+ */
+public class RedoCommand extends Command {
+
+    @Override
+    public boolean execute(GameState gameState, String argument) {
+        Flag flag = report(gameState, gameState.redo(argument));
+        flag.printMessage(gameState.getOutput());
+        if (flag.isSuccess()) {
+            gameState.getOutput().println(gameState.getStateDescription());
+        }
+        return false;
+    }
+}
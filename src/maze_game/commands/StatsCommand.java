@@ -0,0 +1,29 @@
+package maze_game.commands;
+
+import maze_game.state.GameState;
+import maze_game.statistics.AllocationStatistics;
+import maze_game.statistics.CommandStatistics;
+
+/**
+ * Command for operators that when executed prints the statistics of all games
+ * in this process: the latencies and outcomes of the commands, or with the
+ * argument "alloc", the commands and rooms that allocated the most bytes.
+ * 
+ * @author Alexander Mertens
+ */
+public class StatsCommand extends Command {
+    // Amount of offenders listed in every table of the allocation report.
+    private static final int ALLOCATION_OFFENDERS = 10;
+
+    @Override
+    public boolean execute(GameState gameState, String argument) {
+        if (argument == null) {
+            gameState.getOutput().print(CommandStatistics.global().snapshot().format());
+        } else if (argument.equals("alloc")) {
+            gameState.getOutput().print(AllocationStatistics.global().report(ALLOCATION_OFFENDERS));
+        } else {
+            gameState.getOutput().println("Try stats or stats alloc.");
+        }
+        return false;
+    }
+}
@@ -10,14 +10,11 @@ import maze_game.state.GameState;
  * @author Alexander Mertens
  */
 public class TakeCommand extends Command {
-    public TakeCommand(String argument) {
-        super(argument);
-    }
 
     @Override
-    public boolean execute(GameState gameState) {
-        Flag flag = gameState.playerTakes(getArgument());
-        flag.printMessage();
+    public boolean execute(GameState gameState, String argument) {
+        Flag flag = report(gameState, gameState.playerTakes(argument));
+        flag.printMessage(gameState.getOutput());
         return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package maze_game.commands;
+
+import maze_game.events.CommandEvent;
+import maze_game.input.CommandWord;
+import maze_game.state.GameState;
+import maze_game.statistics.AllocationStatistics;
+import maze_game.statistics.CommandStatistics;
+
+/**
+ * Executes a command and records how long it took in the latency histogram of
+ * its command word and the outcome it reported, in the statistics of all
+ * games. While a flight recording
+ * asks for it, a CommandEvent is written for the command as well, and while
+ * allocations are counted, the bytes it allocated are recorded for its command
+ * word and the room it was executed in.
+ * 
+ * @author Alexander Mertens
+ */
+class TimedCommand extends Command {
+    private final CommandWord commandWord;
+    private final Command command;
+
+    /**
+     * @param commandWord The command word the latency is recorded for.
+     * @param command     The command that is timed.
+     */
+    TimedCommand(CommandWord commandWord, Command command) {
+        this.commandWord = commandWord;
+        this.command = command;
+    }
+
+    @Override
+    public boolean execute(GameState gameState, String argument) {
+        CommandEvent event = CommandEvent.isRecorded() ? new CommandEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        gameState.setOutcome(null);
+        AllocationStatistics allocations = AllocationStatistics.global();
+        long allocated = allocations.start();
+        String room = allocated < 0 ? null : gameState.getCurrentRoom().getName();
+        long start = System.nanoTime();
+        try {
+            return command.execute(gameState, argument);
+        } finally {
+            CommandStatistics statistics = CommandStatistics.global();
+            statistics.recordLatency(commandWord, System.nanoTime() - start);
+            if (gameState.getOutcome() != null) {
+                statistics.count(gameState.getOutcome());
+            }
+            allocations.recordCommand(commandWord, room, allocated);
+            if (event != null) {
+                event.emit(commandWord, argument, gameState.getOutcome());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package maze_game.commands;
+
+import maze_game.flag.Flag;
+import maze_game.state.GameState;
+
+/**
+ * Command that when executed instructs the gameState to move the player to a
+ * room the player has visited before. Prints out a Flag message if the
+ * execution failed.
+ * 
+ * @author Alexander Mertens
+ */
+public class TravelCommand extends Command {
+
+    @Override
+    public boolean execute(GameState gameState, String argument) {
+        Flag flag = report(gameState, gameState.travel(argument));
+        if (flag.isSuccess()) {
+            gameState.getOutput().println(gameState.getStateDescription());
+        } else {
+            flag.printMessage(gameState.getOutput());
+        }
+        return false;
+    }
+}
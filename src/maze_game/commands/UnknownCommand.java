@@ -8,13 +8,10 @@ import maze_game.state.GameState;
  * @author Alexander Mertens
  */
 public class UnknownCommand extends Command {
-    public UnknownCommand(String argument) {
-        super(argument);
-    }
 
     @Override
-    public boolean execute(GameState gameState) {
-        System.out.println("The command can not be recognized. Please enter help for a list of known commands.");
+    public boolean execute(GameState gameState, String argument) {
+        gameState.getOutput().println("The command can not be recognized. Please enter help for a list of known commands.");
         return false;
     }
 }
@@ -1,5 +1,7 @@
 package maze_game.condition;
 
+import maze_game.output.OutputSink;
+
 /**
  * This class represents a condition that can be either true or false. It also
  * holds a message to be printed when the condition is satisfied.
@@ -18,8 +20,10 @@ public abstract class Condition {
 
     /**
      * Prints message.
+     * 
+     * @param out Sink the message is printed to.
      */
-    public void printMessage() {
-        System.out.println(message);
+    public void printMessage(OutputSink out) {
+        out.println(message);
     }
 }
@@ -1,23 +1,32 @@
 package maze_game.condition;
 
 import maze_game.gameobjects.Player;
+import maze_game.state.GameState;
+import maze_game.state.GameStateListener;
 
 /**
  * This class represents the lose condition for the game. The player loses when
- * he dies.
+ * he dies. The condition listens to the health changes of the player, so
+ * checking it doesn't require looking at the player.
  */
-public class LoseCondition extends Condition {
-    Player player;
+public class LoseCondition extends Condition implements GameStateListener {
+    private boolean playerDead;
 
-    public LoseCondition(String message, Player player) {
+    public LoseCondition(String message, GameState gameState) {
         super(message);
-        this.player = player;
+        this.playerDead = gameState.isPlayerDead();
+        gameState.addListener(this);
     }
 
     /**
      * Returns true if the player is dead, i.e. their hitpoints are at 0.
      */
     public boolean isSatisfied() {
-        return player.isDead();
+        return playerDead;
+    }
+
+    @Override
+    public void healthChanged(Player player, int health) {
+        playerDead = Player.isDead(health);
     }
 }
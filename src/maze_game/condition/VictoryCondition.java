@@ -1,29 +1,53 @@
 package maze_game.condition;
 
-import java.util.Collection;
+import java.util.Set;
 
 import maze_game.gameobjects.Room;
 import maze_game.gameobjects.interactive.InteractiveObject;
 import maze_game.state.GameState;
+import maze_game.state.GameStateListener;
 
 /**
  * This class represents the condition that needs to be met in order for the
  * player to win the game.
+ * 
+ * The condition listens to the changes of the GameState and counts how many of
+ * the required objects are in the party, so checking it takes the same time no
+ * matter how many objects are required. The set of required objects belongs to
+ * the world and is shared by all games of it, a condition only keeps its two
+ * counters.
  */
-public class VictoryCondition extends Condition {
-    private GameState gameState;
+public class VictoryCondition extends Condition implements GameStateListener {
     // Required objects/characters to collect in order to win.
-    private Collection<InteractiveObject> requiredObjects;
+    private final Set<InteractiveObject> requiredObjects;
     // Exit of the maze, the player needs to be at the exit in order to win.
-    private Room mazeExit;
-    // Message to be printed if the game is won.
+    private final Room mazeExit;
+    // Amount of required objects currently in the party.
+    private int collected;
+    // Whether the player is currently at the exit.
+    private boolean atExit;
 
-    public VictoryCondition(String message, GameState gameState, Collection<InteractiveObject> objectList,
+    /**
+     * Creates the condition for the given game.
+     * 
+     * @param message         Message shown when the player wins.
+     * @param gameState       State of the game.
+     * @param requiredObjects The objects that need to be in the party, a set
+     *                        that isn't changed anymore, it's kept as it is.
+     * @param mazeExit        The room the player needs to reach.
+     */
+    public VictoryCondition(String message, GameState gameState, Set<InteractiveObject> requiredObjects,
             Room mazeExit) {
         super(message);
-        this.gameState = gameState;
-        this.requiredObjects = objectList;
+        this.requiredObjects = requiredObjects;
         this.mazeExit = mazeExit;
+        for (InteractiveObject object : requiredObjects) {
+            if (gameState.containsObject(object)) {
+                collected++;
+            }
+        }
+        this.atExit = gameState.isAt(mazeExit);
+        gameState.addListener(this);
     }
 
     /**
@@ -32,19 +56,25 @@ public class VictoryCondition extends Condition {
      * @return Returns true if the player has won.
      */
     public boolean isSatisfied() {
-        return atExit() && hasAllObjects();
+        return atExit && collected == requiredObjects.size();
     }
 
-    private boolean atExit() {
-        return gameState.isAt(mazeExit);
+    @Override
+    public void partyJoined(InteractiveObject object) {
+        if (requiredObjects.contains(object)) {
+            collected++;
+        }
     }
 
-    private boolean hasAllObjects() {
-        for (InteractiveObject object : requiredObjects) {
-            if (!gameState.containsObject(object)) {
-                return false;
-            }
+    @Override
+    public void partyLeft(InteractiveObject object) {
+        if (requiredObjects.contains(object)) {
+            collected--;
         }
-        return true;
+    }
+
+    @Override
+    public void roomChanged(Room previous, Room current) {
+        atExit = current == mazeExit;
     }
 }
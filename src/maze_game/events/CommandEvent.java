@@ -0,0 +1,66 @@
+package maze_game.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import maze_game.flag.Flag;
+import maze_game.input.CommandWord;
+
+/**
+ * Flight recorder event for the execution of a command. The duration of the
+ * event is the time the command took.
+ *
+ * Like every event, it's only filled in and written while a recording asks for
+ * it. Callers check isRecorded before creating one, such that nothing is
+ * allocated per command while no recording does.
+ *
+ * @author Alexander Mertens
+ */
+@Name(CommandEvent.NAME)
+@Label("Command")
+@Category({ "Maze of Astaroth", "Game" })
+@Description("Execution of a command by a game")
+@StackTrace(false)
+public class CommandEvent extends Event {
+    public static final String NAME = "maze_game.Command";
+    private static final LazyEventType TYPE = new LazyEventType(CommandEvent.class);
+
+    @Label("Command Word")
+    private String commandWord;
+
+    @Label("Argument Length")
+    @Description("Length of the argument of the command, 0 without argument")
+    private int argumentLength;
+
+    @Label("Outcome")
+    @Description("The flag the command reported, null if it didn't report one")
+    private String outcome;
+
+    /**
+     * @return Returns true if a recording asks for these events, only then does
+     *         one need to be created.
+     */
+    public static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Ends the event and writes it if a recording asks for it.
+     *
+     * @param commandWord The command word of the command.
+     * @param argument    The argument of the command, can be null.
+     * @param flag        The flag the command reported, can be null.
+     */
+    public void emit(CommandWord commandWord, String argument, Flag flag) {
+        end();
+        if (shouldCommit()) {
+            this.commandWord = commandWord.name();
+            this.argumentLength = argument == null ? 0 : argument.length();
+            this.outcome = flag == null ? null : flag.name();
+            commit();
+        }
+    }
+}
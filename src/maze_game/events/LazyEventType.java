@@ -0,0 +1,44 @@
+package maze_game.events;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Tells whether a recording asks for the events of an event class, such that
+ * callers only create an event when it's going to be written.
+ *
+ * Looking up the EventType of a class initializes the metadata of the flight
+ * recorder, which takes a noticeable part of a second. Before the flight
+ * recorder has been initialized no recording can ask for any event, so the
+ * type is only looked up once it has been.
+ *
+ * @author Alexander Mertens
+ */
+final class LazyEventType {
+    private final Class<? extends Event> eventClass;
+    // Null until the flight recorder has been initialized.
+    private volatile EventType type;
+
+    /**
+     * @param eventClass The class of the events.
+     */
+    LazyEventType(Class<? extends Event> eventClass) {
+        this.eventClass = eventClass;
+    }
+
+    /**
+     * @return Returns true if a recording asks for the events.
+     */
+    boolean isEnabled() {
+        if (!FlightRecorder.isInitialized()) {
+            return false;
+        }
+        EventType eventType = type;
+        if (eventType == null) {
+            eventType = EventType.getEventType(eventClass);
+            type = eventType;
+        }
+        return eventType.isEnabled();
+    }
+}
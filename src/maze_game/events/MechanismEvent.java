@@ -0,0 +1,65 @@
+package maze_game.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a linked mechanism that was activated, or that was
+ * interacted with too early and reset its sequence.
+ *
+ * @author Alexander Mertens
+ */
+@Name(MechanismEvent.NAME)
+@Label("Mechanism")
+@Category({ "Maze of Astaroth", "Puzzle" })
+@Description("Activation of a linked mechanism or reset of its sequence")
+@StackTrace(false)
+public class MechanismEvent extends Event {
+    public static final String NAME = "maze_game.Mechanism";
+    private static final LazyEventType TYPE = new LazyEventType(MechanismEvent.class);
+
+    @Label("Mechanism")
+    private String mechanism;
+
+    @Label("Reset")
+    @Description("True if the sequence was reset, false if the mechanism was activated")
+    private boolean reset;
+
+    @Label("Position")
+    @Description("Position of the mechanism in its sequence, 1 for the first")
+    private int position;
+
+    @Label("Trapped")
+    @Description("True if the mechanism hurts the player when it resets the sequence")
+    private boolean trapped;
+
+    /**
+     * @return Returns true if a recording asks for these events, only then does
+     *         one need to be created.
+     */
+    public static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Writes the event if a recording asks for it.
+     *
+     * @param mechanism Name of the mechanism.
+     * @param reset     True if the sequence was reset.
+     * @param position  Position of the mechanism in its sequence.
+     * @param trapped   True if the mechanism is trapped.
+     */
+    public void emit(String mechanism, boolean reset, int position, boolean trapped) {
+        if (shouldCommit()) {
+            this.mechanism = mechanism;
+            this.reset = reset;
+            this.position = position;
+            this.trapped = trapped;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package maze_game.events;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import maze_game.input.CommandWord;
+import maze_game.statistics.LatencyHistogram;
+import maze_game.statistics.LatencySnapshot;
+
+/**
+ * Summarizes a flight recording of the game offline: the latencies and
+ * outcomes of the commands, the mechanisms that were activated and reset, and
+ * the rooms the players moved between.
+ *
+ * To relate the game to the runtime, the commands that overlapped a garbage
+ * collection pause, and the commands whose thread waited for a lock or was
+ * parked meanwhile, are counted, among all commands and among the slowest 1%.
+ * The recording only holds lock events above the threshold of its settings.
+ * Usage: RecordingAnalyzer recording.jfr [top].
+ *
+ * @author Alexander Mertens
+ */
+public class RecordingAnalyzer {
+    private final Map<CommandWord, LatencyHistogram> latencies = new EnumMap<>(CommandWord.class);
+    private final Map<String, Long> outcomes = new HashMap<>();
+    // Activations and resets per mechanism.
+    private final Map<String, long[]> mechanisms = new HashMap<>();
+    private final Map<String, Long> transitions = new HashMap<>();
+    private final Map<String, Long> roomsEntered = new HashMap<>();
+    private final List<Interval> commands = new ArrayList<>();
+    private final List<Interval> gcPauses = new ArrayList<>();
+    private final List<Interval> waits = new ArrayList<>();
+
+    /**
+     * Reads every event of the given recording.
+     *
+     * @param recording The recording file.
+     * @throws IOException If the file couldn't be read.
+     */
+    public void read(Path recording) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                add(file.readEvent());
+            }
+        }
+    }
+
+    private void add(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+        case CommandEvent.NAME:
+            CommandWord commandWord = CommandWord.valueOf(event.getString("commandWord"));
+            long nanos = event.getDuration().toNanos();
+            latencies.computeIfAbsent(commandWord, word -> new LatencyHistogram()).record(nanos);
+            String outcome = event.getString("outcome");
+            outcomes.merge(outcome == null ? "-" : outcome, 1L, Long::sum);
+            commands.add(new Interval(event, threadId(event)));
+            break;
+        case MechanismEvent.NAME:
+            long[] counts = mechanisms.computeIfAbsent(event.getString("mechanism"), name -> new long[2]);
+            counts[event.getBoolean("reset") ? 1 : 0]++;
+            break;
+        case RoomChangeEvent.NAME:
+            transitions.merge(event.getString("from") + " -> " + event.getString("to"), 1L, Long::sum);
+            roomsEntered.merge(event.getString("to"), 1L, Long::sum);
+            break;
+        case "jdk.GCPhasePause":
+            gcPauses.add(new Interval(event, -1));
+            break;
+        case "jdk.JavaMonitorEnter":
+        case "jdk.JavaMonitorWait":
+        case "jdk.ThreadPark":
+            waits.add(new Interval(event, threadId(event)));
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * @param top The amount of mechanisms and rooms to be listed.
+     * @return Returns the summary of the events read so far.
+     */
+    public String summarize(int top) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-10s %10s %10s %10s %10s %10s %12s%n", "command", "count", "mean us", "p50 us",
+                "p99 us", "max us", "total ms"));
+        List<CommandWord> words = new ArrayList<>(latencies.keySet());
+        words.sort(Comparator.comparingLong((CommandWord word) -> latencies.get(word).snapshot().getTotal())
+                .reversed());
+        for (CommandWord word : words) {
+            LatencySnapshot latency = latencies.get(word).snapshot();
+            text.append(String.format("%-10s %10d %10.1f %10.1f %10.1f %10.1f %12.1f%n", word, latency.getCount(),
+                    latency.getMean() / 1e3, latency.getValueAtPercentile(50) / 1e3,
+                    latency.getValueAtPercentile(99) / 1e3, latency.getMax() / 1e3, latency.getTotal() / 1e6));
+        }
+
+        text.append(String.format("%noutcomes:%n"));
+        appendTop(text, outcomes, Integer.MAX_VALUE);
+
+        text.append(String.format("%n%-30s %12s %8s%n", "mechanism", "activations", "resets"));
+        List<String> names = new ArrayList<>(mechanisms.keySet());
+        names.sort(Comparator.comparingLong((String name) -> mechanisms.get(name)[1]).reversed());
+        for (String name : names.subList(0, Math.min(top, names.size()))) {
+            long[] counts = mechanisms.get(name);
+            text.append(String.format("%-30s %12d %8d%n", name, counts[0], counts[1]));
+        }
+
+        text.append(String.format("%nrooms entered:%n"));
+        appendTop(text, roomsEntered, top);
+        text.append(String.format("%ntransitions:%n"));
+        appendTop(text, transitions, top);
+
+        text.append('\n');
+        appendOverlap(text, "overlapping a GC pause", gcPauses, false);
+        appendOverlap(text, "waiting for a lock or parked", waits, true);
+        return text.toString();
+    }
+
+    /**
+     * Appends how many commands, and how many of the slowest 1%, overlap any of
+     * the given intervals, on the same thread if asked for.
+     */
+    private void appendOverlap(StringBuilder text, String what, List<Interval> intervals, boolean sameThread) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        intervals.sort(Comparator.comparingLong(interval -> interval.start));
+        long[] ends = new long[intervals.size()];
+        long[] starts = new long[intervals.size()];
+        long latestEnd = Long.MIN_VALUE;
+        for (int i = 0; i < intervals.size(); i++) {
+            starts[i] = intervals.get(i).start;
+            // The latest end of the intervals up to i, so the search can stop early.
+            latestEnd = Math.max(latestEnd, intervals.get(i).end);
+            ends[i] = latestEnd;
+        }
+        List<Interval> slowest = new ArrayList<>(commands);
+        slowest.sort(Comparator.comparingLong((Interval command) -> command.end - command.start).reversed());
+        slowest = slowest.subList(0, Math.max(1, slowest.size() / 100));
+
+        long overlapping = 0;
+        for (Interval command : commands) {
+            if (overlaps(command, intervals, starts, ends, sameThread)) {
+                overlapping++;
+            }
+        }
+        long slowOverlapping = 0;
+        for (Interval command : slowest) {
+            if (overlaps(command, intervals, starts, ends, sameThread)) {
+                slowOverlapping++;
+            }
+        }
+        text.append(String.format("commands %s: %d of %d (%.2f%%), of the slowest 1%%: %d of %d (%.2f%%)%n", what,
+                overlapping, commands.size(), 100.0 * overlapping / commands.size(), slowOverlapping, slowest.size(),
+                100.0 * slowOverlapping / slowest.size()));
+    }
+
+    private static boolean overlaps(Interval command, List<Interval> intervals, long[] starts, long[] ends,
+            boolean sameThread) {
+        // The last interval starting before the command ends.
+        int i = Arrays.binarySearch(starts, command.end);
+        i = i < 0 ? -i - 2 : i;
+        for (; i >= 0 && ends[i] > command.start; i--) {
+            Interval interval = intervals.get(i);
+            if (interval.end > command.start && (!sameThread || interval.thread == command.thread)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendTop(StringBuilder text, Map<String, Long> counts, int top) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(top, entries.size()))) {
+            text.append(String.format("  %-40s %10d%n", entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private static long threadId(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        return thread == null ? -1 : thread.getJavaThreadId();
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * The time an event took, in nanoseconds since the epoch, and its thread.
+     */
+    private static final class Interval {
+        private final long start;
+        private final long end;
+        private final long thread;
+
+        private Interval(RecordedEvent event, long thread) {
+            this.start = nanos(event.getStartTime());
+            this.end = nanos(event.getEndTime());
+            this.thread = thread;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: RecordingAnalyzer recording.jfr [top]");
+            return;
+        }
+        RecordingAnalyzer analyzer = new RecordingAnalyzer();
+        analyzer.read(Path.of(args[0]));
+        System.out.print(analyzer.summarize(args.length > 1 ? Integer.parseInt(args[1]) : 10));
+    }
+}
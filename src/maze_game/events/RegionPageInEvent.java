@@ -0,0 +1,46 @@
+package maze_game.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a region of a PagedWorld being read from its file.
+ * The duration of the event is the time it took to read the region and create
+ * its rooms.
+ *
+ * @author Alexander Mertens
+ */
+@Name(RegionPageInEvent.NAME)
+@Label("Region Page-In")
+@Category({ "Maze of Astaroth", "World" })
+@Description("A region of rooms was read from a world file")
+@StackTrace(false)
+public class RegionPageInEvent extends Event {
+    public static final String NAME = "maze_game.RegionPageIn";
+
+    @Label("Region")
+    private int region;
+
+    @Label("Rooms")
+    @Description("Amount of rooms created for the region")
+    private int rooms;
+
+    /**
+     * Ends the event and writes it if a recording asks for it.
+     *
+     * @param region Index of the region.
+     * @param rooms  Amount of rooms in the region.
+     */
+    public void emit(int region, int rooms) {
+        end();
+        if (shouldCommit()) {
+            this.region = region;
+            this.rooms = rooms;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package maze_game.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for the player moving from one room to another.
+ *
+ * @author Alexander Mertens
+ */
+@Name(RoomChangeEvent.NAME)
+@Label("Room Change")
+@Category({ "Maze of Astaroth", "Game" })
+@Description("The player moved to another room")
+@StackTrace(false)
+public class RoomChangeEvent extends Event {
+    public static final String NAME = "maze_game.RoomChange";
+    private static final LazyEventType TYPE = new LazyEventType(RoomChangeEvent.class);
+
+    @Label("From")
+    private String from;
+
+    @Label("To")
+    private String to;
+
+    /**
+     * @return Returns true if a recording asks for these events, only then does
+     *         one need to be created.
+     */
+    public static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Writes the event if a recording asks for it.
+     *
+     * @param from Name of the room the player left.
+     * @param to   Name of the room the player entered.
+     */
+    public void emit(String from, String to) {
+        if (shouldCommit()) {
+            this.from = from;
+            this.to = to;
+            commit();
+        }
+    }
+}
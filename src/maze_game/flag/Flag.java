@@ -1,5 +1,7 @@
 package maze_game.flag;
 
+import maze_game.output.OutputSink;
+
 /**
  * This class represents messages send to the game engine, informing the engine
  * of succes or the way executing the command has failed.
@@ -32,7 +34,17 @@ public enum Flag {
     IMMOVABLE("This object can't be moved.", false), NO_EFFECT("Interacting with this object had no effect.", false),
 
     // back
-    NO_HISTORY("You do not have any previously visited locations.", false);
+    NO_HISTORY("You do not have any previously visited locations.", false),
+
+    // travel
+    TRAVELLED("You have travelled.", true), UNKNOWN_ROOM("You haven't visited a room with that name.", false),
+    NO_ROUTE("There's no known way to that room that isn't locked.", false),
+    ALREADY_THERE("You are already in that room.", false),
+
+    // undo and redo
+    UNDONE("Time flows backwards around you.", true), REDONE("Time rushes forward again.", true),
+    NOTHING_TO_UNDO("There's nothing to undo.", false), NOTHING_TO_REDO("There's nothing to redo.", false),
+    NOT_A_NUMBER("The amount of turns has to be a positive number.", false);
 
     private final String message;
     private final boolean success;
@@ -49,9 +61,11 @@ public enum Flag {
 
     /**
      * Prints the message the flag carries.
+     * 
+     * @param out Sink the message is printed to.
      */
-    public void printMessage() {
-        System.out.println(this.message);
+    public void printMessage(OutputSink out) {
+        out.println(this.message);
     }
 
     /**
@@ -1,21 +1,22 @@
 package maze_game.gameobjects;
 
-import maze_game.flag.Flag;
-import maze_game.mapping.GameObjectMapByName;
+import java.util.Collection;
 
 /**
  * The Container class models a GameObject that can contain items. It extends
- * the GameObject class. A container has a field inventory, an ArrayList that
- * holds all the items it contains. Examples of containers include rooms, player
- * character and other characters.
+ * the GameObject class. A container holds the items it contains when the game
+ * starts, the GameState keeps track of them while the game is played. Examples
+ * of containers include rooms, player character and other characters.
  * 
- * This class implements methods to add, remove, retrieve and exchange items.
+ * This class implements methods to add, remove and retrieve items.
  * 
  * @author Alexander Mertens
  */
 public abstract class Container extends GameObject {
-    // A map of the name of an item to the item objects in the room.
-    private GameObjectMapByName<Item> inventory;
+    // The items in the container, and the interactive objects if it's a room,
+    // when the game starts. The state of a game keeps what the container holds
+    // during play.
+    private Contents contents;
 
     /**
      * Constructs an empty container with given name and description.
@@ -25,7 +26,7 @@ public abstract class Container extends GameObject {
      */
     public Container(String name, String description) {
         super(name, description);
-        inventory = new GameObjectMapByName<>();
+        contents = Contents.EMPTY;
     }
 
     /**
@@ -34,7 +35,7 @@ public abstract class Container extends GameObject {
      * @param item Item to be added.
      */
     public void addItem(Item item) {
-        inventory.add(item);
+        setContents(contents.withItem(item));
     }
 
     /**
@@ -45,7 +46,7 @@ public abstract class Container extends GameObject {
      * @return The item to be returned.
      */
     public Item getItem(String itemName) {
-        return inventory.get(itemName);
+        return contents.getItem(itemName);
     }
 
     /**
@@ -56,48 +57,41 @@ public abstract class Container extends GameObject {
      * @return The item to be returned.
      */
     public Item removeItem(String itemName) {
-        Item item = getItem(itemName);
-        inventory.remove(itemName);
+        Item item = contents.getItem(itemName);
+        if (item != null) {
+            setContents(contents.withoutItem(itemName));
+        }
         return item;
     }
 
     /**
-     * Removes Item object in the inventory corresponding to the given itemName and
-     * adds it to the other container.
-     * 
-     * @param other    Container object to which the item is given to.
-     * @param itemName The name of the item to be exchanged.
-     * 
-     * @return Returns a Flag containing a message with what happened.
+     * @return Returns what the container holds when the game starts.
      */
-    public Flag giveItemTo(Container other, String itemName) {
-        Item item = removeItem(itemName);
-        if (item != null) {
-            other.addItem(item);
-            return Flag.OBJECT_MOVED;
-        } else {
-            return Flag.NO_OBJECT;
-        }
+    public Contents getContents() {
+        return contents;
     }
 
     /**
-     * Removes Item object in the inventory of other Container corresponding to the
-     * given itemName and adds it to the this container.
-     * 
-     * @param other    Container object from which the item is taken.
-     * @param itemName The name of the item to be exchanged.
+     * Replaces what the container holds when the game starts.
      * 
-     * @return Returns a Flag containing a message with what happened.
+     * @param contents The new contents.
+     */
+    protected void setContents(Contents contents) {
+        this.contents = contents;
+    }
+
+    /**
+     * @return Returns a new list of the items in the inventory.
      */
-    public Flag takeItemFrom(Container other, String itemName) {
-        return other.giveItemTo(this, itemName);
+    public Collection<Item> getItems() {
+        return contents.getItems();
     }
 
     /**
      * @return Returns true when the Container is empty, false if not.
      */
     public boolean isInventoryEmpty() {
-        return inventory.isEmpty();
+        return contents.hasNoItems();
     }
 
     /**
@@ -105,23 +99,24 @@ public abstract class Container extends GameObject {
      */
     @Override
     public String getLongDescription() {
-        return inventory.getDescription();
+        return contents.getItemDescriptions();
     }
 
     /**
      * Checks whether the given objectName is equal to this object's name and
      * returns its description if it is. Otherwise the method tries to find an
-     * object with the given objectName in its inventory and return its description.
-     * If no object is found, the method returns null.
+     * object with the given objectName in the given contents of the container and
+     * return its description. If no object is found, the method returns null.
      * 
      * @param objectName Name of the object to be found.
+     * @param contents   What the container holds at the moment.
      * @return The description of the object with name objectName.
      */
-    public String findDescription(String objectName) {
+    public String findDescription(String objectName, Contents contents) {
         if (objectName.equals(getName())) {
             return getDescription();
         }
 
-        return inventory.findDescription(objectName);
+        return contents.findDescription(objectName);
     }
 }
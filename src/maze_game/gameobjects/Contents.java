@@ -0,0 +1,198 @@
+package maze_game.gameobjects;
+
+import java.util.List;
+
+import maze_game.gameobjects.interactive.InteractiveObject;
+import maze_game.mapping.PersistentMap;
+
+/**
+ * The items and interactive objects a container holds at some point of a game.
+ * Contents never change: taking or dropping something makes new contents that
+ * share everything else with the old ones, so many games and many versions of
+ * a game can hold the contents of the same container without copying them.
+ *
+ * Objects are found by their name in lower case. The descriptions of the
+ * contents are rendered the first time they are asked for and kept. The full
+ * description of a room is kept here only for contents made during play, which
+ * belong to one room; a room keeps the description of what it holds when the
+ * game starts itself, since those contents may be shared, like EMPTY.
+ *
+ * @author Alexander Mertens
+ */
+public final class Contents {
+    // Contents without any objects.
+    public static final Contents EMPTY = new Contents(PersistentMap.empty(), PersistentMap.empty());
+
+    private final PersistentMap<String, Item> items;
+    private final PersistentMap<String, InteractiveObject> objects;
+    // Rendered descriptions, null until they are asked for.
+    private String itemDescriptions;
+    private String objectDescriptions;
+    // The full description of the room holding these contents, keyed by the room.
+    private RoomDescription roomDescription;
+
+    private Contents(PersistentMap<String, Item> items, PersistentMap<String, InteractiveObject> objects) {
+        this.items = items;
+        this.objects = objects;
+    }
+
+    /**
+     * @param itemName Name of an item in lower case.
+     * @return Returns the item with the given name, or null if there's no such
+     *         item.
+     */
+    public Item getItem(String itemName) {
+        return items.get(itemName);
+    }
+
+    /**
+     * @param objectName Name of an interactive object in lower case.
+     * @return Returns the interactive object with the given name, or null if
+     *         there's no such object.
+     */
+    public InteractiveObject getObject(String objectName) {
+        return objects.get(objectName);
+    }
+
+    /**
+     * @param item The item to be added.
+     * @return Returns these contents with the given item.
+     */
+    public Contents withItem(Item item) {
+        return new Contents(items.plus(item.getName().toLowerCase(), item), objects);
+    }
+
+    /**
+     * @param itemName Name of the item to be removed, in lower case.
+     * @return Returns these contents without the item with the given name.
+     */
+    public Contents withoutItem(String itemName) {
+        PersistentMap<String, Item> newItems = items.minus(itemName);
+        return newItems == items ? this : new Contents(newItems, objects);
+    }
+
+    /**
+     * @param object The object to be added.
+     * @return Returns these contents with the given object, or these contents if
+     *         they already hold an object with its name.
+     */
+    public Contents withObject(InteractiveObject object) {
+        String name = object.getName().toLowerCase();
+        return objects.containsKey(name) ? this : new Contents(items, objects.plus(name, object));
+    }
+
+    /**
+     * @param objectName Name of the object to be removed, in lower case.
+     * @return Returns these contents without the object with the given name.
+     */
+    public Contents withoutObject(String objectName) {
+        PersistentMap<String, InteractiveObject> newObjects = objects.minus(objectName);
+        return newObjects == objects ? this : new Contents(items, newObjects);
+    }
+
+    /**
+     * @return Returns a new list of the items.
+     */
+    public List<Item> getItems() {
+        return items.values();
+    }
+
+    /**
+     * @return Returns a new list of the interactive objects.
+     */
+    public List<InteractiveObject> getObjects() {
+        return objects.values();
+    }
+
+    /**
+     * @return Returns true if there are no items.
+     */
+    public boolean hasNoItems() {
+        return items.isEmpty();
+    }
+
+    /**
+     * @return Returns true if there are interactive objects.
+     */
+    public boolean hasObjects() {
+        return !objects.isEmpty();
+    }
+
+    /**
+     * @return Returns the long descriptions of the items, each on a new line.
+     */
+    public String getItemDescriptions() {
+        if (itemDescriptions == null) {
+            itemDescriptions = describe(items);
+        }
+        return itemDescriptions;
+    }
+
+    /**
+     * @return Returns the long descriptions of the interactive objects, each on
+     *         a new line.
+     */
+    public String getObjectDescriptions() {
+        if (objectDescriptions == null) {
+            objectDescriptions = describe(objects);
+        }
+        return objectDescriptions;
+    }
+
+    /**
+     * @param room The room holding these contents, which aren't what it holds when
+     *             the game starts.
+     * @return Returns the full description of the room holding these contents.
+     */
+    String getRoomDescription(Room room) {
+        RoomDescription description = roomDescription;
+        if (description == null || !description.describes(room, room.getExitsString())) {
+            description = new RoomDescription(room, room.getExitsString(), room.renderFullDescription(this));
+            roomDescription = description;
+        }
+        return description.text;
+    }
+
+    /**
+     * @param objectName Name of an object in lower case.
+     * @return Returns the description of the item or interactive object with the
+     *         given name, or null if there's no such object.
+     */
+    public String findDescription(String objectName) {
+        GameObject object = items.get(objectName);
+        if (object == null) {
+            object = objects.get(objectName);
+        }
+        return object == null ? null : object.getDescription();
+    }
+
+    private static String describe(PersistentMap<String, ? extends GameObject> map) {
+        StringBuilder result = new StringBuilder();
+        map.forEach((name, object) -> result.append("\n  ").append(object.getLongDescription()));
+        return result.toString();
+    }
+
+    /**
+     * A rendered description of a room together with what it was rendered for and
+     * the exits it describes, such that they are published at once.
+     */
+    static final class RoomDescription {
+        private final Object key;
+        private final String exits;
+        final String text;
+
+        RoomDescription(Object key, String exits, String text) {
+            this.key = key;
+            this.exits = exits;
+            this.text = text;
+        }
+
+        /**
+         * Returns true if this description was rendered for the given key and the
+         * given exits.
+         */
+        boolean describes(Object key, String exits) {
+            return this.key == key && this.exits == exits;
+        }
+    }
+}
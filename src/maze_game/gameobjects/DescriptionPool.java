@@ -0,0 +1,41 @@
+package maze_game.gameobjects;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pool of rendered descriptions shared by all games in the process. Every game
+ * has its own rooms, but a room in the same state renders to the same text in
+ * every game. Sharing the rendered text means many games keep a single copy of
+ * it.
+ * 
+ * The pool is cleared when it grows too large, so descriptions of states that
+ * are no longer visited don't pile up.
+ * 
+ * @author Alexander Mertens
+ */
+public final class DescriptionPool {
+    private static final int MAX_SIZE = 16 * 1024;
+    private static final ConcurrentMap<String, String> pool = new ConcurrentHashMap<>();
+
+    private DescriptionPool() {
+    }
+
+    /**
+     * Returns the pooled String equal to the given description, adding the given
+     * description to the pool if there's no such String yet.
+     * 
+     * @param description The rendered description.
+     * @return Returns the shared instance of the description.
+     */
+    public static String share(String description) {
+        String shared = pool.putIfAbsent(description, description);
+        if (shared != null) {
+            return shared;
+        }
+        if (pool.size() > MAX_SIZE) {
+            pool.clear();
+        }
+        return description;
+    }
+}
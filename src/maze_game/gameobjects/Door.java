@@ -24,7 +24,20 @@ public class Door extends GameObject {
     }
 
     /**
-     * By default the door is unlocked, so it returns false.
+     * Constructs a Door with given name and description that doesn't hold the
+     * room it leads to. Meant for subclasses that look the room up themselves.
+     * 
+     * @param name        Name of the door.
+     * @param description Description of the door.
+     */
+    protected Door(String name, String description) {
+        this(name, description, null);
+    }
+
+    /**
+     * Whether the door is locked when the game starts. The GameState keeps track
+     * of the doors that have been unlocked since. By default the door is
+     * unlocked, so it returns false.
      * 
      * @return Returns false.
      */
@@ -41,15 +54,6 @@ public class Door extends GameObject {
         return null;
     }
 
-    /**
-     * By default the door is unlocked, so this method does nothing.
-     * 
-     * @param keyItem Potential key to the door.
-     */
-    public void unlock(GameObject object) {
-        return;
-    }
-
     /**
      * Checks whether the given item is equal to the key corresponding to the door.
      * By default the door has no key so this returns false.
@@ -70,6 +74,24 @@ public class Door extends GameObject {
         return room;
     }
 
+    /**
+     * Returns the room the door leads to, whether the door is locked or not.
+     * 
+     * @return Room.
+     */
+    public Room getDestination() {
+        return room;
+    }
+
+    /**
+     * @param locked Whether the door is locked at the moment.
+     * @return Returns the description of the door when it is locked or not. By
+     *         default the description doesn't depend on it.
+     */
+    public String getDescription(boolean locked) {
+        return getDescription();
+    }
+
     /**
      * @return Returns longer description of door.
      */
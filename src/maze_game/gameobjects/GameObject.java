@@ -1,16 +1,27 @@
 package maze_game.gameobjects;
 
+import maze_game.state.Zobrist;
+
 /**
  * GameObject class respresents all objects in the Maze game.
  * 
  * A GameObject has two String fields, name and description. This class is
  * abstract and only implements a single constructor and getters for its fields.
  * 
+ * Every GameObject also holds a random key, used to fingerprint the state of
+ * the game (see Zobrist). The world an object belongs to sets its key before
+ * any game is played. The key is derived from the place of the object in its
+ * world, which also identifies the object in snapshots of a game.
+ * 
  * @author Alexander Mertens
  */
 public abstract class GameObject {
     private final String name;
     private final String description;
+    // The key of this object, 0 until its world sets it.
+    private long zobristKey;
+    // The place of this object in its world, -1 until its world sets it.
+    private long place = -1;
 
     /**
      * Constructor for GameObject.
@@ -23,6 +34,42 @@ public abstract class GameObject {
         this.description = description;
     }
 
+    /**
+     * @return Returns the random key of this object.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Sets the random key of this object, see Zobrist.key.
+     * 
+     * @param zobristKey The new key.
+     */
+    public void setZobristKey(long zobristKey) {
+        this.zobristKey = zobristKey;
+    }
+
+    /**
+     * @return Returns the place of this object in its world (see Zobrist.place),
+     *         -1 if it has none.
+     */
+    public long getPlace() {
+        return place;
+    }
+
+    /**
+     * Sets the place of this object in its world and the key derived from it.
+     * 
+     * @param seed      Seed of the world.
+     * @param numbering The numbering the index belongs to, e.g. Zobrist.ROOMS.
+     * @param index     Index of the object in the numbering.
+     */
+    public void setPlace(long seed, int numbering, long index) {
+        this.place = Zobrist.place(numbering, index);
+        this.zobristKey = Zobrist.key(seed, numbering, index);
+    }
+
     /**
      * @return Returns the name of this object.
      */
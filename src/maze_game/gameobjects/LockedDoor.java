@@ -1,17 +1,16 @@
 package maze_game.gameobjects;
 
 /**
- * This class represents a locked door. It holds a boolean locked that is true
- * whenever the door is locked. It also holds an Item keyItem that can open the
- * door.
+ * This class represents a locked door. The door is locked when the game
+ * starts, the GameState records when it is unlocked. It also holds an Item
+ * keyItem that can open the door.
  * 
  * @author Alexander Mertens
  */
 public class LockedDoor extends Door {
-    private GameObject keyObject;
+    private final GameObject keyObject;
     // Description of the door when it is closed.
-    private String closedDescription;
-    private boolean locked;
+    private final String closedDescription;
 
     /**
      * Constructs a LockedDoor with given name and description. At first the door is
@@ -27,15 +26,14 @@ public class LockedDoor extends Door {
         super(name, openDescription, room);
         this.closedDescription = closedDescription;
         this.keyObject = keyObject;
-        this.locked = true;
     }
 
     /**
-     * @return Returns true if the door is locked, else it returns false.
+     * @return Returns true, the door is locked when the game starts.
      */
     @Override
     public boolean isLocked() {
-        return locked;
+        return true;
     }
 
     /**
@@ -46,29 +44,6 @@ public class LockedDoor extends Door {
         return this.keyObject.getName();
     }
 
-    /**
-     * Unlocks the door if it's locked and the given item is the correct key.
-     */
-    @Override
-    public void unlock(GameObject object) {
-        if (isLocked() && isKey(object)) {
-            this.locked = false;
-        }
-    }
-
-    /**
-     * @return Returns the room the door leads to if it's unlocked, else it returns
-     *         null.
-     */
-    @Override
-    public Room getRoom() {
-        if (isLocked()) {
-            return null;
-        } else {
-            return super.getRoom();
-        }
-    }
-
     /**
      * @return Returns true if and only if the given item is equal to the key of the
      *         door.
@@ -83,11 +58,20 @@ public class LockedDoor extends Door {
      *         is open or closed.
      */
     @Override
-    public String getDescription() {
-        if (isLocked()) {
+    public String getDescription(boolean locked) {
+        if (locked) {
             return closedDescription;
         } else {
             return super.getDescription();
         }
     }
+
+    /**
+     * @return Returns the description of the door when the game starts, i.e.
+     *         when it is closed.
+     */
+    @Override
+    public String getDescription() {
+        return getDescription(isLocked());
+    }
 }
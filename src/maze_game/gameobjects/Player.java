@@ -1,24 +1,25 @@
 package maze_game.gameobjects;
 
+import maze_game.state.Zobrist;
+
 /**
  * This class represents the player of maze game.
  * 
  * The class extends the Container class such that the Player class has the
- * functionality to hold items.
+ * functionality to hold items. The health of the player and what the player
+ * holds during the game are kept by the GameState. Every player has the same
+ * key (see Zobrist).
  * 
  * @author Alexander Mertens
  */
 public class Player extends Container {
     // The starting health of the player
-    private static final int MAX_HEALTH = 5;
+    public static final int MAX_HEALTH = 5;
     // If the player's health reaches this value, the player dies.
     private static final int MIN_HEALTH = 0;
     // If the player's health reaches this value, he is close to death.
     private static final int TRESHOLD = 2 + MIN_HEALTH;
 
-    // An integer representing the health of the player.
-    private int health;
-
     /**
      * Creates an instance of Player with given name and description.
      * 
@@ -27,21 +28,30 @@ public class Player extends Container {
      */
     public Player(String name, String description) {
         super(name, description);
-        this.health = MAX_HEALTH;
+        setZobristKey(Zobrist.PLAYER);
     }
 
     /**
-     * @return Returns a String representing the inventory of the player.
+     * @param contents What the player holds.
+     * @return Returns a String representing the given inventory of the player.
      */
-    @Override
-    public String getLongDescription() {
-        if (!isInventoryEmpty()) {
-            return getName() + "'s inventory:" + super.getLongDescription();
+    public String getLongDescription(Contents contents) {
+        if (!contents.hasNoItems()) {
+            return getName() + "'s inventory:" + contents.getItemDescriptions();
         } else {
             return "Inventory is empty.";
         }
     }
 
+    /**
+     * @return Returns a String representing the inventory of the player when the
+     *         game starts.
+     */
+    @Override
+    public String getLongDescription() {
+        return getLongDescription(getContents());
+    }
+
     /**
      * Checks whether the given objectName is equal to this object's name or the
      * String "player" and returns its description if it is. Otherwise the method
@@ -49,36 +59,35 @@ public class Player extends Container {
      * its description. If no object is found, the method returns null.
      * 
      * @param objectName Name of the object to be found.
+     * @param contents   What the player holds.
+     * @param health     The health of the player.
      * @return The description of the object with name objectName.
      */
-    @Override
-    public String findDescription(String objectName) {
+    public String findDescription(String objectName, Contents contents, int health) {
         if (objectName.equals("player")) {
-            return getPlayerState();
+            return getPlayerState(health);
         } else if (objectName.equals("inventory")) {
-            return getLongDescription();
+            return getLongDescription(contents);
         } else {
-            return super.findDescription(objectName);
+            return super.findDescription(objectName, contents);
         }
     }
 
     /**
-     * This method represents the player getting hurt by something in the game
-     * world. Decrements the player's health by 1.
+     * @param health The health of a player.
+     * @return Returns true if the health is at or below MIN_HEALTH, i.e. the
+     *         player's dead, else it returns false.
      */
-    public void getHit() {
-        this.health--;
+    public static boolean isDead(int health) {
+        return health <= MIN_HEALTH;
     }
 
     /**
-     * @return Returns true if the player's health is at or below MIN_HEALTH, i.e.
-     *         the player's dead, else it returns false.
+     * @param health The health of the player.
+     * @return Returns the description of the player followed by how wounded the
+     *         player is.
      */
-    public boolean isDead() {
-        return this.health <= MIN_HEALTH;
-    }
-
-    public String getPlayerState() {
+    public String getPlayerState(int health) {
         String description = getDescription() + "\n";
         if (health <= MIN_HEALTH) {
             description += "You are dead!";
@@ -1,9 +1,11 @@
 package maze_game.gameobjects;
 
+import java.util.Collection;
+
 import maze_game.directions.Direction;
 import maze_game.gameobjects.interactive.InteractiveObject;
 import maze_game.mapping.GameObjectMap;
-import maze_game.mapping.GameObjectMapByName;
+import maze_game.statistics.AllocationStatistics;
 
 /**
  * The Room class models a GameObject that represents a single room in the maze.
@@ -13,13 +15,22 @@ import maze_game.mapping.GameObjectMapByName;
  * exit in a certain direction or retrieve a room that is located in a direction
  * with respect to this room.
  * 
+ * The descriptions of the room are rendered once for the same contents and
+ * kept: the room keeps the ones for what it holds when the game starts, the
+ * Contents made during play keep their own. Rendered descriptions are shared
+ * through the DescriptionPool, so rooms in the same state in different games
+ * hold the same String.
+ * 
  * @author Alexander Mertens
  */
 public class Room extends Container {
     // A map of all exits
     private GameObjectMap<Direction, Door> exits;
-    // A map of all objects in the room that the player can interact with.
-    private GameObjectMapByName<InteractiveObject> objects;
+    // Rendered exits, null when they need to be rendered again.
+    private String exitsString;
+    // The long and the full description for the contents of the room when the game starts.
+    private Contents.RoomDescription longDescription;
+    private Contents.RoomDescription fullDescription;
 
     /**
      * Constructs an empty room with no exits.
@@ -30,7 +41,6 @@ public class Room extends Container {
     public Room(String name, String description) {
         super(name, description);
         exits = new GameObjectMap<>();
-        objects = new GameObjectMapByName<>();
     }
 
     /**
@@ -42,6 +52,7 @@ public class Room extends Container {
      */
     public void setExit(Direction direction, Door exit) {
         exits.put(direction, exit);
+        exitsString = null;
     }
 
     /**
@@ -56,53 +67,80 @@ public class Room extends Container {
     }
 
     /**
-     * @return Returns a String describing the room and its contents.
+     * @return Returns a String describing the room and its contents when the game
+     *         starts.
      */
     public String getLongDescription() {
-        String result = "You are in the " + getName() + ".\n\n" + getDescription() + "\n";
-        if (!isInventoryEmpty()) {
-            result += "\n" + getInventoryString();
-        }
-        if (hasObjects()) {
-            result += "\nInteractive objects:" + objects.getDescription();
+        Contents contents = getContents();
+        Contents.RoomDescription description = longDescription;
+        if (description == null || !description.describes(contents, null)) {
+            long allocated = AllocationStatistics.global().start();
+            description = new Contents.RoomDescription(contents, null,
+                    DescriptionPool.share(renderLongDescription(contents)));
+            AllocationStatistics.global().recordRender(getName(), allocated);
+            longDescription = description;
         }
-        return result;
+        return description.text;
     }
 
     /**
      * @return Returns a String with all the possible exits of the room.
      */
     public String getExitsString() {
-        return "There are exits in the directions: " + exits.getKeyDescription();
+        if (exitsString == null) {
+            exitsString = DescriptionPool.share("There are exits in the directions: " + exits.getKeyDescription());
+        }
+        return exitsString;
     }
 
     /**
-     * @return Returns a String with the contents of the room.
+     * @return Returns the long description of the room followed by its exits,
+     *         when the game starts.
      */
-    public String getInventoryString() {
-        return getName() + " contents:" + super.getLongDescription();
+    public String getFullDescription() {
+        return getFullDescription(getContents());
     }
 
     /**
-     * @return Returns a description of the object with name objectName, if there is
-     *         such an object. If there's no such object, return null.
+     * @param contents What the room holds.
+     * @return Returns the long description of the room holding the given contents
+     *         followed by its exits.
      */
-    @Override
-    public String findDescription(String objectName) {
-        String description = super.findDescription(objectName);
-        if (description != null) {
-            return description;
+    public String getFullDescription(Contents contents) {
+        if (contents != getContents()) {
+            return contents.getRoomDescription(this);
         }
-        description = objects.findDescription(objectName);
-        if (description != null) {
-            return description;
+        Contents.RoomDescription description = fullDescription;
+        if (description == null || !description.describes(contents, getExitsString())) {
+            description = new Contents.RoomDescription(contents, getExitsString(), renderFullDescription(contents));
+            fullDescription = description;
         }
+        return description.text;
+    }
 
-        Direction direction = Direction.convertString(objectName);
-        description = exits.findDescription(direction);
+    /**
+     * Renders the long description of the room followed by its exits, for the
+     * room holding the given contents. The result is kept, so this is only called
+     * once for the same contents.
+     * 
+     * @param contents What the room holds.
+     * @return Returns the full description of the room.
+     */
+    String renderFullDescription(Contents contents) {
+        long allocated = AllocationStatistics.global().start();
+        String description = DescriptionPool.share(renderLongDescription(contents) + "\n" + getExitsString());
+        AllocationStatistics.global().recordRender(getName(), allocated);
         return description;
     }
 
+    /**
+     * @param contents What the room holds.
+     * @return Returns a String with the given contents of the room.
+     */
+    public String getInventoryString(Contents contents) {
+        return getName() + " contents:" + contents.getItemDescriptions();
+    }
+
     /**
      * Adds object to the object map, if there's no object with that name in the map
      * already.
@@ -110,9 +148,7 @@ public class Room extends Container {
      * @param object The object to be added.
      */
     public void addInteractive(InteractiveObject object) {
-        if (!hasObject(object.getName().toLowerCase())) {
-            objects.add(object);
-        }
+        setContents(getContents().withObject(object));
     }
 
     /**
@@ -122,7 +158,7 @@ public class Room extends Container {
      * @return The corresponding InteractiveObject.
      */
     public InteractiveObject getObject(String objectName) {
-        return objects.get(objectName);
+        return getContents().getObject(objectName);
     }
 
     /**
@@ -135,7 +171,11 @@ public class Room extends Container {
      * @return The object that was removed.
      */
     public InteractiveObject removeObject(String objectName) {
-        return objects.remove(objectName);
+        InteractiveObject object = getObject(objectName);
+        if (object != null) {
+            setContents(getContents().withoutObject(objectName));
+        }
+        return object;
     }
 
     /**
@@ -144,13 +184,32 @@ public class Room extends Container {
      *         objectName.
      */
     public boolean hasObject(String objectName) {
-        return objects.containsKey(objectName);
+        return getObject(objectName) != null;
+    }
+
+    /**
+     * @return Returns a new list of the interactive objects in the room.
+     */
+    public Collection<InteractiveObject> getObjects() {
+        return getContents().getObjects();
     }
 
     /**
      * @return Returns true if the rooms contains any InteractiveObject.
      */
     public boolean hasObjects() {
-        return !objects.isEmpty();
+        return getContents().hasObjects();
+    }
+
+    private String renderLongDescription(Contents contents) {
+        StringBuilder result = new StringBuilder();
+        result.append("You are in the ").append(getName()).append(".\n\n").append(getDescription()).append('\n');
+        if (!contents.hasNoItems()) {
+            result.append('\n').append(getInventoryString(contents));
+        }
+        if (contents.hasObjects()) {
+            result.append("\nInteractive objects:").append(contents.getObjectDescriptions());
+        }
+        return DescriptionPool.share(result.toString());
     }
 }
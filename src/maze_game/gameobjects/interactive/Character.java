@@ -30,10 +30,10 @@ public class Character extends InteractiveObject {
      * dialogue is printed. Otherwise it defaults to the default dialogue.
      */
     public Flag interact(GameState gameState) {
-        System.out.println(getDialogue());
+        gameState.getOutput().println(getDialogue(gameState));
 
-        if (!isActive()) {
-            activate();
+        if (!gameState.isActive(this)) {
+            gameState.activate(this);
         }
         return Flag.INTERACTED;
     }
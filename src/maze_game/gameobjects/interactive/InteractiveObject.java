@@ -9,9 +9,9 @@ import maze_game.state.GameState;
  * interact with. Interacting with it can influence the gameWorld or it can
  * unlock some dialogue.
  * 
- * The class has three fields, two strings representing possible dialogue the
- * player can unlock and a boolean hasInteracted, which is true if the player
- * has recently interacted with the object.
+ * The class has fields holding two strings representing possible dialogue the
+ * player can unlock. Whether the player has activated the object is kept by
+ * the GameState, such that objects can be shared by many versions of a game.
  * 
  * It implements several methods for e.g. retrieving dialogue and most crucially
  * has an abstract method interact that determines what the object does upon
@@ -21,17 +21,15 @@ import maze_game.state.GameState;
  */
 public abstract class InteractiveObject extends GameObject {
     // Dialogue the player gets when first interacting.
-    private String initialDialogue;
+    private final String initialDialogue;
     // Dialogue the player gets when interacting with the object again.
-    private String defaultDialogue;
-    // Records whether the player has activated the object.
-    private boolean active;
+    private final String defaultDialogue;
     // Records whether the player is allowed to remove this from the room.
-    private boolean removable;
+    private final boolean removable;
 
     /**
-     * Creates a character with given name, description and dialogue. Initially sets
-     * the object to inactive.
+     * Creates a character with given name, description and dialogue. The object
+     * is inactive when the game starts.
      * 
      * @param name            Name of object.
      * @param description     Description of object.
@@ -43,29 +41,17 @@ public abstract class InteractiveObject extends GameObject {
         super(name, description);
         this.initialDialogue = initialDialogue;
         this.defaultDialogue = defaultDialogue;
-        this.active = false;
         this.removable = removable;
     }
 
     /**
-     * @return Returns true if the player has already activated with the object.
-     */
-    public boolean isActive() {
-        return active;
-    }
-
-    /**
-     * Records that the player has activated the object.
-     */
-    public void activate() {
-        this.active = true;
-    }
-
-    /**
-     * Records that the object has been reset, setting it to inactive.
+     * Resets the object through the given game state, such that the game state
+     * keeps track of the change.
+     * 
+     * @param gameState The state of the game the object is part of.
      */
-    public void reset() {
-        this.active = false;
+    public void reset(GameState gameState) {
+        gameState.deactivate(this);
     }
 
     /**
@@ -80,10 +66,11 @@ public abstract class InteractiveObject extends GameObject {
      * Returns a String with the dialogue the object presents. This can vary
      * depending on whether the player has already interacted with the object.
      * 
+     * @param gameState The state of the game the object is part of.
      * @return A String containing the appropriate dialogue.
      */
-    public String getDialogue() {
-        if (isActive()) {
+    public String getDialogue(GameState gameState) {
+        if (gameState.isActive(this)) {
             return defaultDialogue;
         } else {
             return initialDialogue;
@@ -1,5 +1,6 @@
 package maze_game.gameobjects.interactive;
 
+import maze_game.events.MechanismEvent;
 import maze_game.flag.Flag;
 import maze_game.state.GameState;
 
@@ -13,10 +14,10 @@ import maze_game.state.GameState;
  * The first mechanism in the series has null as the previous mechanism.
  */
 public class LinkedMechanism extends InteractiveObject {
-    private LinkedMechanism previousMechanism;
+    private final LinkedMechanism previousMechanism;
     // If the mechanism is trapped, the player is hurt each time they hit the wrong
     // mechanism
-    private boolean trapped;
+    private final boolean trapped;
 
     public LinkedMechanism(String name, String description, String initialDialogue, String defaultDialogue,
             LinkedMechanism previousMechanism, boolean trapped) {
@@ -40,33 +41,54 @@ public class LinkedMechanism extends InteractiveObject {
      * a success Flag.
      */
     public Flag interact(GameState gameState) {
-        if (isActive()) {
+        if (gameState.isActive(this)) {
             return Flag.NO_EFFECT;
         }
-        if (!hasPrevious() || previousMechanism.isActive()) {
-            activate();
+        if (!hasPrevious() || gameState.isActive(previousMechanism)) {
+            gameState.activate(this);
+            emitEvent(false);
         } else {
             if (trapped) {
                 gameState.getHit();
             }
-            resetPrevious();
+            if (hasPrevious()) {
+                previousMechanism.reset(gameState);
+            }
+            emitEvent(true);
         }
-        System.out.println(getDialogue());
+        gameState.getOutput().println(getDialogue(gameState));
         return Flag.INTERACTED;
     }
 
     /**
-     * Resets the mechanism along with the previous mechanism in the link if there
-     * is one.
+     * @return Returns the mechanism that has to be activated before this one, or
+     *         null if this is the first mechanism of the sequence.
      */
-    public void reset() {
-        super.reset();
-        resetPrevious();
+    public LinkedMechanism getPreviousMechanism() {
+        return previousMechanism;
     }
 
-    private void resetPrevious() {
+    /**
+     * Resets the mechanism along with the previous mechanisms in the link through
+     * the given game state.
+     */
+    @Override
+    public void reset(GameState gameState) {
+        super.reset(gameState);
         if (hasPrevious()) {
-            previousMechanism.reset();
+            previousMechanism.reset(gameState);
+        }
+    }
+
+    private void emitEvent(boolean reset) {
+        if (MechanismEvent.isRecorded()) {
+            int position = 1;
+            LinkedMechanism mechanism = previousMechanism;
+            while (mechanism != null) {
+                position++;
+                mechanism = mechanism.previousMechanism;
+            }
+            new MechanismEvent().emit(getName(), reset, position, trapped);
         }
     }
 
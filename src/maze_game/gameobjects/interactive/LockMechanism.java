@@ -42,12 +42,12 @@ public class LockMechanism extends LinkedMechanism {
      */
     public Flag interact(GameState gameState) {
         Flag flag = super.interact(gameState);
-        if (isActive()) {
+        if (gameState.isActive(this)) {
             if (door1 != null) {
-                door1.unlock(this);
+                gameState.unlock(door1, this);
             }
             if (door2 != null) {
-                door2.unlock(this);
+                gameState.unlock(door2, this);
             }
         }
         return flag;
@@ -1,5 +1,7 @@
 package maze_game.hint;
 
+import maze_game.output.OutputSink;
+
 /**
  * Class that holds hints for the game. As the player asks for more hints, the
  * hints change to reveal more and more information.
@@ -13,23 +15,30 @@ public class Hints {
             "The puzzle in the rooms require you to interact with the mechanisms in the correct order."
                     + "\nIf you get the order wrong, the puzzle resets.",
             "The correct order of the puzzles spells out an English word.",
-            "You should look out for the following items: key, crowbar, idol, lever and incantation" };
-
-    // Holds the amount of hints the player has asked.
-    private int hintAmount;
+            "You should look out for the following items: key, crowbar, idol, lever and incantation",
+            "You can return to a room you have visited before by entering 'travel <room>'." };
 
-    public Hints() {
-        this.hintAmount = 0;
+    private Hints() {
     }
 
-    public void printHint() {
-        if (this.hintAmount >= hints.length) {
+    /**
+     * Prints the next hint to the given stream. The GameState keeps how many
+     * hints the player has asked for.
+     * 
+     * @param out        Sink the hint is printed to.
+     * @param hintAmount The amount of hints the player has asked for so far.
+     * @return Returns the amount of hints the player has asked for, including
+     *         this one.
+     */
+    public static int printHint(OutputSink out, int hintAmount) {
+        if (hintAmount >= hints.length) {
             for (String hint : hints) {
-                System.out.println(hint);
+                out.println(hint);
             }
+            return hintAmount;
         } else {
-            System.out.println(hints[hintAmount]);
-            hintAmount++;
+            out.println(hints[hintAmount]);
+            return hintAmount + 1;
         }
     }
 }
@@ -4,11 +4,14 @@ package maze_game.input;
  * Enumeration class CommandWord models a command input from the user. The class
  * contains a field commandString representing the command.
  * 
+ * Journals store the ordinals of command words, so new command words are added
+ * at the end.
+ * 
  * @author Alexander Mertens
  */
 public enum CommandWord {
     GO("go"), TAKE("take"), DROP("drop"), BACK("back"), LOOK("look"), OPEN("open"), INTERACT("interact"), QUIT("quit"),
-    HELP("help"), HINT("hint"), UNKNOWN("?");
+    HELP("help"), HINT("hint"), TRAVEL("travel"), UNKNOWN("?"), UNDO("undo"), REDO("redo"), STATS("stats");
 
     private final String commandString;
 
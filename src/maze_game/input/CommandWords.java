@@ -1,7 +1,7 @@
 package maze_game.input;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The class CommandWords holds all the command words that can be used as input
@@ -11,15 +11,18 @@ import java.util.Map;
  * @author Alexander Mertens
  */
 public class CommandWords {
-    private Map<String, CommandWord> commands;
+    // The valid command words. There are only a handful, so scanning them is
+    // cheaper than hashing the input.
+    private CommandWord[] commandWords;
 
     public CommandWords() {
-        commands = new HashMap<>();
+        List<CommandWord> commands = new ArrayList<>();
         for (CommandWord command : CommandWord.values()) {
             if (command != CommandWord.UNKNOWN) {
-                commands.put(command.toString(), command);
+                commands.add(command);
             }
         }
+        commandWords = commands.toArray(new CommandWord[0]);
     }
 
     /**
@@ -29,7 +32,7 @@ public class CommandWords {
      *         isn't.
      */
     public boolean isCommandWord(String potentialCommand) {
-        return (commands.containsKey(potentialCommand));
+        return getCommandWord(potentialCommand) != CommandWord.UNKNOWN;
     }
 
     /**
@@ -39,7 +42,7 @@ public class CommandWords {
      */
     public String showCommands() {
         String result = "";
-        for (String commandWord : commands.keySet()) {
+        for (CommandWord commandWord : commandWords) {
             result += " " + commandWord;
         }
         return result;
@@ -52,10 +55,40 @@ public class CommandWords {
      * @return CommandWord corresponding to the given command word String.
      */
     public CommandWord getCommandWord(String potentialCommand) {
-        if (isCommandWord(potentialCommand)) {
-            return commands.get(potentialCommand);
-        } else {
-            return CommandWord.UNKNOWN;
+        for (CommandWord command : commandWords) {
+            if (command.toString().equals(potentialCommand)) {
+                return command;
+            }
+        }
+        return CommandWord.UNKNOWN;
+    }
+
+    /**
+     * Converts a range of characters to an instance of CommandWord if it is a valid
+     * command word. Otherwise, it returns UNKNOWN. Unlike getCommandWord(String),
+     * this doesn't require a String to be created.
+     * 
+     * @param chars  Array holding the potential command word.
+     * @param offset Index of the first character of the word.
+     * @param length Length of the word.
+     * @return CommandWord corresponding to the given characters.
+     */
+    public CommandWord getCommandWord(char[] chars, int offset, int length) {
+        for (CommandWord command : commandWords) {
+            String word = command.toString();
+            if (word.length() == length && matches(word, chars, offset)) {
+                return command;
+            }
+        }
+        return CommandWord.UNKNOWN;
+    }
+
+    private static boolean matches(String word, char[] chars, int offset) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != chars[offset + i]) {
+                return false;
+            }
         }
+        return true;
     }
 }
@@ -1,15 +1,25 @@
 package maze_game.input;
 
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import maze_game.commands.Command;
 import maze_game.commands.CommandFactory;
+import maze_game.output.BufferedOutputSink;
+import maze_game.output.OutputSink;
 
 /**
  * This parser reads user input and tries to interpret it as an "Adventure"
  * command. Every time it is called it reads a line from the terminal and tries
  * to interpret the line as a two word command. It returns the command as an
- * object of class Command.
+ * object of class Command, the argument of the command is kept by the parser
+ * until the next line is read.
  *
  * The parser has a set of known command words. It checks user input against the
  * known commands, and if the input is not one of the known commands, it returns
@@ -20,49 +30,190 @@ import maze_game.commands.CommandFactory;
  */
 
 public class Parser {
+    // Bytes of input decoded at once. Commands are short and a hosted session
+    // keeps its parser while it waits, so the buffer is kept small.
+    private static final int INPUT_BUFFER_SIZE = 1024;
+
     private CommandWords commands; // holds all valid command words
-    private Scanner reader; // source of command input
+    private Tokenizer tokenizer; // splits lines into command word and argument
+    private InputStream input; // source of command input
+    private OutputSink prompt; // destination of the prompt
     private CommandFactory commandFactory;
+    private String argument; // argument of the last command
+    private CommandWord commandWord; // command word of the last command
+
+    // Bytes read from the input but not yet decoded, ready to be read from.
+    private final ByteBuffer inputBuffer;
+    private final CharsetDecoder decoder;
+    private boolean endOfInput;
+    // Characters decoded but not yet consumed. The buffers are decoded into
+    // directly, so reading a line doesn't allocate.
+    private final char[] readBuffer;
+    private final CharBuffer readChars;
+    private int readPosition;
+    private int readLimit;
+    // The line that has been read last.
+    private char[] line;
+    private int lineLength;
 
     /**
      * Create a parser to read from the terminal window.
      */
     public Parser() {
-        commandFactory = new CommandFactory();
+        this(System.in, new BufferedOutputSink(System.out));
+    }
+
+    /**
+     * Create a parser that reads from the given input and prints its prompt to the
+     * given sink. The sink is flushed before the parser waits for input, so all
+     * output of the previous turn is delivered together with the prompt. Reading
+     * from the console of this process, the commands of operators are known.
+     * 
+     * @param input  Source of the command input.
+     * @param prompt Sink the prompt is printed to.
+     */
+    public Parser(InputStream input, OutputSink prompt) {
+        commandFactory = new CommandFactory(input == System.in && System.console() != null);
         commands = new CommandWords();
-        reader = new Scanner(System.in);
+        tokenizer = new Tokenizer(commands);
+        this.input = input;
+        inputBuffer = ByteBuffer.allocate(INPUT_BUFFER_SIZE).flip();
+        decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.prompt = prompt;
+        readBuffer = new char[1024];
+        readChars = CharBuffer.wrap(readBuffer);
+        line = new char[128];
     }
 
     /**
-     * @return The next command from the user.
+     * @return The next command from the user. Once the input has run out, a quit
+     *         command is returned.
      */
     public Command getCommand() {
-        String inputLine; // will hold the full input line
-        CommandWord commandWord = null;
-        String argument = null;
-
-        System.out.print("> "); // print prompt
-
-        inputLine = reader.nextLine();
-
-        // Find up to two words on the line.
-        Scanner tokenizer = new Scanner(inputLine);
-        if (tokenizer.hasNext()) {
-            commandWord = commands.getCommandWord(tokenizer.next().toLowerCase()); // get first word
-            if (tokenizer.hasNext()) {
-                argument = tokenizer.next();
-                while (tokenizer.hasNext())
-                    argument += " " + tokenizer.next(); // get argument
-                argument = argument.toLowerCase();
-            }
+        printPrompt();
+
+        if (!readLine()) {
+            argument = null;
+            commandWord = CommandWord.QUIT;
+            return commandFactory.getCommand(CommandWord.QUIT);
         }
-        tokenizer.close();
-        // Now check whether this word is known. If so, create a command
-        // with it. If not, create a "null" command (for unknown command).
-        return commandFactory.getCommand(commandWord, argument);
+        tokenizer.tokenize(line, lineLength);
+        return createCommand();
+    }
+
+    /**
+     * Prints the prompt and flushes the sink, delivering all output of the
+     * previous turn.
+     */
+    public void printPrompt() {
+        prompt.print("> ");
+        prompt.flush();
+    }
+
+    /**
+     * Interprets the given line as a command.
+     * 
+     * @param inputLine The full input line.
+     * @return The command on the line.
+     */
+    public Command parseLine(String inputLine) {
+        tokenizer.tokenize(inputLine);
+        return createCommand();
+    }
+
+    /**
+     * @return Returns the argument of the last command that was read, or null if
+     *         it had no argument.
+     */
+    public String getArgument() {
+        return argument;
+    }
+
+    /**
+     * @return Returns the command word of the last command that was read,
+     *         UNKNOWN if it wasn't a known command.
+     */
+    public CommandWord getCommandWord() {
+        return commandWord;
     }
 
     public String showCommands() {
         return commands.showCommands();
     }
+
+    private Command createCommand() {
+        // Now check whether this word is known. If so, create a command
+        // with it. If not, create a "null" command (for unknown command).
+        argument = tokenizer.getArgument();
+        CommandWord word = tokenizer.getCommandWord();
+        commandWord = word == null ? CommandWord.UNKNOWN : word;
+        return commandFactory.getCommand(word);
+    }
+
+    /**
+     * Reads the next line of input into the line buffer, without the line
+     * terminator.
+     * 
+     * @return Returns false if the input has run out.
+     */
+    private boolean readLine() {
+        lineLength = 0;
+        boolean readAnything = false;
+        while (true) {
+            if (readPosition == readLimit && !fillReadBuffer()) {
+                return readAnything;
+            }
+            readAnything = true;
+            char c = readBuffer[readPosition++];
+            if (c == '\n') {
+                break;
+            }
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, 2 * line.length);
+            }
+            line[lineLength++] = c;
+        }
+        if (lineLength > 0 && line[lineLength - 1] == '\r') {
+            lineLength--;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the next characters of the input into the read buffer, reading
+     * more input as long as no whole character has been read.
+     * 
+     * @return Returns false if the input has run out.
+     */
+    private boolean fillReadBuffer() {
+        if (endOfInput && !inputBuffer.hasRemaining()) {
+            return false;
+        }
+        readChars.clear();
+        try {
+            decoder.decode(inputBuffer, readChars, endOfInput);
+            while (readChars.position() == 0 && !endOfInput) {
+                inputBuffer.compact();
+                int read = input.read(inputBuffer.array(), inputBuffer.position(), inputBuffer.remaining());
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    inputBuffer.position(inputBuffer.position() + read);
+                }
+                inputBuffer.flip();
+                decoder.decode(inputBuffer, readChars, endOfInput);
+            }
+        } catch (IOException e) {
+            endOfInput = true;
+            inputBuffer.clear().flip();
+            decoder.decode(inputBuffer, readChars, true);
+        }
+        if (endOfInput && !inputBuffer.hasRemaining()) {
+            decoder.flush(readChars);
+        }
+        readPosition = 0;
+        readLimit = readChars.position();
+        return readLimit > 0;
+    }
 }
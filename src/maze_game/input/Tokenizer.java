@@ -0,0 +1,165 @@
+package maze_game.input;
+
+/**
+ * Splits an input line into a command word and an argument. The first word on
+ * the line is the command word, all remaining words form the argument, joined
+ * by single spaces. Both are converted to lower case.
+ *
+ * The tokenizer works on reusable char buffers and doesn't create any objects
+ * while tokenizing. Argument Strings are kept in a small cache, such that an
+ * argument that has been seen before is returned without creating a new
+ * String.
+ *
+ * @author Alexander Mertens
+ */
+public class Tokenizer {
+    // Amount of argument Strings that are cached, must be a power of two.
+    private static final int CACHE_SIZE = 256;
+
+    private final CommandWords commands;
+    // Holds the lower case characters of the line that is being tokenized.
+    private char[] line;
+    // Holds the characters of the argument.
+    private char[] argument;
+    private final String[] argumentCache;
+
+    private CommandWord commandWord;
+    private String argumentString;
+
+    /**
+     * Creates a tokenizer that recognizes the given command words.
+     *
+     * @param commands The valid command words.
+     */
+    public Tokenizer(CommandWords commands) {
+        this.commands = commands;
+        this.line = new char[128];
+        this.argument = new char[128];
+        this.argumentCache = new String[CACHE_SIZE];
+    }
+
+    /**
+     * Tokenizes the given line.
+     *
+     * @param input The line to be tokenized.
+     */
+    public void tokenize(CharSequence input) {
+        int length = input.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            line[i] = input.charAt(i);
+        }
+        tokenizeLine(length);
+    }
+
+    /**
+     * Tokenizes the first length characters of the given array. The array itself
+     * is left untouched.
+     *
+     * @param input  Array holding the line to be tokenized.
+     * @param length The length of the line.
+     */
+    public void tokenize(char[] input, int length) {
+        ensureCapacity(length);
+        System.arraycopy(input, 0, line, 0, length);
+        tokenizeLine(length);
+    }
+
+    /**
+     * @return Returns the command word of the last tokenized line, UNKNOWN if the
+     *         first word isn't a command word or null if the line was empty.
+     */
+    public CommandWord getCommandWord() {
+        return commandWord;
+    }
+
+    /**
+     * @return Returns the argument of the last tokenized line or null if the line
+     *         had no argument.
+     */
+    public String getArgument() {
+        return argumentString;
+    }
+
+    private void tokenizeLine(int length) {
+        commandWord = null;
+        argumentString = null;
+
+        int start = skipWhitespace(0, length);
+        if (start == length) {
+            return;
+        }
+        int end = start;
+        while (end < length && !Character.isWhitespace(line[end])) {
+            line[end] = Character.toLowerCase(line[end]);
+            end++;
+        }
+        commandWord = commands.getCommandWord(line, start, end - start);
+
+        // Copy the remaining words into the argument, separated by single spaces.
+        int argumentLength = 0;
+        int position = skipWhitespace(end, length);
+        while (position < length) {
+            if (argumentLength > 0) {
+                argument[argumentLength++] = ' ';
+            }
+            while (position < length && !Character.isWhitespace(line[position])) {
+                argument[argumentLength++] = Character.toLowerCase(line[position]);
+                position++;
+            }
+            position = skipWhitespace(position, length);
+        }
+        if (argumentLength > 0) {
+            argumentString = toCachedString(argument, argumentLength);
+        }
+    }
+
+    private int skipWhitespace(int position, int length) {
+        while (position < length && Character.isWhitespace(line[position])) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the cached String with the given characters, or creates it and puts
+     * it in the cache if it isn't cached yet.
+     */
+    private String toCachedString(char[] chars, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+
+        String cached = argumentCache[slot];
+        if (cached != null && contentEquals(cached, chars, length)) {
+            return cached;
+        }
+        String result = new String(chars, 0, length);
+        argumentCache[slot] = result;
+        return result;
+    }
+
+    private static boolean contentEquals(String string, char[] chars, int length) {
+        if (string.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (string.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grows the buffers if a line of the given length doesn't fit.
+     */
+    private void ensureCapacity(int length) {
+        if (length > line.length) {
+            line = new char[Math.max(length, 2 * line.length)];
+            argument = new char[line.length];
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package maze_game.mapping;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -9,15 +10,22 @@ import maze_game.gameobjects.GameObject;
 /**
  * A class that holds a mapping of key-value pairs consisting of object names
  * and their corresponding GameObjects.
+ * 
+ * The descriptions of the mapping are rendered once and kept until the mapping
+ * changes. Most mappings in a maze stay empty, so the underlying maps are only
+ * created once the first object is added.
  */
 public class GameObjectMap<K, V extends GameObject> {
     private Map<K, V> objectMap;
+    // Rendered descriptions, null when they need to be rendered again.
+    private String description;
+    private String keyDescription;
 
     /**
      * Constructs a new mapping.
      */
     public GameObjectMap() {
-        objectMap = new HashMap<>();
+        objectMap = Collections.emptyMap();
     }
 
     /**
@@ -26,7 +34,11 @@ public class GameObjectMap<K, V extends GameObject> {
      * @param object The object to be added.
      */
     public void put(K key, V object) {
+        if (objectMap == Collections.<K, V> emptyMap()) {
+            objectMap = new HashMap<>(4);
+        }
         objectMap.put(key, object);
+        invalidateDescriptions();
     }
 
     /**
@@ -37,7 +49,11 @@ public class GameObjectMap<K, V extends GameObject> {
      * @return Returns the removed object or null if there's no such object.
      */
     public V remove(K key) {
-        return objectMap.remove(key);
+        V object = objectMap.remove(key);
+        if (object != null) {
+            invalidateDescriptions();
+        }
+        return object;
     }
 
     /**
@@ -105,21 +121,32 @@ public class GameObjectMap<K, V extends GameObject> {
      *         mapping contains.
      */
     public String getDescription() {
-        String result = "";
-        for (V object : objectMap.values()) {
-            result += "\n  " + object.getLongDescription();
+        if (description == null) {
+            StringBuilder result = new StringBuilder();
+            for (V object : objectMap.values()) {
+                result.append("\n  ").append(object.getLongDescription());
+            }
+            description = result.toString();
         }
-        return result;
+        return description;
     }
 
     /**
      * @return Returns a String containing all the keys in the mapping.
      */
     public String getKeyDescription() {
-        String result = "";
-        for (K key : objectMap.keySet()) {
-            result += key.toString() + " ";
+        if (keyDescription == null) {
+            StringBuilder result = new StringBuilder();
+            for (K key : objectMap.keySet()) {
+                result.append(key.toString()).append(' ');
+            }
+            keyDescription = result.toString();
         }
-        return result;
+        return keyDescription;
+    }
+
+    private void invalidateDescriptions() {
+        description = null;
+        keyDescription = null;
     }
 }
@@ -0,0 +1,360 @@
+package maze_game.mapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable map that is changed by making a new version of it. Every new
+ * version shares everything but the changed path with the version it was made
+ * from, so adding or removing a key takes time and memory logarithmic in the
+ * size of the map and keeping the old version costs nothing.
+ *
+ * The map is a hash array mapped trie: every level of the trie picks one of 32
+ * children by the next 5 bits of the hash of the key. Nodes only hold the
+ * children that exist, marked in a bitmap, so sparse levels stay small. Keys
+ * with the same hash are kept in a list at the bottom of the trie.
+ *
+ * Null keys and values aren't allowed. The order of iteration only depends on
+ * the hashes of the keys.
+ *
+ * @author Alexander Mertens
+ */
+public final class PersistentMap<K, V> {
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return Returns the empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * @param key The key to be found.
+     * @return Returns the value of the given key, or null if the map doesn't hold
+     *         the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return root == null ? null : (V) root.get(key, hash(key), 0);
+    }
+
+    /**
+     * @param key The key to be found.
+     * @return Returns true if the map holds the given key.
+     */
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key   The key to be added or replaced.
+     * @param value The new value of the key.
+     * @return Returns a map that holds the given value for the given key and is
+     *         otherwise the same as this map. Returns this map if it already
+     *         holds the value.
+     */
+    public PersistentMap<K, V> plus(K key, V value) {
+        Entry entry = new Entry(key, value, hash(key));
+        if (root == null) {
+            return new PersistentMap<>(entry, 1);
+        }
+        int[] added = new int[1];
+        Node newRoot = root.plus(entry, 0, added);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, size + added[0]);
+    }
+
+    /**
+     * @param key The key to be removed.
+     * @return Returns a map without the given key that is otherwise the same as
+     *         this map. Returns this map if it doesn't hold the key.
+     */
+    public PersistentMap<K, V> minus(Object key) {
+        if (root == null) {
+            return this;
+        }
+        Node newRoot = root.minus(key, hash(key), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * @return Returns the amount of keys in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Returns true if the map holds no keys.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Passes every key and its value to the given action.
+     *
+     * @param action The action to be performed.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    /**
+     * @return Returns a new list with the values of the map.
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        forEach((key, value) -> values.add(value));
+        return values;
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Makes the smallest subtrie at the given level holding the two given nodes,
+     * whose hashes differ.
+     */
+    private static Node merge(Node first, int firstHash, Node second, int secondHash, int shift) {
+        int firstBit = bit(firstHash, shift);
+        int secondBit = bit(secondHash, shift);
+        if (firstBit == secondBit) {
+            return new BitmapNode(firstBit, new Node[] { merge(first, firstHash, second, secondHash, shift + BITS) });
+        } else if (Integer.compareUnsigned(firstBit, secondBit) < 0) {
+            return new BitmapNode(firstBit | secondBit, new Node[] { first, second });
+        } else {
+            return new BitmapNode(firstBit | secondBit, new Node[] { second, first });
+        }
+    }
+
+    private abstract static class Node {
+        abstract Object get(Object key, int hash, int shift);
+
+        /**
+         * Returns the node with the given entry, or this node if it already holds
+         * the entry. Sets added[0] to 1 if the key is new.
+         */
+        abstract Node plus(Entry entry, int shift, int[] added);
+
+        /**
+         * Returns the node without the given key, null if nothing is left, or
+         * this node if it doesn't hold the key.
+         */
+        abstract Node minus(Object key, int hash, int shift);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    private static final class Entry extends Node {
+        private final Object key;
+        private final Object value;
+        private final int hash;
+
+        private Entry(Object key, Object value, int hash) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            return this.hash == hash && this.key.equals(key) ? value : null;
+        }
+
+        @Override
+        Node plus(Entry entry, int shift, int[] added) {
+            if (entry.hash == hash && entry.key.equals(key)) {
+                return entry.value == value ? this : entry;
+            }
+            added[0] = 1;
+            if (entry.hash == hash) {
+                return new CollisionNode(hash, new Entry[] { this, entry });
+            }
+            return merge(this, hash, entry, entry.hash, shift);
+        }
+
+        @Override
+        Node minus(Object key, int hash, int shift) {
+            return this.hash == hash && this.key.equals(key) ? null : this;
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            action.accept(key, value);
+        }
+    }
+
+    private static final class BitmapNode extends Node {
+        private final int bitmap;
+        private final Node[] children;
+
+        private BitmapNode(int bitmap, Node[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            return (bitmap & bit) == 0 ? null : children[index(bit)].get(key, hash, shift + BITS);
+        }
+
+        @Override
+        Node plus(Entry entry, int shift, int[] added) {
+            int bit = bit(entry.hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, index);
+                newChildren[index] = entry;
+                System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+                added[0] = 1;
+                return new BitmapNode(bitmap | bit, newChildren);
+            }
+            Node child = children[index].plus(entry, shift + BITS, added);
+            if (child == children[index]) {
+                return this;
+            }
+            Node[] newChildren = children.clone();
+            newChildren[index] = child;
+            return new BitmapNode(bitmap, newChildren);
+        }
+
+        @Override
+        Node minus(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Node child = children[index].minus(key, hash, shift + BITS);
+            if (child == children[index]) {
+                return this;
+            } else if (child != null) {
+                // A lone entry or collision list doesn't depend on its level, so it
+                // replaces the node holding only it.
+                if (children.length == 1 && !(child instanceof BitmapNode)) {
+                    return child;
+                }
+                Node[] newChildren = children.clone();
+                newChildren[index] = child;
+                return new BitmapNode(bitmap, newChildren);
+            } else if (children.length == 1) {
+                return null;
+            } else if (children.length == 2 && !(children[1 - index] instanceof BitmapNode)) {
+                return children[1 - index];
+            }
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            return new BitmapNode(bitmap & ~bit, newChildren);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (Node child : children) {
+                child.forEach(action);
+            }
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Entry[] entries;
+
+        private CollisionNode(int hash, Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            if (hash == this.hash) {
+                for (Entry entry : entries) {
+                    if (entry.key.equals(key)) {
+                        return entry.value;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Node plus(Entry entry, int shift, int[] added) {
+            if (entry.hash != hash) {
+                added[0] = 1;
+                return merge(this, hash, entry, entry.hash, shift);
+            }
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(entry.key)) {
+                    if (entries[i].value == entry.value) {
+                        return this;
+                    }
+                    Entry[] newEntries = entries.clone();
+                    newEntries[i] = entry;
+                    return new CollisionNode(hash, newEntries);
+                }
+            }
+            Entry[] newEntries = new Entry[entries.length + 1];
+            System.arraycopy(entries, 0, newEntries, 0, entries.length);
+            newEntries[entries.length] = entry;
+            added[0] = 1;
+            return new CollisionNode(hash, newEntries);
+        }
+
+        @Override
+        Node minus(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return this;
+            }
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(key)) {
+                    if (entries.length == 2) {
+                        return entries[1 - i];
+                    }
+                    Entry[] newEntries = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, newEntries, 0, i);
+                    System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+                    return new CollisionNode(hash, newEntries);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (Entry entry : entries) {
+                entry.forEach(action);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package maze_game.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An OutputSink that collects all the text of a turn in a buffer and only
+ * writes it to the underlying stream when flushed. A whole turn then costs a
+ * single write to the stream instead of one write and flush per message. The
+ * text is written to a plain OutputStream in UTF-8 without any buffer of its
+ * own, so a sink costs little more than its text while its session waits.
+ * 
+ * @author Alexander Mertens
+ */
+public class BufferedOutputSink implements OutputSink {
+    private final StringBuilder buffer;
+    // Exactly one of the targets is set.
+    private final PrintStream target;
+    private final OutputStream stream;
+
+    /**
+     * Creates a sink that writes to the given stream when flushed.
+     * 
+     * @param target Stream the buffered text is written to.
+     */
+    public BufferedOutputSink(PrintStream target) {
+        this.buffer = new StringBuilder(1024);
+        this.target = target;
+        this.stream = null;
+    }
+
+    /**
+     * Creates a sink that writes its text to the given stream in UTF-8 when
+     * flushed.
+     * 
+     * @param stream Stream the buffered text is written to.
+     */
+    public BufferedOutputSink(OutputStream stream) {
+        this.buffer = new StringBuilder(1024);
+        this.target = null;
+        this.stream = stream;
+    }
+
+    @Override
+    public void print(String text) {
+        buffer.append(text);
+    }
+
+    @Override
+    public void println(String text) {
+        buffer.append(text).append('\n');
+    }
+
+    @Override
+    public void println() {
+        buffer.append('\n');
+    }
+
+    /**
+     * Writes the buffered text to the stream in one go and empties the buffer.
+     * 
+     * @throws UncheckedIOException If the text can't be written to an
+     *                              OutputStream.
+     */
+    @Override
+    public void flush() {
+        if (target != null) {
+            if (buffer.length() > 0) {
+                target.append(buffer);
+                buffer.setLength(0);
+            }
+            target.flush();
+            return;
+        }
+        try {
+            if (buffer.length() > 0) {
+                stream.write(buffer.toString().getBytes(StandardCharsets.UTF_8));
+                buffer.setLength(0);
+            }
+            stream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package maze_game.output;
+
+/**
+ * An OutputSink that discards all output, used to run games headless.
+ * 
+ * @author Alexander Mertens
+ */
+public class NullOutputSink implements OutputSink {
+    @Override
+    public void print(String text) {
+    }
+
+    @Override
+    public void println(String text) {
+    }
+
+    @Override
+    public void println() {
+    }
+
+    @Override
+    public void flush() {
+    }
+}
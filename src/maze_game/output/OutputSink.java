@@ -0,0 +1,34 @@
+package maze_game.output;
+
+/**
+ * Destination of all the text a game session produces. Every session has its
+ * own sink, such that sessions never share a stream. A sink may hold on to the
+ * text until it is flushed.
+ * 
+ * @author Alexander Mertens
+ */
+public interface OutputSink {
+    /**
+     * Writes the given text without ending the line.
+     * 
+     * @param text The text to be written.
+     */
+    void print(String text);
+
+    /**
+     * Writes the given text followed by a line break.
+     * 
+     * @param text The text to be written.
+     */
+    void println(String text);
+
+    /**
+     * Writes a line break.
+     */
+    void println();
+
+    /**
+     * Delivers all the text written so far to its final destination.
+     */
+    void flush();
+}
@@ -0,0 +1,567 @@
+package maze_game.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import maze_game.input.CommandWord;
+
+/**
+ * Append-only journal of the commands executed by every session of a host.
+ *
+ * Records are small: a command is its session id, its turn, the ordinal of its
+ * command word and its argument, all as variable length integers. An argument
+ * is written in full the first time it's seen and is referred to by number
+ * afterwards.
+ *
+ * Records aren't written one at a time. They're collected in a batch that a
+ * single writer thread writes and forces to disk at once, after waiting the
+ * commit interval for more records to arrive. Every batch is framed by its
+ * length and a CRC32C checksum, such that a batch that was only partly written
+ * when the process died is recognized and cut off. Appending returns a future
+ * that completes once the record is on disk, so every session waiting for its
+ * command shares the same few forces per second.
+ *
+ * The journal is split into segments, so it doesn't grow forever. The first
+ * segment is the file of the journal, the following ones are numbered files
+ * next to it ("host.journal.1", "host.journal.2", ...), and records are only
+ * appended to the last one. A new segment starts with the sessions that are
+ * still running and numbers its arguments anew, so it can be read without the
+ * segments before it. Once every session that was running when a segment
+ * started has a snapshot that was taken after that, the segments before it
+ * aren't needed anymore and can be deleted.
+ *
+ * @author Alexander Mertens
+ */
+public class Journal implements Closeable {
+    // Record types.
+    static final byte SESSION = 1;
+    static final byte STRING = 2;
+    static final byte COMMAND = 3;
+    static final byte COMMAND_TEXT = 4;
+    static final byte END = 5;
+    // Length and checksum in front of every batch.
+    static final int FRAME_HEADER = 8;
+    // Arguments beyond this amount are written in full every time.
+    private static final int MAX_STRINGS = 1 << 16;
+    // Time to wait for more records before a batch is written, unless another
+    // is given: a few forces per second.
+    private static final long COMMIT_INTERVAL_MILLIS = 200;
+
+    // The file of the first segment.
+    private final Path file;
+    // The segment being written, only changed by the writer thread.
+    private FileChannel channel;
+    private final long commitIntervalNanos;
+    private final Thread writer;
+    private final ReentrantLock lock;
+    private final Condition recordsPending;
+
+    // Guarded by lock.
+    private ByteBuffer pending;
+    private int pendingRecords;
+    private CompletableFuture<Void> pendingCommit;
+    private final Map<String, Integer> strings;
+    // The sessions that have started and not ended, with their seeds.
+    private final Map<Long, Long> sessions;
+    private long nextSessionId;
+    // The segment new records are added to.
+    private int segment;
+    // Position in pending where the records of the next segment start, -1 if
+    // the segment isn't changed.
+    private int segmentStart;
+    private boolean closed;
+    private IOException failure;
+
+    // Written by the writer thread only.
+    private volatile long recordsWritten;
+    private volatile long commits;
+    private volatile long segmentSize;
+
+    /**
+     * Opens the journal in the given file, creating it if it doesn't exist, with
+     * a commit interval of 200 milliseconds.
+     *
+     * @param file The file of the first segment of the journal.
+     * @throws IOException If the file can't be opened.
+     */
+    public Journal(Path file) throws IOException {
+        this(file, COMMIT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the journal in the given file, creating it if it doesn't exist. All
+     * segments are read to find the sessions that are still running. An
+     * incomplete batch at the end of the last segment is cut off and new
+     * records are appended after the last complete one.
+     *
+     * @param file           The file of the first segment of the journal.
+     * @param commitInterval Time to wait for more records before a batch is
+     *                       written, 0 to write as soon as the disk is ready.
+     * @param unit           Unit of the commit interval.
+     * @throws IOException If the file can't be opened or a segment can't be read.
+     */
+    public Journal(Path file, long commitInterval, TimeUnit unit) throws IOException {
+        this.file = file;
+        sessions = new LinkedHashMap<>();
+        JournalReader.Visitor visitor = new JournalReader.Visitor() {
+            @Override
+            public void sessionStarted(long session, long seed) {
+                sessions.put(session, seed);
+                nextSessionId = Math.max(nextSessionId, session + 1);
+            }
+
+            @Override
+            public void commandExecuted(long session, int turn, CommandWord word, String argument) {
+            }
+
+            @Override
+            public void sessionEnded(long session) {
+                sessions.remove(session);
+            }
+        };
+        List<Path> segments = segments(file);
+        for (Path earlier : segments.subList(0, Math.max(segments.size() - 1, 0))) {
+            try (FileChannel channel = FileChannel.open(earlier, StandardOpenOption.READ)) {
+                new JournalReader(channel).read(visitor);
+            }
+        }
+        Path last = segments.isEmpty() ? file : segments.get(segments.size() - 1);
+        segment = segmentNumber(file, last);
+        channel = FileChannel.open(last, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        JournalReader reader = new JournalReader(channel);
+        long end;
+        try {
+            end = reader.read(visitor);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        channel.truncate(end);
+        channel.position(end);
+        segmentSize = end;
+        segmentStart = -1;
+
+        commitIntervalNanos = unit.toNanos(commitInterval);
+        lock = new ReentrantLock();
+        recordsPending = lock.newCondition();
+        pending = ByteBuffer.allocate(1 << 16);
+        pendingCommit = new CompletableFuture<>();
+        strings = new HashMap<>();
+        List<String> known = reader.getStrings();
+        for (int i = 0; i < known.size(); i++) {
+            strings.put(known.get(i), i);
+        }
+        writer = new Thread(this::writeBatches, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Lists the segments of the journal in the given file that exist, in the
+     * order they were written.
+     *
+     * @param file The file of the first segment of a journal.
+     * @return Returns the files of the segments.
+     * @throws IOException If the directory of the journal can't be read.
+     */
+    public static List<Path> segments(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        String prefix = file.getFileName() + ".";
+        List<Path> segments = new ArrayList<>();
+        try (var files = Files.list(directory)) {
+            files.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.equals(file.getFileName().toString())
+                        || name.startsWith(prefix) && name.substring(prefix.length()).matches("[0-9]{1,9}")) {
+                    segments.add(path);
+                }
+            });
+        }
+        segments.sort((a, b) -> Integer.compare(segmentNumber(file, a), segmentNumber(file, b)));
+        return segments;
+    }
+
+    private static int segmentNumber(Path file, Path segment) {
+        String name = segment.getFileName().toString();
+        int prefix = file.getFileName().toString().length() + 1;
+        return name.length() < prefix ? 0 : Integer.parseInt(name.substring(prefix));
+    }
+
+    private Path segmentFile(int number) {
+        return number == 0 ? file : file.resolveSibling(file.getFileName() + "." + number);
+    }
+
+    /**
+     * Records that a session has started.
+     *
+     * @param session Id of the session.
+     * @param seed    Seed the game of the session was created with.
+     * @return Returns a future that completes once the record is on disk.
+     */
+    public CompletableFuture<Void> startSession(long session, long seed) {
+        lock.lock();
+        try {
+            checkOpen();
+            reserve(1 + VarInts.MAX_LONG_SIZE + Long.BYTES);
+            pending.put(SESSION);
+            VarInts.writeLong(pending, session);
+            pending.putLong(seed);
+            sessions.put(session, seed);
+            nextSessionId = Math.max(nextSessionId, session + 1);
+            return added();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a command a session is about to execute.
+     *
+     * @param session  Id of the session.
+     * @param turn     Amount of commands the session has executed before this
+     *                 one.
+     * @param word     Command word of the command.
+     * @param argument Argument of the command, can be null.
+     * @return Returns a future that completes once the record is on disk.
+     */
+    public CompletableFuture<Void> append(long session, int turn, CommandWord word, String argument) {
+        lock.lock();
+        try {
+            checkOpen();
+            int id = argument == null ? -1 : intern(argument);
+            if (argument != null && id < 0) {
+                byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+                reserve(1 + VarInts.MAX_LONG_SIZE + 3 * VarInts.MAX_INT_SIZE + bytes.length);
+                pending.put(COMMAND_TEXT);
+                VarInts.writeLong(pending, session);
+                VarInts.writeInt(pending, turn);
+                VarInts.writeInt(pending, word.ordinal());
+                VarInts.writeInt(pending, bytes.length);
+                pending.put(bytes);
+            } else {
+                reserve(1 + VarInts.MAX_LONG_SIZE + 3 * VarInts.MAX_INT_SIZE);
+                pending.put(COMMAND);
+                VarInts.writeLong(pending, session);
+                VarInts.writeInt(pending, turn);
+                VarInts.writeInt(pending, word.ordinal());
+                VarInts.writeInt(pending, id + 1);
+            }
+            return added();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that a session has ended, it isn't recovered anymore.
+     *
+     * @param session Id of the session.
+     * @return Returns a future that completes once the record is on disk.
+     */
+    public CompletableFuture<Void> endSession(long session) {
+        lock.lock();
+        try {
+            checkOpen();
+            reserve(1 + VarInts.MAX_LONG_SIZE);
+            pending.put(END);
+            VarInts.writeLong(pending, session);
+            sessions.remove(session);
+            return added();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new segment: the records added from now on are written to it,
+     * after a record of every session that is running.
+     *
+     * @return Returns a future that completes once the start of the segment is
+     *         on disk.
+     */
+    public CompletableFuture<Void> startSegment() {
+        lock.lock();
+        try {
+            checkOpen();
+            if (segmentStart >= 0) {
+                throw new IllegalStateException("The segment " + segment + " hasn't been started yet");
+            }
+            segmentStart = pending.position();
+            segment++;
+            strings.clear();
+            for (Map.Entry<Long, Long> entry : sessions.entrySet()) {
+                reserve(1 + VarInts.MAX_LONG_SIZE + Long.BYTES);
+                pending.put(SESSION);
+                VarInts.writeLong(pending, entry.getKey());
+                pending.putLong(entry.getValue());
+                pendingRecords++;
+            }
+            recordsPending.signal();
+            return pendingCommit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments before the given one. The sessions that were running
+     * when the given segment started must have been saved in snapshots since,
+     * so the journal can be recovered without the segments before it.
+     *
+     * @param first The first segment that is kept.
+     * @throws IOException If a segment can't be deleted.
+     */
+    public void deleteSegmentsBefore(int first) throws IOException {
+        for (Path path : segments(file)) {
+            if (segmentNumber(file, path) < first) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * @return Returns the file of the first segment of the journal.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return Returns the number of the segment records are added to.
+     */
+    public int getSegment() {
+        lock.lock();
+        try {
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Returns the size of the segment written last in bytes.
+     */
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * @return Returns the ids of the sessions that have started and not ended.
+     */
+    public List<Long> getSessions() {
+        lock.lock();
+        try {
+            return new ArrayList<>(sessions.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Returns an id higher than the id of any session in the journal.
+     */
+    public long getNextSessionId() {
+        lock.lock();
+        try {
+            return nextSessionId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Returns the amount of records written to disk.
+     */
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * @return Returns the amount of batches forced to disk.
+     */
+    public long getCommits() {
+        return commits;
+    }
+
+    /**
+     * Writes the remaining records and closes the file.
+     *
+     * @throws IOException If the remaining records couldn't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            recordsPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the number of the given argument, writing it in full first if it
+     * hasn't been seen before. Returns -1 if the table of arguments is full.
+     */
+    private int intern(String argument) {
+        Integer id = strings.get(argument);
+        if (id != null) {
+            return id;
+        } else if (strings.size() == MAX_STRINGS) {
+            return -1;
+        }
+        byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+        reserve(1 + VarInts.MAX_INT_SIZE + bytes.length);
+        pending.put(STRING);
+        VarInts.writeInt(pending, bytes.length);
+        pending.put(bytes);
+        strings.put(argument, strings.size());
+        return strings.size() - 1;
+    }
+
+    private void reserve(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + bytes));
+            larger.put(pending.flip());
+            pending = larger;
+        }
+    }
+
+    private CompletableFuture<Void> added() {
+        if (pendingRecords++ == 0) {
+            recordsPending.signal();
+        }
+        return pendingCommit;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The journal is closed");
+        } else if (failure != null) {
+            throw new IllegalStateException("The journal can't be written", failure);
+        }
+    }
+
+    /**
+     * Body of the writer thread: waits for records, lets the commit interval
+     * pass, then takes all pending records and writes them as one batch.
+     */
+    private void writeBatches() {
+        ByteBuffer spare = ByteBuffer.allocate(pending.capacity());
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+        CRC32C checksum = new CRC32C();
+        while (true) {
+            ByteBuffer batch;
+            int records;
+            // Where the records of the next segment start in the batch, and its number.
+            int nextSegment;
+            int nextSegmentNumber;
+            CompletableFuture<Void> commit;
+            lock.lock();
+            try {
+                while (pendingRecords == 0 && segmentStart < 0 && !closed) {
+                    recordsPending.awaitUninterruptibly();
+                }
+                if (pendingRecords == 0 && segmentStart < 0) {
+                    return;
+                }
+                if (!closed && commitIntervalNanos > 0) {
+                    long remaining = commitIntervalNanos;
+                    while (remaining > 0 && !closed) {
+                        try {
+                            remaining = recordsPending.awaitNanos(remaining);
+                        } catch (InterruptedException e) {
+                            break;
+                        }
+                    }
+                }
+                batch = pending.flip();
+                pending = spare;
+                records = pendingRecords;
+                pendingRecords = 0;
+                nextSegment = segmentStart;
+                nextSegmentNumber = segment;
+                segmentStart = -1;
+                commit = pendingCommit;
+                pendingCommit = new CompletableFuture<>();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (nextSegment >= 0) {
+                    writeFrame(batch.slice(0, nextSegment), header, checksum);
+                    channel.close();
+                    channel = FileChannel.open(segmentFile(nextSegmentNumber), StandardOpenOption.CREATE_NEW,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    segmentSize = 0;
+                    batch.position(nextSegment);
+                }
+                writeFrame(batch, header, checksum);
+                recordsWritten += records;
+                commits++;
+                commit.complete(null);
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    pendingCommit.completeExceptionally(e);
+                } finally {
+                    lock.unlock();
+                }
+                commit.completeExceptionally(e);
+                return;
+            }
+            spare = batch.clear();
+        }
+    }
+
+    /**
+     * Writes the given records as one batch and forces them to disk. Nothing is
+     * written if there are none.
+     */
+    private void writeFrame(ByteBuffer batch, ByteBuffer header, CRC32C checksum) throws IOException {
+        if (!batch.hasRemaining()) {
+            return;
+        }
+        checksum.reset();
+        checksum.update(batch.duplicate());
+        header.clear();
+        header.putInt(batch.remaining()).putInt((int) checksum.getValue()).flip();
+        ByteBuffer[] frame = { header, batch };
+        while (batch.hasRemaining()) {
+            channel.write(frame);
+        }
+        channel.force(false);
+        segmentSize = channel.position();
+    }
+}
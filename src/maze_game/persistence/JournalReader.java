@@ -0,0 +1,200 @@
+package maze_game.persistence;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import maze_game.input.CommandWord;
+
+/**
+ * Reads the records of a segment of a journal (see Journal) in the order they
+ * were written. The file is mapped into memory a window at a time, so a segment
+ * of any size can be read. Reading stops at the first batch that is incomplete
+ * or doesn't match its checksum, which can only be the last batch that was
+ * being written when the process died.
+ *
+ * @author Alexander Mertens
+ */
+public class JournalReader {
+    private static final CommandWord[] COMMAND_WORDS = CommandWord.values();
+    // Size of the part of the file that is mapped at once, a larger batch is
+    // mapped whole.
+    private static final int WINDOW_SIZE = 64 << 20;
+
+    private final FileChannel channel;
+    private final int windowSize;
+    // Arguments in the order they were first written.
+    private final List<String> strings;
+
+    /**
+     * Receives the records of a journal.
+     */
+    public interface Visitor {
+        /**
+         * Called for a session that has started.
+         *
+         * @param session Id of the session.
+         * @param seed    Seed the game of the session was created with.
+         */
+        void sessionStarted(long session, long seed);
+
+        /**
+         * Called for a command a session has executed.
+         *
+         * @param session  Id of the session.
+         * @param turn     Amount of commands the session executed before this one.
+         * @param word     Command word of the command.
+         * @param argument Argument of the command, can be null.
+         */
+        void commandExecuted(long session, int turn, CommandWord word, String argument);
+
+        /**
+         * Called for a session that has ended.
+         *
+         * @param session Id of the session.
+         */
+        void sessionEnded(long session);
+    }
+
+    /**
+     * Creates a reader of the journal in the given channel.
+     *
+     * @param channel A channel of the journal file that can be read.
+     */
+    public JournalReader(FileChannel channel) {
+        this(channel, WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a reader that maps the given amount of bytes at once.
+     */
+    JournalReader(FileChannel channel, int windowSize) {
+        this.channel = channel;
+        this.windowSize = windowSize;
+        this.strings = new ArrayList<>();
+    }
+
+    /**
+     * Reads all complete batches of the journal.
+     *
+     * @param visitor Receives the records, can be null to only check the journal.
+     * @return Returns the length of the complete batches, i.e. the position the
+     *         next batch is to be written at.
+     * @throws IOException If the journal can't be read or a complete batch holds
+     *                     a broken record.
+     */
+    public long read(Visitor visitor) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        CRC32C checksum = new CRC32C();
+        while (size - position >= Journal.FRAME_HEADER) {
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(size - position, windowSize));
+            int first = window.getInt(0);
+            if (first < 0 || first > size - position - Journal.FRAME_HEADER) {
+                break;
+            } else if (first > window.capacity() - Journal.FRAME_HEADER) {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Journal.FRAME_HEADER + first);
+            }
+            // Reads the batches that lie wholly in the window, the first one always
+            // does.
+            while (window.remaining() >= Journal.FRAME_HEADER) {
+                int start = window.position();
+                int length = window.getInt(start);
+                if (length < 0 || length > window.remaining() - Journal.FRAME_HEADER) {
+                    break;
+                }
+                ByteBuffer batch = window.slice(start + Journal.FRAME_HEADER, length);
+                checksum.reset();
+                checksum.update(batch.duplicate());
+                if ((int) checksum.getValue() != window.getInt(start + Integer.BYTES)) {
+                    return position + start;
+                }
+                try {
+                    readBatch(batch, visitor);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    throw new IOException("Broken record in the batch at " + (position + start), e);
+                }
+                window.position(start + Journal.FRAME_HEADER + length);
+            }
+            position += window.position();
+        }
+        return position;
+    }
+
+    /**
+     * @return Returns the arguments that were written in full, in the order they
+     *         were numbered.
+     */
+    public List<String> getStrings() {
+        return Collections.unmodifiableList(strings);
+    }
+
+    private void readBatch(ByteBuffer batch, Visitor visitor) throws IOException {
+        while (batch.hasRemaining()) {
+            byte type = batch.get();
+            switch (type) {
+            case Journal.SESSION: {
+                long session = VarInts.readLong(batch);
+                long seed = batch.getLong();
+                if (visitor != null) {
+                    visitor.sessionStarted(session, seed);
+                }
+                break;
+            }
+            case Journal.STRING:
+                strings.add(readString(batch));
+                break;
+            case Journal.COMMAND:
+            case Journal.COMMAND_TEXT: {
+                long session = VarInts.readLong(batch);
+                int turn = VarInts.readInt(batch);
+                int ordinal = VarInts.readInt(batch);
+                if (ordinal < 0 || ordinal >= COMMAND_WORDS.length) {
+                    throw new IOException("Unknown command word " + ordinal);
+                }
+                CommandWord word = COMMAND_WORDS[ordinal];
+                String argument;
+                if (type == Journal.COMMAND_TEXT) {
+                    argument = readString(batch);
+                } else {
+                    int id = VarInts.readInt(batch);
+                    if (id < 0 || id > strings.size()) {
+                        throw new IOException("Unknown argument " + id);
+                    }
+                    argument = id == 0 ? null : strings.get(id - 1);
+                }
+                if (visitor != null) {
+                    visitor.commandExecuted(session, turn, word, argument);
+                }
+                break;
+            }
+            case Journal.END: {
+                long session = VarInts.readLong(batch);
+                if (visitor != null) {
+                    visitor.sessionEnded(session);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown record type " + type);
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer batch) throws IOException {
+        int length = VarInts.readInt(batch);
+        if (length < 0 || length > batch.remaining()) {
+            throw new IOException("Broken argument of " + length + " bytes");
+        }
+        byte[] bytes = new byte[length];
+        batch.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package maze_game.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import maze_game.Game;
+import maze_game.commands.CommandFactory;
+import maze_game.input.CommandWord;
+
+/**
+ * Rebuilds the sessions that hadn't ended when a host stopped, from its journal
+ * and the snapshots of its sessions.
+ *
+ * The segments of the journal are read once from start to end. A session is
+ * rebuilt as soon as its start is read: a new game is created with the seed of
+ * the session and its latest snapshot, if there is one, is restored into it.
+ * Every segment repeats the start of the sessions that are running, which are
+ * only rebuilt the first time. Every command of the session that the snapshot
+ * doesn't cover yet is executed again, untimed: it has been counted in the
+ * statistics and recordings when it was played. Sessions that have ended are
+ * dropped.
+ *
+ * @author Alexander Mertens
+ */
+public final class Recovery {
+    private static final CommandFactory COMMANDS = new CommandFactory(false, false);
+
+    /**
+     * Creates the game of a session that is being rebuilt.
+     */
+    public interface SessionFactory {
+        /**
+         * @param session Id of the session.
+         * @param seed    Seed the game of the session was created with.
+         * @return Returns a new game created with the given seed.
+         */
+        Game create(long session, long seed);
+    }
+
+    private Recovery() {
+    }
+
+    /**
+     * @param directory Directory holding the snapshots of the sessions.
+     * @param session   Id of a session.
+     * @return Returns the file holding the latest snapshot of the session.
+     */
+    public static Path snapshotFile(Path directory, long session) {
+        return directory.resolve(session + ".snapshot");
+    }
+
+    /**
+     * Rebuilds the sessions that hadn't ended.
+     *
+     * @param journal   The file of the first segment of the journal of the host.
+     * @param snapshots Directory holding the snapshots of the sessions, null if
+     *                  there are none.
+     * @param factory   Creates the games of the sessions.
+     * @return Returns the rebuilt games by the ids of their sessions.
+     * @throws IOException If the journal or a snapshot can't be read.
+     */
+    public static Map<Long, Game> recover(Path journal, Path snapshots, SessionFactory factory) throws IOException {
+        Map<Long, Game> games = new HashMap<>();
+        JournalReader.Visitor visitor = new JournalReader.Visitor() {
+            @Override
+            public void sessionStarted(long session, long seed) {
+                if (games.containsKey(session)) {
+                    return;
+                }
+                Game game = factory.create(session, seed);
+                if (snapshots != null) {
+                    Path snapshot = snapshotFile(snapshots, session);
+                    if (Files.exists(snapshot)) {
+                        try {
+                            game.loadSnapshot(snapshot);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }
+                games.put(session, game);
+            }
+
+            @Override
+            public void commandExecuted(long session, int turn, CommandWord word, String argument) {
+                Game game = games.get(session);
+                if (game != null && turn >= game.getTurnCount()) {
+                    game.executeTurn(COMMANDS.getCommand(word), argument);
+                }
+            }
+
+            @Override
+            public void sessionEnded(long session) {
+                games.remove(session);
+            }
+        };
+        for (Path segment : Journal.segments(journal)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                new JournalReader(channel).read(visitor);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return games;
+    }
+}
@@ -0,0 +1,95 @@
+package maze_game.persistence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes unsigned variable length integers. Every byte holds seven
+ * bits of the value, least significant bits first, and its highest bit is set
+ * when more bytes follow. Small values, which is what most numbers in a saved
+ * game are, take a single byte.
+ * 
+ * @author Alexander Mertens
+ */
+public final class VarInts {
+    // Most bytes an int takes.
+    public static final int MAX_INT_SIZE = 5;
+    // Most bytes a long takes.
+    public static final int MAX_LONG_SIZE = 10;
+
+    private VarInts() {
+    }
+
+    /**
+     * Writes the given value at the position of the buffer.
+     * 
+     * @param buffer The buffer the value is written to.
+     * @param value  The value, read as an unsigned int.
+     */
+    public static void writeInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a value from the position of the buffer.
+     * 
+     * @param buffer The buffer the value is read from.
+     * @return Returns the value.
+     * @throws IllegalArgumentException If the value doesn't fit in an int.
+     */
+    public static int readInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Variable length integer is too long");
+    }
+
+    /**
+     * Writes the given value at the position of the buffer.
+     * 
+     * @param buffer The buffer the value is written to.
+     * @param value  The value, read as an unsigned long.
+     */
+    public static void writeLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a value from the position of the buffer.
+     * 
+     * @param buffer The buffer the value is read from.
+     * @return Returns the value.
+     * @throws IllegalArgumentException If the value doesn't fit in a long.
+     */
+    public static long readLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Variable length integer is too long");
+    }
+
+    /**
+     * @param value The value, read as an unsigned int.
+     * @return Returns the amount of bytes the value takes.
+     */
+    public static int sizeOf(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+}
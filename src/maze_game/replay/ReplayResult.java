@@ -0,0 +1,48 @@
+package maze_game.replay;
+
+import java.nio.file.Path;
+
+/**
+ * The result of replaying a single command script: how the game ended, how
+ * many turns were played and how long it took.
+ */
+public class ReplayResult {
+    private final Path script;
+    private final String endState;
+    private final int turns;
+    private final long nanos;
+
+    /**
+     * @param script   The script that was replayed.
+     * @param endState How the game ended: won, lost, quit or unfinished.
+     * @param turns    Amount of commands executed.
+     * @param nanos    Time the replay took in nanoseconds.
+     */
+    public ReplayResult(Path script, String endState, int turns, long nanos) {
+        this.script = script;
+        this.endState = endState;
+        this.turns = turns;
+        this.nanos = nanos;
+    }
+
+    public Path getScript() {
+        return script;
+    }
+
+    public String getEndState() {
+        return endState;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return script + ": " + endState + " after " + turns + " turns";
+    }
+}
@@ -0,0 +1,168 @@
+package maze_game.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import maze_game.Game;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+
+/**
+ * Replays recorded command scripts headless and at full speed. A script is a
+ * text file with one command per line, exactly as a player would type them.
+ * Lines starting with '#' are comments, except for a line "#seed <number>"
+ * which fixes the puzzles of the game so the recording replays the same way.
+ * 
+ * Commands are parsed and executed without printing a prompt and all output
+ * is discarded. Scripts are streamed line by line and replayed in parallel.
+ */
+public class ReplayRunner {
+    private static final String SEED_DIRECTIVE = "#seed";
+
+    /**
+     * Replays a single script until the game ends or the script runs out.
+     * 
+     * @param script Path of the script to be replayed.
+     * @return Returns the result of the replay.
+     * @throws IOException If the script can't be read.
+     */
+    public ReplayResult replay(Path script) throws IOException {
+        long start = System.nanoTime();
+        OutputSink out = new NullOutputSink();
+        Parser parser = new Parser(InputStream.nullInputStream(), out);
+        Game game = null;
+        boolean finished = false;
+
+        try (BufferedReader reader = Files.newBufferedReader(script)) {
+            String line;
+            while (!finished && (line = reader.readLine()) != null) {
+                if (line.startsWith(SEED_DIRECTIVE) && game == null) {
+                    game = new Game(parser, out, Long.parseLong(line.substring(SEED_DIRECTIVE.length()).trim()));
+                } else if (!line.startsWith("#")) {
+                    if (game == null) {
+                        game = new Game(parser, out);
+                    }
+                    finished = game.executeTurn(parser.parseLine(line), parser.getArgument());
+                }
+            }
+        }
+
+        if (game == null) {
+            return new ReplayResult(script, "unfinished", 0, System.nanoTime() - start);
+        }
+        return new ReplayResult(script, getEndState(game, finished), game.getTurnCount(), System.nanoTime() - start);
+    }
+
+    /**
+     * Replays all the given scripts in parallel on the given amount of threads.
+     * 
+     * @param scripts Paths of the scripts to be replayed.
+     * @param threads Amount of threads to replay on.
+     * @return Returns the results in the order of the given scripts.
+     * @throws IOException If a script can't be read.
+     */
+    public List<ReplayResult> replayAll(List<Path> scripts, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ReplayResult>> futures = new ArrayList<>();
+            for (Path script : scripts) {
+                futures.add(executor.submit(() -> replay(script)));
+            }
+            List<ReplayResult> results = new ArrayList<>();
+            for (Future<ReplayResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Replay was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Replay failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String getEndState(Game game, boolean finished) {
+        if (game.isLost()) {
+            return "lost";
+        } else if (game.isWon()) {
+            return "won";
+        } else if (finished) {
+            return "quit";
+        } else {
+            return "unfinished";
+        }
+    }
+
+    /**
+     * Collects the scripts in the given files and directories. Directories are
+     * searched recursively for files ending in ".txt".
+     */
+    private static List<Path> collectScripts(String[] arguments) throws IOException {
+        List<Path> scripts = new ArrayList<>();
+        for (String argument : arguments) {
+            Path path = Paths.get(argument);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.filter(file -> file.toString().endsWith(".txt")).sorted().forEach(scripts::add);
+                }
+            } else {
+                scripts.add(path);
+            }
+        }
+        return scripts;
+    }
+
+    /**
+     * Usage: ReplayRunner [-v] &lt;script or directory&gt;... Prints the end state of
+     * every script with -v, followed by a summary of the end states and the
+     * amount of turns replayed per second.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean verbose = args.length > 0 && args[0].equals("-v");
+        String[] paths = verbose ? Arrays.copyOfRange(args, 1, args.length) : args;
+        if (paths.length == 0) {
+            System.err.println("Usage: ReplayRunner [-v] <script or directory>...");
+            return;
+        }
+
+        List<Path> scripts = collectScripts(paths);
+
+        long start = System.nanoTime();
+        List<ReplayResult> results = new ReplayRunner().replayAll(scripts,
+                Runtime.getRuntime().availableProcessors());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long turns = 0;
+        Map<String, Integer> endStates = new TreeMap<>();
+        for (ReplayResult result : results) {
+            if (verbose) {
+                System.out.println(result);
+            }
+            turns += result.getTurns();
+            endStates.merge(result.getEndState(), 1, Integer::sum);
+        }
+        System.out.printf("scripts: %d, turns: %d, elapsed: %.3f s, turns/s: %.0f%n", results.size(), turns,
+                seconds, turns / seconds);
+        System.out.println("end states: " + endStates);
+    }
+}
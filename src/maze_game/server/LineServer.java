@@ -0,0 +1,367 @@
+package maze_game.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import maze_game.Game;
+import maze_game.commands.Command;
+import maze_game.input.Parser;
+import maze_game.output.OutputSink;
+import maze_game.statistics.StatisticsDumper;
+
+/**
+ * A non-blocking TCP front end for the game. Every connection is a session with
+ * its own Game, the games share their worlds (see WorldCache). Incoming bytes are split into lines, every line is handed to
+ * the Parser of the session and executed as a single turn, and the output of
+ * the turn is written back to the connection.
+ *
+ * A single thread accepts connections and hands them out round robin to a few
+ * event loops. Each event loop owns a Selector and serves all of its
+ * connections, so the amount of threads doesn't grow with the amount of
+ * connections. Connections read into and write from direct ByteBuffers.
+ *
+ * The protocol is line based: the server sends the output of a turn followed
+ * by the prompt "> ", the client answers with a command terminated by a line
+ * break. The server closes the connection once the game is over.
+ */
+public class LineServer implements Closeable {
+    private static final int BUFFER_SIZE = 4096;
+    // Longer lines are cut off at this length.
+    private static final int MAX_LINE_LENGTH = 1024;
+    // The server stops reading from a client that doesn't read its output.
+    private static final int MAX_PENDING_OUTPUT = 64 * 1024;
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] loops;
+    private final LongAdder connectionsAccepted;
+    private final LongAdder commandsExecuted;
+    private final WorldCache worlds;
+    private volatile boolean running;
+
+    /**
+     * Creates a server bound to the given address with the given amount of event
+     * loops. The server only starts accepting connections once started.
+     *
+     * @param address   The address to listen on, port 0 picks a free port.
+     * @param loopCount The amount of event loop threads.
+     * @throws IOException If the server can't be bound to the address.
+     */
+    public LineServer(InetSocketAddress address, int loopCount) throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 4096);
+        loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new EventLoop();
+        }
+        connectionsAccepted = new LongAdder();
+        commandsExecuted = new LongAdder();
+        worlds = new WorldCache();
+    }
+
+    /**
+     * Starts the event loops and the thread accepting connections.
+     */
+    public void start() {
+        running = true;
+        for (int i = 0; i < loops.length; i++) {
+            Thread thread = new Thread(loops[i], "maze-event-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread acceptor = new Thread(this::acceptConnections, "maze-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return Returns the port the server listens on.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return Returns a String reporting the amount of connections and commands
+     *         the server has handled.
+     */
+    public String getReport() {
+        return "connections: " + connectionsAccepted.sum() + ", commands: " + commandsExecuted.sum();
+    }
+
+    /**
+     * Stops accepting connections and closes all open connections.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+    }
+
+    private void acceptConnections() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connectionsAccepted.increment();
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Could not accept connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Serves the connections handed to it on a single thread.
+     */
+    private class EventLoop implements Runnable {
+        private final Selector selector;
+        // Accepted channels waiting to be registered with the selector.
+        private final Queue<SocketChannel> pending;
+
+        private EventLoop() throws IOException {
+            selector = Selector.open();
+            pending = new ConcurrentLinkedQueue<>();
+        }
+
+        private void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    registerPending();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key);
+                    }
+                }
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Event loop stopped: " + e.getMessage());
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    Connection connection = new Connection(channel, key);
+                    key.attach(connection);
+                    connection.open();
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isValid() && key.isReadable()) {
+                    connection.read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    connection.write();
+                }
+            } catch (IOException e) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * A single client connection and the game session it plays.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer input;
+        // Bytes of the line that is being received.
+        private final byte[] line;
+        private int lineLength;
+        // Encoded output waiting to be written, kept in fill mode.
+        private ByteBuffer output;
+        private final ConnectionSink sink;
+        private final Parser parser;
+        private final Game game;
+        // True once the game is over, the connection closes when all output is
+        // written.
+        private boolean closing;
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            line = new byte[MAX_LINE_LENGTH];
+            output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            sink = new ConnectionSink();
+            parser = new Parser(InputStream.nullInputStream(), sink);
+            game = new Game(parser, sink, worlds.get(worlds.randomSeed()));
+        }
+
+        private void open() throws IOException {
+            game.start();
+            parser.printPrompt();
+            write();
+        }
+
+        private void read() throws IOException {
+            if (channel.read(input) < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            while (input.hasRemaining() && !closing) {
+                byte b = input.get();
+                if (b == '\n') {
+                    handleLine();
+                } else if (lineLength < MAX_LINE_LENGTH) {
+                    line[lineLength++] = b;
+                }
+            }
+            input.clear();
+            write();
+        }
+
+        private void handleLine() {
+            int length = lineLength;
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            lineLength = 0;
+            Command command = parser.parseLine(new String(line, 0, length, StandardCharsets.UTF_8));
+            commandsExecuted.increment();
+            if (game.executeTurn(command, parser.getArgument())) {
+                game.finish();
+                closing = true;
+            } else {
+                parser.printPrompt();
+            }
+        }
+
+        /**
+         * Writes as much pending output as the channel accepts and updates the
+         * operations the connection waits for.
+         */
+        private void write() throws IOException {
+            output.flip();
+            channel.write(output);
+            output.compact();
+
+            boolean pendingOutput = output.position() > 0;
+            if (closing && !pendingOutput) {
+                close();
+                return;
+            }
+            int ops = 0;
+            if (!closing && output.position() < MAX_PENDING_OUTPUT) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (pendingOutput) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        private void close() {
+            key.cancel();
+            closeQuietly(channel);
+        }
+
+        /**
+         * Collects the output of a turn and encodes it into the output buffer of
+         * the connection when flushed.
+         */
+        private class ConnectionSink implements OutputSink {
+            private final StringBuilder buffer = new StringBuilder(1024);
+            private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+            @Override
+            public void print(String text) {
+                buffer.append(text);
+            }
+
+            @Override
+            public void println(String text) {
+                buffer.append(text).append('\n');
+            }
+
+            @Override
+            public void println() {
+                buffer.append('\n');
+            }
+
+            @Override
+            public void flush() {
+                CharBuffer chars = CharBuffer.wrap(buffer);
+                encoder.reset();
+                while (encoder.encode(chars, output, true) == CoderResult.OVERFLOW) {
+                    ByteBuffer larger = ByteBuffer.allocateDirect(output.capacity() * 2);
+                    output.flip();
+                    larger.put(output);
+                    output = larger;
+                }
+                encoder.flush(output);
+                buffer.setLength(0);
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing left to do with a connection that fails to close.
+        }
+    }
+
+    /**
+     * Starts a server on the given port (4444 by default) with one event loop per
+     * available processor, or the given amount of loops. Command statistics are
+     * dumped as described in StatisticsDumper.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4444;
+        int loopCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        StatisticsDumper.fromSystemProperties();
+        LineServer server = new LineServer(new InetSocketAddress(port), loopCount);
+        server.start();
+        System.out.println("Maze of Astaroth listening on port " + server.getPort());
+        Thread.currentThread().join();
+    }
+}
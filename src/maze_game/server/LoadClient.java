@@ -0,0 +1,161 @@
+package maze_game.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Load client for the LineServer. It opens many connections from a single
+ * thread and lets every connection play the same script: each time the server
+ * sends a prompt, the next command of the script is sent. After the given
+ * amount of commands a connection quits and waits for the server to close it.
+ *
+ * Without a host, the client starts a server on a free loopback port in the
+ * same process, such that the whole front end can be tested over loopback.
+ */
+public class LoadClient {
+    // Commands that keep the game going, played in a loop.
+    private static final String[] SCRIPT = { "look", "go north", "look west", "take stone", "drop stone", "back",
+            "look party", "hint", "help" };
+    private static final byte[][] SCRIPT_LINES = new byte[SCRIPT.length][];
+    private static final byte[] QUIT_LINE = "quit\n".getBytes(StandardCharsets.UTF_8);
+
+    static {
+        for (int i = 0; i < SCRIPT.length; i++) {
+            SCRIPT_LINES[i] = (SCRIPT[i] + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final int connectionCount;
+    private final int commandsPerConnection;
+    private long responses;
+
+    /**
+     * Creates a load client.
+     *
+     * @param address               Address of the server.
+     * @param connectionCount       Amount of connections to open.
+     * @param commandsPerConnection Amount of commands each connection sends before
+     *                              quitting.
+     */
+    public LoadClient(InetSocketAddress address, int connectionCount, int commandsPerConnection) {
+        this.address = address;
+        this.connectionCount = connectionCount;
+        this.commandsPerConnection = commandsPerConnection;
+    }
+
+    /**
+     * Opens all connections and plays the script on each of them until every
+     * connection has been closed by the server.
+     *
+     * @return Returns the amount of prompts answered, i.e. commands sent.
+     * @throws IOException If a connection fails.
+     */
+    public long run() throws IOException {
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connectionCount; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.connect(address);
+                channel.register(selector, SelectionKey.OP_CONNECT, new Session());
+            }
+
+            int open = connectionCount;
+            ByteBuffer input = ByteBuffer.allocateDirect(16 * 1024);
+            while (open > 0) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    Session session = (Session) key.attachment();
+                    if (key.isConnectable()) {
+                        channel.finishConnect();
+                        key.interestOps(SelectionKey.OP_READ);
+                    } else if (key.isReadable()) {
+                        input.clear();
+                        if (channel.read(input) < 0) {
+                            key.cancel();
+                            channel.close();
+                            open--;
+                        } else if (session.receivedPrompt(input)) {
+                            session.sendNext(channel);
+                        }
+                    }
+                }
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Progress of a single connection through the script.
+     */
+    private class Session {
+        private int sent;
+        // The last two bytes received, used to recognize the prompt.
+        private byte last;
+        private byte secondLast;
+
+        private boolean receivedPrompt(ByteBuffer input) {
+            input.flip();
+            int limit = input.limit();
+            if (limit >= 2) {
+                secondLast = input.get(limit - 2);
+                last = input.get(limit - 1);
+            } else if (limit == 1) {
+                secondLast = last;
+                last = input.get(0);
+            }
+            return secondLast == '>' && last == ' ';
+        }
+
+        private void sendNext(SocketChannel channel) throws IOException {
+            byte[] line = sent < commandsPerConnection ? SCRIPT_LINES[sent % SCRIPT_LINES.length] : QUIT_LINE;
+            sent++;
+            responses++;
+            last = 0;
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Usage: LoadClient [connections] [commands per connection] [host port]. Starts
+     * an embedded server on loopback if no host is given.
+     */
+    public static void main(String[] args) throws IOException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int commands = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        LineServer server = null;
+        InetSocketAddress address;
+        if (args.length > 3) {
+            address = new InetSocketAddress(args[2], Integer.parseInt(args[3]));
+        } else {
+            server = new LineServer(new InetSocketAddress("127.0.0.1", 0),
+                    Runtime.getRuntime().availableProcessors());
+            server.start();
+            address = new InetSocketAddress("127.0.0.1", server.getPort());
+        }
+
+        long start = System.nanoTime();
+        long sent = new LoadClient(address, connections, commands).run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("connections: %d, commands: %d, elapsed: %.3f s, commands/s: %.0f%n", connections, sent,
+                seconds, sent / seconds);
+        if (server != null) {
+            System.out.println("server " + server.getReport());
+            server.close();
+        }
+    }
+}
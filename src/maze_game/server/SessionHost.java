@@ -0,0 +1,382 @@
+package maze_game.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import maze_game.Game;
+import maze_game.commands.Command;
+import maze_game.input.Parser;
+import maze_game.output.BufferedOutputSink;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.persistence.Journal;
+import maze_game.persistence.Recovery;
+import maze_game.statistics.StatisticsDumper;
+
+/**
+ * Hosts many games in a single process. Every session gets its own Game, with
+ * its own Parser reading from the input of the session and its own sink the
+ * output is written to. The games share their worlds (see WorldCache). Each
+ * session runs on a thread of its own: a virtual thread when the runtime
+ * supports them, otherwise a pooled platform thread.
+ *
+ * The host counts the sessions it has started or resumed and every command they
+ * execute, as it's executed, such that the throughput of the host can be
+ * reported while the sessions are running.
+ *
+ * A host can journal every command of every session before it's executed and
+ * take a snapshot of every session now and then, such that the sessions that
+ * were running can be rebuilt after a crash (see Recovery). A host started on
+ * the journal of a host that crashed rebuilds its sessions, which wait until
+ * they are resumed on a new input and output. Once a segment of the journal is
+ * full, the host starts the next one, and every session takes a snapshot after
+ * its next command. When all of them have, the segments before are deleted.
+ */
+public class SessionHost {
+    // A short playthrough used when the host is started from the command line.
+    private static final String SCRIPT = "look\ngo north\ntake key\nlook party\nopen west\ngo west\nlook\nback\n"
+            + "go east\nlook north\nhint\nhelp\nquit\n";
+    // Amount of commands between two snapshots of a session.
+    private static final int SNAPSHOT_INTERVAL = 64;
+    // Size of a segment of the journal in bytes before the next one is started.
+    private static final long SEGMENT_SIZE = 64 << 20;
+
+    private final ExecutorService executor;
+    private final LongAdder sessionsCreated;
+    private final LongAdder commandsExecuted;
+    // Time at which the host was started in nanoseconds.
+    private final long startTime;
+    // Journal the commands are written to, null if they aren't journaled.
+    private final Journal journal;
+    // Directory the snapshots of the sessions are written to, can be null.
+    private final Path snapshots;
+    private final AtomicLong nextSessionId;
+    private final WorldCache worlds;
+    // Sessions rebuilt from the journal that wait to be resumed, by id.
+    private final Map<Long, Recovered> recovered;
+    // Sessions that were running when the current segment of the journal was
+    // started and haven't taken a snapshot since.
+    private final Set<Long> unsaved;
+    // The segment whose predecessors are deleted once every session is saved,
+    // -1 if none is waiting for that. Guarded by this.
+    private int savedSegment;
+
+    /**
+     * A session rebuilt from the journal.
+     */
+    private static final class Recovered {
+        private final long seed;
+        private final Game game;
+
+        private Recovered(long seed, Game game) {
+            this.seed = seed;
+            this.game = game;
+        }
+    }
+
+    /**
+     * Creates a host that is ready to accept sessions.
+     */
+    public SessionHost() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a host that journals the commands of its sessions and takes
+     * snapshots of them. Its sessions get ids higher than those in the journal.
+     *
+     * @param journal   Journal the commands are written to.
+     * @param snapshots Directory the snapshots are written to, null to take no
+     *                  snapshots.
+     */
+    public SessionHost(Journal journal, Path snapshots) {
+        executor = createExecutor();
+        sessionsCreated = new LongAdder();
+        commandsExecuted = new LongAdder();
+        startTime = System.nanoTime();
+        this.journal = journal;
+        this.snapshots = snapshots;
+        nextSessionId = new AtomicLong(journal == null ? 0 : journal.getNextSessionId());
+        worlds = new WorldCache();
+        recovered = new ConcurrentHashMap<>();
+        unsaved = ConcurrentHashMap.newKeySet();
+        savedSegment = -1;
+    }
+
+    /**
+     * Rebuilds the sessions in the journal that hadn't ended, see Recovery. They
+     * wait to be resumed by resumeSession. Called once, before any session is
+     * started.
+     *
+     * @return Returns the ids of the rebuilt sessions.
+     * @throws IOException If the journal or a snapshot can't be read.
+     */
+    public Set<Long> recoverSessions() throws IOException {
+        Map<Long, Long> seeds = new HashMap<>();
+        Map<Long, Game> games = Recovery.recover(journal.getFile(), snapshots, (session, seed) -> {
+            seeds.put(session, seed);
+            OutputSink out = new NullOutputSink();
+            return new Game(new Parser(InputStream.nullInputStream(), out), out, worlds.get(seed));
+        });
+        games.forEach((session, game) -> recovered.put(session, new Recovered(seeds.get(session), game)));
+        return new TreeSet<>(games.keySet());
+    }
+
+    /**
+     * Resumes a session rebuilt by recoverSessions on the given input and
+     * output, like startSession.
+     *
+     * @param session Id of the rebuilt session.
+     * @param input   Source of the commands of the session.
+     * @param output  Destination of the output of the session.
+     * @return Returns a Future that completes when the session has ended.
+     * @throws IllegalArgumentException If no such session waits to be resumed.
+     */
+    public Future<?> resumeSession(long session, InputStream input, OutputStream output) {
+        Recovered rebuilt;
+        synchronized (this) {
+            rebuilt = recovered.remove(session);
+        }
+        if (rebuilt == null) {
+            throw new IllegalArgumentException("No session " + session + " waits to be resumed");
+        }
+        sessionsCreated.increment();
+        return executor.submit(() -> {
+            OutputSink out = new BufferedOutputSink(output);
+            Parser parser = new Parser(input, out);
+            Game game = new Game(parser, out, worlds.get(rebuilt.seed));
+            game.restore(rebuilt.game.snapshot());
+            playJournaled(session, game, parser, out);
+            return null;
+        });
+    }
+
+    /**
+     * Starts a new game session that reads its commands from the given input and
+     * writes its output to the given output. The session ends when the game is
+     * over or the input has run out.
+     *
+     * @param input  Source of the commands of the session.
+     * @param output Destination of the output of the session.
+     * @return Returns a Future that completes when the session has ended.
+     */
+    public Future<?> startSession(InputStream input, OutputStream output) {
+        sessionsCreated.increment();
+        return executor.submit(() -> {
+            OutputSink out = new BufferedOutputSink(output);
+            if (journal == null) {
+                Parser parser = new Parser(input, out);
+                play(new Game(parser, out, worlds.get(worlds.randomSeed())), parser);
+            } else {
+                playJournaled(new Parser(input, out), out);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Plays a game like Game.play, counting every command executed.
+     */
+    private void play(Game game, Parser parser) {
+        game.start();
+        boolean finished = false;
+        while (!finished) {
+            Command command = parser.getCommand();
+            finished = game.executeTurn(command, parser.getArgument());
+            commandsExecuted.increment();
+        }
+        game.finish();
+    }
+
+    /**
+     * Starts a new journaled session.
+     */
+    private void playJournaled(Parser parser, OutputSink out) throws IOException {
+        long session = nextSessionId.getAndIncrement();
+        long seed = worlds.randomSeed();
+        Game game = new Game(parser, out, worlds.get(seed));
+        journal.startSession(session, seed);
+        playJournaled(session, game, parser, out);
+    }
+
+    /**
+     * Plays a game like Game.play, but every command is on disk in the journal
+     * before it's executed.
+     */
+    private void playJournaled(long session, Game game, Parser parser, OutputSink out) throws IOException {
+        game.start();
+        boolean finished = false;
+        while (!finished) {
+            Command command = parser.getCommand();
+            journal.append(session, game.getTurnCount(), parser.getCommandWord(), parser.getArgument()).join();
+            finished = game.executeTurn(command, parser.getArgument());
+            commandsExecuted.increment();
+            if (snapshots != null && !finished
+                    && (game.getTurnCount() % SNAPSHOT_INTERVAL == 0 || unsaved.contains(session))) {
+                game.saveSnapshot(Recovery.snapshotFile(snapshots, session));
+                saved(session);
+            }
+            startSegmentIfFull();
+        }
+        game.finish();
+        journal.endSession(session).join();
+        saved(session);
+        if (snapshots != null) {
+            Files.deleteIfExists(Recovery.snapshotFile(snapshots, session));
+        }
+    }
+
+    /**
+     * Starts the next segment of the journal if the current one is full and
+     * the segments before it can be deleted, which needs snapshots. The sessions
+     * that are running must take a snapshot before the segments before the new
+     * one are deleted, the sessions waiting to be resumed take it right away.
+     */
+    private void startSegmentIfFull() throws IOException {
+        if (snapshots == null || journal.getSegmentSize() < SEGMENT_SIZE) {
+            return;
+        }
+        CompletableFuture<Void> started;
+        synchronized (this) {
+            if (savedSegment >= 0 || journal.getSegmentSize() < SEGMENT_SIZE) {
+                return;
+            }
+            started = journal.startSegment();
+            savedSegment = journal.getSegment();
+        }
+        started.join();
+        synchronized (this) {
+            unsaved.addAll(journal.getSessions());
+            for (Map.Entry<Long, Recovered> entry : recovered.entrySet()) {
+                entry.getValue().game.saveSnapshot(Recovery.snapshotFile(snapshots, entry.getKey()));
+                unsaved.remove(entry.getKey());
+            }
+        }
+        deleteSavedSegments();
+    }
+
+    /**
+     * Called once a session has taken a snapshot or ended.
+     */
+    private void saved(long session) throws IOException {
+        if (unsaved.remove(session)) {
+            deleteSavedSegments();
+        }
+    }
+
+    /**
+     * Deletes the segments of the journal that aren't needed anymore, once every
+     * session has been saved since the current segment was started.
+     */
+    private synchronized void deleteSavedSegments() throws IOException {
+        if (savedSegment >= 0 && unsaved.isEmpty()) {
+            journal.deleteSegmentsBefore(savedSegment);
+            savedSegment = -1;
+        }
+    }
+
+    /**
+     * Stops accepting new sessions and waits for the running ones to end.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return Returns the amount of sessions created per second since the host was
+     *         started.
+     */
+    public double getSessionsPerSecond() {
+        return sessionsCreated.sum() / getElapsedSeconds();
+    }
+
+    /**
+     * @return Returns the amount of commands executed per second since the host
+     *         was started.
+     */
+    public double getCommandsPerSecond() {
+        return commandsExecuted.sum() / getElapsedSeconds();
+    }
+
+    /**
+     * @return Returns a String reporting the throughput of the host.
+     */
+    public String getReport() {
+        return String.format("sessions: %d (%.0f/s), commands: %d (%.0f/s), elapsed: %.3f s",
+                sessionsCreated.sum(), getSessionsPerSecond(), commandsExecuted.sum(), getCommandsPerSecond(),
+                getElapsedSeconds());
+    }
+
+    private double getElapsedSeconds() {
+        return (System.nanoTime() - startTime) / 1e9;
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per session. Virtual
+     * threads are looked up reflectively, so the game still runs on runtimes
+     * without them, using a cached pool of platform threads instead.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Runs the given amount of sessions (10000 by default) that all play the same
+     * short script, discards their output and prints the throughput of the host.
+     * If a journal file is given, the commands are journaled to it, with
+     * snapshots in the given directory, and the sessions in it that hadn't
+     * ended are rebuilt first. Command statistics are dumped as described in
+     * StatisticsDumper. Usage: SessionHost [sessions] [journal] [snapshots].
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        byte[] script = SCRIPT.getBytes(StandardCharsets.UTF_8);
+
+        StatisticsDumper statistics = StatisticsDumper.fromSystemProperties();
+        Journal journal = args.length > 1 ? new Journal(Path.of(args[1])) : null;
+        Path snapshots = args.length > 2 ? Files.createDirectories(Path.of(args[2])) : null;
+        SessionHost host = new SessionHost(journal, snapshots);
+        if (journal != null) {
+            System.out.println("recovered sessions waiting to be resumed: " + host.recoverSessions());
+        }
+        for (int i = 0; i < sessions; i++) {
+            host.startSession(new ByteArrayInputStream(script), OutputStream.nullOutputStream());
+        }
+        host.shutdown();
+        System.out.println(host.getReport());
+        if (journal != null) {
+            journal.close();
+            System.out.println("journal: " + journal.getRecordsWritten() + " records in " + journal.getCommits()
+                    + " commits");
+        }
+        if (statistics != null) {
+            statistics.close();
+        }
+    }
+}
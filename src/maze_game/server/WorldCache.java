@@ -0,0 +1,52 @@
+package maze_game.server;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.world.World;
+
+/**
+ * The worlds the sessions of a host play in. The objects of a world never
+ * change while it's played (see GameState), so all games of the same seed can
+ * share one world. A host gives its sessions one of a fixed amount of seeds, so
+ * it holds at most that many worlds however many sessions it runs.
+ */
+final class WorldCache {
+    // Amount of seeds, i.e. of different sets of puzzles, the sessions get.
+    static final int SEEDS = 256;
+
+    private final AtomicReferenceArray<World> worlds;
+
+    WorldCache() {
+        worlds = new AtomicReferenceArray<>(SEEDS);
+    }
+
+    /**
+     * @return Returns one of the seeds of the cache, picked at random.
+     */
+    long randomSeed() {
+        return ThreadLocalRandom.current().nextInt(SEEDS);
+    }
+
+    /**
+     * @param seed Seed of the puzzles of the world.
+     * @return Returns the world of the Maze of Astaroth with the given seed,
+     *         shared if the seed is one of the cache.
+     */
+    World get(long seed) {
+        if (seed < 0 || seed >= SEEDS) {
+            return Game.createRooms(new GameCreator(seed));
+        }
+        int index = (int) seed;
+        World world = worlds.get(index);
+        if (world == null) {
+            world = Game.createRooms(new GameCreator(seed));
+            if (!worlds.compareAndSet(index, null, world)) {
+                world = worlds.get(index);
+            }
+        }
+        return world;
+    }
+}
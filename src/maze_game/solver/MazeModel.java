@@ -0,0 +1,448 @@
+package maze_game.solver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.Item;
+import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.InteractiveObject;
+import maze_game.gameobjects.interactive.LinkedMechanism;
+import maze_game.gameobjects.interactive.LockMechanism;
+import maze_game.world.World;
+
+/**
+ * A World compiled into arrays for the solver. Rooms, locked doors, the items
+ * that unlock them, the puzzles that unlock them and the characters that need
+ * to be rescued are numbered. A situation in the game is packed into a long:
+ * one bit for every key that has been taken, every door that has been opened
+ * with a key, every puzzle that has been solved and every character that has
+ * been taken, and above those the point of interest the player stands at.
+ *
+ * Points of interest are the rooms where something can be done: the entrance,
+ * the exit and every room holding a key, a character, a puzzle or a door that
+ * is opened with a key. The player only moves between them along shortest
+ * paths, which are computed once for every combination of open doors.
+ *
+ * @author Alexander Mertens
+ */
+class MazeModel {
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final Direction[] DIRECTIONS = { Direction.NORTH, Direction.WEST, Direction.EAST,
+            Direction.SOUTH };
+
+    final Room[] rooms;
+    // The room every exit leads to, indexed by 4 * room + index in DIRECTIONS,
+    // -1 if there is no exit.
+    final int[] exitTarget;
+    // The locked door of every exit or -1 if the exit isn't locked.
+    final int[] exitDoor;
+
+    // Locked doors: the bit that opens the door, 0 if nothing can open it.
+    final long[] doorOpenBit;
+    final int[] doorRoom;
+    final Direction[] doorDirection;
+    // Index of the key that opens the door, -1 if it isn't opened by a key.
+    final int[] doorKey;
+    // Point of interest in front of a door that is opened by a key.
+    final int[] doorPoint;
+
+    final Item[] keys;
+    final int[] keyPoint;
+    // For every key, the bits of the doors it opens. A key is used up once one
+    // of them is open.
+    final long[] keyDoorBits;
+
+    final InteractiveObject[] characters;
+    final int[] characterPoint;
+
+    // For every puzzle, the names of its mechanisms in the order they have to be
+    // pressed.
+    final String[][] puzzlePresses;
+    final int[] puzzlePoint;
+
+    final int[] pointRoom;
+    final int entrancePoint;
+    final int exitPoint;
+    // True if a required object can't be found anywhere in the maze.
+    final boolean missingRequiredObject;
+
+    final int keyShift;
+    final int doorShift;
+    final int puzzleShift;
+    final int characterShift;
+    final int pointShift;
+    // Bits that decide which doors are open.
+    final long doorStateMask;
+    final long allCharacters;
+
+    // Distances between all points of interest, by the bits of open doors.
+    private final Map<Long, int[][]> distances;
+
+    MazeModel(World world) {
+        List<Room> roomList = new ArrayList<>();
+        Map<Room, Integer> roomIds = new IdentityHashMap<>();
+        addRoom(world.getEntrance(), roomList, roomIds);
+        for (int i = 0; i < roomList.size(); i++) {
+            for (Direction direction : DIRECTIONS) {
+                Door door = roomList.get(i).getExit(direction);
+                if (door != null && door.getDestination() != null) {
+                    addRoom(door.getDestination(), roomList, roomIds);
+                }
+            }
+        }
+        rooms = roomList.toArray(new Room[0]);
+
+        // Collect everything that can be picked up or solved.
+        List<Item> itemList = new ArrayList<>();
+        List<Integer> itemRooms = new ArrayList<>();
+        List<LockMechanism> mechanismList = new ArrayList<>();
+        List<Integer> mechanismRooms = new ArrayList<>();
+        Map<InteractiveObject, Integer> objectRooms = new IdentityHashMap<>();
+        for (int room = 0; room < rooms.length; room++) {
+            for (Item item : rooms[room].getItems()) {
+                itemList.add(item);
+                itemRooms.add(room);
+            }
+            for (InteractiveObject object : rooms[room].getObjects()) {
+                objectRooms.put(object, room);
+                if (object instanceof LockMechanism) {
+                    mechanismList.add((LockMechanism) object);
+                    mechanismRooms.add(room);
+                }
+            }
+        }
+
+        // Number the locked doors and find out what opens them.
+        List<Door> doorList = new ArrayList<>();
+        exitTarget = new int[4 * rooms.length];
+        exitDoor = new int[4 * rooms.length];
+        for (int room = 0; room < rooms.length; room++) {
+            for (int d = 0; d < 4; d++) {
+                Door door = rooms[room].getExit(DIRECTIONS[d]);
+                exitTarget[4 * room + d] = door == null || door.getDestination() == null ? -1
+                        : roomIds.get(door.getDestination());
+                exitDoor[4 * room + d] = -1;
+                if (door != null && door.isLocked()) {
+                    exitDoor[4 * room + d] = doorList.size();
+                    doorList.add(door);
+                }
+            }
+        }
+        int doorCount = doorList.size();
+        doorRoom = new int[doorCount];
+        doorDirection = new Direction[doorCount];
+        doorKey = new int[doorCount];
+        int[] doorPuzzle = new int[doorCount];
+        for (int room = 0; room < rooms.length; room++) {
+            for (int d = 0; d < 4; d++) {
+                int door = exitDoor[4 * room + d];
+                if (door >= 0) {
+                    doorRoom[door] = room;
+                    doorDirection[door] = DIRECTIONS[d];
+                }
+            }
+        }
+
+        List<Integer> keyItems = new ArrayList<>();
+        List<Integer> puzzleMechanisms = new ArrayList<>();
+        for (int door = 0; door < doorCount; door++) {
+            doorKey[door] = -1;
+            doorPuzzle[door] = -1;
+            for (int item = 0; item < itemList.size() && doorKey[door] < 0; item++) {
+                if (doorList.get(door).isKey(itemList.get(item))) {
+                    doorKey[door] = indexOf(keyItems, item);
+                }
+            }
+            for (int mechanism = 0; mechanism < mechanismList.size() && doorKey[door] < 0
+                    && doorPuzzle[door] < 0; mechanism++) {
+                if (doorList.get(door).isKey(mechanismList.get(mechanism))) {
+                    doorPuzzle[door] = indexOf(puzzleMechanisms, mechanism);
+                }
+            }
+        }
+
+        // Points of interest, the entrance always comes first.
+        List<Integer> points = new ArrayList<>();
+        int[] roomPoint = new int[rooms.length];
+        Arrays.fill(roomPoint, -1);
+        entrancePoint = point(0, points, roomPoint);
+        Integer exitRoom = roomIds.get(world.getExit());
+        exitPoint = exitRoom == null ? -1 : point(exitRoom, points, roomPoint);
+
+        keys = new Item[keyItems.size()];
+        keyPoint = new int[keys.length];
+        keyDoorBits = new long[keys.length];
+        for (int key = 0; key < keys.length; key++) {
+            keys[key] = itemList.get(keyItems.get(key));
+            keyPoint[key] = point(itemRooms.get(keyItems.get(key)), points, roomPoint);
+        }
+
+        Set<InteractiveObject> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<InteractiveObject> characterList = new ArrayList<>();
+        List<Integer> characterPoints = new ArrayList<>();
+        boolean missing = false;
+        for (InteractiveObject object : world.getRequiredObjects()) {
+            Integer room = objectRooms.get(object);
+            if (room == null || !object.isRemovable()) {
+                missing = true;
+            } else if (found.add(object)) {
+                characterList.add(object);
+                characterPoints.add(point(room, points, roomPoint));
+            }
+        }
+        missingRequiredObject = missing;
+        characters = characterList.toArray(new InteractiveObject[0]);
+        characterPoint = new int[characters.length];
+        for (int character = 0; character < characters.length; character++) {
+            characterPoint[character] = characterPoints.get(character);
+        }
+
+        puzzlePresses = new String[puzzleMechanisms.size()][];
+        puzzlePoint = new int[puzzlePresses.length];
+        for (int puzzle = 0; puzzle < puzzlePresses.length; puzzle++) {
+            int mechanism = puzzleMechanisms.get(puzzle);
+            puzzlePresses[puzzle] = presses(mechanismList.get(mechanism), objectRooms,
+                    mechanismRooms.get(mechanism));
+            puzzlePoint[puzzle] = point(mechanismRooms.get(mechanism), points, roomPoint);
+        }
+
+        int keyDoorCount = 0;
+        int[] doorBitIndex = new int[doorCount];
+        doorPoint = new int[doorCount];
+        for (int door = 0; door < doorCount; door++) {
+            doorBitIndex[door] = doorKey[door] >= 0 ? keyDoorCount++ : -1;
+            doorPoint[door] = doorKey[door] >= 0 ? point(doorRoom[door], points, roomPoint) : -1;
+        }
+
+        keyShift = 0;
+        doorShift = keyShift + keys.length;
+        puzzleShift = doorShift + keyDoorCount;
+        characterShift = puzzleShift + puzzlePresses.length;
+        pointShift = characterShift + characters.length;
+        int pointBits = 64 - Long.numberOfLeadingZeros(Math.max(1, points.size() - 1));
+        if (pointShift + pointBits > 63) {
+            throw new IllegalArgumentException("The maze has too many keys, puzzles and characters to be solved: "
+                    + keys.length + " keys, " + puzzlePresses.length + " puzzles, " + characters.length
+                    + " characters");
+        }
+
+        doorOpenBit = new long[doorCount];
+        for (int door = 0; door < doorCount; door++) {
+            if (doorKey[door] >= 0) {
+                doorOpenBit[door] = 1L << (doorShift + doorBitIndex[door]);
+                keyDoorBits[doorKey[door]] |= doorOpenBit[door];
+            } else if (doorPuzzle[door] >= 0) {
+                doorOpenBit[door] = 1L << (puzzleShift + doorPuzzle[door]);
+            }
+        }
+        doorStateMask = ((1L << characterShift) - 1) & ~((1L << doorShift) - 1);
+        allCharacters = ((1L << pointShift) - 1) & ~((1L << characterShift) - 1);
+
+        pointRoom = new int[points.size()];
+        for (int i = 0; i < pointRoom.length; i++) {
+            pointRoom[i] = points.get(i);
+        }
+        distances = new ConcurrentHashMap<>();
+    }
+
+    private static void addRoom(Room room, List<Room> roomList, Map<Room, Integer> roomIds) {
+        if (!roomIds.containsKey(room)) {
+            roomIds.put(room, roomList.size());
+            roomList.add(room);
+        }
+    }
+
+    private static int indexOf(List<Integer> list, int value) {
+        int index = list.indexOf(value);
+        if (index < 0) {
+            list.add(value);
+            index = list.size() - 1;
+        }
+        return index;
+    }
+
+    private static int point(int room, List<Integer> points, int[] roomPoint) {
+        if (roomPoint[room] < 0) {
+            roomPoint[room] = points.size();
+            points.add(room);
+        }
+        return roomPoint[room];
+    }
+
+    /**
+     * Returns the names of the mechanisms of the sequence ending in the given
+     * mechanism, in the order they have to be pressed.
+     */
+    private static String[] presses(LockMechanism last, Map<InteractiveObject, Integer> objectRooms, int room) {
+        List<String> names = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (LinkedMechanism mechanism = last; mechanism != null; mechanism = mechanism.getPreviousMechanism()) {
+            Integer mechanismRoom = objectRooms.get(mechanism);
+            String name = mechanism.getName().toLowerCase();
+            if (mechanismRoom == null || mechanismRoom != room || !seen.add(name)) {
+                throw new IllegalArgumentException("Puzzle " + last.getName() + " isn't in a single room");
+            }
+            names.add(name);
+        }
+        Collections.reverse(names);
+        return names.toArray(new String[0]);
+    }
+
+    int getPoint(long state) {
+        return (int) (state >>> pointShift);
+    }
+
+    long withPoint(long state, int point) {
+        return (state & ((1L << pointShift) - 1)) | ((long) point << pointShift);
+    }
+
+    /**
+     * @return Returns true if the player holds the given key: it has been taken
+     *         and none of its doors have been opened.
+     */
+    boolean holdsKey(long state, int key) {
+        return (state & (1L << (keyShift + key))) != 0 && (state & keyDoorBits[key]) == 0;
+    }
+
+    /**
+     * Returns a lower bound on the amount of commands it takes to win from the
+     * given state, with every door that can be opened open: the longest walk past
+     * an untaken character to the exit or the weight of a minimum spanning tree
+     * over the player, the untaken characters and the exit, whichever is larger,
+     * plus one command for taking every untaken character. A walk past all of
+     * them is a spanning tree itself and opening doors never makes a walk longer,
+     * so the bound never overestimates. Moving the player changes the tree by at
+     * most the length of the move, so the bound drops by at most the cost of a
+     * step.
+     */
+    int estimate(long state) {
+        int[][] open = getDistances(doorStateMask);
+        int point = getPoint(state);
+        int longest = open[point][exitPoint];
+        int untaken = 0;
+        int[] nodes = new int[characters.length + 2];
+        nodes[0] = point;
+        for (int character = 0; character < characters.length; character++) {
+            if ((state & (1L << (characterShift + character))) == 0) {
+                int via = open[point][characterPoint[character]];
+                if (via != UNREACHABLE && open[characterPoint[character]][exitPoint] != UNREACHABLE) {
+                    via += open[characterPoint[character]][exitPoint];
+                }
+                longest = Math.max(longest, via);
+                nodes[++untaken] = characterPoint[character];
+            }
+        }
+        if (longest == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+        nodes[untaken + 1] = exitPoint;
+        return Math.max(longest, spanningTree(open, nodes, untaken + 2)) + untaken;
+    }
+
+    /**
+     * Returns the weight of a minimum spanning tree over the first count of the
+     * given points, which must all be reachable from the first one.
+     */
+    private static int spanningTree(int[][] distance, int[] nodes, int count) {
+        int[] nearest = new int[count];
+        boolean[] inTree = new boolean[count];
+        Arrays.fill(nearest, UNREACHABLE);
+        nearest[0] = 0;
+        int total = 0;
+        for (int added = 0; added < count; added++) {
+            int next = -1;
+            for (int i = 0; i < count; i++) {
+                if (!inTree[i] && (next < 0 || nearest[i] < nearest[next])) {
+                    next = i;
+                }
+            }
+            inTree[next] = true;
+            total += nearest[next];
+            for (int i = 0; i < count; i++) {
+                if (!inTree[i]) {
+                    nearest[i] = Math.min(nearest[i], distance[nodes[next]][nodes[i]]);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the distances between all points of interest when the doors that
+     * are open in the given state are passable.
+     */
+    int[][] getDistances(long state) {
+        return distances.computeIfAbsent(state & doorStateMask, this::computeDistances);
+    }
+
+    private int[][] computeDistances(long doorState) {
+        int[][] result = new int[pointRoom.length][pointRoom.length];
+        int[] roomDistance = new int[rooms.length];
+        int[] queue = new int[rooms.length];
+        for (int from = 0; from < pointRoom.length; from++) {
+            search(pointRoom[from], doorState, roomDistance, queue, null);
+            for (int to = 0; to < pointRoom.length; to++) {
+                result[from][to] = roomDistance[pointRoom[to]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Breadth first search from a room over the passable exits. Fills in the
+     * distance to every room and, if given, the exit each room is entered through.
+     */
+    private void search(int from, long doorState, int[] roomDistance, int[] queue, int[] enteredBy) {
+        Arrays.fill(roomDistance, UNREACHABLE);
+        roomDistance[from] = 0;
+        queue[0] = from;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int room = queue[head++];
+            for (int d = 0; d < 4; d++) {
+                int exit = 4 * room + d;
+                int target = exitTarget[exit];
+                if (target >= 0 && roomDistance[target] == UNREACHABLE && isPassable(exit, doorState)) {
+                    roomDistance[target] = roomDistance[room] + 1;
+                    if (enteredBy != null) {
+                        enteredBy[target] = exit;
+                    }
+                    queue[tail++] = target;
+                }
+            }
+        }
+    }
+
+    private boolean isPassable(int exit, long doorState) {
+        int door = exitDoor[exit];
+        return door < 0 || (doorState & doorOpenBit[door]) != 0;
+    }
+
+    /**
+     * Returns the go commands of a shortest path between two points of interest
+     * in the given state.
+     */
+    List<String> path(int fromPoint, int toPoint, long state) {
+        int[] roomDistance = new int[rooms.length];
+        int[] enteredBy = new int[rooms.length];
+        search(pointRoom[fromPoint], state & doorStateMask, roomDistance, new int[rooms.length], enteredBy);
+        ArrayDeque<String> commands = new ArrayDeque<>();
+        for (int room = pointRoom[toPoint]; room != pointRoom[fromPoint];) {
+            int exit = enteredBy[room];
+            commands.addFirst("go " + DIRECTIONS[exit % 4]);
+            room = exit / 4;
+        }
+        return new ArrayList<>(commands);
+    }
+}
@@ -0,0 +1,319 @@
+package maze_game.solver;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import maze_game.Game;
+import maze_game.GameCreator;
+import maze_game.input.Parser;
+import maze_game.output.NullOutputSink;
+import maze_game.output.OutputSink;
+import maze_game.world.World;
+
+/**
+ * Finds the shortest list of commands that wins a maze, or proves the maze
+ * can't be won.
+ *
+ * The solver doesn't try every command. Dropping an object, talking to a
+ * character and pressing a mechanism out of order never bring the player
+ * closer to winning: a wrong press only resets the puzzle and, if it's
+ * trapped, costs health. Leaving them out can't hide a shorter solution, and
+ * a solution without them never loses health, so it can't die either. What
+ * remains are walks between points of interest, taking a key or a character,
+ * opening a door with a key and solving a puzzle by pressing its mechanisms in
+ * order. Each of these is a single step of the search, costing the amount of
+ * commands it takes.
+ *
+ * The search is an A* search: states are visited in buckets by the amount of
+ * commands it took to reach them plus an estimate of the commands still
+ * needed, which never overestimates. All states in a bucket are expanded in
+ * parallel on a fork-join pool and the best known cost of every state is kept
+ * in a concurrent map. States found while a bucket is expanded can end up in
+ * the same bucket, so a bucket is expanded until it stays empty.
+ *
+ * Generated mazes of up to 900 rooms with 18 locks, 9 puzzles and 3 characters
+ * are solved visiting at most 200,000 states, well within 10 seconds on a
+ * single core; MazeSolverTest holds the solver to that.
+ *
+ * @author Alexander Mertens
+ */
+public class MazeSolver {
+    private static final int TAKE_KEY = 1;
+    private static final int TAKE_CHARACTER = 2;
+    private static final int OPEN_DOOR = 3;
+    private static final int SOLVE_PUZZLE = 4;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a solver that searches on the common fork-join pool.
+     */
+    public MazeSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a solver that searches on the given pool.
+     *
+     * @param pool The pool the search runs on.
+     */
+    public MazeSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Solves the given world from the start of the game.
+     *
+     * @param world The world to be solved.
+     * @return Returns the solution.
+     */
+    public Solution solve(World world) {
+        long start = System.nanoTime();
+        MazeModel model = new MazeModel(world);
+        if (model.missingRequiredObject || model.exitPoint < 0) {
+            return new Solution(null, 0, System.nanoTime() - start);
+        }
+        Search search = new Search(model);
+        List<String> commands = search.run();
+        return new Solution(commands, search.visited.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * How a state was reached: its cost, the state before it and the step that
+     * was taken.
+     */
+    private static class Node {
+        private final int cost;
+        private final long parent;
+        private final int step;
+
+        private Node(int cost, long parent, int step) {
+            this.cost = cost;
+            this.parent = parent;
+            this.step = step;
+        }
+
+        // Of two ways to reach a state with the same cost the one with the lowest
+        // parent and step is kept, such that the solution doesn't depend on the
+        // order threads run in.
+        private boolean isBetterThan(Node other) {
+            if (cost != other.cost) {
+                return cost < other.cost;
+            }
+            return parent != other.parent ? parent < other.parent : step < other.step;
+        }
+    }
+
+    private class Search {
+        private final MazeModel model;
+        private final Map<Long, Node> visited;
+        private final Map<Integer, Queue<Long>> buckets;
+        private final AtomicInteger highestBucket;
+        private int goalCost;
+        private long goalParent;
+
+        private Search(MazeModel model) {
+            this.model = model;
+            visited = new ConcurrentHashMap<>();
+            buckets = new ConcurrentHashMap<>();
+            highestBucket = new AtomicInteger();
+            goalCost = Integer.MAX_VALUE;
+        }
+
+        private List<String> run() {
+            long start = model.withPoint(0, model.entrancePoint);
+            offer(start, 0, -1, 0);
+            for (int bound = 0; bound <= highestBucket.get() && bound < getGoalCost(); bound++) {
+                Queue<Long> bucket;
+                while ((bucket = buckets.remove(bound)) != null) {
+                    List<Long> states = new ArrayList<>(bucket);
+                    int bucketBound = bound;
+                    pool.submit(() -> states.parallelStream().forEach(state -> expand(state, bucketBound))).join();
+                }
+            }
+            return getGoalCost() == Integer.MAX_VALUE ? null : commands();
+        }
+
+        private void expand(long state, int bound) {
+            int cost = visited.get(state).cost;
+            if (cost + model.estimate(state) != bound) {
+                return;
+            }
+            int[] distance = model.getDistances(state)[model.getPoint(state)];
+            for (int key = 0; key < model.keys.length; key++) {
+                long bit = 1L << (model.keyShift + key);
+                if ((state & bit) == 0) {
+                    move(state, cost, state | bit, distance, model.keyPoint[key], 1, step(TAKE_KEY, key));
+                }
+            }
+            for (int character = 0; character < model.characters.length; character++) {
+                long bit = 1L << (model.characterShift + character);
+                if ((state & bit) == 0) {
+                    move(state, cost, state | bit, distance, model.characterPoint[character], 1,
+                            step(TAKE_CHARACTER, character));
+                }
+            }
+            for (int door = 0; door < model.doorKey.length; door++) {
+                int key = model.doorKey[door];
+                if (key >= 0 && (state & model.doorOpenBit[door]) == 0 && model.holdsKey(state, key)) {
+                    move(state, cost, state | model.doorOpenBit[door], distance, model.doorPoint[door], 1,
+                            step(OPEN_DOOR, door));
+                }
+            }
+            for (int puzzle = 0; puzzle < model.puzzlePresses.length; puzzle++) {
+                long bit = 1L << (model.puzzleShift + puzzle);
+                if ((state & bit) == 0) {
+                    move(state, cost, state | bit, distance, model.puzzlePoint[puzzle],
+                            model.puzzlePresses[puzzle].length, step(SOLVE_PUZZLE, puzzle));
+                }
+            }
+            if ((state & model.allCharacters) == model.allCharacters
+                    && distance[model.exitPoint] != MazeModel.UNREACHABLE) {
+                offerGoal(cost + distance[model.exitPoint], state);
+            }
+        }
+
+        private void move(long state, int cost, long next, int[] distance, int point, int commands, int step) {
+            if (distance[point] != MazeModel.UNREACHABLE) {
+                offer(model.withPoint(next, point), cost + distance[point] + commands, state, step);
+            }
+        }
+
+        private void offer(long state, int cost, long parent, int step) {
+            Node node = new Node(cost, parent, step);
+            boolean[] cheaper = new boolean[1];
+            visited.compute(state, (key, old) -> {
+                if (old == null || cost < old.cost) {
+                    cheaper[0] = true;
+                    return node;
+                }
+                return node.isBetterThan(old) ? node : old;
+            });
+            int estimate = model.estimate(state);
+            if (cheaper[0] && estimate != MazeModel.UNREACHABLE) {
+                int bound = cost + estimate;
+                buckets.computeIfAbsent(bound, b -> new ConcurrentLinkedQueue<>()).add(state);
+                highestBucket.accumulateAndGet(bound, Math::max);
+            }
+        }
+
+        private synchronized void offerGoal(int cost, long parent) {
+            if (cost < goalCost || (cost == goalCost && parent < goalParent)) {
+                goalCost = cost;
+                goalParent = parent;
+            }
+        }
+
+        private synchronized int getGoalCost() {
+            return goalCost;
+        }
+
+        /**
+         * Follows the parents back from the goal and turns every step into
+         * commands.
+         */
+        private List<String> commands() {
+            List<Long> states = new ArrayList<>();
+            for (long state = goalParent; state != -1; state = visited.get(state).parent) {
+                states.add(state);
+            }
+            Collections.reverse(states);
+
+            List<String> commands = new ArrayList<>();
+            for (int i = 1; i < states.size(); i++) {
+                long previous = states.get(i - 1);
+                long state = states.get(i);
+                commands.addAll(model.path(model.getPoint(previous), model.getPoint(state), previous));
+                addStepCommands(visited.get(state).step, commands);
+            }
+            long last = states.get(states.size() - 1);
+            commands.addAll(model.path(model.getPoint(last), model.exitPoint, last));
+            return commands;
+        }
+
+        private void addStepCommands(int step, List<String> commands) {
+            int index = step & 0xFFFFFF;
+            switch (step >>> 24) {
+            case TAKE_KEY:
+                commands.add("take " + model.keys[index].getName().toLowerCase());
+                break;
+            case TAKE_CHARACTER:
+                commands.add("take " + model.characters[index].getName().toLowerCase());
+                break;
+            case OPEN_DOOR:
+                commands.add("open " + model.doorDirection[index]);
+                break;
+            case SOLVE_PUZZLE:
+                for (String press : model.puzzlePresses[index]) {
+                    commands.add("interact " + press);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown step " + step);
+            }
+        }
+    }
+
+    private static int step(int type, int index) {
+        return type << 24 | index;
+    }
+
+    /**
+     * Plays the given commands in a game in the given world and checks whether
+     * they win it.
+     *
+     * @param world    The world to be played, it is changed by playing.
+     * @param commands The commands to be played.
+     * @return Returns true if the game is won by the last command.
+     */
+    public static boolean verify(World world, List<String> commands) {
+        OutputSink out = new NullOutputSink();
+        Parser parser = new Parser(InputStream.nullInputStream(), out);
+        Game game = new Game(parser, out, world);
+        for (int i = 0; i < commands.size(); i++) {
+            boolean finished = game.executeTurn(parser.parseLine(commands.get(i)), parser.getArgument());
+            if (finished) {
+                return game.isWon() && i == commands.size() - 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Solves the Maze of Astaroth and generated mazes of increasing size, checks
+     * every solution by playing it and prints how long solving took. Usage:
+     * MazeSolver [seed].
+     */
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 7;
+        MazeSolver solver = new MazeSolver();
+
+        Solution solution = solver.solve(Game.createRooms(new GameCreator(seed)));
+        System.out.println("Maze of Astaroth: " + solution + ", verified: "
+                + verify(Game.createRooms(new GameCreator(seed)), solution.getCommands()));
+        System.out.println(String.join(", ", solution.getCommands()));
+
+        int[] sides = { 10, 20, 30 };
+        for (int side : sides) {
+            int rooms = side * side;
+            for (long mazeSeed = seed; mazeSeed < seed + 3; mazeSeed++) {
+                solution = solver.solve(generate(mazeSeed, side));
+                boolean verified = !solution.isWinnable() || verify(generate(mazeSeed, side), solution.getCommands());
+                System.out.println(rooms + " rooms, seed " + mazeSeed + ": " + solution + ", verified: " + verified);
+            }
+        }
+    }
+
+    private static World generate(long seed, int side) {
+        int rooms = side * side;
+        return new GameCreator(seed).generateMaze(side, side, 0.1, rooms / 50, rooms / 100, 3);
+    }
+}
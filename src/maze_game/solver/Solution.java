@@ -0,0 +1,63 @@
+package maze_game.solver;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of solving a maze: whether it can be won and, if so, a shortest
+ * list of commands that wins it.
+ *
+ * @author Alexander Mertens
+ */
+public class Solution {
+    private final List<String> commands;
+    private final long statesVisited;
+    private final long nanos;
+
+    /**
+     * Creates a solution.
+     *
+     * @param commands      Commands that win the game, null if it can't be won.
+     * @param statesVisited Amount of states the search has visited.
+     * @param nanos         Time the search took in nanoseconds.
+     */
+    Solution(List<String> commands, long statesVisited, long nanos) {
+        this.commands = commands == null ? null : Collections.unmodifiableList(commands);
+        this.statesVisited = statesVisited;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return Returns true if the maze can be won.
+     */
+    public boolean isWinnable() {
+        return commands != null;
+    }
+
+    /**
+     * @return Returns the commands that win the game, or null if it can't be won.
+     */
+    public List<String> getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return Returns the amount of states the search has visited.
+     */
+    public long getStatesVisited() {
+        return statesVisited;
+    }
+
+    /**
+     * @return Returns the time the search took in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return (isWinnable() ? "winnable in " + commands.size() + " commands" : "not winnable") + ", "
+                + statesVisited + " states, " + String.format("%.1f ms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,89 @@
+package maze_game.state;
+
+import java.util.Arrays;
+import java.util.List;
+
+import maze_game.directions.Direction;
+
+/**
+ * The directions the player went in, as an immutable stack. Pushing or popping
+ * a direction makes a new history that shares all older directions with the
+ * one it was made from, so versions of a game can share their history.
+ *
+ * @author Alexander Mertens
+ */
+final class DirectionHistory {
+    // The history of a player that hasn't gone anywhere yet.
+    static final DirectionHistory EMPTY = new DirectionHistory(null, null, 0);
+
+    private final Direction last;
+    private final DirectionHistory previous;
+    private final int size;
+
+    private DirectionHistory(Direction last, DirectionHistory previous, int size) {
+        this.last = last;
+        this.previous = previous;
+        this.size = size;
+    }
+
+    /**
+     * @param directions Directions in the order they were gone in.
+     * @return Returns the history of the given directions.
+     */
+    static DirectionHistory of(List<Direction> directions) {
+        DirectionHistory history = EMPTY;
+        for (Direction direction : directions) {
+            history = history.push(direction);
+        }
+        return history;
+    }
+
+    /**
+     * @param direction The direction the player went in.
+     * @return Returns this history followed by the given direction.
+     */
+    DirectionHistory push(Direction direction) {
+        return new DirectionHistory(direction, this, size + 1);
+    }
+
+    /**
+     * @return Returns the direction the player went in last.
+     */
+    Direction peek() {
+        return last;
+    }
+
+    /**
+     * @return Returns this history without the last direction.
+     */
+    DirectionHistory pop() {
+        return previous;
+    }
+
+    /**
+     * @return Returns true if the player hasn't gone anywhere.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Returns the amount of directions in the history.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return Returns the directions in the order they were gone in.
+     */
+    List<Direction> toList() {
+        Direction[] directions = new Direction[size];
+        DirectionHistory history = this;
+        for (int i = size - 1; i >= 0; i--) {
+            directions[i] = history.last;
+            history = history.previous;
+        }
+        return Arrays.asList(directions);
+    }
+}
@@ -1,56 +1,199 @@
 package maze_game.state;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import maze_game.directions.Direction;
+import maze_game.events.RoomChangeEvent;
 import maze_game.flag.Flag;
+import maze_game.gameobjects.Container;
+import maze_game.gameobjects.Contents;
 import maze_game.gameobjects.Door;
+import maze_game.gameobjects.GameObject;
 import maze_game.gameobjects.Item;
 import maze_game.gameobjects.Player;
 import maze_game.gameobjects.Room;
 import maze_game.gameobjects.interactive.InteractiveObject;
 import maze_game.hint.Hints;
-import maze_game.mapping.GameObjectMapByName;
+import maze_game.mapping.PersistentMap;
+import maze_game.output.OutputSink;
 
 /**
  * Class that represents the current state of the gameworld. The class has
  * fields that hold the room the current player is in, the history of previously
  * visited rooms, the player object, a list of all rescued characters.
  * 
+ * The objects of the world only hold how the game starts and are never changed
+ * while it's played. Everything that changes is kept here, in immutable values
+ * and persistent maps (see PersistentMap) that only record what differs from
+ * the start: what the containers that changed hold, the doors that were
+ * unlocked, the active objects, the health of the player. A change makes a new
+ * version of the map it affects, which shares everything else with the old
+ * version. This makes fork O(1): a fork shares every map with this state, and
+ * from then on each of them pays only for what it changes itself.
+ * 
+ * The same sharing makes undo cheap. At the end of every turn that changed the
+ * game, the references to the values of the state before the turn are kept.
+ * Those values share everything the turn didn't change with the current ones,
+ * so a level of undo only costs what its turn changed. Most turns only move the
+ * player, so the values about the objects of the world are kept apart and
+ * shared by the versions in between. The last 10,000 turns can be undone,
+ * unless the system property maze_game.undo gives another amount.
+ * 
+ * The state keeps a 64-bit Zobrist fingerprint of the situation in the game:
+ * the room of the player, the health of the player, where every item and
+ * interactive object is, which doors are locked and which objects are active.
+ * The history of directions isn't part of it. Every change made through the
+ * state updates the fingerprint with a few XORs. The fingerprint starts at 0
+ * and only records what changed, so it identifies situations within a single
+ * game: two games of the same world in the same situation have the same
+ * fingerprint only if they share the objects of the world.
+ * 
  * @author Alexander Mertens
  */
 public class GameState {
+    // The amount of turns that can be undone, older ones are forgotten
+    private static final int MAX_UNDO = Integer.getInteger("maze_game.undo", 10_000);
+
     // The current room the player occupies
     private Room currentRoom;
-    // Holds Stack with the previous directions the player went with
+    // Holds the previous directions the player went with, last on top
     // Used to reconstruct the player's path
-    private Stack<Direction> directionHistory;
+    private DirectionHistory directionHistory;
     // The player character
-    private Player player;
-    // A mapping of characters and objects that are in the party
+    private final Player player;
+    // The characters and objects that are in the party
     // The player can interact with these via the interact command
-    private GameObjectMapByName<InteractiveObject> objects;
-    // Holds hints for the player
-    private final Hints hints;
+    private Contents party;
+    // What the containers whose contents changed hold now, every other container
+    // holds what it held when the game started
+    private PersistentMap<Container, Contents> contents;
+    // Doors that have been locked or unlocked since the game started
+    private PersistentMap<Door, Boolean> locks;
+    // Interactive objects that are active
+    private PersistentMap<InteractiveObject, Boolean> active;
+    // The health of the player
+    private int health;
+    // The amount of hints the player has asked for
+    private int hintsAsked;
+    // Sink all the output of this game is written to
+    private final OutputSink out;
+    // Listeners that are informed of changes to the state
+    private final List<GameStateListener> listeners;
+    // Zobrist fingerprint of the changes made since the game started
+    private long fingerprint;
+    // The rooms the player has visited and the known routes between them
+    private RouteMap routes;
+    // Whether routes is shared with a fork, it's copied before it changes
+    private boolean routesShared;
+    // The state at the start of the current turn
+    private Version turnStart;
+    // The states before the turns that can be undone, latest first, null until
+    // a turn has changed the game
+    private ArrayDeque<Version> undoVersions;
+    // The states that were undone and can be redone, latest undone first
+    private ArrayDeque<Version> redoVersions;
+    // The flag the command being executed reported, null if it didn't report one
+    private Flag outcome;
 
     /**
-     * Creates a new GameState with given player and currentRoom.
+     * Creates a new GameState with given player and currentRoom that writes its
+     * output to the given sink.
      * 
      * @param player
      * @param currentRoom
+     * @param out         Sink the output of the game is written to.
      */
-    public GameState(Player player, Room currentRoom) {
+    public GameState(Player player, Room currentRoom, OutputSink out) {
         this.player = player;
         this.currentRoom = currentRoom;
-        directionHistory = new Stack<>();
-        objects = new GameObjectMapByName<>();
-        this.hints = new Hints();
+        this.out = out;
+        this.listeners = new ArrayList<>(2);
+        directionHistory = DirectionHistory.EMPTY;
+        party = Contents.EMPTY;
+        contents = PersistentMap.empty();
+        locks = PersistentMap.empty();
+        active = PersistentMap.empty();
+        health = Player.MAX_HEALTH;
+        this.routes = new RouteMap(currentRoom, this);
+        turnStart = new Version(this);
+    }
+
+    /**
+     * Creates a fork of the given state that writes its output to the given
+     * sink.
+     */
+    private GameState(GameState state, OutputSink out) {
+        this.player = state.player;
+        this.currentRoom = state.currentRoom;
+        this.out = out;
+        this.listeners = new ArrayList<>(2);
+        directionHistory = state.directionHistory;
+        party = state.party;
+        contents = state.contents;
+        locks = state.locks;
+        active = state.active;
+        health = state.health;
+        hintsAsked = state.hintsAsked;
+        fingerprint = state.fingerprint;
+        routes = state.routes;
+        routesShared = true;
+        state.routesShared = true;
+        turnStart = new Version(this);
+    }
+
+    /**
+     * Creates a state holding the given version of the given state, to be read
+     * while the given state doesn't change.
+     */
+    private GameState(GameState state, Version version) {
+        this.player = state.player;
+        this.out = state.out;
+        this.listeners = new ArrayList<>(2);
+        currentRoom = version.currentRoom;
+        directionHistory = version.directionHistory;
+        party = version.objects.party;
+        contents = version.objects.contents;
+        locks = version.objects.locks;
+        active = version.objects.active;
+        health = version.objects.health;
+        hintsAsked = state.hintsAsked;
+        fingerprint = version.fingerprint;
+        routes = state.routes;
+        routesShared = true;
+        turnStart = version;
+    }
+
+    /**
+     * Creates a copy of this state that can be played on its own: changes to the
+     * copy don't show in this state and the other way around. Forking takes the
+     * same time however far the game has come, because the copy shares all of
+     * this state until either of them changes. The copy writes to the same sink
+     * and has no listeners, and it has no turns to undo.
+     * 
+     * @return Returns the copy.
+     */
+    public GameState fork() {
+        return fork(out);
+    }
+
+    /**
+     * Creates a copy of this state like fork(), that writes its output to the
+     * given sink.
+     * 
+     * @param out Sink the output of the copy is written to.
+     * @return Returns the copy.
+     */
+    public GameState fork(OutputSink out) {
+        return new GameState(this, out);
     }
 
     /**
      * Attempts to move player in a certain direction. Returns appropriate Flag if
      * currentRoom contains no Room in that direction. Else it moves the player in
-     * that direction, pushes the direction onto the Stack and returns a success
+     * that direction, pushes the direction onto the history and returns a success
      * Flag.
      * 
      * @param directionString The direction the player wishes to move in String
@@ -65,7 +208,7 @@ public class GameState {
         Direction direction = Direction.convertString(directionString);
         Flag flag = go(direction);
         if (flag.isSuccess()) {
-            directionHistory.push(direction);
+            directionHistory = directionHistory.push(direction);
         }
         return flag;
     }
@@ -84,14 +227,51 @@ public class GameState {
 
         if (door == null) {
             return Flag.NO_DOOR;
-        } else if (door.isLocked()) {
+        } else if (isLocked(door)) {
             return Flag.LOCKED;
         } else {
-            setCurrentRoom(door.getRoom());
+            setCurrentRoom(door.getDestination());
             return Flag.MOVED;
         }
     }
 
+    /**
+     * Attempts to move the player along a shortest route to a room the player has
+     * visited before. The route only leads through rooms the player has visited
+     * and through doors that aren't locked. Every step of the route is pushed
+     * onto the history, such that the player can go back along it.
+     * 
+     * @param roomName The name of the room the player wishes to travel to.
+     * @return Returns a success flag if the player has arrived in the room, else
+     *         it returns a flag containing a message describing what went wrong.
+     */
+    public Flag travel(String roomName) {
+        if (roomName == null) {
+            return Flag.NO_ARGUMENT;
+        }
+        // Finding a route keeps search trees in the map, which mustn't change
+        // while it's shared.
+        RouteMap routes = ownRoutes();
+        Room destination = routes.findRoom(roomName);
+        if (destination == null) {
+            return Flag.UNKNOWN_ROOM;
+        } else if (destination == currentRoom) {
+            return Flag.ALREADY_THERE;
+        }
+        List<Direction> route = routes.findRoute(currentRoom, destination);
+        if (route == null) {
+            return Flag.NO_ROUTE;
+        }
+        for (Direction direction : route) {
+            Flag flag = go(direction);
+            if (!flag.isSuccess()) {
+                return flag;
+            }
+            directionHistory = directionHistory.push(direction);
+        }
+        return Flag.TRAVELLED;
+    }
+
     /**
      * Attempts to move the player to the previously visited location and returns a
      * success Flag if succesfull. If there's no last known location, the method
@@ -104,10 +284,10 @@ public class GameState {
         if (directionHistory.isEmpty()) {
             return Flag.NO_HISTORY;
         } else {
-            // Takes the last known direction from the stack and reverses it to reverse path
+            // Takes the last known direction from the history and reverses it to reverse path
             Flag flag = go(directionHistory.peek().reverse());
             if (flag.isSuccess()) {
-                directionHistory.pop();
+                directionHistory = directionHistory.pop();
             }
             return flag;
         }
@@ -129,12 +309,15 @@ public class GameState {
             return Flag.NO_ARGUMENT;
         }
 
-        Flag flag;
-        flag = player.takeItemFrom(currentRoom, objectName);
-        if (flag.isSuccess()) {
+        Contents roomContents = getContents(currentRoom);
+        Item item = roomContents.getItem(objectName);
+        if (item != null) {
+            setContents(currentRoom, roomContents.withoutItem(objectName));
+            setContents(player, getContents(player).withItem(item));
+            fingerprint ^= location(item, currentRoom) ^ location(item, player);
             return Flag.ITEM_TAKEN;
         }
-        flag = this.moveObjectFrom(currentRoom, objectName);
+        Flag flag = this.moveObjectFrom(currentRoom, objectName);
         if (flag.isSuccess()) {
             return Flag.CHARACTER_TAKEN;
         }
@@ -159,12 +342,15 @@ public class GameState {
             return Flag.NO_ARGUMENT;
         }
 
-        Flag flag;
-        flag = player.giveItemTo(currentRoom, objectName);
-        if (flag.isSuccess()) {
+        Contents inventory = getContents(player);
+        Item item = inventory.getItem(objectName);
+        if (item != null) {
+            setContents(player, inventory.withoutItem(objectName));
+            setContents(currentRoom, getContents(currentRoom).withItem(item));
+            fingerprint ^= location(item, player) ^ location(item, currentRoom);
             return Flag.ITEM_DROPPED;
         }
-        flag = moveObjectTo(currentRoom, objectName);
+        Flag flag = moveObjectTo(currentRoom, objectName);
         if (flag.isSuccess()) {
             return Flag.CHARACTER_DROPPED;
         }
@@ -187,15 +373,17 @@ public class GameState {
 
         if (door == null) {
             return Flag.NO_DOOR;
-        } else if (!door.isLocked()) {
+        } else if (!isLocked(door)) {
             return Flag.UNLOCKED;
         } else {
-            Item item = player.getItem(door.getKeyName());
+            Contents inventory = getContents(player);
+            Item item = inventory.getItem(door.getKeyName());
             if (item == null || !door.isKey(item)) {
                 return Flag.WRONG_KEY;
             } else {
-                door.unlock(item);
-                player.removeItem(item.getName());
+                unlock(door, item);
+                setContents(player, inventory.withoutItem(item.getName()));
+                fingerprint ^= location(item, player) ^ Zobrist.combine(item.getZobristKey(), Zobrist.GONE);
                 return Flag.OPENED;
             }
         }
@@ -208,7 +396,11 @@ public class GameState {
      * @param object The object to be added.
      */
     public void addInteractive(InteractiveObject object) {
-        objects.add(object);
+        party = party.withObject(object);
+        fingerprint ^= Zobrist.combine(object.getZobristKey(), Zobrist.IN_PARTY);
+        for (GameStateListener listener : listeners) {
+            listener.partyJoined(object);
+        }
     }
 
     /**
@@ -223,13 +415,15 @@ public class GameState {
      * @return Returns a Flag containing a message detailing what happened.
      */
     public Flag moveObjectFrom(Room room, String objectName) {
-        InteractiveObject object = room.getObject(objectName);
+        Contents roomContents = getContents(room);
+        InteractiveObject object = roomContents.getObject(objectName);
         if (object == null) {
             return Flag.NO_OBJECT_ROOM;
         } else if (!object.isRemovable()) {
             return Flag.IMMOVABLE;
         }
-        room.removeObject(objectName);
+        setContents(room, roomContents.withoutObject(objectName));
+        fingerprint ^= location(object, room);
         addInteractive(object);
         return Flag.OBJECT_MOVED;
     }
@@ -244,11 +438,16 @@ public class GameState {
      * @return Returns a Flag containing a message detailing what happened.
      */
     public Flag moveObjectTo(Room room, String objectName) {
-        InteractiveObject object = objects.remove(objectName);
+        InteractiveObject object = party.getObject(objectName);
         if (object == null) {
             return Flag.NO_OBJECT_PARTY;
         }
-        room.addInteractive(object);
+        party = party.withoutObject(objectName);
+        setContents(room, getContents(room).withObject(object));
+        fingerprint ^= Zobrist.combine(object.getZobristKey(), Zobrist.IN_PARTY) ^ location(object, room);
+        for (GameStateListener listener : listeners) {
+            listener.partyLeft(object);
+        }
         return Flag.OBJECT_MOVED;
     }
 
@@ -263,9 +462,9 @@ public class GameState {
         if (objectName == null) {
             return Flag.NO_ARGUMENT;
         }
-        InteractiveObject object = currentRoom.getObject(objectName);
+        InteractiveObject object = getContents(currentRoom).getObject(objectName);
         if (object == null) {
-            object = objects.get(objectName);
+            object = party.getObject(objectName);
         }
 
         if (object == null) {
@@ -280,7 +479,7 @@ public class GameState {
      *         in, its contents and the contents of the player's inventory.
      */
     public String getStateDescription() {
-        return currentRoom.getLongDescription() + "\n" + currentRoom.getExitsString();
+        return currentRoom.getFullDescription(getContents(currentRoom));
     }
 
     /**
@@ -289,12 +488,13 @@ public class GameState {
      */
     public String getPartyDescription() {
         String description = "";
-        if (!player.isInventoryEmpty()) {
-            description += player.getLongDescription();
+        Contents inventory = getContents(player);
+        if (!inventory.hasNoItems()) {
+            description += player.getLongDescription(inventory);
         }
 
-        if (!objects.isEmpty()) {
-            description += "\nIn the party:" + objects.getDescription();
+        if (party.hasObjects()) {
+            description += "\nIn the party:" + party.getObjectDescriptions();
         }
 
         if (description.equals("")) {
@@ -319,12 +519,18 @@ public class GameState {
             return getStateDescription();
         }
 
-        String description = player.findDescription(objectName);
+        String description = player.findDescription(objectName, getContents(player), health);
         if (description == null) {
-            description = currentRoom.findDescription(objectName);
+            description = currentRoom.findDescription(objectName, getContents(currentRoom));
         }
         if (description == null) {
-            description = objects.findDescription(objectName);
+            Door door = currentRoom.getExit(Direction.convertString(objectName));
+            if (door != null) {
+                description = door.getDescription(isLocked(door));
+            }
+        }
+        if (description == null) {
+            description = party.findDescription(objectName);
         }
         return description;
     }
@@ -342,24 +548,620 @@ public class GameState {
      * @return Returns true if the party currently contains the given object.
      */
     public boolean containsObject(InteractiveObject object) {
-        return objects.contains(object);
+        return party.getObject(object.getName().toLowerCase()) == object;
+    }
+
+    /**
+     * @param container A room or the player.
+     * @return Returns what the given container holds at the moment.
+     */
+    public Contents getContents(Container container) {
+        Contents changed = contents.get(container);
+        return changed != null ? changed : container.getContents();
+    }
+
+    /**
+     * @param door The door to be checked.
+     * @return Returns true if the given door is locked at the moment.
+     */
+    public boolean isLocked(Door door) {
+        Boolean locked = locks.get(door);
+        return locked != null ? locked : door.isLocked();
+    }
+
+    /**
+     * @param object The object to be checked.
+     * @return Returns true if the player has activated the given object and it
+     *         hasn't been reset since.
+     */
+    public boolean isActive(InteractiveObject object) {
+        return active.containsKey(object);
+    }
+
+    /**
+     * @return Returns the health of the player.
+     */
+    public int getHealth() {
+        return health;
     }
 
     /**
      * The player takes a hit to their health.
      */
     public void getHit() {
-        player.getHit();
+        setHealth(health - 1);
+    }
+
+    /**
+     * Activates the given object if it isn't active yet.
+     * 
+     * @param object The object to be activated.
+     */
+    public void activate(InteractiveObject object) {
+        if (!isActive(object)) {
+            active = active.plus(object, Boolean.TRUE);
+            fingerprint ^= Zobrist.combine(object.getZobristKey(), Zobrist.ACTIVE);
+        }
+    }
+
+    /**
+     * Deactivates the given object if it is active. Only the object itself is
+     * changed, even if resetting it would reset other objects as well.
+     * 
+     * @param object The object to be deactivated.
+     */
+    public void deactivate(InteractiveObject object) {
+        if (isActive(object)) {
+            active = active.minus(object);
+            fingerprint ^= Zobrist.combine(object.getZobristKey(), Zobrist.ACTIVE);
+        }
+    }
+
+    /**
+     * Tries to unlock the given door with the given object.
+     * 
+     * @param door The door to be unlocked.
+     * @param key  The object the door is unlocked with.
+     */
+    public void unlock(Door door, GameObject key) {
+        if (isLocked(door) && door.isKey(key)) {
+            setLocked(door, false);
+        }
+    }
+
+    /**
+     * Ends the current turn. If the turn changed the game, it can be undone from
+     * now on and the turns that were undone can't be redone anymore. The game
+     * calls this after every command.
+     */
+    public void endTurn() {
+        if (turnStart.differsFrom(this)) {
+            if (undoVersions == null) {
+                undoVersions = new ArrayDeque<>();
+                redoVersions = new ArrayDeque<>();
+            }
+            undoVersions.push(turnStart);
+            if (undoVersions.size() > MAX_UNDO) {
+                undoVersions.removeLast();
+            }
+            redoVersions.clear();
+            turnStart = new Version(this, turnStart);
+        }
+    }
+
+    /**
+     * Undoes the last turns that changed the game: where the player is and has
+     * come from, what every container and the party holds, which doors are
+     * locked, which objects are active and the health of the player. The rooms
+     * the player has seen stay known.
+     * 
+     * @param amountString The amount of turns to undo, null to undo one turn.
+     * @return Returns a success Flag if any turn was undone, else it returns a
+     *         Flag containing a message with what went wrong.
+     */
+    public Flag undo(String amountString) {
+        int amount = parseAmount(amountString);
+        if (amount <= 0) {
+            return Flag.NOT_A_NUMBER;
+        } else if (undoVersions == null || undoVersions.isEmpty()) {
+            return Flag.NOTHING_TO_UNDO;
+        }
+        Version version = new Version(this, turnStart);
+        for (int i = 0; i < amount && !undoVersions.isEmpty(); i++) {
+            redoVersions.push(version);
+            version = undoVersions.pop();
+        }
+        restore(version);
+        return Flag.UNDONE;
+    }
+
+    /**
+     * Redoes turns that were undone, as long as no turn has changed the game
+     * since.
+     * 
+     * @param amountString The amount of turns to redo, null to redo one turn.
+     * @return Returns a success Flag if any turn was redone, else it returns a
+     *         Flag containing a message with what went wrong.
+     */
+    public Flag redo(String amountString) {
+        int amount = parseAmount(amountString);
+        if (amount <= 0) {
+            return Flag.NOT_A_NUMBER;
+        } else if (redoVersions == null || redoVersions.isEmpty()) {
+            return Flag.NOTHING_TO_REDO;
+        }
+        Version version = new Version(this, turnStart);
+        for (int i = 0; i < amount && !redoVersions.isEmpty(); i++) {
+            undoVersions.push(version);
+            version = redoVersions.pop();
+        }
+        restore(version);
+        return Flag.REDONE;
+    }
+
+    /**
+     * @return Returns the flag the last command reported, or null if it didn't
+     *         report one.
+     */
+    public Flag getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Sets the flag the command being executed reported, see
+     * Command.report.
+     * 
+     * @param outcome The reported flag, null before the command is executed.
+     */
+    public void setOutcome(Flag outcome) {
+        this.outcome = outcome;
+    }
+
+    /**
+     * @return Returns the amount of turns that can be undone.
+     */
+    public int getUndoLevels() {
+        return undoVersions == null ? 0 : undoVersions.size();
+    }
+
+    /**
+     * @return Returns the fingerprint of the current situation in the game. Two
+     *         situations of the same game with the same fingerprint are the same
+     *         with near certainty.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return Returns true if the player is dead.
+     */
+    public boolean isPlayerDead() {
+        return Player.isDead(health);
+    }
+
+    /**
+     * Registers a listener that is informed of every change to the party, the
+     * room of the player and the health of the player from now on.
+     * 
+     * @param listener The listener to be added.
+     */
+    public void addListener(GameStateListener listener) {
+        listeners.add(listener);
     }
 
     /**
      * Prints a hint for the player.
      */
     public void printHint() {
-        hints.printHint();
+        hintsAsked = Hints.printHint(out, hintsAsked);
+    }
+
+    /**
+     * @return Returns the sink the output of the game is written to.
+     */
+    public OutputSink getOutput() {
+        return out;
+    }
+
+    /**
+     * @return Returns the room the player is in.
+     */
+    public Room getCurrentRoom() {
+        return currentRoom;
+    }
+
+    // Access for Snapshot, which saves and restores the state.
+
+    Player getPlayer() {
+        return player;
+    }
+
+    List<Direction> getDirectionHistory() {
+        return directionHistory.toList();
+    }
+
+    Collection<InteractiveObject> getParty() {
+        return party.getObjects();
+    }
+
+    int getHintsAsked() {
+        return hintsAsked;
+    }
+
+    List<Room> getVisitedRooms() {
+        return routes.getRooms();
+    }
+
+    PersistentMap<Container, Contents> getChangedContents() {
+        return contents;
+    }
+
+    PersistentMap<Door, Boolean> getChangedLocks() {
+        return locks;
+    }
+
+    PersistentMap<InteractiveObject, Boolean> getActiveObjects() {
+        return active;
+    }
+
+    /**
+     * Takes an object that is being restored out of the room it started in. It
+     * is put in its place by restoreItem or restoreObject.
+     * 
+     * @param object The item or interactive object to be taken.
+     * @param origin The room it starts in.
+     */
+    void liftFromOrigin(GameObject object, Room origin) {
+        String name = object.getName().toLowerCase();
+        if (object instanceof Item) {
+            setContents(origin, getContents(origin).withoutItem(name));
+        } else {
+            setContents(origin, getContents(origin).withoutObject(name));
+        }
+        fingerprint ^= location(object, origin);
+    }
+
+    /**
+     * Puts a restored item in the given room or inventory.
+     * 
+     * @param item        The item that was lifted from its origin.
+     * @param destination Where the item is, null if it was used up.
+     */
+    void restoreItem(Item item, Container destination) {
+        if (destination == null) {
+            fingerprint ^= Zobrist.combine(item.getZobristKey(), Zobrist.GONE);
+        } else {
+            setContents(destination, getContents(destination).withItem(item));
+            fingerprint ^= location(item, destination);
+        }
+    }
+
+    /**
+     * Puts a restored interactive object in the given room or the party.
+     * 
+     * @param object      The object that was lifted from its origin.
+     * @param destination The room the object is in, null if it's in the party.
+     */
+    void restoreObject(InteractiveObject object, Room destination) {
+        if (destination == null) {
+            addInteractive(object);
+        } else {
+            setContents(destination, getContents(destination).withObject(object));
+            fingerprint ^= location(object, destination);
+        }
+    }
+
+    void restoreLock(Door door, boolean locked) {
+        if (isLocked(door) != locked) {
+            setLocked(door, locked);
+        }
+    }
+
+    void restoreHealth(int health) {
+        setHealth(health);
+    }
+
+    void restoreHints(int hintsAsked) {
+        this.hintsAsked = hintsAsked;
+    }
+
+    /**
+     * Restores where the player has been and where the player is.
+     * 
+     * @param visited The visited rooms in the order they were first visited.
+     * @param room    The room the player is in.
+     * @param history The directions the player went in, oldest first.
+     */
+    void restoreRoute(List<Room> visited, Room room, List<Direction> history) {
+        for (Room visitedRoom : visited) {
+            visit(visitedRoom);
+        }
+        if (room != currentRoom) {
+            setCurrentRoom(room);
+        }
+        directionHistory = DirectionHistory.of(history);
+    }
+
+    /**
+     * Puts the player in the given room without visiting it, for states that
+     * are restored as turns to undo or redo.
+     * 
+     * @param room    The room the player is in.
+     * @param history The directions the player went in, oldest first.
+     */
+    void restorePosition(Room room, List<Direction> history) {
+        fingerprint ^= Zobrist.combine(currentRoom.getZobristKey(), Zobrist.PLAYER_AT)
+                ^ Zobrist.combine(room.getZobristKey(), Zobrist.PLAYER_AT);
+        currentRoom = room;
+        directionHistory = DirectionHistory.of(history);
+    }
+
+    /**
+     * Called once a snapshot has been restored, with the restored states the
+     * turns can be undone and redone to.
+     * 
+     * @param undo The states before the turns that can be undone, latest first.
+     * @param redo The states that can be redone, latest undone first.
+     */
+    void restoreFinished(List<GameState> undo, List<GameState> redo) {
+        turnStart = new Version(this);
+        undoVersions = null;
+        redoVersions = null;
+        if (!undo.isEmpty() || !redo.isEmpty()) {
+            undoVersions = new ArrayDeque<>(undo.size());
+            redoVersions = new ArrayDeque<>(redo.size());
+            Version previous = turnStart;
+            for (GameState state : undo) {
+                previous = new Version(state, previous);
+                undoVersions.add(previous);
+            }
+            previous = turnStart;
+            for (GameState state : redo) {
+                previous = new Version(state, previous);
+                redoVersions.add(previous);
+            }
+        }
+    }
+
+    /**
+     * @return Returns the states before the turns that can be undone, latest
+     *         first. They share everything with this state and may only be read
+     *         while it doesn't change.
+     */
+    List<GameState> getUndoStates() {
+        return versionStates(undoVersions);
+    }
+
+    /**
+     * @return Returns the states that can be redone, latest undone first, like
+     *         getUndoStates.
+     */
+    List<GameState> getRedoStates() {
+        return versionStates(redoVersions);
+    }
+
+    private List<GameState> versionStates(ArrayDeque<Version> versions) {
+        if (versions == null) {
+            return List.of();
+        }
+        List<GameState> states = new ArrayList<>(versions.size());
+        for (Version version : versions) {
+            states.add(new GameState(this, version));
+        }
+        return states;
+    }
+
+    private void setContents(Container container, Contents newContents) {
+        if (newContents == container.getContents()) {
+            contents = contents.minus(container);
+        } else {
+            contents = contents.plus(container, newContents);
+        }
+    }
+
+    private void setLocked(Door door, boolean locked) {
+        if (locked == door.isLocked()) {
+            locks = locks.minus(door);
+        } else {
+            locks = locks.plus(door, locked);
+        }
+        fingerprint ^= Zobrist.combine(door.getZobristKey(), Zobrist.LOCKED);
+        if (!locked) {
+            ownRoutes().doorUnlocked(door);
+            for (GameStateListener listener : listeners) {
+                listener.doorUnlocked(door);
+            }
+        }
+    }
+
+    private void setHealth(int newHealth) {
+        fingerprint ^= health();
+        health = newHealth;
+        fingerprint ^= health();
+        for (GameStateListener listener : listeners) {
+            listener.healthChanged(player, health);
+        }
     }
 
     private void setCurrentRoom(Room newRoom) {
+        Room previous = currentRoom;
         this.currentRoom = newRoom;
+        visit(newRoom);
+        fingerprint ^= Zobrist.combine(previous.getZobristKey(), Zobrist.PLAYER_AT)
+                ^ Zobrist.combine(newRoom.getZobristKey(), Zobrist.PLAYER_AT);
+        for (GameStateListener listener : listeners) {
+            listener.roomChanged(previous, newRoom);
+        }
+        if (RoomChangeEvent.isRecorded()) {
+            new RoomChangeEvent().emit(previous.getName(), newRoom.getName());
+        }
+    }
+
+    private void visit(Room room) {
+        if (!routes.contains(room)) {
+            ownRoutes().visit(room, this);
+        }
+    }
+
+    /**
+     * @return Returns the route map of this state, after copying it if it's
+     *         shared with a fork.
+     */
+    private RouteMap ownRoutes() {
+        if (routesShared) {
+            routes = routes.copy(this);
+            routesShared = false;
+        }
+        return routes;
+    }
+
+    /**
+     * Brings back the given version of the state and informs the listeners of
+     * what changed.
+     */
+    private void restore(Version version) {
+        Room previousRoom = currentRoom;
+        Contents previousParty = party;
+        int previousHealth = health;
+        PersistentMap<Door, Boolean> previousLocks = locks;
+        currentRoom = version.currentRoom;
+        directionHistory = version.directionHistory;
+        party = version.objects.party;
+        contents = version.objects.contents;
+        locks = version.objects.locks;
+        active = version.objects.active;
+        health = version.objects.health;
+        fingerprint = version.fingerprint;
+        turnStart = version;
+        if (locks != previousLocks) {
+            // Doors may have been locked again, which the route map can't repair.
+            routes = routes.copy(this);
+            routesShared = false;
+        }
+
+        if (currentRoom != previousRoom) {
+            for (GameStateListener listener : listeners) {
+                listener.roomChanged(previousRoom, currentRoom);
+            }
+        }
+        if (health != previousHealth) {
+            for (GameStateListener listener : listeners) {
+                listener.healthChanged(player, health);
+            }
+        }
+        if (party != previousParty) {
+            for (InteractiveObject object : previousParty.getObjects()) {
+                if (!containsObject(object)) {
+                    for (GameStateListener listener : listeners) {
+                        listener.partyLeft(object);
+                    }
+                }
+            }
+            for (InteractiveObject object : party.getObjects()) {
+                if (previousParty.getObject(object.getName().toLowerCase()) != object) {
+                    for (GameStateListener listener : listeners) {
+                        listener.partyJoined(object);
+                    }
+                }
+            }
+        }
+        if (locks != previousLocks) {
+            locks.forEach((door, locked) -> {
+                Boolean wasLocked = previousLocks.get(door);
+                if (!locked && (wasLocked != null ? wasLocked : door.isLocked())) {
+                    for (GameStateListener listener : listeners) {
+                        listener.doorUnlocked(door);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return Returns the amount of turns given, 1 if none is given and -1 if it
+     *         isn't a number.
+     */
+    private static int parseAmount(String amountString) {
+        if (amountString == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(amountString);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long location(GameObject object, GameObject container) {
+        return Zobrist.combine(object.getZobristKey(), container.getZobristKey());
+    }
+
+    private long health() {
+        return Zobrist.combine(player.getZobristKey(), Zobrist.HEALTH + health);
+    }
+
+    /**
+     * The values of a state at some point of the game. They are immutable, so
+     * keeping them only costs what changed after that point.
+     */
+    private static final class Version {
+        private final Room currentRoom;
+        private final DirectionHistory directionHistory;
+        private final ObjectValues objects;
+        private final long fingerprint;
+
+        private Version(GameState state) {
+            this(state, null);
+        }
+
+        /**
+         * @param previous A version the values about the objects are shared with
+         *                 if they didn't change since, or null.
+         */
+        private Version(GameState state, Version previous) {
+            currentRoom = state.currentRoom;
+            directionHistory = state.directionHistory;
+            objects = previous != null && !previous.objects.differFrom(state) ? previous.objects
+                    : new ObjectValues(state);
+            fingerprint = state.fingerprint;
+        }
+
+        /**
+         * @return Returns true if the given state holds other values than this
+         *         version.
+         */
+        private boolean differsFrom(GameState state) {
+            return currentRoom != state.currentRoom || directionHistory != state.directionHistory
+                    || objects.differFrom(state);
+        }
+    }
+
+    /**
+     * The values of a version about the objects of the world, which moving
+     * around doesn't change.
+     */
+    private static final class ObjectValues {
+        private final Contents party;
+        private final PersistentMap<Container, Contents> contents;
+        private final PersistentMap<Door, Boolean> locks;
+        private final PersistentMap<InteractiveObject, Boolean> active;
+        private final int health;
+
+        private ObjectValues(GameState state) {
+            party = state.party;
+            contents = state.contents;
+            locks = state.locks;
+            active = state.active;
+            health = state.health;
+        }
+
+        /**
+         * @return Returns true if the given state holds other values.
+         */
+        private boolean differFrom(GameState state) {
+            return party != state.party || contents != state.contents || locks != state.locks
+                    || active != state.active || health != state.health;
+        }
     }
 }
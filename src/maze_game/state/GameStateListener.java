@@ -0,0 +1,60 @@
+package maze_game.state;
+
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.Player;
+import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.InteractiveObject;
+
+/**
+ * Listener that is informed by the GameState whenever the state changes in a
+ * way that can end the game. This lets conditions keep track of the state as it
+ * changes instead of inspecting the whole state after every command.
+ * 
+ * All methods do nothing by default, such that a listener only implements the
+ * changes it is interested in.
+ * 
+ * @author Alexander Mertens
+ */
+public interface GameStateListener {
+    /**
+     * Called after an object has joined the party.
+     * 
+     * @param object The object that joined the party.
+     */
+    default void partyJoined(InteractiveObject object) {
+    }
+
+    /**
+     * Called after an object has left the party.
+     * 
+     * @param object The object that left the party.
+     */
+    default void partyLeft(InteractiveObject object) {
+    }
+
+    /**
+     * Called after the player has moved to another room.
+     * 
+     * @param previous The room the player left.
+     * @param current  The room the player entered.
+     */
+    default void roomChanged(Room previous, Room current) {
+    }
+
+    /**
+     * Called after the health of the player has changed.
+     * 
+     * @param player The player whose health changed.
+     * @param health The new health of the player.
+     */
+    default void healthChanged(Player player, int health) {
+    }
+
+    /**
+     * Called after a door has been unlocked.
+     * 
+     * @param door The door that was unlocked.
+     */
+    default void doorUnlocked(Door door) {
+    }
+}
@@ -0,0 +1,317 @@
+package maze_game.state;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.Room;
+
+/**
+ * The map of the maze as far as the player knows it: the rooms the player has
+ * visited and the doors between them. It finds shortest routes between
+ * visited rooms through doors that aren't locked.
+ *
+ * Routes from a room are found with a breadth first search, whose tree is kept
+ * for the rooms routes were last asked from. The map only ever grows: rooms
+ * get visited and doors get unlocked, but no door is ever locked again. So
+ * when a door becomes passable, the kept trees are repaired from the room the
+ * door leads to instead of being searched again.
+ *
+ * A map may be shared by versions of a game that were forked from each other.
+ * Such a map doesn't change anymore, every version copies it before it adds a
+ * room or unlocks a door (see GameState).
+ *
+ * @author Alexander Mertens
+ */
+class RouteMap {
+    private static final Direction[] DIRECTIONS = { Direction.NORTH, Direction.WEST, Direction.EAST,
+            Direction.SOUTH };
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    // Amount of search trees that are kept. Routes are mostly asked from the room
+    // the player is in, every tree holds two arrays as long as the map.
+    private static final int CACHED_TREES = 4;
+    // Amount of rooms the collections are made for at first. Every game has a
+    // map, most of them never visit many rooms.
+    private static final int INITIAL_ROOMS = 4;
+
+    // Visited rooms, the index of a room is its id.
+    private final List<Room> rooms;
+    private final Map<Room, Integer> ids;
+    private final Map<String, Room> roomsByName;
+    // Known doors leading out of every visited room to other visited rooms.
+    private final List<List<Edge>> edges;
+    // Doors of visited rooms that lead to rooms that haven't been visited yet.
+    private final Map<Room, List<Edge>> unvisitedEdges;
+    // Known doors that are locked.
+    private final Map<Door, Edge> lockedEdges;
+    // Search trees by the id of the room they start from, least recently used
+    // first. Null until the first route is asked for.
+    private LinkedHashMap<Integer, Tree> trees;
+
+    /**
+     * Creates a map that only knows the given room.
+     *
+     * @param start The room the player starts in.
+     * @param state The state that tells which doors are locked.
+     */
+    RouteMap(Room start, GameState state) {
+        this();
+        visit(start, state);
+    }
+
+    private RouteMap() {
+        rooms = new ArrayList<>(INITIAL_ROOMS);
+        ids = new IdentityHashMap<>(INITIAL_ROOMS);
+        roomsByName = new HashMap<>(INITIAL_ROOMS);
+        edges = new ArrayList<>(INITIAL_ROOMS);
+        unvisitedEdges = new IdentityHashMap<>(INITIAL_ROOMS);
+        lockedEdges = new IdentityHashMap<>(1);
+    }
+
+    /**
+     * Copies the map, without the kept search trees.
+     *
+     * @param state The state the copy belongs to, which tells which doors are
+     *              locked.
+     * @return Returns a map that knows the same rooms and doors.
+     */
+    RouteMap copy(GameState state) {
+        RouteMap copy = new RouteMap();
+        for (Room room : rooms) {
+            copy.visit(room, state);
+        }
+        return copy;
+    }
+
+    /**
+     * Makes the given door passable if it's known.
+     *
+     * @param door The door that was unlocked.
+     */
+    void doorUnlocked(Door door) {
+        Edge edge = lockedEdges.remove(door);
+        if (edge != null) {
+            edge.locked = false;
+            if (edge.to >= 0) {
+                connect(edge);
+            }
+        }
+    }
+
+    /**
+     * @param name Name of a room in lower case.
+     * @return Returns the visited room with the given name, or null if the player
+     *         hasn't visited such a room.
+     */
+    Room findRoom(String name) {
+        return roomsByName.get(name);
+    }
+
+    /**
+     * Finds a shortest route between two visited rooms through doors that aren't
+     * locked.
+     *
+     * @param from The room the route starts in.
+     * @param to   The room the route leads to.
+     * @return Returns the directions to go in, or null if there's no known route.
+     */
+    List<Direction> findRoute(Room from, Room to) {
+        Integer source = ids.get(from);
+        Integer target = ids.get(to);
+        if (source == null || target == null) {
+            return null;
+        }
+        if (trees == null) {
+            trees = new LinkedHashMap<>(CACHED_TREES, 0.75f, true);
+        }
+        Tree tree = trees.get(source);
+        if (tree == null) {
+            tree = new Tree(source);
+            trees.put(source, tree);
+            if (trees.size() > CACHED_TREES) {
+                trees.remove(trees.keySet().iterator().next());
+            }
+        }
+        if (tree.distance(target) == UNREACHABLE) {
+            return null;
+        }
+        LinkedList<Direction> route = new LinkedList<>();
+        for (int room = target; room != source; room = tree.parentEdge[room].from) {
+            route.addFirst(tree.parentEdge[room].direction);
+        }
+        return route;
+    }
+
+    /**
+     * @return Returns the visited rooms in the order they were first visited.
+     */
+    List<Room> getRooms() {
+        return Collections.unmodifiableList(rooms);
+    }
+
+    /**
+     * @param room A room.
+     * @return Returns true if the player has visited the given room.
+     */
+    boolean contains(Room room) {
+        return ids.containsKey(room);
+    }
+
+    /**
+     * Adds the given room to the map if it hasn't been visited yet.
+     *
+     * @param room  The room the player has visited.
+     * @param state The state that tells which doors are locked.
+     */
+    void visit(Room room, GameState state) {
+        if (ids.containsKey(room)) {
+            return;
+        }
+        int id = rooms.size();
+        rooms.add(room);
+        ids.put(room, id);
+        roomsByName.putIfAbsent(room.getName().toLowerCase(), room);
+        edges.add(new ArrayList<>(4));
+
+        for (Direction direction : DIRECTIONS) {
+            Door door = room.getExit(direction);
+            Room destination = door == null ? null : door.getDestination();
+            if (destination == null) {
+                continue;
+            }
+            Edge edge = new Edge(id, direction, door);
+            edge.locked = state.isLocked(door);
+            if (edge.locked) {
+                lockedEdges.put(door, edge);
+            }
+            Integer to = ids.get(destination);
+            if (to != null) {
+                edge.to = to;
+                addEdge(edge);
+            } else {
+                unvisitedEdges.computeIfAbsent(destination, r -> new ArrayList<>(2)).add(edge);
+            }
+        }
+        List<Edge> incoming = unvisitedEdges.remove(room);
+        if (incoming != null) {
+            for (Edge edge : incoming) {
+                edge.to = id;
+                addEdge(edge);
+            }
+        }
+    }
+
+    private void addEdge(Edge edge) {
+        edges.get(edge.from).add(edge);
+        if (!edge.locked) {
+            connect(edge);
+        }
+    }
+
+    /**
+     * Makes an edge between visited rooms passable and repairs the kept trees.
+     */
+    private void connect(Edge edge) {
+        edge.passable = true;
+        if (trees == null) {
+            return;
+        }
+        for (Tree tree : trees.values()) {
+            tree.relax(edge);
+        }
+    }
+
+    /**
+     * A known door between two rooms.
+     */
+    private static class Edge {
+        private final int from;
+        private final Direction direction;
+        private final Door door;
+        // Id of the room the door leads to, -1 while it hasn't been visited.
+        private int to;
+        private boolean locked;
+        private boolean passable;
+
+        private Edge(int from, Direction direction, Door door) {
+            this.from = from;
+            this.direction = direction;
+            this.door = door;
+            this.to = -1;
+        }
+    }
+
+    /**
+     * Breadth first search tree of shortest routes from a single room.
+     */
+    private class Tree {
+        private int[] distance;
+        // The last door on the shortest route to every room.
+        private Edge[] parentEdge;
+
+        private Tree(int source) {
+            distance = new int[rooms.size()];
+            parentEdge = new Edge[rooms.size()];
+            Arrays.fill(distance, UNREACHABLE);
+            distance[source] = 0;
+            propagate(source);
+        }
+
+        private int distance(int room) {
+            grow();
+            return distance[room];
+        }
+
+        /**
+         * Shortens the routes that can use the given edge.
+         */
+        private void relax(Edge edge) {
+            grow();
+            if (distance[edge.from] != UNREACHABLE && distance[edge.from] + 1 < distance[edge.to]) {
+                distance[edge.to] = distance[edge.from] + 1;
+                parentEdge[edge.to] = edge;
+                propagate(edge.to);
+            }
+        }
+
+        /**
+         * Shortens the routes through the given room, whose distance just dropped.
+         */
+        private void propagate(int start) {
+            grow();
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int room = queue.poll();
+                for (Edge edge : edges.get(room)) {
+                    if (edge.passable && distance[room] + 1 < distance[edge.to]) {
+                        distance[edge.to] = distance[room] + 1;
+                        parentEdge[edge.to] = edge;
+                        queue.add(edge.to);
+                    }
+                }
+            }
+        }
+
+        // Rooms visited after the tree was built are unreachable until an edge
+        // to them is relaxed.
+        private void grow() {
+            if (distance.length < rooms.size()) {
+                int oldLength = distance.length;
+                int length = Math.max(rooms.size(), 2 * oldLength);
+                distance = Arrays.copyOf(distance, length);
+                parentEdge = Arrays.copyOf(parentEdge, length);
+                Arrays.fill(distance, oldLength, length, UNREACHABLE);
+            }
+        }
+    }
+}
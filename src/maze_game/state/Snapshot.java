@@ -0,0 +1,622 @@
+package maze_game.state;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.GameObject;
+import maze_game.gameobjects.Item;
+import maze_game.gameobjects.Player;
+import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.InteractiveObject;
+import maze_game.persistence.VarInts;
+import maze_game.world.World;
+
+/**
+ * Saves the state of a game in a compact binary format and restores it.
+ *
+ * A snapshot doesn't hold any names or descriptions, only the places of the
+ * objects of the world (see GameObject.getPlace), and only of what changed
+ * since the game started, so writing or reading a snapshot never goes through
+ * all rooms of the world. A snapshot can only be restored into a new game of a
+ * world built the same way.
+ *
+ * Every number is written as a variable length integer (see VarInts):
+ *
+ * <pre>
+ * magic "MZSN", version, turn, room count,
+ * current room, health, hints asked,
+ * history size, direction ordinal per step,
+ * visited room count, room per visited room,
+ * changes,
+ * undo count, per turn to undo: room, health, history, changes,
+ * redo count, per turn to redo: room, health, history, changes
+ * </pre>
+ *
+ * The changes are facts about single objects that differ from how the game
+ * started, ordered by a number made of the place of the object and the kind of
+ * fact:
+ *
+ * <pre>
+ * LOCK: whether a door is locked,
+ * LOCATION: the room an item or interactive object started in and its location,
+ * ACTIVE: that an interactive object is active
+ * </pre>
+ *
+ * The location of an object is 0 if it's used up, 1 if the player holds it, 2
+ * if it's in the party and 3 plus the place of its room otherwise. The changes
+ * are written as the count of facts that changed and per fact the amount of
+ * numbers of facts skipped and its values, the first one plus 1. A 0 instead
+ * of the values means the fact is as it was when the game started again.
+ *
+ * The current situation is written as its changes from the start of the game.
+ * The states the turns can be undone to, latest first, and the states they can
+ * be redone to, latest undone first, are written as the changes from the state
+ * before them in the snapshot, the first one from the current state, and their
+ * history as the amount of directions kept from the history before, the count
+ * of new directions and the new directions.
+ *
+ * @author Alexander Mertens
+ */
+public final class Snapshot {
+    // The version written, a snapshot of another version isn't read.
+    public static final int VERSION = 3;
+    private static final int MAGIC = 'M' << 24 | 'Z' << 16 | 'S' << 8 | 'N';
+    private static final Direction[] DIRECTIONS = { Direction.NORTH, Direction.WEST, Direction.EAST,
+            Direction.SOUTH };
+    // Kinds of facts, the lowest bits of the number of a fact.
+    private static final int LOCK = 0;
+    private static final int LOCATION = 1;
+    private static final int ACTIVE = 2;
+    private static final int KIND_BITS = 2;
+    // Locations of objects.
+    private static final long GONE = 0;
+    private static final long HELD = 1;
+    private static final long IN_PARTY = 2;
+    private static final long IN_ROOM = 3;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the given state.
+     *
+     * @param state The state to be saved.
+     * @param world The world the state is played in.
+     * @param turn  The amount of commands played so far.
+     * @return Returns a buffer holding the snapshot, ready to be read.
+     */
+    public static ByteBuffer write(GameState state, World world, int turn) {
+        Situation current = situation(state);
+        List<Situation> undo = new ArrayList<>();
+        for (GameState undoState : state.getUndoStates()) {
+            undo.add(situation(undoState));
+        }
+        List<Situation> redo = new ArrayList<>();
+        for (GameState redoState : state.getRedoStates()) {
+            redo.add(situation(redoState));
+        }
+        List<Direction> history = current.history;
+        List<Room> visited = state.getVisitedRooms();
+
+        int size = 4 + VarInts.MAX_INT_SIZE * (8 + history.size()) + VarInts.MAX_LONG_SIZE * (1 + visited.size())
+                + factsSize(Map.of(), current.facts) + changesSize(current, undo) + changesSize(current, redo);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC);
+        VarInts.writeInt(buffer, VERSION);
+        VarInts.writeInt(buffer, turn);
+        VarInts.writeInt(buffer, world.getRooms().size());
+        VarInts.writeLong(buffer, current.currentRoom.getPlace());
+        VarInts.writeInt(buffer, current.health);
+        VarInts.writeInt(buffer, state.getHintsAsked());
+        VarInts.writeInt(buffer, history.size());
+        for (Direction direction : history) {
+            VarInts.writeInt(buffer, direction.ordinal());
+        }
+        VarInts.writeInt(buffer, visited.size());
+        for (Room room : visited) {
+            VarInts.writeLong(buffer, room.getPlace());
+        }
+        writeFacts(buffer, Map.of(), current.facts);
+        writeChanges(buffer, current, undo);
+        writeChanges(buffer, current, redo);
+        return buffer.flip();
+    }
+
+    /**
+     * Restores a snapshot into the given state, which must belong to a new game
+     * of a world built the same way as the world of the snapshot. The whole
+     * snapshot is read and checked before the state is changed, the state is
+     * left as it was if the snapshot is damaged.
+     *
+     * @param state  The state of a game that hasn't changed yet.
+     * @param world  The world of the state.
+     * @param buffer Buffer holding the snapshot at its position.
+     * @return Returns the amount of commands that were played when the snapshot
+     *         was written.
+     * @throws IOException If the buffer doesn't hold a snapshot of such a world.
+     */
+    public static int read(GameState state, World world, ByteBuffer buffer) throws IOException {
+        if (state.getFingerprint() != 0 || !state.getDirectionHistory().isEmpty()) {
+            throw new IllegalStateException("A snapshot can only be restored into a new game");
+        }
+        Decoded snapshot;
+        try {
+            snapshot = decode(world, buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("The snapshot is damaged", e);
+        }
+        apply(state, snapshot);
+        return snapshot.turn;
+    }
+
+    /**
+     * Writes a snapshot of the given state to a file. The snapshot is written to
+     * a temporary file first, which replaces the file once it's complete, so the
+     * file always holds a whole snapshot.
+     *
+     * @param state The state to be saved.
+     * @param world The world the state is played in.
+     * @param turn  The amount of commands played so far.
+     * @param file  The file the snapshot is written to.
+     * @throws IOException If the file can't be written.
+     */
+    public static void save(GameState state, World world, int turn, Path file) throws IOException {
+        ByteBuffer buffer = write(state, world, turn);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the snapshot in the given file into the given state, see read.
+     * The file is mapped into memory instead of being copied.
+     *
+     * @param state The state of a game that hasn't changed yet.
+     * @param world The world of the state.
+     * @param file  The file holding the snapshot.
+     * @return Returns the amount of commands that were played when the snapshot
+     *         was written.
+     * @throws IOException If the file can't be read or holds no such snapshot.
+     */
+    public static int load(GameState state, World world, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(state, world, buffer);
+        }
+    }
+
+    /**
+     * Reads and checks a whole snapshot without changing anything, so a damaged
+     * snapshot never leaves a half restored game behind.
+     */
+    private static Decoded decode(World world, ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot");
+        }
+        int version = VarInts.readInt(buffer);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        Decoded snapshot = new Decoded();
+        snapshot.world = world;
+        snapshot.turn = readBelow(buffer, Integer.MAX_VALUE);
+        if (VarInts.readInt(buffer) != world.getRooms().size()) {
+            throw new IOException("The snapshot belongs to another world");
+        }
+        Situation current = new Situation();
+        snapshot.current = current;
+        current.currentRoom = readRoom(buffer, world);
+        current.health = readBelow(buffer, Player.MAX_HEALTH + 1);
+        snapshot.hints = readBelow(buffer, Integer.MAX_VALUE);
+        current.history = new ArrayList<>();
+        for (int i = readBelow(buffer, buffer.remaining() + 1); i > 0; i--) {
+            current.history.add(DIRECTIONS[readBelow(buffer, DIRECTIONS.length)]);
+        }
+        for (int i = readBelow(buffer, buffer.remaining() + 1); i > 0; i--) {
+            snapshot.visited.add(readRoom(buffer, world));
+        }
+        current.facts = readFacts(buffer, new TreeMap<>());
+        check(current, world);
+        readChanges(buffer, current, snapshot.undo, world);
+        readChanges(buffer, current, snapshot.redo, world);
+        if (buffer.hasRemaining()) {
+            throw new IOException("The snapshot has trailing bytes");
+        }
+        return snapshot;
+    }
+
+    /**
+     * Checks that the facts of a situation that has been read are about objects
+     * of the world and can be restored.
+     */
+    private static void check(Situation situation, World world) throws IOException {
+        // Where every object that moved ends up, by kind and name, to find two
+        // objects with the same name in the same place.
+        Set<String> places = new HashSet<>();
+        for (Map.Entry<Long, long[]> fact : situation.facts.entrySet()) {
+            GameObject object = world.getObject(fact.getKey() >>> KIND_BITS);
+            long[] values = fact.getValue();
+            int kind = (int) (fact.getKey() & (1 << KIND_BITS) - 1);
+            if (kind == LOCK) {
+                if (!(object instanceof Door) || values[0] < 0 || values[0] > 1
+                        || values[0] == 1 && !((Door) object).isLocked()) {
+                    throw new IOException("The snapshot locks " + object.getName() + ", which can't be locked");
+                }
+            } else if (kind == ACTIVE) {
+                if (!(object instanceof InteractiveObject) || values[0] != 1) {
+                    throw new IOException(object.getName() + " can't be active");
+                }
+            } else if (kind == LOCATION) {
+                checkLocation(situation, world, object, values, places);
+            } else {
+                throw new IOException("The snapshot is damaged");
+            }
+        }
+    }
+
+    private static void checkLocation(Situation situation, World world, GameObject object, long[] values,
+            Set<String> places) throws IOException {
+        boolean item = object instanceof Item;
+        if (!item && !(object instanceof InteractiveObject)) {
+            throw new IOException(object.getName() + " can't be moved");
+        }
+        String name = object.getName().toLowerCase();
+        GameObject origin = world.getObject(values[0]);
+        if (!(origin instanceof Room) || startingObject((Room) origin, name, item) != object) {
+            throw new IOException(object.getName() + " doesn't start in " + origin.getName());
+        }
+        long location = values[1];
+        if (location < 0) {
+            throw new IOException("The snapshot is damaged");
+        }
+        if (!item && (location == GONE || location == HELD)) {
+            throw new IOException("An interactive object can't be used up or held");
+        }
+        if (location == GONE) {
+            return;
+        }
+        if (!places.add(location + (item ? " item " : " object ") + name)) {
+            throw new IOException("Two objects named " + object.getName() + " share a place");
+        }
+        if (location >= IN_ROOM && location - IN_ROOM != origin.getPlace()) {
+            GameObject room = world.getObject(location - IN_ROOM);
+            if (!(room instanceof Room)) {
+                throw new IOException(object.getName() + " can't be in " + room.getName());
+            }
+            // The object that starts in the room with the same name has to leave it.
+            GameObject staying = startingObject((Room) room, name, item);
+            long[] left = staying == null ? null : situation.facts.get(fact(staying, LOCATION));
+            if (staying != null && (left == null || left[1] == location)) {
+                throw new IOException("Two objects named " + object.getName() + " share a place");
+            }
+        }
+    }
+
+    /**
+     * Reads the situations of the turns to undo or redo, each written as the
+     * changes from the one before it.
+     */
+    private static void readChanges(ByteBuffer buffer, Situation current, List<Situation> situations, World world)
+            throws IOException {
+        Situation before = current;
+        for (int count = readBelow(buffer, buffer.remaining() + 1); count > 0; count--) {
+            Situation situation = new Situation();
+            situation.currentRoom = readRoom(buffer, world);
+            situation.health = readBelow(buffer, Player.MAX_HEALTH + 1);
+            int kept = readBelow(buffer, before.history.size() + 1);
+            situation.history = new ArrayList<>(before.history.subList(0, kept));
+            for (int i = readBelow(buffer, buffer.remaining() + 1); i > 0; i--) {
+                situation.history.add(DIRECTIONS[readBelow(buffer, DIRECTIONS.length)]);
+            }
+            situation.facts = readFacts(buffer, before.facts);
+            check(situation, world);
+            situations.add(situation);
+            before = situation;
+        }
+    }
+
+    /**
+     * Reads the facts that changed from the given facts.
+     */
+    private static TreeMap<Long, long[]> readFacts(ByteBuffer buffer, TreeMap<Long, long[]> before)
+            throws IOException {
+        TreeMap<Long, long[]> facts = new TreeMap<>(before);
+        long fact = -1;
+        for (int count = readBelow(buffer, buffer.remaining() + 1); count > 0; count--) {
+            long skipped = VarInts.readLong(buffer);
+            if (skipped < 0 || skipped > Long.MAX_VALUE - 1 - fact) {
+                throw new IOException("The snapshot is damaged");
+            }
+            fact += skipped + 1;
+            long first = VarInts.readLong(buffer);
+            if (first == 0) {
+                if (facts.remove(fact) == null) {
+                    throw new IOException("The snapshot resets a fact that didn't change");
+                }
+            } else {
+                long[] values = new long[(fact & (1 << KIND_BITS) - 1) == LOCATION ? 2 : 1];
+                values[0] = first - 1;
+                for (int i = 1; i < values.length; i++) {
+                    values[i] = VarInts.readLong(buffer);
+                }
+                facts.put(fact, values);
+            }
+        }
+        return facts;
+    }
+
+    /**
+     * Puts a decoded snapshot into the given state. The turns to undo and redo
+     * are restored into forks of the new game first.
+     */
+    private static void apply(GameState state, Decoded snapshot) {
+        List<GameState> undo = restoreVersions(state, snapshot.undo, snapshot.world);
+        List<GameState> redo = restoreVersions(state, snapshot.redo, snapshot.world);
+        Situation current = snapshot.current;
+        restoreSituation(state, current, snapshot.world);
+        state.restoreRoute(snapshot.visited, current.currentRoom, current.history);
+        state.restoreHints(snapshot.hints);
+        state.restoreFinished(undo, redo);
+    }
+
+    private static List<GameState> restoreVersions(GameState state, List<Situation> situations, World world) {
+        List<GameState> versions = new ArrayList<>(situations.size());
+        for (Situation situation : situations) {
+            GameState version = state.fork();
+            restoreSituation(version, situation, world);
+            version.restorePosition(situation.currentRoom, situation.history);
+            versions.add(version);
+        }
+        return versions;
+    }
+
+    /**
+     * Restores the facts and the health of a situation into the given state of a
+     * new game.
+     */
+    private static void restoreSituation(GameState state, Situation situation, World world) {
+        // Every object that moved leaves the room it started in before any is put
+        // back, so objects with the same name never share a room on the way.
+        for (Map.Entry<Long, long[]> fact : situation.facts.entrySet()) {
+            GameObject object = world.getObject(fact.getKey() >>> KIND_BITS);
+            long[] values = fact.getValue();
+            int kind = (int) (fact.getKey() & (1 << KIND_BITS) - 1);
+            if (kind == LOCK) {
+                state.restoreLock((Door) object, values[0] == 1);
+            } else if (kind == ACTIVE) {
+                state.activate((InteractiveObject) object);
+            } else {
+                state.liftFromOrigin(object, (Room) world.getObject(values[0]));
+            }
+        }
+        for (Map.Entry<Long, long[]> fact : situation.facts.entrySet()) {
+            if ((fact.getKey() & (1 << KIND_BITS) - 1) == LOCATION) {
+                GameObject object = world.getObject(fact.getKey() >>> KIND_BITS);
+                long location = fact.getValue()[1];
+                Room room = location >= IN_ROOM ? (Room) world.getObject(location - IN_ROOM) : null;
+                if (object instanceof Item) {
+                    state.restoreItem((Item) object, location == HELD ? state.getPlayer() : room);
+                } else {
+                    state.restoreObject((InteractiveObject) object, room);
+                }
+            }
+        }
+        state.restoreHealth(situation.health);
+    }
+
+    /**
+     * @return Returns the item or interactive object with the given name the
+     *         given room holds when the game starts, null if there is none.
+     */
+    private static GameObject startingObject(Room room, String name, boolean item) {
+        return item ? room.getContents().getItem(name) : room.getContents().getObject(name);
+    }
+
+    private static long fact(GameObject object, int kind) {
+        return object.getPlace() << KIND_BITS | kind;
+    }
+
+    /**
+     * @return Returns what a snapshot holds of the given state, apart from what
+     *         the player has seen. Only the containers, doors and objects the
+     *         state has changed are looked at.
+     */
+    private static Situation situation(GameState state) {
+        Situation situation = new Situation();
+        situation.currentRoom = state.getCurrentRoom();
+        situation.health = state.getHealth();
+        situation.history = state.getDirectionHistory();
+        TreeMap<Long, long[]> facts = new TreeMap<>();
+        state.getChangedLocks().forEach((door, locked) -> facts.put(fact(door, LOCK), new long[] { locked ? 1 : 0 }));
+        state.getActiveObjects().forEach((object, active) -> facts.put(fact(object, ACTIVE), new long[] { 1 }));
+
+        // Where every object in a container that changed is.
+        Map<GameObject, Long> locations = new IdentityHashMap<>();
+        state.getChangedContents().forEach((container, contents) -> {
+            long location = container instanceof Room ? IN_ROOM + container.getPlace() : HELD;
+            for (Item item : contents.getItems()) {
+                locations.put(item, location);
+            }
+            for (InteractiveObject object : contents.getObjects()) {
+                locations.put(object, location);
+            }
+        });
+        for (InteractiveObject object : state.getParty()) {
+            locations.put(object, IN_PARTY);
+        }
+        // Every object that moved left the room it started in, which changed.
+        state.getChangedContents().forEach((container, contents) -> {
+            if (container instanceof Room) {
+                for (Item item : container.getContents().getItems()) {
+                    if (contents.getItem(item.getName().toLowerCase()) != item) {
+                        facts.put(fact(item, LOCATION),
+                                new long[] { container.getPlace(), locations.getOrDefault(item, GONE) });
+                    }
+                }
+                for (InteractiveObject object : container.getContents().getObjects()) {
+                    if (contents.getObject(object.getName().toLowerCase()) != object) {
+                        facts.put(fact(object, LOCATION),
+                                new long[] { container.getPlace(), locations.getOrDefault(object, GONE) });
+                    }
+                }
+            }
+        });
+        situation.facts = facts;
+        return situation;
+    }
+
+    /**
+     * @return Returns the most bytes the changes of the given situations take.
+     */
+    private static int changesSize(Situation current, List<Situation> situations) {
+        int size = VarInts.MAX_INT_SIZE;
+        Situation before = current;
+        for (Situation situation : situations) {
+            size += VarInts.MAX_LONG_SIZE + VarInts.MAX_INT_SIZE
+                    * (4 + situation.history.size() - keptHistory(before, situation))
+                    + factsSize(before.facts, situation.facts);
+            before = situation;
+        }
+        return size;
+    }
+
+    private static void writeChanges(ByteBuffer buffer, Situation current, List<Situation> situations) {
+        VarInts.writeInt(buffer, situations.size());
+        Situation before = current;
+        for (Situation situation : situations) {
+            VarInts.writeLong(buffer, situation.currentRoom.getPlace());
+            VarInts.writeInt(buffer, situation.health);
+            int kept = keptHistory(before, situation);
+            VarInts.writeInt(buffer, kept);
+            VarInts.writeInt(buffer, situation.history.size() - kept);
+            for (Direction direction : situation.history.subList(kept, situation.history.size())) {
+                VarInts.writeInt(buffer, direction.ordinal());
+            }
+            writeFacts(buffer, before.facts, situation.facts);
+            before = situation;
+        }
+    }
+
+    private static int factsSize(Map<Long, long[]> before, Map<Long, long[]> facts) {
+        return VarInts.MAX_INT_SIZE + 3 * VarInts.MAX_LONG_SIZE * changedFacts(before, facts).size();
+    }
+
+    private static void writeFacts(ByteBuffer buffer, Map<Long, long[]> before, Map<Long, long[]> facts) {
+        List<Long> changed = changedFacts(before, facts);
+        VarInts.writeInt(buffer, changed.size());
+        long last = -1;
+        for (long fact : changed) {
+            VarInts.writeLong(buffer, fact - last - 1);
+            long[] values = facts.get(fact);
+            if (values == null) {
+                VarInts.writeLong(buffer, 0);
+            } else {
+                VarInts.writeLong(buffer, values[0] + 1);
+                for (int i = 1; i < values.length; i++) {
+                    VarInts.writeLong(buffer, values[i]);
+                }
+            }
+            last = fact;
+        }
+    }
+
+    /**
+     * @return Returns the facts whose values differ between the given facts, in
+     *         order.
+     */
+    private static List<Long> changedFacts(Map<Long, long[]> before, Map<Long, long[]> facts) {
+        List<Long> changed = new ArrayList<>();
+        for (Map.Entry<Long, long[]> fact : facts.entrySet()) {
+            if (!Arrays.equals(before.get(fact.getKey()), fact.getValue())) {
+                changed.add(fact.getKey());
+            }
+        }
+        for (Long fact : before.keySet()) {
+            if (!facts.containsKey(fact)) {
+                changed.add(fact);
+            }
+        }
+        Collections.sort(changed);
+        return changed;
+    }
+
+    /**
+     * @return Returns the amount of directions the history of the given situation
+     *         shares with the history of the one before it.
+     */
+    private static int keptHistory(Situation before, Situation situation) {
+        int kept = 0;
+        int end = Math.min(before.history.size(), situation.history.size());
+        while (kept < end && before.history.get(kept) == situation.history.get(kept)) {
+            kept++;
+        }
+        return kept;
+    }
+
+    /**
+     * A snapshot that has been read and checked but not restored yet.
+     */
+    private static final class Decoded {
+        private World world;
+        private int turn;
+        private int hints;
+        private final List<Room> visited = new ArrayList<>();
+        private Situation current;
+        // The situations the turns can be undone to, latest first
+        private final List<Situation> undo = new ArrayList<>();
+        // The situations the turns can be redone to, latest undone first
+        private final List<Situation> redo = new ArrayList<>();
+    }
+
+    /**
+     * What a snapshot holds of one version of the state.
+     */
+    private static final class Situation {
+        private Room currentRoom;
+        private int health;
+        private List<Direction> history;
+        // The values of the facts that differ from the start of the game, by the
+        // number of the fact
+        private TreeMap<Long, long[]> facts;
+    }
+
+    private static Room readRoom(ByteBuffer buffer, World world) throws IOException {
+        GameObject room = world.getObject(VarInts.readLong(buffer));
+        if (!(room instanceof Room)) {
+            throw new IOException("The snapshot is damaged");
+        }
+        return (Room) room;
+    }
+
+    private static int readBelow(ByteBuffer buffer, int bound) throws IOException {
+        int value = VarInts.readInt(buffer);
+        if (value < 0 || value >= bound) {
+            throw new IOException("The snapshot is damaged");
+        }
+        return value;
+    }
+}
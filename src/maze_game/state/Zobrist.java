@@ -0,0 +1,96 @@
+package maze_game.state;
+
+/**
+ * Random 64-bit keys for Zobrist hashing of game situations. Every GameObject
+ * of a world gets a key derived from the seed of the world and the index of the
+ * object in one of the numberings below, so the same world gets the same keys
+ * in every process and however often its objects are created again. The key of
+ * a fact about an object, e.g. the room an item lies in or whether a door is
+ * locked, combines the key of the object with the key of the other object or a
+ * constant for the kind of fact. A situation is hashed by XOR-ing the keys of
+ * all facts that hold.
+ * 
+ * @author Alexander Mertens
+ */
+public final class Zobrist {
+    // Constants for facts that don't involve a second object.
+    static final long PLAYER_AT = 0x6A09E667F3BCC909L;
+    static final long IN_PARTY = 0xBB67AE8584CAA73BL;
+    static final long ACTIVE = 0x3C6EF372FE94F82BL;
+    static final long LOCKED = 0xA54FF53A5F1D36F1L;
+    static final long GONE = 0x510E527FADE682D1L;
+    static final long HEALTH = 0x9B05688C2B3E6C1FL;
+    // The key of the player, who is the same in every game.
+    public static final long PLAYER = 0x1F83D9ABFB41BD6BL;
+
+    // Numberings of the objects of a world: in the order they are created, and
+    // by their place in a grid maze. The index of an object in its numbering is
+    // its place, which identifies it among the objects of its world.
+    public static final int CREATED = 0;
+    public static final int ROOMS = 1;
+    public static final int EXITS = 2;
+    public static final int KEYS = 3;
+    public static final int CHARACTERS = 4;
+    public static final int PUZZLES = 5;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param seed      Seed of the world the object belongs to.
+     * @param numbering The numbering the index belongs to, e.g. ROOMS.
+     * @param index     Index of the object in the numbering.
+     * @return Returns the key of the object. Different indices of the same
+     *         numbering and seed always give different keys.
+     */
+    public static long key(long seed, int numbering, long index) {
+        return mix(combine(seed, numbering) + index * GOLDEN_GAMMA);
+    }
+
+    /**
+     * @param numbering The numbering the index belongs to, e.g. ROOMS.
+     * @param index     Index of the object in the numbering.
+     * @return Returns the place of the object as a single number, small indices
+     *         give small numbers.
+     */
+    public static long place(int numbering, long index) {
+        return index << 3 | numbering;
+    }
+
+    /**
+     * @param place The place of an object, see place.
+     * @return Returns the numbering of the place.
+     */
+    public static int numbering(long place) {
+        return (int) (place & 7);
+    }
+
+    /**
+     * @param place The place of an object, see place.
+     * @return Returns the index of the object in its numbering.
+     */
+    public static long index(long place) {
+        return place >>> 3;
+    }
+
+    /**
+     * Combines two keys into the key of a fact about both.
+     * 
+     * @param key   Key of an object.
+     * @param other Key of another object or a constant for the kind of fact.
+     * @return Returns the combined key.
+     */
+    static long combine(long key, long other) {
+        return mix(key * GOLDEN_GAMMA + other);
+    }
+
+    // The finalizer of SplitMix64, a bijection that spreads every input bit over
+    // the whole output.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
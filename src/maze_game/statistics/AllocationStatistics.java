@@ -0,0 +1,268 @@
+package maze_game.statistics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import maze_game.input.CommandWord;
+
+/**
+ * Counts the bytes allocated by executing commands, per command word and per
+ * room the command was executed in, and the bytes allocated by rendering the
+ * description of every room. Rendering usually happens while a command is
+ * executed, so its bytes are part of the bytes of that command as well.
+ *
+ * Bytes are measured with the allocation counter the JVM keeps per thread
+ * (com.sun.management.ThreadMXBean). Reading it costs more than most
+ * commands, so counting is off unless the system property
+ * maze_game.statistics.allocation is true or setEnabled turns it on.
+ *
+ * A paged world has far more rooms than a report can list, so only a limited
+ * amount of rooms is kept per table. Once a table is full, the half of its
+ * rooms that allocated the fewest bytes is dropped to make room for new ones.
+ *
+ * @author Alexander Mertens
+ */
+public final class AllocationStatistics {
+    // Allocations of every game, recorded by the commands and rooms themselves.
+    private static final AllocationStatistics GLOBAL = new AllocationStatistics(
+            Boolean.getBoolean("maze_game.statistics.allocation"));
+    // Rooms kept per table unless given otherwise.
+    private static final int MAX_ROOMS = 1024;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private volatile boolean enabled;
+    // Bytes and commands per command word, indexed by ordinal.
+    private final Totals[] commands;
+    // Bytes and commands per name of the room the player was in.
+    private final RoomTable rooms;
+    // Bytes and renders of the description per name of the room.
+    private final RoomTable renders;
+
+    /**
+     * @param enabled True if allocations are counted from the start.
+     */
+    public AllocationStatistics(boolean enabled) {
+        this(enabled, MAX_ROOMS);
+    }
+
+    /**
+     * @param enabled  True if allocations are counted from the start.
+     * @param maxRooms The amount of rooms kept per table, at least 2.
+     */
+    public AllocationStatistics(boolean enabled, int maxRooms) {
+        if (maxRooms < 2) {
+            throw new IllegalArgumentException("At least 2 rooms must be kept, not " + maxRooms);
+        }
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        commands = new Totals[CommandWord.values().length];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = new Totals();
+        }
+        rooms = new RoomTable(maxRooms);
+        renders = new RoomTable(maxRooms);
+        setEnabled(enabled);
+    }
+
+    /**
+     * @return Returns the allocation statistics of all games in this process.
+     */
+    public static AllocationStatistics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @return Returns true if allocations are counted.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns counting allocations on or off. Counting stays off if the JVM
+     * doesn't count allocations per thread.
+     *
+     * @param enabled True to count allocations.
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            this.enabled = true;
+        } else {
+            this.enabled = false;
+        }
+    }
+
+    /**
+     * Marks the start of something whose allocations are counted.
+     *
+     * @return Returns the bytes allocated by the current thread so far, or -1 if
+     *         allocations aren't counted.
+     */
+    public long start() {
+        return enabled ? threads.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Records the bytes a command allocated since start was called.
+     *
+     * @param commandWord The command word of the command.
+     * @param room        Name of the room the command was executed in.
+     * @param start       What start returned before the command.
+     */
+    public void recordCommand(CommandWord commandWord, String room, long start) {
+        if (start >= 0) {
+            long bytes = threads.getCurrentThreadAllocatedBytes() - start;
+            commands[commandWord.ordinal()].add(bytes);
+            rooms.get(room).add(bytes);
+        }
+    }
+
+    /**
+     * Records the bytes rendering the description of a room allocated since
+     * start was called.
+     *
+     * @param room  Name of the room.
+     * @param start What start returned before rendering.
+     */
+    public void recordRender(String room, long start) {
+        if (start >= 0) {
+            renders.get(room).add(threads.getCurrentThreadAllocatedBytes() - start);
+        }
+    }
+
+    /**
+     * @param commandWord A command word.
+     * @return Returns the bytes allocated by the commands with the given word.
+     */
+    public long getCommandBytes(CommandWord commandWord) {
+        return commands[commandWord.ordinal()].bytes.sum();
+    }
+
+    /**
+     * @param room Name of a room.
+     * @return Returns the bytes allocated by rendering the description of the
+     *         given room, 0 if the room isn't kept.
+     */
+    public long getRenderBytes(String room) {
+        Totals totals = renders.totals.get(room);
+        return totals == null ? 0 : totals.bytes.sum();
+    }
+
+    /**
+     * @return Returns the amount of rooms dropped from the tables of rooms
+     *         because they allocated the fewest bytes.
+     */
+    public long getDroppedRoomCount() {
+        return rooms.dropped.get() + renders.dropped.get();
+    }
+
+    /**
+     * Formats the commands, the rooms commands were executed in and the rooms
+     * whose descriptions were rendered that allocated the most bytes in total,
+     * the top offenders first.
+     *
+     * @param top The amount of offenders listed in each table.
+     * @return Returns the report as text.
+     */
+    public String report(int top) {
+        StringBuilder text = new StringBuilder();
+        if (!enabled) {
+            text.append("allocation accounting is off, it's turned on by -Dmaze_game.statistics.allocation=true\n");
+        }
+        Map<String, Totals> byWord = new LinkedHashMap<>();
+        for (CommandWord commandWord : CommandWord.values()) {
+            byWord.put(commandWord.toString(), commands[commandWord.ordinal()]);
+        }
+        appendTable(text, "command", byWord, top, 0);
+        appendTable(text, "room of command", rooms.totals, top, rooms.dropped.get());
+        appendTable(text, "room description", renders.totals, top, renders.dropped.get());
+        return text.toString();
+    }
+
+    private static void appendTable(StringBuilder text, String what, Map<String, Totals> totals, int top,
+            long dropped) {
+        List<Map.Entry<String, long[]>> rows = new ArrayList<>();
+        totals.forEach((name, total) -> {
+            long count = total.count.sum();
+            if (count > 0) {
+                rows.add(Map.entry(name, new long[] { total.bytes.sum(), count }));
+            }
+        });
+        rows.sort((first, second) -> Long.compare(second.getValue()[0], first.getValue()[0]));
+        text.append(String.format("%-24s %10s %14s %12s%n", what, "count", "bytes", "bytes/op"));
+        for (Map.Entry<String, long[]> row : rows.subList(0, Math.min(top, rows.size()))) {
+            long[] values = row.getValue();
+            text.append(String.format("%-24s %10d %14d %12.1f%n", row.getKey(), values[1], values[0],
+                    (double) values[0] / values[1]));
+        }
+        if (dropped > 0) {
+            text.append(String.format("(%d rooms that allocated the fewest bytes were dropped)%n", dropped));
+        }
+        text.append('\n');
+    }
+
+    /**
+     * The totals of a limited amount of rooms by name.
+     */
+    private static final class RoomTable {
+        private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+        private final int maxRooms;
+        // Amount of rooms dropped so far.
+        private final AtomicLong dropped = new AtomicLong();
+
+        private RoomTable(int maxRooms) {
+            this.maxRooms = maxRooms;
+        }
+
+        /**
+         * Returns the totals of the given room, adding them if the room isn't
+         * kept yet. A full table drops the half of its rooms with the fewest bytes
+         * first, so a room is sorted out about every maxRooms / 2 new rooms.
+         */
+        private Totals get(String room) {
+            Totals found = totals.get(room);
+            if (found == null) {
+                if (totals.size() >= maxRooms) {
+                    dropFewestBytes();
+                }
+                found = totals.computeIfAbsent(room, name -> new Totals());
+            }
+            return found;
+        }
+
+        private synchronized void dropFewestBytes() {
+            if (totals.size() < maxRooms) {
+                // Another thread has just dropped them.
+                return;
+            }
+            // The sums are read once, as other threads keep adding to them.
+            List<Map.Entry<String, Long>> rows = new ArrayList<>(totals.size());
+            totals.forEach((name, total) -> rows.add(Map.entry(name, total.bytes.sum())));
+            rows.sort(Map.Entry.comparingByValue());
+            int drop = rows.size() - maxRooms / 2;
+            for (Map.Entry<String, Long> row : rows.subList(0, drop)) {
+                totals.remove(row.getKey());
+            }
+            dropped.addAndGet(drop);
+        }
+    }
+
+    /**
+     * Bytes allocated and the amount of times they were recorded.
+     */
+    private static final class Totals {
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        private void add(long allocated) {
+            bytes.add(allocated);
+            count.increment();
+        }
+    }
+}
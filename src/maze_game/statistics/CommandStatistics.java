@@ -0,0 +1,77 @@
+package maze_game.statistics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import maze_game.flag.Flag;
+import maze_game.input.CommandWord;
+
+/**
+ * Statistics of the commands executed by all games in this process: a
+ * latency histogram per command word and how often every flag was the
+ * outcome of a command.
+ *
+ * Flags are counted with a LongAdder each, which spreads the counts of busy
+ * flags over several cells when many sessions count at once, so sessions
+ * don't wait for each other.
+ *
+ * @author Alexander Mertens
+ */
+public final class CommandStatistics {
+    // Statistics of every game, recorded by the commands themselves.
+    private static final CommandStatistics GLOBAL = new CommandStatistics();
+
+    // Latencies per command word, indexed by ordinal.
+    private final LatencyHistogram[] latencies;
+    // Counts per flag, indexed by ordinal.
+    private final LongAdder[] flags;
+
+    public CommandStatistics() {
+        latencies = new LatencyHistogram[CommandWord.values().length];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        flags = new LongAdder[Flag.values().length];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return Returns the statistics of all games in this process.
+     */
+    public static CommandStatistics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param commandWord The command word of the executed command.
+     * @param nanos       How long executing the command took, in nanoseconds.
+     */
+    public void recordLatency(CommandWord commandWord, long nanos) {
+        latencies[commandWord.ordinal()].record(nanos);
+    }
+
+    /**
+     * @param flag The outcome of a command.
+     */
+    public void count(Flag flag) {
+        flags[flag.ordinal()].increment();
+    }
+
+    /**
+     * @return Returns the statistics recorded until now.
+     */
+    public StatisticsSnapshot snapshot() {
+        Map<CommandWord, LatencySnapshot> latencySnapshots = new EnumMap<>(CommandWord.class);
+        for (CommandWord commandWord : CommandWord.values()) {
+            latencySnapshots.put(commandWord, latencies[commandWord.ordinal()].snapshot());
+        }
+        Map<Flag, Long> flagCounts = new EnumMap<>(Flag.class);
+        for (Flag flag : Flag.values()) {
+            flagCounts.put(flag, flags[flag.ordinal()].sum());
+        }
+        return new StatisticsSnapshot(System.currentTimeMillis(), latencySnapshots, flagCounts);
+    }
+}
@@ -0,0 +1,76 @@
+package maze_game.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in nanoseconds in buckets whose width grows with the value,
+ * like an HdrHistogram: values below 128 get a bucket of their own, every
+ * higher power of two is split into 64 buckets. Every value is thus known up to
+ * 1/64 of it, while a histogram reaching an hour takes only a few thousand
+ * buckets. Longer latencies are counted as an hour.
+ *
+ * Many threads can record latencies at once without a lock. A snapshot taken
+ * while latencies are recorded might miss some of them.
+ *
+ * @author Alexander Mertens
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // The highest latency that is counted as itself, a bit over an hour.
+    static final long HIGHEST_VALUE = (1L << 42) - 1;
+    static final int BUCKETS = index(HIGHEST_VALUE) + 1;
+
+    private final AtomicLongArray counts;
+    // Sum of all recorded latencies.
+    private final LongAdder total;
+    private final LongAccumulator max;
+
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        total = new LongAdder();
+        max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * @param nanos The latency to be recorded, in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), HIGHEST_VALUE);
+        counts.incrementAndGet(index(value));
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return Returns the latencies recorded until now.
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new LatencySnapshot(copy, total.sum(), max.get());
+    }
+
+    /**
+     * @param value A latency between 0 and HIGHEST_VALUE.
+     * @return Returns the bucket the given latency is counted in.
+     */
+    static int index(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * @param index A bucket of the histogram.
+     * @return Returns the highest latency counted in the given bucket.
+     */
+    static long highestValue(int index) {
+        int shift = Math.max(0, index / SUB_BUCKETS - 1);
+        long subBucket = index - shift * SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,76 @@
+package maze_game.statistics;
+
+/**
+ * The latencies a LatencyHistogram had recorded at some point. Percentiles
+ * are the highest latency of the bucket they fall in, but never more than the
+ * highest latency that was recorded.
+ *
+ * @author Alexander Mertens
+ */
+public final class LatencySnapshot {
+    // Counts per bucket of the histogram, see LatencyHistogram.
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    LatencySnapshot(long[] counts, long total, long max) {
+        this.counts = counts;
+        long sum = 0;
+        for (long bucketCount : counts) {
+            sum += bucketCount;
+        }
+        this.count = sum;
+        this.total = total;
+        this.max = max;
+    }
+
+    /**
+     * @return Returns the amount of latencies recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Returns the sum of the recorded latencies in nanoseconds.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Returns the highest latency recorded in nanoseconds, 0 if none
+     *         was.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return Returns the mean latency in nanoseconds, 0 if none was recorded.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100, e.g. 99.9.
+     * @return Returns the latency in nanoseconds that the given percentage of the
+     *         recorded latencies doesn't exceed, 0 if none was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValue(i), max);
+            }
+        }
+        return max;
+    }
+}
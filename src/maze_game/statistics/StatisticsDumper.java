@@ -0,0 +1,116 @@
+package maze_game.statistics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a snapshot of command statistics to a file at a fixed interval, on a
+ * daemon thread of its own, followed by the top allocation offenders while
+ * allocations are counted. Every dump replaces the whole file at once, so a
+ * reader never sees half a dump.
+ *
+ * The hosts of the game start a dumper when the system property
+ * maze_game.statistics.file names a file. The interval is 10 seconds unless
+ * maze_game.statistics.interval gives another amount of seconds.
+ *
+ * @author Alexander Mertens
+ */
+public class StatisticsDumper implements Closeable {
+    // Amount of offenders listed in every table of the allocation report.
+    private static final int ALLOCATION_OFFENDERS = 10;
+
+    private final CommandStatistics statistics;
+    private final AllocationStatistics allocations;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+    // Failure of the last dump, null if it succeeded.
+    private volatile IOException failure;
+
+    /**
+     * Creates a dumper that dumps the given statistics every interval.
+     *
+     * @param statistics     The statistics to be dumped.
+     * @param allocations    The allocations to be dumped while they are counted.
+     * @param file           The file the statistics are written to.
+     * @param intervalMillis Milliseconds between two dumps.
+     */
+    public StatisticsDumper(CommandStatistics statistics, AllocationStatistics allocations, Path file,
+            long intervalMillis) {
+        this.statistics = statistics;
+        this.allocations = allocations;
+        this.file = file;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statistics-dumper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::dumpQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts dumping the statistics of all games if the system properties ask
+     * for it.
+     *
+     * @return Returns the dumper, or null if no file was given.
+     */
+    public static StatisticsDumper fromSystemProperties() {
+        String file = System.getProperty("maze_game.statistics.file");
+        if (file == null) {
+            return null;
+        }
+        long seconds = Long.getLong("maze_game.statistics.interval", 10);
+        return new StatisticsDumper(CommandStatistics.global(), AllocationStatistics.global(), Path.of(file),
+                TimeUnit.SECONDS.toMillis(seconds));
+    }
+
+    /**
+     * Writes a snapshot of the statistics to the file now.
+     *
+     * @throws IOException If the file couldn't be written.
+     */
+    public synchronized void dump() throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        String text = statistics.snapshot().format();
+        if (allocations.isEnabled()) {
+            text += "\n" + allocations.report(ALLOCATION_OFFENDERS);
+        }
+        Files.writeString(temporary, text, StandardCharsets.UTF_8);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return Returns the failure of the last periodic dump, or null if it
+     *         succeeded.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Stops dumping and writes the statistics one last time.
+     *
+     * @throws IOException If the last dump couldn't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        dump();
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+            failure = null;
+        } catch (IOException e) {
+            // The next dump tries again, the failure is kept for the host to see.
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package maze_game.statistics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import maze_game.flag.Flag;
+import maze_game.input.CommandWord;
+
+/**
+ * The command statistics at some point in time, see CommandStatistics.
+ *
+ * @author Alexander Mertens
+ */
+public final class StatisticsSnapshot {
+    // Time the snapshot was taken, in milliseconds since the epoch.
+    private final long time;
+    private final Map<CommandWord, LatencySnapshot> latencies;
+    private final Map<Flag, Long> flagCounts;
+
+    StatisticsSnapshot(long time, Map<CommandWord, LatencySnapshot> latencies, Map<Flag, Long> flagCounts) {
+        this.time = time;
+        this.latencies = latencies;
+        this.flagCounts = flagCounts;
+    }
+
+    /**
+     * @return Returns the time the snapshot was taken, in milliseconds since the
+     *         epoch.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @param commandWord A command word.
+     * @return Returns the latencies of the commands with the given command word.
+     */
+    public LatencySnapshot getLatency(CommandWord commandWord) {
+        return latencies.get(commandWord);
+    }
+
+    /**
+     * @param flag A flag.
+     * @return Returns how often the given flag was the outcome of a command.
+     */
+    public long getCount(Flag flag) {
+        return flagCounts.get(flag);
+    }
+
+    /**
+     * Formats the snapshot as text: the commands that were executed, those that
+     * took the most time in total first, and the flags that were counted, the
+     * most frequent first. Latencies are in microseconds.
+     *
+     * @return Returns the snapshot as text.
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append("command statistics at ").append(Instant.ofEpochMilli(time)).append('\n');
+        text.append(String.format("%-10s %10s %10s %10s %10s %10s %10s %12s%n", "command", "count", "mean", "p50",
+                "p99", "p999", "max", "total ms"));
+        List<CommandWord> commandWords = new ArrayList<>();
+        for (CommandWord commandWord : CommandWord.values()) {
+            if (latencies.get(commandWord).getCount() > 0) {
+                commandWords.add(commandWord);
+            }
+        }
+        commandWords.sort(Comparator.comparingLong((CommandWord word) -> latencies.get(word).getTotal()).reversed());
+        for (CommandWord commandWord : commandWords) {
+            LatencySnapshot latency = latencies.get(commandWord);
+            text.append(String.format("%-10s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %12.1f%n", commandWord,
+                    latency.getCount(), latency.getMean() / 1e3, latency.getValueAtPercentile(50) / 1e3,
+                    latency.getValueAtPercentile(99) / 1e3, latency.getValueAtPercentile(99.9) / 1e3,
+                    latency.getMax() / 1e3, latency.getTotal() / 1e6));
+        }
+        text.append(String.format("%n%-20s %10s%n", "flag", "count"));
+        List<Flag> flags = new ArrayList<>();
+        for (Flag flag : Flag.values()) {
+            if (flagCounts.get(flag) > 0) {
+                flags.add(flag);
+            }
+        }
+        flags.sort(Comparator.comparingLong((Flag flag) -> flagCounts.get(flag)).reversed());
+        for (Flag flag : flags) {
+            text.append(String.format("%-20s %10d%n", flag, flagCounts.get(flag)));
+        }
+        return text.toString();
+    }
+}
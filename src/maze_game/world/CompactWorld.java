@@ -0,0 +1,400 @@
+package maze_game.world;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.GameObject;
+import maze_game.gameobjects.Item;
+import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.InteractiveObject;
+import maze_game.state.Zobrist;
+
+/**
+ * A grid maze stored in a few arrays instead of a graph of objects. Rooms are
+ * identified by an int, numbered row by row like the cells of a MazeLayout.
+ * The exits of all rooms are kept in a single int array with four entries per
+ * room, one for every Direction ordinal, holding the room the exit leads to or
+ * NO_ROOM. Whether an exit is locked is kept in a BitSet with the same
+ * indices.
+ *
+ * Room objects are only created when a room is first asked for, most rooms of
+ * a large maze are never visited. The doors of such a room are views on the
+ * arrays: they look up the room they lead to and whether they are locked in
+ * the store. Unlocking a door during play is kept by the GameState, the store
+ * never changes once the maze is built. Objects placed
+ * in a room before it's created are kept aside and added to the room once it
+ * is created. Rooms and their doors get the places and keys of their ids (see
+ * Zobrist), however late they are created.
+ *
+ * @author Alexander Mertens
+ */
+public class CompactWorld {
+    public static final int NO_ROOM = -1;
+    private static final String DOOR_NAME = "door";
+    private static final String DOOR_DESCRIPTION = "A simple wooden door.";
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int width;
+    private final int height;
+    // The room every exit leads to, indexed by 4 * room + direction ordinal.
+    private final int[] exits;
+    // Locked exits, with the same indices as exits.
+    private final BitSet locked;
+    // Index into descriptions for every room.
+    private final byte[] descriptionIds;
+    private final String[] descriptions;
+    // Doors that can be locked, by exit index. Every other door is plain.
+    private final Map<Integer, CompactDoor> lockableDoors;
+    // Objects placed in rooms that haven't been created yet, by room.
+    private final Map<Integer, List<GameObject>> pendingContents;
+    // The room every object was placed in, by the place of the object.
+    private final Map<Long, Integer> objectRooms;
+    // Rooms that have been created, null for the others.
+    private final Room[] rooms;
+    // Seed of the keys of rooms and doors.
+    private final long seed;
+    private Collection<InteractiveObject> requiredObjects;
+
+    /**
+     * Creates a store for the given layout, every opening in the layout becomes an
+     * unlocked exit. All rooms get the first description until told otherwise.
+     *
+     * @param layout       The layout of the maze.
+     * @param descriptions The descriptions rooms can have, at most 128.
+     * @param seed         Seed of the keys of the rooms and doors.
+     */
+    public CompactWorld(MazeLayout layout, String[] descriptions, long seed) {
+        if (descriptions.length == 0 || descriptions.length > Byte.MAX_VALUE + 1) {
+            throw new IllegalArgumentException("Unsupported amount of descriptions " + descriptions.length);
+        }
+        this.width = layout.getWidth();
+        this.height = layout.getHeight();
+        int roomCount = layout.getCellCount();
+        this.exits = new int[4 * roomCount];
+        for (int room = 0; room < roomCount; room++) {
+            for (int direction = 0; direction < 4; direction++) {
+                exits[4 * room + direction] = layout.isOpen(room, direction) ? layout.neighbour(room, direction)
+                        : NO_ROOM;
+            }
+        }
+        this.locked = new BitSet();
+        this.descriptionIds = new byte[roomCount];
+        this.descriptions = descriptions.clone();
+        this.lockableDoors = new HashMap<>();
+        this.pendingContents = new HashMap<>();
+        this.objectRooms = new HashMap<>();
+        this.rooms = new Room[roomCount];
+        this.seed = seed;
+        this.requiredObjects = Collections.emptyList();
+    }
+
+    /**
+     * @return Returns the width of the maze.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Returns the height of the maze.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Returns the amount of rooms.
+     */
+    public int getRoomCount() {
+        return rooms.length;
+    }
+
+    /**
+     * @param room      Id of a room.
+     * @param direction Direction of the exit.
+     * @return Returns the id of the room the exit leads to, or NO_ROOM if the
+     *         room has no exit in that direction.
+     */
+    public int getExit(int room, Direction direction) {
+        return exits[4 * room + direction.ordinal()];
+    }
+
+    /**
+     * Removes the exit of a room in the given direction. Only the exit leading
+     * out of the given room is removed.
+     *
+     * @param room      Id of a room.
+     * @param direction Direction of the exit.
+     */
+    public void removeExit(int room, Direction direction) {
+        checkNotCreated(room);
+        exits[4 * room + direction.ordinal()] = NO_ROOM;
+    }
+
+    /**
+     * @param room      Id of a room.
+     * @param direction Direction of the exit.
+     * @return Returns true if the room has a locked exit in the given direction.
+     */
+    public boolean isLocked(int room, Direction direction) {
+        return locked.get(4 * room + direction.ordinal());
+    }
+
+    /**
+     * Locks an existing exit of a room. The returned door is the door the room
+     * will have in that direction, it can only be unlocked with the given key.
+     *
+     * @param room              Id of a room.
+     * @param direction         Direction of the exit.
+     * @param name              Name of the door.
+     * @param openDescription   Description of the door when it is unlocked.
+     * @param closedDescription Description of the door when it is locked.
+     * @param key               The object that unlocks the door.
+     * @return Returns the locked door.
+     */
+    public Door lockExit(int room, Direction direction, String name, String openDescription,
+            String closedDescription, GameObject key) {
+        checkNotCreated(room);
+        int exit = 4 * room + direction.ordinal();
+        if (exits[exit] == NO_ROOM) {
+            throw new IllegalArgumentException("No exit " + direction + " of room " + room);
+        }
+        CompactDoor door = new CompactDoor(exit, name, openDescription, closedDescription, key);
+        lockableDoors.put(exit, door);
+        locked.set(exit);
+        return door;
+    }
+
+    /**
+     * Sets the description of a room.
+     *
+     * @param room          Id of a room.
+     * @param descriptionId Index of the description given to the constructor.
+     */
+    public void setDescription(int room, int descriptionId) {
+        checkNotCreated(room);
+        if (descriptionId < 0 || descriptionId >= descriptions.length) {
+            throw new IllegalArgumentException("Unknown description " + descriptionId);
+        }
+        descriptionIds[room] = (byte) descriptionId;
+    }
+
+    /**
+     * Adds an item to a room.
+     *
+     * @param room Id of a room.
+     * @param item The item to be added.
+     */
+    public void addItem(int room, Item item) {
+        addObject(room, item);
+    }
+
+    /**
+     * Adds an interactive object to a room.
+     *
+     * @param room   Id of a room.
+     * @param object The object to be added.
+     */
+    public void addInteractive(int room, InteractiveObject object) {
+        addObject(room, object);
+    }
+
+    private void addObject(int room, GameObject object) {
+        objectRooms.put(object.getPlace(), room);
+        if (rooms[room] != null) {
+            addToRoom(rooms[room], object);
+        } else {
+            pendingContents.computeIfAbsent(room, r -> new ArrayList<>(2)).add(object);
+        }
+    }
+
+    private static void addToRoom(Room room, GameObject object) {
+        if (object instanceof Item) {
+            room.addItem((Item) object);
+        } else {
+            room.addInteractive((InteractiveObject) object);
+        }
+    }
+
+    /**
+     * Returns the Room with the given id, creating it the first time it is asked
+     * for.
+     *
+     * @param room Id of a room.
+     * @return Returns the room.
+     */
+    public Room getRoom(int room) {
+        Room result = rooms[room];
+        if (result == null) {
+            result = new Room("room " + (room % width) + "," + (room / width), descriptions[descriptionIds[room]]);
+            result.setPlace(seed, Zobrist.ROOMS, room);
+            for (int direction = 0; direction < 4; direction++) {
+                int exit = 4 * room + direction;
+                if (exits[exit] != NO_ROOM) {
+                    Door door = lockableDoors.get(exit);
+                    result.setExit(DIRECTIONS[direction], door != null ? door : new CompactDoor(exit));
+                }
+            }
+            List<GameObject> contents = pendingContents.remove(room);
+            if (contents != null) {
+                for (GameObject object : contents) {
+                    addToRoom(result, object);
+                }
+            }
+            rooms[room] = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return Returns the amount of rooms that have been created.
+     */
+    public int getCreatedRoomCount() {
+        int count = 0;
+        for (Room room : rooms) {
+            if (room != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sets the objects that need to be in the party to win.
+     *
+     * @param requiredObjects The required objects.
+     */
+    public void setRequiredObjects(Collection<InteractiveObject> requiredObjects) {
+        this.requiredObjects = requiredObjects;
+    }
+
+    /**
+     * @return Returns the objects that need to be in the party to win.
+     */
+    public Collection<InteractiveObject> getRequiredObjects() {
+        return requiredObjects;
+    }
+
+    /**
+     * Creates a World backed by this store. Its list of rooms creates a room when
+     * it is read, and it looks up an object by its place without creating any
+     * other room than the one holding the object.
+     *
+     * @param entrance Id of the room the player starts in.
+     * @param exit     Id of the room the player needs to reach to win.
+     * @return Returns the world.
+     */
+    public World toWorld(int entrance, int exit) {
+        List<Room> roomList = new AbstractList<Room>() {
+            @Override
+            public Room get(int index) {
+                return getRoom(index);
+            }
+
+            @Override
+            public int size() {
+                return rooms.length;
+            }
+        };
+        return new World(roomList, getRoom(entrance), getRoom(exit), requiredObjects, this::getObject);
+    }
+
+    /**
+     * @return Returns the room, door, item or interactive object with the given
+     *         place.
+     */
+    private GameObject getObject(long place) {
+        long index = Zobrist.index(place);
+        int numbering = Zobrist.numbering(place);
+        if (numbering == Zobrist.ROOMS && index < rooms.length) {
+            return getRoom((int) index);
+        } else if (numbering == Zobrist.EXITS && index < exits.length && exits[(int) index] != NO_ROOM) {
+            return getRoom((int) index / 4).getExit(DIRECTIONS[(int) index % 4]);
+        } else if (objectRooms.containsKey(place)) {
+            Room room = getRoom(objectRooms.get(place));
+            for (GameObject object : room.getItems()) {
+                if (object.getPlace() == place) {
+                    return object;
+                }
+            }
+            for (GameObject object : room.getObjects()) {
+                if (object.getPlace() == place) {
+                    return object;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No object at place " + place);
+    }
+
+    private void checkNotCreated(int room) {
+        if (rooms[room] != null) {
+            throw new IllegalStateException("Room " + room + " has already been created");
+        }
+    }
+
+    /**
+     * A door that reads the room it leads to and whether it's locked when the
+     * game starts from the store.
+     */
+    private class CompactDoor extends Door {
+        private final int exit;
+        private final String closedDescription;
+        private final GameObject key;
+
+        private CompactDoor(int exit) {
+            this(exit, DOOR_NAME, DOOR_DESCRIPTION, null, null);
+        }
+
+        private CompactDoor(int exit, String name, String openDescription, String closedDescription,
+                GameObject key) {
+            super(name, openDescription);
+            this.exit = exit;
+            this.closedDescription = closedDescription;
+            this.key = key;
+            setPlace(seed, Zobrist.EXITS, exit);
+        }
+
+        @Override
+        public boolean isLocked() {
+            return locked.get(exit);
+        }
+
+        @Override
+        public String getKeyName() {
+            return key == null ? null : key.getName();
+        }
+
+        @Override
+        public boolean isKey(GameObject object) {
+            return key != null && key == object;
+        }
+
+        @Override
+        public Room getRoom() {
+            return CompactWorld.this.getRoom(exits[exit]);
+        }
+
+        @Override
+        public Room getDestination() {
+            return getRoom();
+        }
+
+        @Override
+        public String getDescription(boolean locked) {
+            return locked ? closedDescription : super.getDescription();
+        }
+
+        @Override
+        public String getDescription() {
+            return getDescription(isLocked());
+        }
+    }
+}
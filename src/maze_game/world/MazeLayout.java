@@ -0,0 +1,260 @@
+package maze_game.world;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import maze_game.directions.Direction;
+
+/**
+ * The layout of a rectangular grid maze, kept in primitive arrays so that
+ * mazes with millions of cells can be generated quickly and in little memory.
+ * Cells are numbered row by row, cell 0 is the north west corner. For every
+ * cell a bit mask records in which directions there is an opening, the bit of
+ * a direction is 1 shifted left by the ordinal of the Direction.
+ *
+ * A perfect maze is generated with Kruskal's algorithm on a union-find
+ * structure, so there's exactly one path between any two cells. Braiding then
+ * opens extra walls at dead ends, creating loops.
+ *
+ * After generation the layout holds a breadth first search tree rooted at
+ * cell 0: the parent of every cell and the cells in the order they were
+ * reached.
+ *
+ * @author Alexander Mertens
+ */
+public class MazeLayout {
+    private static final int NORTH = Direction.NORTH.ordinal();
+    private static final int WEST = Direction.WEST.ordinal();
+    private static final int EAST = Direction.EAST.ordinal();
+    private static final int SOUTH = Direction.SOUTH.ordinal();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int width;
+    private final int height;
+    // Bit mask of the openings of every cell.
+    private final byte[] openings;
+    // Parent of every cell in the search tree, -1 for the root.
+    private final int[] parent;
+    // All cells in the order the search reached them.
+    private final int[] order;
+
+    private MazeLayout(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int cells = width * height;
+        this.openings = new byte[cells];
+        this.parent = new int[cells];
+        this.order = new int[cells];
+    }
+
+    /**
+     * Generates a maze of the given size.
+     *
+     * @param width       Amount of cells from west to east.
+     * @param height      Amount of cells from north to south.
+     * @param braidFactor Chance between 0 and 1 that a dead end is opened up. 0
+     *                    gives a perfect maze.
+     * @param random      Source of all random choices.
+     * @return Returns the generated layout.
+     */
+    public static MazeLayout generate(int width, int height, double braidFactor, Random random) {
+        if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Unsupported maze size " + width + "x" + height);
+        }
+        MazeLayout layout = new MazeLayout(width, height);
+        layout.carvePerfectMaze(random);
+        if (braidFactor > 0) {
+            layout.braid(braidFactor, random);
+        }
+        layout.buildSearchTree();
+        return layout;
+    }
+
+    /**
+     * Kruskal's algorithm: visits all walls in random order and removes a wall if
+     * the cells on either side aren't connected yet.
+     */
+    private void carvePerfectMaze(Random random) {
+        int cells = width * height;
+        // A wall is encoded as 2 * cell for its east wall, 2 * cell + 1 for its
+        // south wall.
+        int[] walls = new int[2 * cells];
+        int wallCount = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (cell % width < width - 1) {
+                walls[wallCount++] = 2 * cell;
+            }
+            if (cell / width < height - 1) {
+                walls[wallCount++] = 2 * cell + 1;
+            }
+        }
+        for (int i = wallCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int wall = walls[i];
+            walls[i] = walls[j];
+            walls[j] = wall;
+        }
+
+        int[] sets = parent;
+        for (int cell = 0; cell < cells; cell++) {
+            sets[cell] = cell;
+        }
+        int joined = 0;
+        for (int i = 0; i < wallCount && joined < cells - 1; i++) {
+            int cell = walls[i] >> 1;
+            int direction = (walls[i] & 1) == 0 ? EAST : SOUTH;
+            int other = neighbour(cell, direction);
+            int root = find(sets, cell);
+            int otherRoot = find(sets, other);
+            if (root != otherRoot) {
+                sets[root] = otherRoot;
+                open(cell, direction);
+                joined++;
+            }
+        }
+    }
+
+    private static int find(int[] sets, int cell) {
+        while (sets[cell] != cell) {
+            sets[cell] = sets[sets[cell]];
+            cell = sets[cell];
+        }
+        return cell;
+    }
+
+    /**
+     * Opens a random wall of every dead end with the given chance.
+     */
+    private void braid(double braidFactor, Random random) {
+        int[] closed = new int[4];
+        for (int cell = 0; cell < openings.length; cell++) {
+            if (Integer.bitCount(openings[cell]) != 1 || random.nextDouble() >= braidFactor) {
+                continue;
+            }
+            int closedCount = 0;
+            for (int direction = 0; direction < 4; direction++) {
+                if (!isOpen(cell, direction) && neighbour(cell, direction) >= 0) {
+                    closed[closedCount++] = direction;
+                }
+            }
+            if (closedCount > 0) {
+                open(cell, closed[random.nextInt(closedCount)]);
+            }
+        }
+    }
+
+    /**
+     * Breadth first search from cell 0, filling parent and order.
+     */
+    private void buildSearchTree() {
+        Arrays.fill(parent, -2);
+        parent[0] = -1;
+        order[0] = 0;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int cell = order[head++];
+            for (int direction = 0; direction < 4; direction++) {
+                if (isOpen(cell, direction)) {
+                    int next = neighbour(cell, direction);
+                    if (parent[next] == -2) {
+                        parent[next] = cell;
+                        order[tail++] = next;
+                    }
+                }
+            }
+        }
+    }
+
+    private void open(int cell, int direction) {
+        int other = neighbour(cell, direction);
+        openings[cell] |= 1 << direction;
+        openings[other] |= 1 << DIRECTIONS[direction].reverse().ordinal();
+    }
+
+    /**
+     * @return Returns the amount of cells from west to east.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Returns the amount of cells from north to south.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Returns the amount of cells.
+     */
+    public int getCellCount() {
+        return openings.length;
+    }
+
+    /**
+     * @param cell      The cell to be checked.
+     * @param direction Ordinal of the direction.
+     * @return Returns true if the cell has an opening in the given direction.
+     */
+    public boolean isOpen(int cell, int direction) {
+        return (openings[cell] & (1 << direction)) != 0;
+    }
+
+    /**
+     * @param cell      The cell to start from.
+     * @param direction Ordinal of the direction.
+     * @return Returns the cell next to the given cell in the given direction, or
+     *         -1 if that is outside the maze.
+     */
+    public int neighbour(int cell, int direction) {
+        int x = cell % width;
+        int y = cell / width;
+        if (direction == NORTH) {
+            return y > 0 ? cell - width : -1;
+        } else if (direction == SOUTH) {
+            return y < height - 1 ? cell + width : -1;
+        } else if (direction == WEST) {
+            return x > 0 ? cell - 1 : -1;
+        } else if (direction == EAST) {
+            return x < width - 1 ? cell + 1 : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * @param cell The cell to be checked.
+     * @return Returns the parent of the cell in the search tree from cell 0, or -1
+     *         for cell 0.
+     */
+    public int getParent(int cell) {
+        return parent[cell];
+    }
+
+    /**
+     * @param index Position in the search order.
+     * @return Returns the cell the search reached at the given position.
+     */
+    public int getCellInOrder(int index) {
+        return order[index];
+    }
+
+    /**
+     * @param from A cell.
+     * @param to   A cell next to it.
+     * @return Returns the ordinal of the direction leading from one cell to the
+     *         other.
+     */
+    public int directionBetween(int from, int to) {
+        if (to == from - width) {
+            return NORTH;
+        } else if (to == from + width) {
+            return SOUTH;
+        } else if (to == from - 1) {
+            return WEST;
+        } else {
+            return EAST;
+        }
+    }
+}
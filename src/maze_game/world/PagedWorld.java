@@ -0,0 +1,638 @@
+package maze_game.world;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import maze_game.GameCreator;
+import maze_game.directions.Direction;
+import maze_game.events.RegionPageInEvent;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.GameObject;
+import maze_game.gameobjects.Item;
+import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.Character;
+import maze_game.gameobjects.interactive.InteractiveObject;
+import maze_game.gameobjects.interactive.LockMechanism;
+import maze_game.state.Zobrist;
+import maze_game.statistics.LatencyHistogram;
+import maze_game.statistics.LatencySnapshot;
+
+/**
+ * A grid maze read from a memory-mapped file written by a PagedWorldWriter.
+ * Rooms are identified by an int like in a CompactWorld, but nothing of a room
+ * is kept on the heap until it's asked for. The rooms are grouped into square
+ * regions, and the first time a room is asked for, all rooms of its region are
+ * read from the file and created at once. Playing a game asks for a room when
+ * the player goes through a door leading to it. The route map of a game also
+ * asks for the rooms behind the exits of every room the player enters, so near
+ * the edge of a region the next region is read as well.
+ *
+ * The most recently used regions stay in memory. Beyond that, a region is
+ * only dropped once no game holds on to any of its rooms or doors anymore, so
+ * a game never sees two different objects for the same room. A region that's
+ * used again after it has been dropped is read again. Keys and puzzles can be
+ * used by rooms of different regions, they are kept in memory the same way on
+ * their own. The characters the player needs to rescue are created when the
+ * file is opened. Every object gets the place and key of its place in the file
+ * (see Zobrist), so a room read again has the same key as before.
+ *
+ * The recently used regions are picked like a clock: every region is marked
+ * when one of its rooms is asked for, and a region that has to make room for
+ * another one is the next one without a mark, clearing the marks it passes on
+ * the way.
+ *
+ * The time it takes to read a region and how many regions are in memory can be
+ * asked for. A PagedWorld can be used by several threads at once. Asking for a
+ * room of a recently used region takes no lock, reading a region only locks
+ * that region, so threads reading different regions don't wait for each other.
+ *
+ * @author Alexander Mertens
+ */
+public class PagedWorld {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final GameCreator creator;
+    private final ByteBuffer file;
+    private final int width;
+    private final int height;
+    private final int regionSide;
+    private final int regionColumns;
+    private final int entrance;
+    private final int exit;
+    private final int strings;
+    private final int keyRecords;
+    private final int puzzleRecords;
+    private final int regionTable;
+    private final List<InteractiveObject> characters;
+    // Every region, key and puzzle that has been read and may still be used.
+    private final AtomicReferenceArray<WeakReference<Region>> regions;
+    private final WeakReference<Item>[] keys;
+    private final WeakReference<Puzzle>[] puzzles;
+    // Locked while a region is read, one lock per region.
+    private final Object[] regionLocks;
+    // The most recently used regions, a region leaves when the hand passes it
+    // without a mark.
+    private final Region[] resident;
+    private int hand;
+    private int residentCount;
+    private final LatencyHistogram pageInTimes;
+    private final AtomicLong pageIns;
+    private final AtomicLong reloads;
+    private long evictions;
+
+    /**
+     * Opens a world file.
+     *
+     * @param file            The file written by a PagedWorldWriter.
+     * @param creator         The creator used to create the puzzles, its seed is
+     *                        the seed of the keys of the objects.
+     * @param residentRegions The amount of recently used regions kept in memory
+     *                        even when no game uses them.
+     * @throws IOException If the file can't be read or isn't a world file.
+     */
+    @SuppressWarnings("unchecked")
+    public PagedWorld(Path file, GameCreator creator, int residentRegions) throws IOException {
+        if (residentRegions < 0) {
+            throw new IllegalArgumentException("Illegal amount of regions " + residentRegions);
+        }
+        this.creator = creator;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large");
+            }
+            // The mapping stays valid after the channel is closed.
+            this.file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (this.file.capacity() < PagedWorldWriter.HEADER_SIZE || this.file.getInt(0) != PagedWorldWriter.MAGIC) {
+            throw new IOException(file + " isn't a world file");
+        }
+        if (this.file.getInt(4) != PagedWorldWriter.VERSION) {
+            throw new IOException(file + " has unsupported version " + this.file.getInt(4));
+        }
+        this.width = this.file.getInt(8);
+        this.height = this.file.getInt(12);
+        this.regionSide = this.file.getInt(16);
+        this.entrance = this.file.getInt(20);
+        this.exit = this.file.getInt(24);
+        this.strings = this.file.getInt(28);
+        this.keyRecords = this.file.getInt(32);
+        int characterRecords = this.file.getInt(36);
+        this.puzzleRecords = this.file.getInt(40);
+        this.regionTable = this.file.getInt(44);
+        this.regionColumns = (width + regionSide - 1) / regionSide;
+        int regionCount = regionColumns * ((height + regionSide - 1) / regionSide);
+
+        List<InteractiveObject> characterList = new ArrayList<>();
+        for (int i = 0; i < this.file.getInt(characterRecords); i++) {
+            int record = characterRecords + 4 + 4 * PagedWorldWriter.CHARACTER_SIZE * i;
+            Character character = new Character(string(record), string(record + 4), string(record + 8),
+                    string(record + 12));
+            character.setPlace(creator.getSeed(), Zobrist.CHARACTERS, i);
+            characterList.add(character);
+        }
+        this.characters = Collections.unmodifiableList(characterList);
+        this.regions = new AtomicReferenceArray<>(regionCount);
+        this.keys = (WeakReference<Item>[]) new WeakReference<?>[this.file.getInt(keyRecords)];
+        this.puzzles = (WeakReference<Puzzle>[]) new WeakReference<?>[this.file.getInt(puzzleRecords)];
+        this.regionLocks = new Object[regionCount];
+        for (int i = 0; i < regionCount; i++) {
+            regionLocks[i] = new Object();
+        }
+        this.resident = new Region[residentRegions];
+        this.pageInTimes = new LatencyHistogram();
+        this.pageIns = new AtomicLong();
+        this.reloads = new AtomicLong();
+    }
+
+    /**
+     * @return Returns the width of the maze.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Returns the height of the maze.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Returns the amount of rooms.
+     */
+    public int getRoomCount() {
+        return width * height;
+    }
+
+    /**
+     * @return Returns the amount of regions the rooms are grouped in.
+     */
+    public int getRegionCount() {
+        return regions.length();
+    }
+
+    /**
+     * @return Returns the size of the mapped file in bytes.
+     */
+    public int getMappedBytes() {
+        return file.capacity();
+    }
+
+    /**
+     * Returns the Room with the given id, reading its region if it isn't in
+     * memory.
+     *
+     * @param room Id of a room.
+     * @return Returns the room.
+     */
+    public Room getRoom(int room) {
+        if (room < 0 || room >= width * height) {
+            throw new IndexOutOfBoundsException("No room " + room);
+        }
+        int x = room % width;
+        int y = room / width;
+        int index = y / regionSide * regionColumns + x / regionSide;
+        Region region = liveRegion(index);
+        if (region == null || !region.resident) {
+            region = pageIn(index);
+        }
+        if (!region.used) {
+            region.used = true;
+        }
+        return region.rooms[(y % regionSide) * region.width + x % regionSide];
+    }
+
+    /**
+     * @return Returns the region with the given index if it's in memory, else
+     *         null.
+     */
+    private Region liveRegion(int index) {
+        WeakReference<Region> reference = regions.get(index);
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Makes the region with the given index one of the recently used ones,
+     * reading it first if it isn't in memory anymore.
+     */
+    private Region pageIn(int index) {
+        synchronized (regionLocks[index]) {
+            Region region = liveRegion(index);
+            if (region == null) {
+                if (regions.get(index) != null) {
+                    reloads.incrementAndGet();
+                }
+                region = readRegion(index);
+                regions.set(index, new WeakReference<>(region));
+            }
+            if (!region.resident) {
+                makeResident(region);
+            }
+            return region;
+        }
+    }
+
+    private synchronized void makeResident(Region region) {
+        if (resident.length == 0) {
+            return;
+        }
+        while (resident[hand] != null && resident[hand].used) {
+            resident[hand].used = false;
+            hand = (hand + 1) % resident.length;
+        }
+        if (resident[hand] == null) {
+            residentCount++;
+        } else {
+            resident[hand].resident = false;
+            evictions++;
+        }
+        resident[hand] = region;
+        region.resident = true;
+        hand = (hand + 1) % resident.length;
+    }
+
+    /**
+     * Creates all rooms of a region from the file.
+     */
+    private Region readRegion(int index) {
+        RegionPageInEvent event = new RegionPageInEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int left = index % regionColumns * regionSide;
+        int top = index / regionColumns * regionSide;
+        int regionWidth = Math.min(regionSide, width - left);
+        int regionHeight = Math.min(regionSide, height - top);
+        Region region = new Region(regionWidth, regionHeight);
+        // The same strings are used by many rooms of a region.
+        Map<Integer, String> texts = new HashMap<>();
+        int position = file.getInt(regionTable + 4 * index);
+        for (int i = 0; i < region.rooms.length; i++) {
+            int id = (top + i / regionWidth) * width + left + i % regionWidth;
+            PagedRoom room = new PagedRoom(roomName(id), text(texts, file.getInt(position)), region);
+            room.setPlace(creator.getSeed(), Zobrist.ROOMS, id);
+            position += 4;
+            for (int direction = 0; direction < 4; direction++) {
+                byte kind = file.get(position++);
+                if (kind == PagedWorldWriter.PLAIN_EXIT) {
+                    PagedDoor door = new PagedDoor(file.getInt(position), text(texts, file.getInt(position + 4)),
+                            text(texts, file.getInt(position + 8)), null, null, region);
+                    door.setPlace(creator.getSeed(), Zobrist.EXITS, 4L * id + direction);
+                    room.setExit(DIRECTIONS[direction], door);
+                    position += 12;
+                } else if (kind == PagedWorldWriter.LOCKED_EXIT) {
+                    PagedDoor door = new PagedDoor(file.getInt(position), text(texts, file.getInt(position + 4)),
+                            text(texts, file.getInt(position + 8)), text(texts, file.getInt(position + 12)),
+                            getKey(file.getInt(position + 16)), region);
+                    door.setPlace(creator.getSeed(), Zobrist.EXITS, 4L * id + direction);
+                    room.setExit(DIRECTIONS[direction], door);
+                    position += 20;
+                } else if (kind == PagedWorldWriter.PUZZLE_EXIT) {
+                    Puzzle puzzle = getPuzzle(file.getInt(position));
+                    int side = file.get(position + 4);
+                    room.setExit(DIRECTIONS[direction], puzzle.doors[side]);
+                    if (side == 0) {
+                        for (InteractiveObject mechanism : puzzle.mechanisms) {
+                            room.addInteractive(mechanism);
+                        }
+                    }
+                    position += 5;
+                }
+            }
+            int keyCount = file.getShort(position);
+            for (int j = 0; j < keyCount; j++) {
+                room.addItem(getKey(file.getInt(position + 2 + 4 * j)));
+            }
+            position += 2 + 4 * keyCount;
+            int characterCount = file.getShort(position);
+            for (int j = 0; j < characterCount; j++) {
+                room.addInteractive(characters.get(file.getInt(position + 2 + 4 * j)));
+            }
+            position += 2 + 4 * characterCount;
+            region.rooms[i] = room;
+        }
+        long nanos = System.nanoTime() - start;
+        pageIns.incrementAndGet();
+        pageInTimes.record(nanos);
+        event.emit(index, region.rooms.length);
+        return region;
+    }
+
+    /**
+     * Returns the key with the given index, creating it if it isn't in memory.
+     * Keys and puzzles are shared by regions read at the same time, so they are
+     * created under the lock of the world.
+     */
+    private synchronized Item getKey(int index) {
+        Item key = keys[index] == null ? null : keys[index].get();
+        if (key == null) {
+            int record = keyRecords + 4 + 4 * PagedWorldWriter.KEY_SIZE * index;
+            key = new Item(string(record), string(record + 4));
+            key.setPlace(creator.getSeed(), Zobrist.KEYS, index);
+            keys[index] = new WeakReference<>(key);
+        }
+        return key;
+    }
+
+    private synchronized Puzzle getPuzzle(int index) {
+        Puzzle puzzle = puzzles[index] == null ? null : puzzles[index].get();
+        if (puzzle == null) {
+            puzzle = new Puzzle(puzzleRecords + 4 + 4 * PagedWorldWriter.PUZZLE_SIZE * index, index);
+            puzzles[index] = new WeakReference<>(puzzle);
+        }
+        return puzzle;
+    }
+
+    private String roomName(int room) {
+        return "room " + (room % width) + "," + (room / width);
+    }
+
+    /**
+     * Reads the string whose id is at the given position of the file.
+     */
+    private String string(int position) {
+        return decode(file.getInt(position));
+    }
+
+    /**
+     * Returns the string with the given id, reading it only if it isn't in texts
+     * yet.
+     */
+    private String text(Map<Integer, String> texts, int id) {
+        String text = texts.get(id);
+        if (text == null) {
+            text = decode(id);
+            texts.put(id, text);
+        }
+        return text;
+    }
+
+    private String decode(int id) {
+        int start = file.getInt(strings + 4 + 4 * id);
+        byte[] bytes = new byte[file.getInt(strings + 8 + 4 * id) - start];
+        file.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Returns the amount of times a region has been read from the file.
+     */
+    public long getPageInCount() {
+        return pageIns.get();
+    }
+
+    /**
+     * @return Returns the amount of times a region has been read again after it
+     *         had been dropped.
+     */
+    public long getReloadCount() {
+        return reloads.get();
+    }
+
+    /**
+     * @return Returns the amount of times a region stopped being one of the most
+     *         recently used ones.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * @return Returns the time it took to read the regions.
+     */
+    public LatencySnapshot getPageInTimes() {
+        return pageInTimes.snapshot();
+    }
+
+    /**
+     * @return Returns the amount of most recently used regions.
+     */
+    public synchronized int getResidentRegionCount() {
+        return residentCount;
+    }
+
+    /**
+     * @return Returns the amount of regions in memory, the most recently used
+     *         ones and those still used by a game.
+     */
+    public int getLiveRegionCount() {
+        int count = 0;
+        for (int i = 0; i < regions.length(); i++) {
+            if (liveRegion(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Returns the characters that need to be in the party to win.
+     */
+    public List<InteractiveObject> getRequiredObjects() {
+        return characters;
+    }
+
+    /**
+     * Creates a World backed by this file. Its list of rooms reads the region
+     * of a room when it is read, and it looks up an object by its place reading
+     * only the region or puzzle holding it. The world holds on to the entrance
+     * and the exit, so their regions stay in memory as long as the world is used.
+     *
+     * @return Returns the world.
+     */
+    public World toWorld() {
+        List<Room> roomList = new AbstractList<Room>() {
+            @Override
+            public Room get(int index) {
+                return getRoom(index);
+            }
+
+            @Override
+            public int size() {
+                return getRoomCount();
+            }
+        };
+        return new World(roomList, getRoom(entrance), getRoom(exit), characters, this::getObject);
+    }
+
+    /**
+     * @return Returns the room, door, key, character or puzzle object with the
+     *         given place.
+     */
+    private GameObject getObject(long place) {
+        long index = Zobrist.index(place);
+        switch (Zobrist.numbering(place)) {
+        case Zobrist.ROOMS:
+            if (index < getRoomCount()) {
+                return getRoom((int) index);
+            }
+            break;
+        case Zobrist.EXITS:
+            if (index < 4L * getRoomCount()) {
+                Door door = getRoom((int) (index / 4)).getExit(DIRECTIONS[(int) (index % 4)]);
+                // The door of a puzzle has the place of the puzzle.
+                if (door != null && door.getPlace() == place) {
+                    return door;
+                }
+            }
+            break;
+        case Zobrist.KEYS:
+            if (index < keys.length) {
+                return getKey((int) index);
+            }
+            break;
+        case Zobrist.CHARACTERS:
+            if (index < characters.size()) {
+                return characters.get((int) index);
+            }
+            break;
+        case Zobrist.PUZZLES:
+            if (index >>> 16 < puzzles.length) {
+                Puzzle puzzle = getPuzzle((int) (index >>> 16));
+                int part = (int) (index & 0xFFFF);
+                if (part < puzzle.mechanisms.size()) {
+                    return puzzle.mechanisms.get(part);
+                } else if (part < puzzle.mechanisms.size() + puzzle.doors.length) {
+                    return puzzle.doors[part - puzzle.mechanisms.size()];
+                }
+            }
+            break;
+        default:
+            break;
+        }
+        throw new IllegalArgumentException("No object at place " + place);
+    }
+
+    /**
+     * The rooms of a region. Every room and door of the region holds on to it,
+     * so it stays in memory as long as any of them is used.
+     */
+    private static class Region {
+        private final int width;
+        private final Room[] rooms;
+        // Whether the region is one of the recently used ones.
+        private volatile boolean resident;
+        // Whether a room of the region was asked for since the hand passed it.
+        private volatile boolean used;
+
+        private Region(int width, int height) {
+            this.width = width;
+            this.rooms = new Room[width * height];
+        }
+    }
+
+    /**
+     * A room of a region.
+     */
+    private static class PagedRoom extends Room {
+        @SuppressWarnings("unused")
+        private final Region region;
+
+        private PagedRoom(String name, String description, Region region) {
+            super(name, description);
+            this.region = region;
+        }
+    }
+
+    /**
+     * The mechanisms of a puzzle and the doors they open, the door of the room
+     * holding the puzzle first. The keys of the objects of a puzzle are numbered
+     * from the index of the puzzle times 2^16, in the order they are listed.
+     */
+    private class Puzzle {
+        private final List<InteractiveObject> mechanisms;
+        private final Door[] doors;
+
+        private Puzzle(int record, int index) {
+            mechanisms = creator.createSequencePuzzle(string(record), string(record + 4), string(record + 8),
+                    string(record + 12), string(record + 16));
+            long first = (long) index << 16;
+            for (int i = 0; i < mechanisms.size(); i++) {
+                mechanisms.get(i).setPlace(creator.getSeed(), Zobrist.PUZZLES, first + i);
+            }
+            LockMechanism key = (LockMechanism) mechanisms.get(mechanisms.size() - 1);
+            String name = string(record + 20);
+            String open = string(record + 24);
+            String closed = string(record + 28);
+            int room = file.getInt(record + 32);
+            int other = file.getInt(record + 40);
+            doors = new Door[] { new PagedDoor(other, name, open, closed, key, this),
+                    new PagedDoor(room, name, open, closed, key, this) };
+            doors[0].setPlace(creator.getSeed(), Zobrist.PUZZLES, first + mechanisms.size());
+            doors[1].setPlace(creator.getSeed(), Zobrist.PUZZLES, first + mechanisms.size() + 1);
+            key.setDoor(doors[0]);
+            key.setDoor(doors[1]);
+        }
+    }
+
+    /**
+     * A door that looks up the room it leads to when it's asked for. Without a
+     * closed description the door is plain.
+     */
+    private class PagedDoor extends Door {
+        private final int destination;
+        private final String closedDescription;
+        private final GameObject key;
+        // The region or puzzle the door belongs to, which has to stay in memory as
+        // long as the door is used.
+        @SuppressWarnings("unused")
+        private final Object owner;
+
+        private PagedDoor(int destination, String name, String openDescription, String closedDescription,
+                GameObject key, Object owner) {
+            super(name, openDescription);
+            this.destination = destination;
+            this.closedDescription = closedDescription;
+            this.key = key;
+            this.owner = owner;
+        }
+
+        @Override
+        public boolean isLocked() {
+            return closedDescription != null;
+        }
+
+        @Override
+        public String getKeyName() {
+            return key == null ? null : key.getName();
+        }
+
+        @Override
+        public boolean isKey(GameObject object) {
+            return key != null && key == object;
+        }
+
+        @Override
+        public Room getRoom() {
+            return PagedWorld.this.getRoom(destination);
+        }
+
+        @Override
+        public Room getDestination() {
+            return getRoom();
+        }
+
+        @Override
+        public String getDescription(boolean locked) {
+            return locked && closedDescription != null ? closedDescription : super.getDescription();
+        }
+
+        @Override
+        public String getDescription() {
+            return getDescription(isLocked());
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package maze_game.world;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import maze_game.directions.Direction;
+
+/**
+ * Writes a grid maze to a file that a PagedWorld can read. The maze is built
+ * much like a CompactWorld: every opening of the layout is a plain door, some
+ * of them are then locked or blocked by a puzzle, and keys and characters are
+ * placed in rooms. Nothing but ids and strings is kept until the file is
+ * written.
+ *
+ * The file starts with a header, followed by the regions, the strings, the
+ * shared objects and a table with the offset of every region. All numbers are
+ * big endian. A region holds the rooms of a square tile of the grid, row by
+ * row. Every room is written as the string id of its description, its four
+ * exits in Direction order and the keys and characters lying in it. An exit is
+ * a kind byte followed by:
+ * <ul>
+ * <li>NO_EXIT: nothing.</li>
+ * <li>PLAIN_EXIT: destination, name and description.</li>
+ * <li>LOCKED_EXIT: destination, name, open and closed description and key.</li>
+ * <li>PUZZLE_EXIT: puzzle and a byte that is 0 for the door of the room holding
+ * the puzzle and 1 for the door back.</li>
+ * </ul>
+ * Keys and puzzles can be used by rooms in different regions, so they are kept
+ * apart from the regions, as are the characters.
+ *
+ * @author Alexander Mertens
+ */
+public class PagedWorldWriter {
+    static final int MAGIC = 0x4d415a50;
+    static final int VERSION = 1;
+    // Magic, version, width, height, region side, entrance, exit and the offsets
+    // of the strings, the keys, the characters, the puzzles and the region table.
+    static final int HEADER_SIZE = 12 * 4;
+    static final byte NO_EXIT = 0;
+    static final byte PLAIN_EXIT = 1;
+    static final byte LOCKED_EXIT = 2;
+    static final byte PUZZLE_EXIT = 3;
+    // Ints of a key, a character and a puzzle record.
+    static final int KEY_SIZE = 2;
+    static final int CHARACTER_SIZE = 4;
+    static final int PUZZLE_SIZE = 11;
+    private static final String DOOR_NAME = "door";
+    private static final String DOOR_DESCRIPTION = "A simple wooden door.";
+
+    private final MazeLayout layout;
+    private final int regionSide;
+    // String id of the description of every room.
+    private final int[] descriptionIds;
+    private final int[] roomDescriptions;
+    private final List<String> strings;
+    private final Map<String, Integer> stringIds;
+    // Name, open and closed description and key of locked exits, by exit index.
+    private final Map<Integer, int[]> lockedExits;
+    // Puzzle and side of exits blocked by a puzzle, by exit index.
+    private final Map<Integer, int[]> puzzleExits;
+    // Name and description of every key.
+    private final List<int[]> keys;
+    // Name, description and dialogues of every character.
+    private final List<int[]> characters;
+    // The strings of every puzzle, followed by its room, direction and the room
+    // behind its door.
+    private final List<int[]> puzzles;
+    // Keys and characters lying in every room, by room.
+    private final Map<Integer, List<Integer>> roomKeys;
+    private final Map<Integer, List<Integer>> roomCharacters;
+
+    /**
+     * Starts a maze for the given layout, every opening in the layout becomes a
+     * plain door. All rooms get the first description until told otherwise.
+     *
+     * @param layout       The layout of the maze.
+     * @param descriptions The descriptions rooms can have.
+     * @param regionSide   Width and height of a region in rooms.
+     */
+    public PagedWorldWriter(MazeLayout layout, String[] descriptions, int regionSide) {
+        if (descriptions.length == 0) {
+            throw new IllegalArgumentException("No room descriptions");
+        }
+        if (regionSide < 1) {
+            throw new IllegalArgumentException("Illegal region side " + regionSide);
+        }
+        this.layout = layout;
+        this.regionSide = regionSide;
+        this.strings = new ArrayList<>();
+        this.stringIds = new HashMap<>();
+        this.roomDescriptions = new int[descriptions.length];
+        for (int i = 0; i < descriptions.length; i++) {
+            roomDescriptions[i] = string(descriptions[i]);
+        }
+        this.descriptionIds = new int[layout.getCellCount()];
+        this.lockedExits = new HashMap<>();
+        this.puzzleExits = new HashMap<>();
+        this.keys = new ArrayList<>();
+        this.characters = new ArrayList<>();
+        this.puzzles = new ArrayList<>();
+        this.roomKeys = new HashMap<>();
+        this.roomCharacters = new HashMap<>();
+    }
+
+    /**
+     * Sets the description of a room.
+     *
+     * @param room          Id of a room.
+     * @param descriptionId Index of the description given to the constructor.
+     */
+    public void setDescription(int room, int descriptionId) {
+        if (descriptionId < 0 || descriptionId >= roomDescriptions.length) {
+            throw new IllegalArgumentException("Unknown description " + descriptionId);
+        }
+        descriptionIds[room] = roomDescriptions[descriptionId];
+    }
+
+    /**
+     * Places a key in a room.
+     *
+     * @param room        Id of a room.
+     * @param name        Name of the key.
+     * @param description Description of the key.
+     * @return Returns the index of the key, used to lock exits with it.
+     */
+    public int addKey(int room, String name, String description) {
+        keys.add(new int[] { string(name), string(description) });
+        roomKeys.computeIfAbsent(room, r -> new ArrayList<>(1)).add(keys.size() - 1);
+        return keys.size() - 1;
+    }
+
+    /**
+     * Locks an existing exit of a room, it can only be unlocked with the given
+     * key.
+     *
+     * @param room              Id of a room.
+     * @param direction         Direction of the exit.
+     * @param name              Name of the door.
+     * @param openDescription   Description of the door when it is unlocked.
+     * @param closedDescription Description of the door when it is locked.
+     * @param key               Index of the key returned by addKey.
+     */
+    public void lockExit(int room, Direction direction, String name, String openDescription,
+            String closedDescription, int key) {
+        int exit = checkPlainExit(room, direction);
+        if (key < 0 || key >= keys.size()) {
+            throw new IllegalArgumentException("Unknown key " + key);
+        }
+        lockedExits.put(exit, new int[] { string(name), string(openDescription), string(closedDescription), key });
+    }
+
+    /**
+     * Blocks the exit of a room in the given direction and the exit back by a
+     * sequence puzzle that is placed in the room.
+     *
+     * @param room              Id of the room holding the puzzle.
+     * @param direction         Direction of the exit.
+     * @param word              The word spelled by the puzzle.
+     * @param failureMessage    Message of a mechanism used in the wrong order.
+     * @param successMessage    Message of a mechanism used in the right order.
+     * @param finalMessage      Message of the last mechanism.
+     * @param mechanismName     Description of every mechanism.
+     * @param doorName          Name of both doors.
+     * @param openDescription   Description of the doors once they are open.
+     * @param closedDescription Description of the doors while they are closed.
+     */
+    public void addPuzzle(int room, Direction direction, String word, String failureMessage, String successMessage,
+            String finalMessage, String mechanismName, String doorName, String openDescription,
+            String closedDescription) {
+        if (word.isEmpty()) {
+            throw new IllegalArgumentException("Empty puzzle word");
+        }
+        int exit = checkPlainExit(room, direction);
+        int other = layout.neighbour(room, direction.ordinal());
+        int back = checkPlainExit(other, direction.reverse());
+        int puzzle = puzzles.size();
+        puzzles.add(new int[] { string(word), string(failureMessage), string(successMessage), string(finalMessage),
+                string(mechanismName), string(doorName), string(openDescription), string(closedDescription), room,
+                direction.ordinal(), other });
+        puzzleExits.put(exit, new int[] { puzzle, 0 });
+        puzzleExits.put(back, new int[] { puzzle, 1 });
+    }
+
+    /**
+     * Places a character in a room.
+     *
+     * @param room            Id of a room.
+     * @param name            Name of the character.
+     * @param description     Description of the character.
+     * @param initialDialogue What the character says when first talked to.
+     * @param defaultDialogue What the character says afterwards.
+     */
+    public void addCharacter(int room, String name, String description, String initialDialogue,
+            String defaultDialogue) {
+        characters.add(new int[] { string(name), string(description), string(initialDialogue),
+                string(defaultDialogue) });
+        roomCharacters.computeIfAbsent(room, r -> new ArrayList<>(1)).add(characters.size() - 1);
+    }
+
+    private int checkPlainExit(int room, Direction direction) {
+        int exit = 4 * room + direction.ordinal();
+        if (!layout.isOpen(room, direction.ordinal())) {
+            throw new IllegalArgumentException("No exit " + direction + " of room " + room);
+        }
+        if (lockedExits.containsKey(exit) || puzzleExits.containsKey(exit)) {
+            throw new IllegalArgumentException("Exit " + direction + " of room " + room + " is already blocked");
+        }
+        return exit;
+    }
+
+    private int string(String text) {
+        Integer id = stringIds.get(text);
+        if (id == null) {
+            id = strings.size();
+            strings.add(text);
+            stringIds.put(text, id);
+        }
+        return id;
+    }
+
+    /**
+     * Writes the maze to a file.
+     *
+     * @param file     The file to write, it's replaced if it exists.
+     * @param entrance Id of the room the player starts in.
+     * @param exit     Id of the room the player needs to reach to win.
+     * @throws IOException If the file can't be written or would be larger than a
+     *                     PagedWorld can map.
+     */
+    public void write(Path file, int entrance, int exit) throws IOException {
+        int width = layout.getWidth();
+        int height = layout.getHeight();
+        int regionColumns = (width + regionSide - 1) / regionSide;
+        int regionRows = (height + regionSide - 1) / regionSide;
+        int[] header = new int[HEADER_SIZE / 4];
+        int[] regionOffsets = new int[regionColumns * regionRows + 1];
+        int plainName = string(DOOR_NAME);
+        int plainDescription = string(DOOR_DESCRIPTION);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.write(new byte[HEADER_SIZE]);
+            for (int row = 0; row < regionRows; row++) {
+                for (int column = 0; column < regionColumns; column++) {
+                    regionOffsets[row * regionColumns + column] = out.size();
+                    int maxY = Math.min(height, (row + 1) * regionSide);
+                    int maxX = Math.min(width, (column + 1) * regionSide);
+                    for (int y = row * regionSide; y < maxY; y++) {
+                        for (int x = column * regionSide; x < maxX; x++) {
+                            writeRoom(out, y * width + x, plainName, plainDescription);
+                        }
+                    }
+                }
+            }
+            regionOffsets[regionOffsets.length - 1] = out.size();
+
+            // Strings, as a table of their offsets followed by their UTF-8 bytes.
+            header[7] = out.size();
+            byte[][] encoded = new byte[strings.size()][];
+            out.writeInt(strings.size());
+            long stringOffset = out.size() + 4L * (strings.size() + 1);
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                out.writeInt((int) stringOffset);
+                stringOffset += encoded[i].length;
+            }
+            out.writeInt((int) stringOffset);
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+
+            header[8] = out.size();
+            writeRecords(out, keys);
+            header[9] = out.size();
+            writeRecords(out, characters);
+            header[10] = out.size();
+            writeRecords(out, puzzles);
+            header[11] = out.size();
+            for (int regionOffset : regionOffsets) {
+                out.writeInt(regionOffset);
+            }
+            // The count of a DataOutputStream stops at Integer.MAX_VALUE.
+            if (out.size() == Integer.MAX_VALUE || stringOffset > Integer.MAX_VALUE) {
+                throw new IOException("World file larger than " + Integer.MAX_VALUE + " bytes");
+            }
+            out.flush();
+
+            header[0] = MAGIC;
+            header[1] = VERSION;
+            header[2] = width;
+            header[3] = height;
+            header[4] = regionSide;
+            header[5] = entrance;
+            header[6] = exit;
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            buffer.asIntBuffer().put(header);
+            channel.write(buffer, 0);
+        }
+    }
+
+    private void writeRoom(DataOutputStream out, int room, int plainName, int plainDescription) throws IOException {
+        out.writeInt(descriptionIds[room]);
+        for (int direction = 0; direction < 4; direction++) {
+            int exit = 4 * room + direction;
+            int[] locked = lockedExits.get(exit);
+            int[] puzzle = puzzleExits.get(exit);
+            if (!layout.isOpen(room, direction)) {
+                out.writeByte(NO_EXIT);
+            } else if (puzzle != null) {
+                out.writeByte(PUZZLE_EXIT);
+                out.writeInt(puzzle[0]);
+                out.writeByte(puzzle[1]);
+            } else if (locked != null) {
+                out.writeByte(LOCKED_EXIT);
+                out.writeInt(layout.neighbour(room, direction));
+                for (int field : locked) {
+                    out.writeInt(field);
+                }
+            } else {
+                out.writeByte(PLAIN_EXIT);
+                out.writeInt(layout.neighbour(room, direction));
+                out.writeInt(plainName);
+                out.writeInt(plainDescription);
+            }
+        }
+        writeIndices(out, roomKeys.get(room));
+        writeIndices(out, roomCharacters.get(room));
+    }
+
+    private static void writeIndices(DataOutputStream out, List<Integer> indices) throws IOException {
+        if (indices == null) {
+            out.writeShort(0);
+            return;
+        }
+        if (indices.size() > Short.MAX_VALUE) {
+            throw new IOException("Too many objects in one room");
+        }
+        out.writeShort(indices.size());
+        for (int index : indices) {
+            out.writeInt(index);
+        }
+    }
+
+    private static void writeRecords(DataOutputStream out, List<int[]> records) throws IOException {
+        out.writeInt(records.size());
+        for (int[] record : records) {
+            for (int field : record) {
+                out.writeInt(field);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package maze_game.world;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Door;
+import maze_game.gameobjects.GameObject;
+import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.InteractiveObject;
+
+/**
+ * A complete maze: all of its rooms, the room the player starts in, the room
+ * the player needs to return to and the objects the player needs to bring
+ * along in order to win.
+ * 
+ * The objects of a world can be looked up by their place (see
+ * GameObject.getPlace). A world that creates its rooms when they are asked for
+ * looks them up itself, any other world goes through all of its rooms once to
+ * find them.
+ * 
+ * @author Alexander Mertens
+ */
+public class World {
+    private final List<Room> rooms;
+    private final Room entrance;
+    private final Room exit;
+    private final Collection<InteractiveObject> requiredObjects;
+    // The required objects for quick lookups, shared by every game of the world.
+    private final Set<InteractiveObject> requiredObjectSet;
+    // Finds an object by its place, null to look it up in objectsByPlace.
+    private final LongFunction<GameObject> places;
+    // Every object of the rooms by its place, made the first time it's needed.
+    private volatile Map<Long, GameObject> objectsByPlace;
+
+    /**
+     * Creates a world.
+     * 
+     * @param rooms           All the rooms of the maze.
+     * @param entrance        The room the player starts in.
+     * @param exit            The room the player needs to reach to win.
+     * @param requiredObjects The objects that need to be in the party to win.
+     */
+    public World(List<Room> rooms, Room entrance, Room exit, Collection<InteractiveObject> requiredObjects) {
+        this(rooms, entrance, exit, requiredObjects, null);
+    }
+
+    /**
+     * Creates a world that looks up its objects by their place with the given
+     * function, for worlds that create their rooms when they are asked for.
+     * 
+     * @param rooms           All the rooms of the maze.
+     * @param entrance        The room the player starts in.
+     * @param exit            The room the player needs to reach to win.
+     * @param requiredObjects The objects that need to be in the party to win.
+     * @param places          Returns the object with the given place, or throws
+     *                        an IllegalArgumentException if there is none.
+     */
+    public World(List<Room> rooms, Room entrance, Room exit, Collection<InteractiveObject> requiredObjects,
+            LongFunction<GameObject> places) {
+        this.rooms = rooms;
+        this.places = places;
+        this.entrance = entrance;
+        this.exit = exit;
+        this.requiredObjects = requiredObjects;
+        Set<InteractiveObject> objectSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        objectSet.addAll(requiredObjects);
+        this.requiredObjectSet = Collections.unmodifiableSet(objectSet);
+    }
+
+    /**
+     * @return Returns all the rooms of the maze.
+     */
+    public List<Room> getRooms() {
+        return rooms;
+    }
+
+    /**
+     * @return Returns the room the player starts in.
+     */
+    public Room getEntrance() {
+        return entrance;
+    }
+
+    /**
+     * @return Returns the room the player needs to reach to win.
+     */
+    public Room getExit() {
+        return exit;
+    }
+
+    /**
+     * @return Returns the objects that need to be in the party to win.
+     */
+    public Collection<InteractiveObject> getRequiredObjects() {
+        return requiredObjects;
+    }
+
+    /**
+     * @return Returns the objects that need to be in the party to win as a set
+     *         that tells them apart by identity. The set is made once for the
+     *         world, every game of it uses the same set.
+     */
+    public Set<InteractiveObject> getRequiredObjectSet() {
+        return requiredObjectSet;
+    }
+
+    /**
+     * @param place The place of an object of this world.
+     * @return Returns the object with the given place.
+     * @throws IllegalArgumentException If no object of this world has the place.
+     */
+    public GameObject getObject(long place) {
+        if (places != null) {
+            return places.apply(place);
+        }
+        GameObject object = objectsByPlace().get(place);
+        if (object == null) {
+            throw new IllegalArgumentException("No object at place " + place);
+        }
+        return object;
+    }
+
+    private Map<Long, GameObject> objectsByPlace() {
+        Map<Long, GameObject> objects = objectsByPlace;
+        if (objects == null) {
+            objects = new HashMap<>();
+            for (Room room : rooms) {
+                objects.put(room.getPlace(), room);
+                for (Direction direction : Direction.values()) {
+                    Door door = room.getExit(direction);
+                    if (door != null) {
+                        objects.put(door.getPlace(), door);
+                    }
+                }
+                for (GameObject object : room.getItems()) {
+                    objects.put(object.getPlace(), object);
+                }
+                for (GameObject object : room.getObjects()) {
+                    objects.put(object.getPlace(), object);
+                }
+            }
+            objectsByPlace = objects;
+        }
+        return objects;
+    }
+}
@@ -0,0 +1,473 @@
+package maze_game.world;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import maze_game.GameCreator;
+import maze_game.directions.Direction;
+import maze_game.gameobjects.Item;
+import maze_game.gameobjects.LockedDoor;
+import maze_game.gameobjects.Room;
+import maze_game.gameobjects.interactive.Character;
+import maze_game.gameobjects.interactive.InteractiveObject;
+
+/**
+ * Builds a World from a world file while reading it, one line at a time. The
+ * file is never held in memory as a whole: every record creates its objects as
+ * soon as it has been read.
+ *
+ * A world file holds one record per line, its fields separated by '|'. Fields
+ * are trimmed, so they can't hold a '|' or start or end with spaces. A line
+ * starting with a space or tab continues the record of the line above, so long
+ * records can be spread over several lines. A line starting with '+' continues
+ * it on a new line of text, the '+' and a space after it are left out. Empty
+ * lines and lines starting with '#' are skipped. The records are:
+ *
+ * <pre>
+ * room      | name | description
+ * item      | room | name | description
+ * character | room | name | description | first dialogue | dialogue
+ * link      | room | direction | other room | door name | door description
+ * door      | room | direction | other room | door name | door description
+ * locked    | room | direction | other room | door name | open description | closed description | key
+ * puzzle    | room | direction | other room | door name | open description | closed description
+ *           | failure message | success message | final message | mechanism description [| word]
+ * entrance  | room
+ * exit      | room
+ * </pre>
+ *
+ * A link adds doors both ways, a door and a locked door only lead from the room
+ * to the other room. The key of a locked door is the first item in the file
+ * with the given name. A puzzle blocks the doorway both ways and its
+ * mechanisms are placed in the first room. Without a word the puzzle gets a
+ * random one from the GameCreator, drawn in the order the puzzles appear in
+ * the file. Every character needs to be rescued to win. The entrance is the
+ * first room unless given, the exit is the entrance unless given.
+ *
+ * Every object gets its key from the GameCreator in the order it is created,
+ * so loading the same file with the same seed gives the same keys.
+ *
+ * Rooms and keys can be used before they are declared. What needs them waits
+ * until they are read, and names that are still missing at the end of the file
+ * are reported with the line that first used them.
+ *
+ * @author Alexander Mertens
+ */
+public class WorldLoader {
+    private static final char SEPARATOR = '|';
+
+    // Name of the file, for error messages.
+    private final String source;
+    private final GameCreator creator;
+    private final List<Room> roomList = new ArrayList<>();
+    private final Map<String, Room> rooms = new HashMap<>();
+    // The first item with every name, keys are looked up here.
+    private final Map<String, Item> items = new HashMap<>();
+    private final Map<String, Waiting<Room>> waitingForRoom = new HashMap<>();
+    private final Map<String, Waiting<Item>> waitingForItem = new HashMap<>();
+    private final List<InteractiveObject> characters = new ArrayList<>();
+    private final List<String> fields = new ArrayList<>();
+    // Every text but the names read so far.
+    private final Map<String, String> texts = new HashMap<>();
+    private Room entrance;
+    private Room exit;
+    // Line the record being read starts on.
+    private int line;
+
+    private WorldLoader(String source, GameCreator creator) {
+        this.source = source;
+        this.creator = creator;
+    }
+
+    /**
+     * Loads the world in the given file.
+     *
+     * @param file    The world file, in UTF-8.
+     * @param creator GameCreator that picks the words of puzzles without one.
+     * @return Returns the world.
+     * @throws IOException If the file can't be read or isn't a valid world.
+     */
+    public static World load(Path file, GameCreator creator) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in, file.toString(), creator);
+        }
+    }
+
+    /**
+     * Loads the world read from the given stream, which isn't closed.
+     *
+     * @param in      Stream the world file is read from, in UTF-8.
+     * @param source  Name of the world file used in error messages.
+     * @param creator GameCreator that picks the words of puzzles without one.
+     * @return Returns the world.
+     * @throws IOException If the stream fails or the file isn't a valid world.
+     */
+    public static World load(InputStream in, String source, GameCreator creator) throws IOException {
+        return new WorldLoader(source, creator).read(new LineReader(in));
+    }
+
+    private World read(LineReader reader) throws IOException {
+        // The record read so far, it's only added once the next one starts.
+        String record = null;
+        int lineNumber = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            lineNumber++;
+            char first = text.isEmpty() ? '\n' : text.charAt(0);
+            if (first == '+' || (first == ' ' || first == '\t') && !text.isBlank()) {
+                if (record == null) {
+                    line = lineNumber;
+                    throw error("Continued line without a record");
+                }
+                record = first == '+' ? record + '\n' + text.substring(text.startsWith("+ ") ? 2 : 1) : record + text;
+                continue;
+            }
+            if (record != null) {
+                addRecord(record);
+                record = null;
+            }
+            if (first != '#' && !text.isBlank()) {
+                line = lineNumber;
+                record = text;
+            }
+        }
+        if (record != null) {
+            addRecord(record);
+        }
+        return finish();
+    }
+
+    private void addRecord(String record) throws IOException {
+        split(record);
+        String type = fields.get(0);
+        switch (type) {
+        case "room":
+            expect(3);
+            addRoom(creator.number(new Room(fields.get(1), text(2))));
+            break;
+        case "item":
+            expect(4);
+            Item item = creator.number(new Item(text(2), text(3)));
+            addItem(item);
+            whenRoom(fields.get(1), room -> room.addItem(item));
+            break;
+        case "character":
+            expect(6);
+            Character character = creator
+                    .number(new Character(fields.get(2), text(3), text(4), text(5)));
+            characters.add(character);
+            whenRoom(fields.get(1), room -> room.addInteractive(character));
+            break;
+        case "link":
+        case "door":
+            expect(6);
+            boolean bothWays = type.equals("link");
+            Direction direction = direction(fields.get(2));
+            String doorName = text(4);
+            String description = text(5);
+            whenRooms(fields.get(1), fields.get(3), (room, other) -> {
+                if (bothWays) {
+                    creator.linkRoom(room, other, direction, doorName, description);
+                } else {
+                    creator.linkRoomsOneWay(room, other, direction, doorName, description);
+                }
+            });
+            break;
+        case "locked":
+            expect(8);
+            addLockedDoor(fields.get(1), direction(fields.get(2)), fields.get(3), text(4), text(5), text(6),
+                    fields.get(7));
+            break;
+        case "puzzle":
+            if (fields.size() != 11 && fields.size() != 12) {
+                throw error("A puzzle needs 11 or 12 fields, not " + fields.size());
+            }
+            addPuzzle(direction(fields.get(2)));
+            break;
+        case "entrance":
+            expect(2);
+            whenRoom(fields.get(1), room -> entrance = room);
+            break;
+        case "exit":
+            expect(2);
+            whenRoom(fields.get(1), room -> exit = room);
+            break;
+        default:
+            throw error("Unknown record " + type);
+        }
+    }
+
+    private void addRoom(Room room) throws IOException {
+        String name = room.getName();
+        if (rooms.putIfAbsent(name, room) != null) {
+            throw error("Room " + name + " has already been declared");
+        }
+        roomList.add(room);
+        Waiting<Room> waiting = waitingForRoom.remove(name);
+        if (waiting != null) {
+            waiting.resolve(room);
+        }
+    }
+
+    private void addItem(Item item) {
+        String name = item.getName();
+        if (items.putIfAbsent(name, item) == null) {
+            Waiting<Item> waiting = waitingForItem.remove(name);
+            if (waiting != null) {
+                waiting.resolve(item);
+            }
+        }
+    }
+
+    private void addLockedDoor(String roomName, Direction direction, String otherName, String doorName,
+            String openDescription, String closedDescription, String keyName) {
+        int usedOn = line;
+        whenRooms(roomName, otherName, (room, other) -> whenItem(keyName, usedOn, key -> room.setExit(direction,
+                creator.number(new LockedDoor(doorName, openDescription, closedDescription, other, key)))));
+    }
+
+    private void addPuzzle(Direction direction) {
+        String failure = text(7);
+        String success = text(8);
+        String finalMessage = text(9);
+        String mechanism = text(10);
+        // The word is picked right away, so the random words don't depend on
+        // the order the rooms are declared in.
+        List<InteractiveObject> puzzle = fields.size() == 12
+                ? creator.createSequencePuzzle(fields.get(11), failure, success, finalMessage, mechanism)
+                : creator.createRandomSequencePuzzle(failure, success, finalMessage, mechanism);
+        String doorName = text(4);
+        String openDescription = text(5);
+        String closedDescription = text(6);
+        whenRooms(fields.get(1), fields.get(3), (room, other) -> creator.addPuzzle(room, other, direction, doorName,
+                openDescription, closedDescription, puzzle));
+    }
+
+    private World finish() throws IOException {
+        if (!waitingForRoom.isEmpty()) {
+            throw missing("room", waitingForRoom);
+        }
+        if (!waitingForItem.isEmpty()) {
+            throw missing("key", waitingForItem);
+        }
+        if (roomList.isEmpty()) {
+            throw new IOException(source + ": The world has no rooms");
+        }
+        Room start = entrance != null ? entrance : roomList.get(0);
+        return new World(roomList, start, exit != null ? exit : start, characters);
+    }
+
+    private <T> IOException missing(String what, Map<String, Waiting<T>> waiting) {
+        Map.Entry<String, Waiting<T>> first = null;
+        for (Map.Entry<String, Waiting<T>> entry : waiting.entrySet()) {
+            if (first == null || entry.getValue().line < first.getValue().line) {
+                first = entry;
+            }
+        }
+        line = first.getValue().line;
+        return error("No " + what + " " + first.getKey()
+                + (waiting.size() > 1 ? " (" + (waiting.size() - 1) + " more missing)" : ""));
+    }
+
+    private void whenRoom(String name, Consumer<Room> action) {
+        whenRoom(name, line, action);
+    }
+
+    /**
+     * Performs the action with the room once it's declared, the line is the one
+     * reported if it never is.
+     */
+    private void whenRoom(String name, int usedOn, Consumer<Room> action) {
+        Room room = rooms.get(name);
+        if (room != null) {
+            action.accept(room);
+        } else {
+            waitingForRoom.computeIfAbsent(name, key -> new Waiting<>(usedOn)).actions.add(action);
+        }
+    }
+
+    private void whenRooms(String name, String otherName, RoomsAction action) {
+        int usedOn = line;
+        whenRoom(name, usedOn, room -> whenRoom(otherName, usedOn, other -> action.accept(room, other)));
+    }
+
+    private void whenItem(String name, int usedOn, Consumer<Item> action) {
+        Item item = items.get(name);
+        if (item != null) {
+            action.accept(item);
+        } else {
+            waitingForItem.computeIfAbsent(name, key -> new Waiting<>(usedOn)).actions.add(action);
+        }
+    }
+
+    private Direction direction(String name) throws IOException {
+        Direction direction = Direction.convertString(name);
+        if (direction == Direction.UNKNOWN) {
+            throw error("Unknown direction " + name);
+        }
+        return direction;
+    }
+
+    /**
+     * Splits the record into trimmed fields.
+     */
+    private void split(String record) {
+        fields.clear();
+        int start = 0;
+        int end;
+        while ((end = record.indexOf(SEPARATOR, start)) >= 0) {
+            fields.add(trimmed(record, start, end));
+            start = end + 1;
+        }
+        fields.add(trimmed(record, start, record.length()));
+    }
+
+    private static String trimmed(String record, int start, int end) {
+        while (start < end && record.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && record.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return record.substring(start, end);
+    }
+
+    /**
+     * Returns the field with the given index, shared with every equal text read
+     * before. Descriptions and messages tend to repeat, a world keeps one copy of
+     * each.
+     */
+    private String text(int index) {
+        String field = fields.get(index);
+        String shared = texts.putIfAbsent(field, field);
+        return shared != null ? shared : field;
+    }
+
+    private void expect(int count) throws IOException {
+        if (fields.size() != count) {
+            throw error("A " + fields.get(0) + " needs " + count + " fields, not " + fields.size());
+        }
+    }
+
+    private IOException error(String message) {
+        return new IOException(source + ":" + line + ": " + message);
+    }
+
+    /**
+     * Reads lines of UTF-8 text from a stream. The bytes read are decoded up to
+     * the last line break among them in one go, and the lines are cut out of the
+     * decoded text. A line break byte is never part of a longer character in
+     * UTF-8, so a character is never split.
+     */
+    private static final class LineReader {
+        private final InputStream in;
+        // Bytes read after the last line break decoded, from 0 to limit.
+        private byte[] buffer = new byte[8192];
+        private int limit;
+        private boolean ended;
+        // Decoded lines, and where the next one starts.
+        private String text = "";
+        private int position;
+
+        private LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return Returns the next line without its line break, or null at the end
+         *         of the stream.
+         */
+        private String readLine() throws IOException {
+            while (true) {
+                int end = text.indexOf('\n', position);
+                if (end < 0 && position < text.length()) {
+                    // The last line of a stream without a line break at the end.
+                    end = text.length();
+                }
+                if (end >= 0) {
+                    String line = text.substring(position, end > position && text.charAt(end - 1) == '\r'
+                            ? end - 1 : end);
+                    position = end + 1;
+                    return line;
+                }
+                if (!decode()) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Reads until the buffer holds a line break or the stream ends, and decodes
+         * the buffer up to its last line break.
+         *
+         * @return Returns false if there's nothing left to decode.
+         */
+        private boolean decode() throws IOException {
+            int scanned = 0;
+            int end = -1;
+            while (end < 0 && !ended) {
+                for (int i = limit - 1; i >= scanned; i--) {
+                    if (buffer[i] == '\n') {
+                        end = i + 1;
+                        break;
+                    }
+                }
+                if (end < 0) {
+                    scanned = limit;
+                    if (limit == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                    }
+                    int read = in.read(buffer, limit, buffer.length - limit);
+                    if (read < 0) {
+                        ended = true;
+                    } else {
+                        limit += read;
+                    }
+                }
+            }
+            if (end < 0) {
+                end = limit;
+            }
+            if (end == 0) {
+                return false;
+            }
+            text = new String(buffer, 0, end, StandardCharsets.UTF_8);
+            position = 0;
+            System.arraycopy(buffer, end, buffer, 0, limit - end);
+            limit -= end;
+            return true;
+        }
+    }
+
+    private interface RoomsAction {
+        void accept(Room room, Room other);
+    }
+
+    /**
+     * What needs an object that hasn't been declared yet, and the line that first
+     * needed it.
+     */
+    private static final class Waiting<T> {
+        private final int line;
+        private final List<Consumer<T>> actions = new ArrayList<>();
+
+        private Waiting(int line) {
+            this.line = line;
+        }
+
+        private void resolve(T object) {
+            for (Consumer<T> action : actions) {
+                action.accept(object);
+            }
+        }
+    }
+}